@@ -4,6 +4,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     `jvm-test-suite`
     jacoco
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.code"
@@ -54,6 +55,13 @@ testing {
     }
 }
 
+// Microbenchmarks live in src/jmh and run on demand: ./gradlew :context-service:jmh
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
 tasks.test {
     useJUnitPlatform()
     finalizedBy(tasks.jacocoTestReport)
@@ -0,0 +1,179 @@
+package com.code.context.domain.validator;
+
+import com.code.context.domain.model.DiffSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the previous regex-based {@code DiffValidator} against {@link DiffScanner} on
+ * generated multi-megabyte diffs.
+ * <ul>
+ *   <li>{@code text}: files with hunks throughout, the common case</li>
+ *   <li>{@code hunkless}: renames, mode changes and binary files only, which made the regex
+ *       version run every pattern over the whole diff</li>
+ *   <li>{@code binary-tail}: text files followed by a large {@code GIT binary patch}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiffValidatorBenchmark {
+
+    @Param({"1", "8"})
+    public int megabytes;
+
+    @Param({"text", "hunkless", "binary-tail"})
+    public String shape;
+
+    private final DiffValidator validator = new DiffValidator();
+    private String diff;
+    private byte[] utf8;
+
+    @Setup
+    public void setUp() {
+        int target = megabytes * 1024 * 1024;
+        StringBuilder builder = new StringBuilder(target + 4096);
+        int file = 0;
+        while (builder.length() < target) {
+            switch (shape) {
+                case "text" -> appendTextFile(builder, file);
+                case "hunkless" -> appendHunklessFile(builder, file);
+                case "binary-tail" -> {
+                    if (builder.length() < target / 2) {
+                        appendTextFile(builder, file);
+                    } else {
+                        appendBinaryPatch(builder, file, target - builder.length());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown diff shape: " + shape);
+            }
+            file++;
+        }
+        diff = builder.toString();
+        utf8 = diff.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ValidationResult regex() {
+        return RegexDiffValidator.validate(diff);
+    }
+
+    // The download form: the regex version first had to decode the body into a String
+    @Benchmark
+    public ValidationResult scanner() {
+        return validator.validate(utf8);
+    }
+
+    @Benchmark
+    public DiffSummary scanOnly() {
+        return DiffScanner.scan(utf8);
+    }
+
+    private static void appendTextFile(StringBuilder builder, int file) {
+        builder.append("diff --git a/src/main/File").append(file).append(".java b/src/main/File").append(file).append(".java\n")
+                .append("index 1234567..89abcde 100644\n")
+                .append("--- a/src/main/File").append(file).append(".java\n")
+                .append("+++ b/src/main/File").append(file).append(".java\n");
+        for (int hunk = 0; hunk < 4; hunk++) {
+            builder.append("@@ -").append(hunk * 40 + 1).append(",12 +").append(hunk * 40 + 1).append(",13 @@ class File").append(file).append(" {\n");
+            for (int line = 0; line < 12; line++) {
+                builder.append(line % 4 == 0 ? '-' : line % 4 == 1 ? '+' : ' ')
+                        .append("        int value").append(line).append(" = compute(").append(line).append(", \"payload\");\n");
+            }
+            builder.append("+        return value0;\n");
+        }
+    }
+
+    private static void appendHunklessFile(StringBuilder builder, int file) {
+        switch (file % 3) {
+            case 0 -> builder.append("diff --git a/old/Name").append(file).append(".java b/new/Name").append(file).append(".java\n")
+                    .append("similarity index 100%\n")
+                    .append("rename from old/Name").append(file).append(".java\n")
+                    .append("rename to new/Name").append(file).append(".java\n");
+            case 1 -> builder.append("diff --git a/bin/run").append(file).append(".sh b/bin/run").append(file).append(".sh\n")
+                    .append("old mode 100644\n")
+                    .append("new mode 100755\n");
+            default -> builder.append("diff --git a/img/logo").append(file).append(".png b/img/logo").append(file).append(".png\n")
+                    .append("index 1234567..89abcde 100644\n")
+                    .append("Binary files a/img/logo").append(file).append(".png and b/img/logo").append(file).append(".png differ\n");
+        }
+    }
+
+    private static void appendBinaryPatch(StringBuilder builder, int file, int bytes) {
+        builder.append("diff --git a/assets/blob").append(file).append(".bin b/assets/blob").append(file).append(".bin\n")
+                .append("index 1234567..89abcde 100644\n")
+                .append("GIT binary patch\n")
+                .append("literal ").append(bytes).append('\n');
+        for (int written = 0; written < bytes; written += 67) {
+            builder.append("zcmV-Y0FTXu0RRFX00000000000000000000000000000000000000000000000000\n");
+        }
+    }
+
+    /**
+     * The validator as it was before {@link DiffScanner}: up to ten MULTILINE regex scans and
+     * {@code contains} calls over the whole diff.
+     */
+    static final class RegexDiffValidator {
+
+        private static final Pattern DIFF_HEADER = Pattern.compile("^diff --git a/.+ b/.+", Pattern.MULTILINE);
+        private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+\\d+(?:,\\d+)? @@", Pattern.MULTILINE);
+        private static final Pattern RENAME_FROM = Pattern.compile("^rename from ", Pattern.MULTILINE);
+        private static final Pattern RENAME_TO = Pattern.compile("^rename to ", Pattern.MULTILINE);
+        private static final Pattern COPY_FROM = Pattern.compile("^copy from ", Pattern.MULTILINE);
+        private static final Pattern COPY_TO = Pattern.compile("^copy to ", Pattern.MULTILINE);
+        private static final Pattern NEW_FILE = Pattern.compile("^new file mode ", Pattern.MULTILINE);
+        private static final Pattern DELETED_FILE = Pattern.compile("^deleted file mode ", Pattern.MULTILINE);
+        private static final Pattern OLD_MODE = Pattern.compile("^old mode ", Pattern.MULTILINE);
+        private static final Pattern NEW_MODE = Pattern.compile("^new mode ", Pattern.MULTILINE);
+
+        static ValidationResult validate(String diff) {
+            if (diff == null || diff.trim().isEmpty()) {
+                return ValidationResult.invalid(ValidationReason.EMPTY_RESPONSE);
+            }
+            String trimmed = diff.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                return ValidationResult.invalid(ValidationReason.JSON_RESPONSE);
+            }
+            String lowerTrimmed = trimmed.toLowerCase(Locale.ROOT);
+            if (lowerTrimmed.startsWith("<!doctype") || lowerTrimmed.startsWith("<html")) {
+                return ValidationResult.invalid(ValidationReason.HTML_RESPONSE);
+            }
+            if (!DIFF_HEADER.matcher(diff).find()) {
+                return ValidationResult.invalid(ValidationReason.NO_DIFF_HEADER);
+            }
+            if (HUNK_HEADER.matcher(diff).find()) {
+                return ValidationResult.valid();
+            }
+            if (diff.contains("Binary files") || diff.contains("GIT binary patch")) {
+                return ValidationResult.skip(ValidationReason.BINARY_FILE);
+            }
+            if (RENAME_FROM.matcher(diff).find() && RENAME_TO.matcher(diff).find()) {
+                return ValidationResult.skip(ValidationReason.RENAME_ONLY);
+            }
+            if (COPY_FROM.matcher(diff).find() && COPY_TO.matcher(diff).find()) {
+                return ValidationResult.skip(ValidationReason.COPY_ONLY);
+            }
+            if (OLD_MODE.matcher(diff).find() && NEW_MODE.matcher(diff).find()) {
+                return ValidationResult.skip(ValidationReason.PERMISSION_ONLY);
+            }
+            if (NEW_FILE.matcher(diff).find()) {
+                return ValidationResult.skip(ValidationReason.NEW_EMPTY_FILE);
+            }
+            if (DELETED_FILE.matcher(diff).find()) {
+                return ValidationResult.skip(ValidationReason.DELETED_FILE);
+            }
+            return ValidationResult.invalid(ValidationReason.MALFORMED_DIFF);
+        }
+    }
+}
@@ -1,16 +1,60 @@
 package com.code.context.application.port.inbound;
 
 import com.code.context.domain.model.PullRequestContext;
+import com.code.context.domain.model.PullRequestStats;
 import reactor.core.publisher.Mono;
 
 public interface ContextCollectionService {
 
-    Mono<PullRequestContext> collect(
+    default Mono<PullRequestContext> collect(
             String repositoryOwner,
             String repositoryName,
             Integer prNumber,
             String title,
             String diffUrl,
             String correlationId
+    ) {
+        return collect(repositoryOwner, repositoryName, prNumber, title, diffUrl, correlationId,
+                PullRequestStats.unknown());
+    }
+
+    /**
+     * Collects context, using {@code stats} to decide before any download whether the
+     * pull request is skipped, partially reviewed or fetched in full.
+     */
+    default Mono<PullRequestContext> collect(
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            PullRequestStats stats
+    ) {
+        return collect(repositoryOwner, repositoryName, prNumber, title, diffUrl, correlationId, stats,
+                null, false);
+    }
+
+    /**
+     * Collects context for the pull request at {@code headSha}. For a {@code synchronize} push
+     * whose previously reviewed head is known, only the changes since that head are collected;
+     * anything else is collected in full as above.
+     */
+    Mono<PullRequestContext> collect(
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            PullRequestStats stats,
+            String headSha,
+            boolean synchronize
     );
+
+    /**
+     * Records that the review of the context {@code contextId} completed, so the next push to its
+     * pull request is collected as the changes since the head that context was collected at.
+     */
+    void reviewCompleted(String contextId);
 }
@@ -0,0 +1,41 @@
+package com.code.context.application.port.outbound;
+
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
+import reactor.core.publisher.Mono;
+
+/**
+ * Where a collected diff goes on its way to review. A diff is either offloaded, and the event
+ * carries a reference to it, or sent inside the event, in which case it must fit in a Kafka
+ * message.
+ */
+public interface DiffStore {
+
+    /**
+     * The largest diff worth downloading; anything larger is skipped.
+     */
+    int maxDiffSizeBytes();
+
+    /**
+     * Offloads the diff and returns the reference to send instead, or empty if it stays inline.
+     */
+    Mono<DiffReference> store(DiffContent diff);
+
+    /**
+     * Keeps every diff inside the event, limited to 500 KB to stay under Kafka's 1 MB message
+     * limit.
+     */
+    static DiffStore inline() {
+        return new DiffStore() {
+            @Override
+            public int maxDiffSizeBytes() {
+                return 512_000;
+            }
+
+            @Override
+            public Mono<DiffReference> store(DiffContent diff) {
+                return Mono.empty();
+            }
+        };
+    }
+}
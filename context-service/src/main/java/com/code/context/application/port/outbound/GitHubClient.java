@@ -1,10 +1,30 @@
 package com.code.context.application.port.outbound;
 
+import com.code.context.domain.model.FileChange;
+import com.code.events.context.DiffContent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface GitHubClient {
 
-    Mono<String> getDiff(String diffUrl);
+    /**
+     * Downloads the diff as UTF-8 bytes, failing with
+     * {@link com.code.context.domain.exception.DiffTooLargeException} and dropping the connection
+     * as soon as more than {@code maxSizeBytes} have arrived.
+     */
+    Mono<DiffContent> getDiff(String diffUrl, int maxSizeBytes);
 
-    Mono<String> getFileMetadata(String repositoryOwner, String repositoryName, Integer prNumber);
+    /**
+     * Downloads the diff between two commits of a repository the same way as
+     * {@link #getDiff(String, int)}, covering what {@code headSha} added since {@code baseSha}.
+     * Fails with {@link com.code.context.domain.exception.CompareUnavailableException} when
+     * {@code headSha} does not descend from {@code baseSha} or either commit is unknown.
+     */
+    Mono<DiffContent> getCompareDiff(String repositoryOwner, String repositoryName, String baseSha, String headSha,
+                                     int maxSizeBytes);
+
+    /**
+     * Lists the changed files of a pull request in GitHub's order, following pagination.
+     */
+    Flux<FileChange> getFileChanges(String repositoryOwner, String repositoryName, Integer prNumber);
 }
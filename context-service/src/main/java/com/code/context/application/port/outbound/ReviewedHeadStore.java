@@ -0,0 +1,47 @@
+package com.code.context.application.port.outbound;
+
+import java.util.Optional;
+
+/**
+ * Remembers the head commit of each pull request that was last reviewed, so a later push can be
+ * collected as the changes since that commit. A head sent for review only becomes the reviewed
+ * head once its review completes; one whose review fails or never finishes is forgotten.
+ */
+public interface ReviewedHeadStore {
+
+    Optional<String> lastReviewedHead(String repositoryOwner, String repositoryName, int prNumber);
+
+    /**
+     * Holds {@code headSha} as sent for review in the context {@code contextId}.
+     */
+    void recordPendingHead(String contextId, String repositoryOwner, String repositoryName, int prNumber,
+                           String headSha);
+
+    /**
+     * Makes the head held for {@code contextId} the reviewed head of its pull request. A context
+     * with no head held, such as one collected before a restart, changes nothing, and neither does
+     * one whose head was sent for review before the current reviewed head.
+     */
+    void confirmReviewedHead(String contextId);
+
+    /**
+     * Never knows a reviewed head, so every push is collected in full.
+     */
+    static ReviewedHeadStore none() {
+        return new ReviewedHeadStore() {
+            @Override
+            public Optional<String> lastReviewedHead(String repositoryOwner, String repositoryName, int prNumber) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void recordPendingHead(String contextId, String repositoryOwner, String repositoryName,
+                                          int prNumber, String headSha) {
+            }
+
+            @Override
+            public void confirmReviewedHead(String contextId) {
+            }
+        };
+    }
+}
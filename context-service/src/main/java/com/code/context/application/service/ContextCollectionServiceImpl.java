@@ -1,35 +1,49 @@
 package com.code.context.application.service;
 
 import com.code.context.application.port.inbound.ContextCollectionService;
+import com.code.context.application.port.outbound.DiffStore;
 import com.code.context.application.port.outbound.EventPublisher;
 import com.code.context.application.port.outbound.GitHubClient;
+import com.code.context.application.port.outbound.ReviewedHeadStore;
+import com.code.context.domain.exception.CompareUnavailableException;
+import com.code.context.domain.exception.DiffTooLargeException;
+import com.code.context.domain.model.CollectionMode;
 import com.code.context.domain.model.CollectionStatus;
 import com.code.context.domain.model.FileChange;
 import com.code.context.domain.model.PullRequestContext;
+import com.code.context.domain.model.PullRequestStats;
+import com.code.context.domain.validator.DiffScanner;
+import com.code.context.domain.validator.PullRequestAdmission;
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 public class ContextCollectionServiceImpl implements ContextCollectionService {
 
-    private static final int MAX_DIFF_SIZE_BYTES = 512_000; // 500KB limit to stay under Kafka 1MB message limit
-
     private final GitHubClient gitHubClient;
     private final EventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final PullRequestAdmission pullRequestAdmission;
+    private final CollectionMode collectionMode;
+    private final ReviewedHeadStore reviewedHeadStore;
+    private final DiffStore diffStore;
 
     @Override
     public Mono<PullRequestContext> collect(
@@ -38,7 +52,10 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
             Integer prNumber,
             String title,
             String diffUrl,
-            String correlationId) {
+            String correlationId,
+            PullRequestStats stats,
+            String headSha,
+            boolean synchronize) {
 
         if (repositoryOwner == null || repositoryOwner.isBlank()) {
             return Mono.error(new IllegalArgumentException("repositoryOwner must not be blank"));
@@ -57,75 +74,24 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
         log.info("Starting context collection for PR #{} (contextId: {}, correlationId: {})",
                 prNumber, contextId, correlationId);
 
-        return gitHubClient.getDiff(diffUrl)
-                .flatMap(diff -> {
-                    int diffSizeBytes = diff.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
-
-                    // Check if diff exceeds Kafka message size limit
-                    if (diffSizeBytes > MAX_DIFF_SIZE_BYTES) {
-                        log.warn("Diff size ({} bytes) exceeds limit ({} bytes) for PR #{} (contextId: {})",
-                                diffSizeBytes, MAX_DIFF_SIZE_BYTES, prNumber, contextId);
-
-                        PullRequestContext skippedContext = new PullRequestContext(
-                                contextId,
-                                repositoryOwner,
-                                repositoryName,
-                                prNumber,
-                                title,
-                                diffUrl,
-                                null,
-                                List.of(),
-                                createSkipMetadata("Diff size (%d bytes) exceeds limit (%d bytes)"
-                                        .formatted(diffSizeBytes, MAX_DIFF_SIZE_BYTES)),
-                                CollectionStatus.SKIPPED,
-                                correlationId,
-                                Instant.now()
-                        );
-                        return publishEvent(skippedContext).thenReturn(skippedContext);
-                    }
+        Optional<String> reviewedHead = synchronize && headSha != null
+                ? reviewedHeadStore.lastReviewedHead(repositoryOwner, repositoryName, prNumber)
+                : Optional.empty();
+        Mono<PullRequestContext> collection = reviewedHead.isPresent()
+                ? collectIncremental(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                        correlationId, stats, reviewedHead.get(), headSha)
+                : collectFull(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl, correlationId,
+                        stats);
 
-                    // VALID: diff exists and within size limit, proceed with normal flow
-                    return gitHubClient.getFileMetadata(repositoryOwner, repositoryName, prNumber)
-                            .defaultIfEmpty("[]")
-                            .map(metadata -> {
-                                List<FileChange> files = parseFileChanges(metadata);
-                                return new PullRequestContext(
-                                        contextId,
-                                        repositoryOwner,
-                                        repositoryName,
-                                        prNumber,
-                                        title,
-                                        diffUrl,
-                                        diff,
-                                        files,
-                                        metadata,
-                                        CollectionStatus.COMPLETED,
-                                        correlationId,
-                                        Instant.now()
-                                );
-                            })
-                            .flatMap(context -> publishEvent(context).thenReturn(context));
+        return collection
+                .flatMap(context -> publishEvent(context, headSha).thenReturn(context))
+                // The next push is diffed against this head only once review-service completes its review
+                .doOnNext(context -> {
+                    if (headSha != null && context.status() == CollectionStatus.COMPLETED) {
+                        reviewedHeadStore.recordPendingHead(contextId, repositoryOwner, repositoryName, prNumber,
+                                headSha);
+                    }
                 })
-                // SKIP: diff is empty (validation returned Mono.empty())
-                .switchIfEmpty(Mono.defer(() -> {
-                    log.info("Diff skipped for PR #{} (contextId: {}), creating skipped context",
-                            prNumber, contextId);
-                    PullRequestContext skippedContext = new PullRequestContext(
-                            contextId,
-                            repositoryOwner,
-                            repositoryName,
-                            prNumber,
-                            title,
-                            diffUrl,
-                            null,
-                            List.of(),
-                            createSkipMetadata("Diff validation determined review not needed"),
-                            CollectionStatus.SKIPPED,
-                            correlationId,
-                            Instant.now()
-                    );
-                    return publishEvent(skippedContext).thenReturn(skippedContext);
-                }))
                 .doOnSuccess(ctx -> log.info("Context collection completed for PR #{} (contextId: {}, status: {})",
                         prNumber, ctx.contextId(), ctx.status()))
                 .doOnError(err -> log.error("Context collection failed for PR #{} (contextId: {})",
@@ -143,9 +109,10 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
                             createErrorMetadata(err),
                             CollectionStatus.FAILED,
                             correlationId,
-                            Instant.now()
+                            Instant.now(),
+                            null
                     );
-                    return publishEvent(failedContext)
+                    return publishEvent(failedContext, headSha)
                             .thenReturn(failedContext)
                             .onErrorResume(publishErr -> {
                                 log.error("Failed to publish FAILED event for PR #{}", prNumber, publishErr);
@@ -154,6 +121,322 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
                 });
     }
 
+    @Override
+    public void reviewCompleted(String contextId) {
+        reviewedHeadStore.confirmReviewedHead(contextId);
+    }
+
+    private Mono<PullRequestContext> collectFull(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            PullRequestStats stats) {
+
+        PullRequestAdmission.Result admission = pullRequestAdmission.evaluate(stats);
+        return switch (admission.decision()) {
+            case SKIP -> Mono.fromSupplier(() -> {
+                log.info("Skipping PR #{} before diff download: {} (contextId: {})",
+                        prNumber, admission.getMessage(), contextId);
+                return createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                        correlationId, admission.getMessage());
+            });
+            case PARTIAL -> collectPartial(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                    correlationId, admission);
+            case FETCH -> collectionMode == CollectionMode.PATCHES
+                    ? collectFromPatches(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                            correlationId)
+                    : collectFromDiff(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                            correlationId);
+        };
+    }
+
+    /**
+     * Collects only what a push added since the head reviewed last, through the compare API, so
+     * review cost follows the size of the push rather than of the pull request. The webhook size
+     * statistics describe the whole PR and only gate drafts here; the download limit still applies.
+     * A head that no longer descends from the reviewed one, as after a force push, or a reviewed
+     * head GitHub no longer knows, is collected in full instead. Other failures, such as a refused
+     * or rate-limited call, fail the collection rather than spend a full download on it.
+     */
+    private Mono<PullRequestContext> collectIncremental(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            PullRequestStats stats,
+            String baseSha,
+            String headSha) {
+
+        if (baseSha.equals(headSha)) {
+            return Mono.fromSupplier(() -> createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber,
+                    title, diffUrl, correlationId, "Head commit was already reviewed"));
+        }
+        PullRequestAdmission.Result admission = pullRequestAdmission.evaluate(
+                stats == null ? null : stats.withoutSizes());
+        if (admission.decision() == PullRequestAdmission.Decision.SKIP) {
+            return Mono.fromSupplier(() -> createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber,
+                    title, diffUrl, correlationId, admission.getMessage()));
+        }
+
+        log.info("Collecting PR #{} incrementally from {} to {} (contextId: {})", prNumber, baseSha, headSha,
+                contextId);
+        return gitHubClient.getCompareDiff(repositoryOwner, repositoryName, baseSha, headSha, diffStore.maxDiffSizeBytes())
+                .map(diff -> new PullRequestContext(
+                        contextId,
+                        repositoryOwner,
+                        repositoryName,
+                        prNumber,
+                        title,
+                        diffUrl,
+                        diff,
+                        List.of(),
+                        createIncrementalMetadata(baseSha),
+                        CollectionStatus.COMPLETED,
+                        correlationId,
+                        Instant.now(),
+                        baseSha
+                ))
+                .switchIfEmpty(Mono.fromSupplier(() -> createSkippedContext(contextId, repositoryOwner,
+                        repositoryName, prNumber, title, diffUrl, correlationId,
+                        "Push contains no reviewable changes")))
+                .onErrorResume(DiffTooLargeException.class, err -> {
+                    log.warn("{} for PR #{} since {}, download aborted (contextId: {})",
+                            err.getMessage(), prNumber, baseSha, contextId);
+                    return Mono.just(createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber,
+                            title, diffUrl, correlationId, err.getMessage()));
+                })
+                .onErrorResume(CompareUnavailableException.class, err -> {
+                    log.warn("Cannot compare PR #{} since {}, collecting it in full: {} (contextId: {})",
+                            prNumber, baseSha, err.getMessage(), contextId);
+                    return collectFull(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                            correlationId, stats);
+                });
+    }
+
+    private Mono<PullRequestContext> collectFromDiff(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId) {
+
+        // Diff and file list are fetched concurrently; an empty or failed diff cancels the listing
+        return Mono.zip(
+                        gitHubClient.getDiff(diffUrl, diffStore.maxDiffSizeBytes()),
+                        gitHubClient.getFileChanges(repositoryOwner, repositoryName, prNumber).collectList())
+                .map(diffAndFiles -> {
+                    // VALID: diff exists and within size limit, proceed with normal flow
+                    List<FileChange> files = diffAndFiles.getT2();
+                    return new PullRequestContext(
+                            contextId,
+                            repositoryOwner,
+                            repositoryName,
+                            prNumber,
+                            title,
+                            diffUrl,
+                            diffAndFiles.getT1(),
+                            files,
+                            createFileMetadata(files),
+                            CollectionStatus.COMPLETED,
+                            correlationId,
+                            Instant.now(),
+                            null
+                    );
+                })
+                // SKIP: diff is empty (validation returned Mono.empty())
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Diff skipped for PR #{} (contextId: {}), creating skipped context",
+                            prNumber, contextId);
+                    return Mono.just(createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber,
+                            title, diffUrl, correlationId, "Diff validation determined review not needed"));
+                }))
+                // Aborted mid-download: the diff is over the limit
+                .onErrorResume(DiffTooLargeException.class, err -> {
+                    log.warn("{} for PR #{}, download aborted (contextId: {})",
+                            err.getMessage(), prNumber, contextId);
+                    return Mono.just(createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber,
+                            title, diffUrl, correlationId, err.getMessage()));
+                });
+    }
+
+    /**
+     * Builds the diff from the per-file patches the files endpoint already returns, so an admitted
+     * PR costs one GitHub call. The raw diff is downloaded only when GitHub omitted the patch of a
+     * file with line changes, and only those files are taken from it.
+     */
+    private Mono<PullRequestContext> collectFromPatches(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId) {
+
+        return gitHubClient.getFileChanges(repositoryOwner, repositoryName, prNumber)
+                .collectList()
+                .flatMap(files -> omittedSections(diffUrl, prNumber, files)
+                        .map(sections -> createPatchContext(contextId, repositoryOwner, repositoryName, prNumber,
+                                title, diffUrl, correlationId, files, buildDiff(files, sections),
+                                "No file patch contains reviewable changes")));
+    }
+
+    /**
+     * Raw diff sections of the changed files whose patch GitHub left out, by filename. A raw diff
+     * over the limit only costs those files, the patches that were returned are still reviewed.
+     */
+    private Mono<Map<String, String>> omittedSections(String diffUrl, Integer prNumber, List<FileChange> files) {
+        Set<String> omitted = files.stream()
+                .filter(file -> !hasPatch(file) && file.additions() + file.deletions() > 0)
+                .map(FileChange::filename)
+                .collect(Collectors.toSet());
+        if (omitted.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        log.debug("GitHub omitted {} patches for PR #{}, falling back to the raw diff", omitted.size(), prNumber);
+        return gitHubClient.getDiff(diffUrl, diffStore.maxDiffSizeBytes())
+                .map(diff -> DiffScanner.sections(diff.utf8(), omitted))
+                .defaultIfEmpty(Map.of())
+                .onErrorResume(DiffTooLargeException.class, err -> {
+                    log.warn("{} for PR #{}, reviewing without the {} omitted patches",
+                            err.getMessage(), prNumber, omitted.size());
+                    return Mono.just(Map.of());
+                });
+    }
+
+    /**
+     * Reviews the per-file patches from the files endpoint instead of the full diff, keeping
+     * files in GitHub's order while they fit within the diff limit.
+     */
+    private Mono<PullRequestContext> collectPartial(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            PullRequestAdmission.Result admission) {
+
+        log.info("PR #{} routed to partial review: {} (contextId: {})", prNumber, admission.getMessage(), contextId);
+
+        return gitHubClient.getFileChanges(repositoryOwner, repositoryName, prNumber)
+                .collectList()
+                .map(files -> createPatchContext(contextId, repositoryOwner, repositoryName, prNumber, title,
+                        diffUrl, correlationId, files, buildDiff(files, Map.of()),
+                        "No file patch fits within the partial review limit"));
+    }
+
+    private PullRequestContext createPatchContext(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            List<FileChange> files,
+            String diff,
+            String skipReason) {
+        if (diff.isEmpty()) {
+            return createSkippedContext(contextId, repositoryOwner, repositoryName, prNumber, title, diffUrl,
+                    correlationId, skipReason);
+        }
+        return new PullRequestContext(
+                contextId,
+                repositoryOwner,
+                repositoryName,
+                prNumber,
+                title,
+                diffUrl,
+                DiffContent.of(diff),
+                files,
+                createFileMetadata(files),
+                CollectionStatus.COMPLETED,
+                correlationId,
+                Instant.now(),
+                null
+        );
+    }
+
+    /**
+     * Concatenates a section per file, from its patch or else from the raw diff sections, dropping
+     * files that would push the diff past the limit.
+     */
+    private String buildDiff(List<FileChange> files, Map<String, String> rawSections) {
+        StringBuilder diff = new StringBuilder();
+        int diffSizeBytes = 0;
+        int included = 0;
+
+        for (FileChange file : files) {
+            String section = hasPatch(file) ? toDiffSection(file) : rawSections.get(file.filename());
+            if (section == null) {
+                continue;
+            }
+            if (!section.endsWith("\n")) {
+                section += "\n";
+            }
+            int sectionBytes = section.getBytes(StandardCharsets.UTF_8).length;
+            if (diffSizeBytes + sectionBytes > diffStore.maxDiffSizeBytes()) {
+                continue;
+            }
+            diff.append(section);
+            diffSizeBytes += sectionBytes;
+            included++;
+        }
+
+        log.debug("Diff built from patches includes {} of {} files ({} bytes)", included, files.size(), diffSizeBytes);
+        return diff.toString();
+    }
+
+    private static boolean hasPatch(FileChange file) {
+        return file.patch() != null && !file.patch().isEmpty();
+    }
+
+    private static String toDiffSection(FileChange file) {
+        String name = file.filename();
+        String oldPath = "added".equals(file.status()) ? "/dev/null" : "a/" + name;
+        String newPath = "removed".equals(file.status()) ? "/dev/null" : "b/" + name;
+        String patch = file.patch().endsWith("\n") ? file.patch() : file.patch() + "\n";
+        return "diff --git a/%s b/%s\n--- %s\n+++ %s\n%s".formatted(name, name, oldPath, newPath, patch);
+    }
+
+    private PullRequestContext createSkippedContext(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer prNumber,
+            String title,
+            String diffUrl,
+            String correlationId,
+            String reason) {
+        return new PullRequestContext(
+                contextId,
+                repositoryOwner,
+                repositoryName,
+                prNumber,
+                title,
+                diffUrl,
+                null,
+                List.of(),
+                createSkipMetadata(reason),
+                CollectionStatus.SKIPPED,
+                correlationId,
+                Instant.now(),
+                null
+        );
+    }
+
     private String createSkipMetadata(String reason) {
         try {
             return objectMapper.writeValueAsString(Map.of("skip_reason", reason));
@@ -163,6 +446,24 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
         }
     }
 
+    private String createFileMetadata(List<FileChange> files) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("file_count", files.size()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize file metadata", e);
+            return "{\"file_count\": \"serialization_failed\"}";
+        }
+    }
+
+    private String createIncrementalMetadata(String baseSha) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("incremental_since", baseSha));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize incremental metadata", e);
+            return "{\"incremental_since\": \"serialization_failed\"}";
+        }
+    }
+
     private String createErrorMetadata(Throwable err) {
         try {
             String errorMessage = err.getMessage() != null ? err.getMessage() : err.getClass().getSimpleName();
@@ -173,45 +474,37 @@ public class ContextCollectionServiceImpl implements ContextCollectionService {
         }
     }
 
-    private List<FileChange> parseFileChanges(String metadata) {
-        try {
-            JsonNode root = objectMapper.readTree(metadata);
-            List<FileChange> changes = new ArrayList<>();
-
-            if (root.isArray()) {
-                for (JsonNode node : root) {
-                    changes.add(new FileChange(
-                            node.path("filename").asText(),
-                            node.path("status").asText(),
-                            node.path("additions").asInt(),
-                            node.path("deletions").asInt(),
-                            node.path("patch").asText(null)
-                    ));
-                }
-            }
-
-            return changes;
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to parse file metadata", e);
-            return List.of();
+    /**
+     * Publishes the context, with its diff either inline or, when the diff store offloads it,
+     * as a reference to the stored diff.
+     */
+    private Mono<Void> publishEvent(PullRequestContext context, String headSha) {
+        if (context.diff() == null) {
+            return eventPublisher.publish(createEvent(context, headSha, null));
         }
+        return diffStore.store(context.diff())
+                .map(reference -> createEvent(context, headSha, reference))
+                .switchIfEmpty(Mono.fromSupplier(() -> createEvent(context, headSha, null)))
+                .flatMap(eventPublisher::publish);
     }
 
-    private Mono<Void> publishEvent(PullRequestContext context) {
-        ContextCollectedEvent event = new ContextCollectedEvent(
+    private ContextCollectedEvent createEvent(PullRequestContext context, String headSha, DiffReference diffRef) {
+        return new ContextCollectedEvent(
                 UUID.randomUUID().toString(),
                 context.contextId(),
                 context.repositoryOwner(),
                 context.repositoryName(),
                 context.pullRequestNumber(),
                 context.title(),
-                context.diff(),
+                diffRef == null ? context.diff() : null,
                 mapStatus(context.status()),
                 context.correlationId(),
-                Instant.now()
+                Instant.now(),
+                context.isIncremental(),
+                context.baseSha(),
+                headSha,
+                diffRef
         );
-
-        return eventPublisher.publish(event);
     }
 
     private ContextCollectionStatus mapStatus(CollectionStatus status) {
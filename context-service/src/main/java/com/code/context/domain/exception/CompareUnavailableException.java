@@ -0,0 +1,12 @@
+package com.code.context.domain.exception;
+
+/**
+ * Raised when a head cannot be diffed as the changes since a base commit: the head no longer
+ * descends from the base, as after a force push, or GitHub no longer knows the base.
+ */
+public class CompareUnavailableException extends RuntimeException {
+
+    public CompareUnavailableException(String message) {
+        super(message);
+    }
+}
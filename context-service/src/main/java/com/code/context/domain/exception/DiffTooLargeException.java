@@ -0,0 +1,19 @@
+package com.code.context.domain.exception;
+
+/**
+ * Raised while the diff is still downloading, as soon as it passes the size limit; the actual
+ * size is unknown because the rest of the body is never read.
+ */
+public class DiffTooLargeException extends RuntimeException {
+
+    private final int limitBytes;
+
+    public DiffTooLargeException(int limitBytes) {
+        super("Diff exceeds limit (%d bytes)".formatted(limitBytes));
+        this.limitBytes = limitBytes;
+    }
+
+    public int getLimitBytes() {
+        return limitBytes;
+    }
+}
@@ -0,0 +1,11 @@
+package com.code.context.domain.model;
+
+/**
+ * Where the reviewable diff of an admitted pull request comes from.
+ */
+public enum CollectionMode {
+    /** Download the raw diff alongside the file list */
+    DIFF,
+    /** Build the diff from the file list's per-file patches; the raw diff only for omitted patches */
+    PATCHES
+}
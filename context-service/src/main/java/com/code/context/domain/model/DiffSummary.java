@@ -0,0 +1,26 @@
+package com.code.context.domain.model;
+
+import java.util.List;
+
+/**
+ * Per-file structure of a unified diff, in the order the files appear.
+ */
+public record DiffSummary(
+        List<FileDiff> files
+) {
+    public DiffSummary {
+        files = List.copyOf(files);
+    }
+
+    public boolean hasHunks() {
+        return files.stream().anyMatch(FileDiff::hasHunks);
+    }
+
+    public int additions() {
+        return files.stream().mapToInt(FileDiff::additions).sum();
+    }
+
+    public int deletions() {
+        return files.stream().mapToInt(FileDiff::deletions).sum();
+    }
+}
@@ -0,0 +1,23 @@
+package com.code.context.domain.model;
+
+/**
+ * One {@code diff --git} section of a unified diff. For renames and copies the paths come from
+ * the {@code rename from/to} or {@code copy from/to} lines, otherwise from the header.
+ */
+public record FileDiff(
+        String oldPath,
+        String newPath,
+        int hunks,
+        int additions,
+        int deletions,
+        boolean binary,
+        boolean renamed,
+        boolean copied,
+        boolean modeChanged,
+        boolean newFile,
+        boolean deletedFile
+) {
+    public boolean hasHunks() {
+        return hunks > 0;
+    }
+}
@@ -1,5 +1,7 @@
 package com.code.context.domain.model;
 
+import com.code.events.context.DiffContent;
+
 import java.time.Instant;
 import java.util.List;
 
@@ -10,14 +12,22 @@ public record PullRequestContext(
         Integer pullRequestNumber,
         String title,
         String diffUrl,
-        String diff,
+        DiffContent diff,
         List<FileChange> files,
         String metadata,
         CollectionStatus status,
         String correlationId,
-        Instant collectedAt
+        Instant collectedAt,
+        String baseSha
 ) {
     public boolean isReadyForReview() {
         return status == CollectionStatus.COMPLETED && diff != null;
     }
+
+    /**
+     * Whether {@link #diff()} only holds the changes since {@link #baseSha()}, the head reviewed last.
+     */
+    public boolean isIncremental() {
+        return baseSha != null;
+    }
 }
@@ -0,0 +1,41 @@
+package com.code.context.domain.model;
+
+/**
+ * Size statistics reported by the webhook. Any field may be null when the producer did not
+ * supply it, in which case nothing can be decided before the diff is fetched.
+ */
+public record PullRequestStats(
+        Integer additions,
+        Integer deletions,
+        Integer changedFiles,
+        Boolean draft
+) {
+    private static final PullRequestStats UNKNOWN = new PullRequestStats(null, null, null, null);
+
+    public static PullRequestStats unknown() {
+        return UNKNOWN;
+    }
+
+    /**
+     * Keeps only the draft flag. The sizes describe the whole pull request, which says nothing
+     * about the size of a single push.
+     */
+    public PullRequestStats withoutSizes() {
+        return new PullRequestStats(null, null, null, draft);
+    }
+
+    public boolean hasLineCounts() {
+        return additions != null && deletions != null;
+    }
+
+    public long changedLines() {
+        if (!hasLineCounts()) {
+            throw new IllegalStateException("Line counts are unknown");
+        }
+        return (long) additions + deletions;
+    }
+
+    public boolean isDraft() {
+        return Boolean.TRUE.equals(draft);
+    }
+}
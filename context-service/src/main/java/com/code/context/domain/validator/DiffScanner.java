@@ -0,0 +1,278 @@
+package com.code.context.domain.validator;
+
+import com.code.context.domain.model.DiffSummary;
+import com.code.context.domain.model.FileDiff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a {@link DiffSummary} in a single sweep over a unified diff in its UTF-8 download form.
+ * Each line is classified by its first byte and a prefix compare in place; every marker is ASCII,
+ * so nothing but file paths is ever decoded.
+ * <p>
+ * Extended header lines (binary, rename, copy, mode, new and deleted file) are only recognized
+ * between a {@code diff --git} line and the first hunk of that file. Inside a hunk every line is
+ * content, so a removed line reading {@code --- foo} counts as a deletion.
+ */
+public final class DiffScanner {
+
+    private static final byte[] DIFF_GIT = ascii("diff --git ");
+    private static final byte[] BINARY_FILES = ascii("Binary files ");
+    private static final byte[] GIT_BINARY_PATCH = ascii("GIT binary patch");
+    private static final byte[] RENAME_FROM = ascii("rename from ");
+    private static final byte[] RENAME_TO = ascii("rename to ");
+    private static final byte[] COPY_FROM = ascii("copy from ");
+    private static final byte[] COPY_TO = ascii("copy to ");
+    private static final byte[] OLD_MODE = ascii("old mode ");
+    private static final byte[] NEW_MODE = ascii("new mode ");
+    private static final byte[] NEW_FILE = ascii("new file mode ");
+    private static final byte[] DELETED_FILE = ascii("deleted file mode ");
+    private static final byte[] HUNK_START = ascii("@@ -");
+    private static final byte[] HUNK_NEW = ascii(" +");
+    private static final byte[] HUNK_END = ascii(" @@");
+    private static final byte[] OLD_SIDE = ascii("a/");
+    private static final byte[] NEW_SIDE = ascii(" b/");
+
+    private DiffScanner() {
+    }
+
+    public static DiffSummary scan(String diff) {
+        return scan(diff.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DiffSummary scan(byte[] diff) {
+        List<FileDiff> files = new ArrayList<>();
+        FileBuilder file = null;
+        boolean inHunk = false;
+
+        int length = diff.length;
+        int start = 0;
+        while (start < length) {
+            int newline = indexOf(diff, (byte) '\n', start, length);
+            int next = newline < 0 ? length : newline + 1;
+            int end = newline < 0 ? length : newline;
+            if (end > start && diff[end - 1] == '\r') {
+                end--;
+            }
+
+            byte first = end > start ? diff[start] : 0;
+            if (first == 'd' && startsWith(diff, start, end, DIFF_GIT)) {
+                if (file != null) {
+                    files.add(file.build());
+                }
+                // A header that does not name both sides is not a file section; skip to the next one
+                file = FileBuilder.fromHeader(diff, start + DIFF_GIT.length, end);
+                inHunk = false;
+            } else if (file != null) {
+                if (first == '@' && isHunkHeader(diff, start, end)) {
+                    file.hunks++;
+                    inHunk = true;
+                } else if (inHunk) {
+                    if (first == '+') {
+                        file.additions++;
+                    } else if (first == '-') {
+                        file.deletions++;
+                    }
+                } else {
+                    file.extendedHeader(diff, start, end);
+                }
+            }
+            start = next;
+        }
+
+        if (file != null) {
+            files.add(file.build());
+        }
+        return new DiffSummary(files);
+    }
+
+    /**
+     * Cuts out the {@code diff --git} sections of the given files, keyed by the new path from the
+     * section header. Sections of other files are skipped without being decoded.
+     */
+    public static Map<String, String> sections(byte[] diff, Set<String> newPaths) {
+        Map<String, String> sections = new LinkedHashMap<>();
+        String path = null;
+        int sectionStart = 0;
+
+        int length = diff.length;
+        int start = 0;
+        while (start < length) {
+            int newline = indexOf(diff, (byte) '\n', start, length);
+            int next = newline < 0 ? length : newline + 1;
+            // Content lines start with ' ', '+' or '-', so a header can never be inside a hunk
+            if (diff[start] == 'd' && startsWith(diff, start, length, DIFF_GIT)) {
+                if (path != null) {
+                    sections.put(path, decode(diff, sectionStart, start));
+                }
+                int end = newline < 0 ? length : newline;
+                if (end > start && diff[end - 1] == '\r') {
+                    end--;
+                }
+                FileBuilder header = FileBuilder.fromHeader(diff, start + DIFF_GIT.length, end);
+                path = header != null && newPaths.contains(header.newPath) ? header.newPath : null;
+                sectionStart = start;
+            }
+            start = next;
+        }
+
+        if (path != null) {
+            sections.put(path, decode(diff, sectionStart, length));
+        }
+        return sections;
+    }
+
+    /**
+     * Matches {@code @@ -l[,s] +l[,s] @@} at the start of the line.
+     */
+    static boolean isHunkHeader(byte[] diff, int start, int end) {
+        if (!startsWith(diff, start, end, HUNK_START)) {
+            return false;
+        }
+        int i = range(diff, start + HUNK_START.length, end);
+        if (i < 0 || !startsWith(diff, i, end, HUNK_NEW)) {
+            return false;
+        }
+        i = range(diff, i + HUNK_NEW.length, end);
+        return i >= 0 && startsWith(diff, i, end, HUNK_END);
+    }
+
+    // Digits with an optional ",digits" suffix; returns the index after them, or -1
+    private static int range(byte[] diff, int i, int end) {
+        int digitsEnd = digits(diff, i, end);
+        if (digitsEnd == i) {
+            return -1;
+        }
+        if (digitsEnd < end && diff[digitsEnd] == ',') {
+            int countEnd = digits(diff, digitsEnd + 1, end);
+            return countEnd == digitsEnd + 1 ? -1 : countEnd;
+        }
+        return digitsEnd;
+    }
+
+    private static int digits(byte[] diff, int i, int end) {
+        while (i < end && diff[i] >= '0' && diff[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(byte[] diff, int start, int end, byte[] prefix) {
+        return end - start >= prefix.length
+                && Arrays.equals(diff, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static int indexOf(byte[] diff, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (diff[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] diff, int start, int end) {
+        return new String(diff, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String marker) {
+        return marker.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class FileBuilder {
+
+        private String oldPath;
+        private String newPath;
+        private int hunks;
+        private int additions;
+        private int deletions;
+        private boolean binary;
+        private boolean renameFrom;
+        private boolean renameTo;
+        private boolean copyFrom;
+        private boolean copyTo;
+        private boolean oldMode;
+        private boolean newMode;
+        private boolean newFile;
+        private boolean deletedFile;
+
+        private FileBuilder(String oldPath, String newPath) {
+            this.oldPath = oldPath;
+            this.newPath = newPath;
+        }
+
+        /**
+         * Parses {@code a/<old> b/<new>}. Paths may contain spaces, so when both sides are the
+         * same path the split is taken at the middle, otherwise at the last {@code " b/"}.
+         */
+        static FileBuilder fromHeader(byte[] diff, int start, int end) {
+            if (!startsWith(diff, start, end, OLD_SIDE)) {
+                return null;
+            }
+            int length = end - start;
+            int half = (length - 5) / 2;
+            if (length > 5 && (length - 5) % 2 == 0
+                    && startsWith(diff, start + 2 + half, end, NEW_SIDE)
+                    && Arrays.equals(diff, start + 2, start + 2 + half, diff, start + 5 + half, end)) {
+                String path = decode(diff, start + 2, start + 2 + half);
+                return new FileBuilder(path, path);
+            }
+            int separator = -1;
+            for (int i = end - NEW_SIDE.length - 1; i >= start + 3; i--) {
+                if (startsWith(diff, i, end, NEW_SIDE)) {
+                    separator = i;
+                    break;
+                }
+            }
+            if (separator < 0) {
+                return null;
+            }
+            return new FileBuilder(decode(diff, start + 2, separator), decode(diff, separator + 3, end));
+        }
+
+        void extendedHeader(byte[] diff, int start, int end) {
+            switch (diff[start]) {
+                case 'B' -> binary |= startsWith(diff, start, end, BINARY_FILES);
+                case 'G' -> binary |= startsWith(diff, start, end, GIT_BINARY_PATCH);
+                case 'r' -> {
+                    if (startsWith(diff, start, end, RENAME_FROM)) {
+                        renameFrom = true;
+                        oldPath = decode(diff, start + RENAME_FROM.length, end);
+                    } else if (startsWith(diff, start, end, RENAME_TO)) {
+                        renameTo = true;
+                        newPath = decode(diff, start + RENAME_TO.length, end);
+                    }
+                }
+                case 'c' -> {
+                    if (startsWith(diff, start, end, COPY_FROM)) {
+                        copyFrom = true;
+                        oldPath = decode(diff, start + COPY_FROM.length, end);
+                    } else if (startsWith(diff, start, end, COPY_TO)) {
+                        copyTo = true;
+                        newPath = decode(diff, start + COPY_TO.length, end);
+                    }
+                }
+                case 'o' -> oldMode |= startsWith(diff, start, end, OLD_MODE);
+                case 'n' -> {
+                    newMode |= startsWith(diff, start, end, NEW_MODE);
+                    newFile |= startsWith(diff, start, end, NEW_FILE);
+                }
+                case 'd' -> deletedFile |= startsWith(diff, start, end, DELETED_FILE);
+                default -> {
+                    // index, similarity, ---/+++ and anything unknown carry nothing we classify on
+                }
+            }
+        }
+
+        FileDiff build() {
+            return new FileDiff(oldPath, newPath, hunks, additions, deletions, binary,
+                    renameFrom && renameTo, copyFrom && copyTo, oldMode && newMode, newFile, deletedFile);
+        }
+    }
+}
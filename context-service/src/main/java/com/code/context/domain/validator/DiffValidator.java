@@ -1,41 +1,38 @@
 package com.code.context.domain.validator;
 
+import com.code.context.domain.model.DiffSummary;
+import com.code.context.domain.model.FileDiff;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Locale;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 
 @Slf4j
 @Component
 public class DiffValidator {
 
-    private static final Pattern DIFF_HEADER = Pattern.compile("^diff --git a/.+ b/.+", Pattern.MULTILINE);
-    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+\\d+(?:,\\d+)? @@", Pattern.MULTILINE);
-    private static final Pattern RENAME_FROM = Pattern.compile("^rename from ", Pattern.MULTILINE);
-    private static final Pattern RENAME_TO = Pattern.compile("^rename to ", Pattern.MULTILINE);
-    private static final Pattern COPY_FROM = Pattern.compile("^copy from ", Pattern.MULTILINE);
-    private static final Pattern COPY_TO = Pattern.compile("^copy to ", Pattern.MULTILINE);
-    private static final Pattern NEW_FILE = Pattern.compile("^new file mode ", Pattern.MULTILINE);
-    private static final Pattern DELETED_FILE = Pattern.compile("^deleted file mode ", Pattern.MULTILINE);
-    private static final Pattern OLD_MODE = Pattern.compile("^old mode ", Pattern.MULTILINE);
-    private static final Pattern NEW_MODE = Pattern.compile("^new mode ", Pattern.MULTILINE);
+    private record ValidationCheck(Predicate<FileDiff> predicate, ValidationReason reason) {}
 
-    private record ValidationCheck(Predicate<String> predicate, ValidationReason reason) {}
-
-    // Ordered list evaluated until first match
+    // Ordered list evaluated until first match; across files the earliest reason wins
     private static final List<ValidationCheck> HUNKLESS_CHECKS = List.of(
-        new ValidationCheck(DiffValidator::isBinary, ValidationReason.BINARY_FILE),
-        new ValidationCheck(DiffValidator::isRename, ValidationReason.RENAME_ONLY),
-        new ValidationCheck(DiffValidator::isCopy, ValidationReason.COPY_ONLY),
-        new ValidationCheck(DiffValidator::isModeOnly, ValidationReason.PERMISSION_ONLY),
-        new ValidationCheck(DiffValidator::isNewFile, ValidationReason.NEW_EMPTY_FILE),
-        new ValidationCheck(DiffValidator::isDeletedFile, ValidationReason.DELETED_FILE)
+        new ValidationCheck(FileDiff::binary, ValidationReason.BINARY_FILE),
+        new ValidationCheck(FileDiff::renamed, ValidationReason.RENAME_ONLY),
+        new ValidationCheck(FileDiff::copied, ValidationReason.COPY_ONLY),
+        new ValidationCheck(FileDiff::modeChanged, ValidationReason.PERMISSION_ONLY),
+        new ValidationCheck(FileDiff::newFile, ValidationReason.NEW_EMPTY_FILE),
+        new ValidationCheck(FileDiff::deletedFile, ValidationReason.DELETED_FILE)
     );
 
     public ValidationResult validate(String diff) {
+        return validate(diff == null ? null : diff.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Validates a diff in the UTF-8 form it was downloaded in, without decoding it.
+     */
+    public ValidationResult validate(byte[] diff) {
         // Check for invalid responses
         ValidationResult invalidCheck = checkInvalidResponse(diff);
         if (invalidCheck != null) {
@@ -43,87 +40,99 @@ public class DiffValidator {
             return invalidCheck;
         }
 
-        // Check for diff header
-        if (!DIFF_HEADER.matcher(diff).find()) {
-            ValidationResult result = ValidationResult.invalid(ValidationReason.NO_DIFF_HEADER);
-            logValidation(result, diff);
-            return result;
-        }
-
-        // Detect diff type and determine if review is needed
-        ValidationResult result = detectDiffType(diff);
+        ValidationResult result = validate(DiffScanner.scan(diff));
         logValidation(result, diff);
         return result;
     }
 
-    private ValidationResult checkInvalidResponse(String diff) {
-        if (diff == null || diff.trim().isEmpty()) {
-            return ValidationResult.invalid(ValidationReason.EMPTY_RESPONSE);
+    /**
+     * Reviewable as soon as one file has hunks. A diff without any hunks is skipped only when
+     * every file is a known hunk-less case; one unrecognized file makes it malformed.
+     */
+    public ValidationResult validate(DiffSummary summary) {
+        if (summary.files().isEmpty()) {
+            return ValidationResult.invalid(ValidationReason.NO_DIFF_HEADER);
         }
 
-        String trimmed = diff.trim();
-
-        // Check for JSON error responses
-        if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
-            return ValidationResult.invalid(ValidationReason.JSON_RESPONSE);
+        if (summary.hasHunks()) {
+            return ValidationResult.valid();
         }
 
-        // Check for HTML error pages
-        String lowerTrimmed = trimmed.toLowerCase(Locale.ROOT);
-        if (lowerTrimmed.startsWith("<!doctype") || lowerTrimmed.startsWith("<html")) {
-            return ValidationResult.invalid(ValidationReason.HTML_RESPONSE);
+        int earliest = HUNKLESS_CHECKS.size();
+        for (FileDiff file : summary.files()) {
+            int check = hunklessCheck(file);
+            if (check < 0) {
+                return ValidationResult.invalid(ValidationReason.MALFORMED_DIFF);
+            }
+            earliest = Math.min(earliest, check);
         }
-
-        return null;
+        return ValidationResult.skip(HUNKLESS_CHECKS.get(earliest).reason());
     }
 
-    private ValidationResult detectDiffType(String diff) {
-        boolean hasHunkHeader = HUNK_HEADER.matcher(diff).find();
-
-        // If it has hunks, it has reviewable content
-        if (hasHunkHeader) {
-            return ValidationResult.valid();
+    /**
+     * Per-file classification: {@link ValidationReason#CONTENT_CHANGES} for files with hunks,
+     * the hunk-less reason otherwise, and {@link ValidationReason#MALFORMED_DIFF} when unknown.
+     */
+    public static ValidationReason classify(FileDiff file) {
+        if (file.hasHunks()) {
+            return ValidationReason.CONTENT_CHANGES;
         }
-
-        // No hunks - check for valid hunk-less cases
-        return detectHunklessDiffType(diff);
+        int check = hunklessCheck(file);
+        return check < 0 ? ValidationReason.MALFORMED_DIFF : HUNKLESS_CHECKS.get(check).reason();
     }
 
-    // Unknown hunk-less cases are treated as MALFORMED_DIFF for safety
-    private ValidationResult detectHunklessDiffType(String diff) {
-        return HUNKLESS_CHECKS.stream()
-            .filter(check -> check.predicate.test(diff))
-            .findFirst()
-            .map(check -> ValidationResult.skip(check.reason))
-            .orElse(ValidationResult.invalid(ValidationReason.MALFORMED_DIFF));
+    private static int hunklessCheck(FileDiff file) {
+        for (int i = 0; i < HUNKLESS_CHECKS.size(); i++) {
+            if (HUNKLESS_CHECKS.get(i).predicate().test(file)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    private static boolean isBinary(String diff) {
-        return diff.contains("Binary files") || diff.contains("GIT binary patch");
-    }
+    // Looks only at the leading bytes so a multi-megabyte diff is not copied or lower-cased
+    private ValidationResult checkInvalidResponse(byte[] diff) {
+        int start = 0;
+        while (diff != null && start < diff.length && isWhitespace(diff[start])) {
+            start++;
+        }
+        if (diff == null || start == diff.length) {
+            return ValidationResult.invalid(ValidationReason.EMPTY_RESPONSE);
+        }
 
-    private static boolean isRename(String diff) {
-        return RENAME_FROM.matcher(diff).find() && RENAME_TO.matcher(diff).find();
-    }
+        // Check for JSON error responses
+        byte first = diff[start];
+        if (first == '{' || first == '[') {
+            return ValidationResult.invalid(ValidationReason.JSON_RESPONSE);
+        }
 
-    private static boolean isCopy(String diff) {
-        return COPY_FROM.matcher(diff).find() && COPY_TO.matcher(diff).find();
-    }
+        // Check for HTML error pages
+        if (startsWithIgnoreCase(diff, start, "<!doctype") || startsWithIgnoreCase(diff, start, "<html")) {
+            return ValidationResult.invalid(ValidationReason.HTML_RESPONSE);
+        }
 
-    private static boolean isModeOnly(String diff) {
-        return OLD_MODE.matcher(diff).find() && NEW_MODE.matcher(diff).find();
+        return null;
     }
 
-    private static boolean isNewFile(String diff) {
-        return NEW_FILE.matcher(diff).find();
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
     }
 
-    private static boolean isDeletedFile(String diff) {
-        return DELETED_FILE.matcher(diff).find();
+    // ASCII-only prefix compare; the lower-case prefix is matched against either case
+    private static boolean startsWithIgnoreCase(byte[] diff, int start, String prefix) {
+        if (diff.length - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(diff[start + i]) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void logValidation(ValidationResult result, String diff) {
-        int length = diff != null ? diff.length() : 0;
+    private void logValidation(ValidationResult result, byte[] diff) {
+        int length = diff != null ? diff.length : 0;
 
         switch (result.status()) {
             case VALID -> log.debug("Diff validation: {} ({} bytes)", result.getMessage(), length);
@@ -138,10 +147,13 @@ public class DiffValidator {
     }
 
     // Only called in debug level to prevent code exposure in production logs
-    private String truncateForDebug(String text, int maxLength) {
-        if (text == null || text.length() <= maxLength) {
-            return text;
+    private String truncateForDebug(byte[] diff, int maxLength) {
+        if (diff == null) {
+            return null;
+        }
+        if (diff.length <= maxLength) {
+            return new String(diff, StandardCharsets.UTF_8);
         }
-        return text.substring(0, maxLength) + "... (truncated)";
+        return new String(diff, 0, maxLength, StandardCharsets.UTF_8) + "... (truncated)";
     }
 }
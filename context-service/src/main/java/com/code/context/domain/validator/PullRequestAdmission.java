@@ -0,0 +1,83 @@
+package com.code.context.domain.validator;
+
+import com.code.context.domain.model.PullRequestStats;
+
+import java.util.Objects;
+
+/**
+ * Decides from webhook size statistics whether the full diff is worth downloading.
+ * Unknown statistics always admit the full fetch; the post-download size check stays the backstop.
+ */
+public class PullRequestAdmission {
+
+    public enum Decision {
+        /** Download the full diff */
+        FETCH,
+        /** Too large for a full review; review the per-file patches that fit instead */
+        PARTIAL,
+        /** Do not review */
+        SKIP
+    }
+
+    public enum Oversize {
+        SKIP,
+        PARTIAL
+    }
+
+    public record Result(Decision decision, ValidationReason reason) {
+        private static final Result FETCH = new Result(Decision.FETCH, ValidationReason.CONTENT_CHANGES);
+
+        public Result {
+            Objects.requireNonNull(decision, "decision cannot be null");
+            Objects.requireNonNull(reason, "reason cannot be null");
+        }
+
+        public String getMessage() {
+            return reason.getMessage();
+        }
+    }
+
+    private final boolean enabled;
+    private final long maxChangedLines;
+    private final int maxChangedFiles;
+    private final boolean skipDrafts;
+    private final Oversize oversize;
+
+    public PullRequestAdmission(boolean enabled, long maxChangedLines, int maxChangedFiles,
+                                boolean skipDrafts, Oversize oversize) {
+        this.enabled = enabled;
+        this.maxChangedLines = maxChangedLines;
+        this.maxChangedFiles = maxChangedFiles;
+        this.skipDrafts = skipDrafts;
+        this.oversize = Objects.requireNonNull(oversize, "oversize cannot be null");
+    }
+
+    public static PullRequestAdmission admitAll() {
+        return new PullRequestAdmission(false, Long.MAX_VALUE, Integer.MAX_VALUE, false, Oversize.SKIP);
+    }
+
+    public Result evaluate(PullRequestStats stats) {
+        if (!enabled || stats == null) {
+            return Result.FETCH;
+        }
+
+        if (skipDrafts && stats.isDraft()) {
+            return new Result(Decision.SKIP, ValidationReason.DRAFT_PULL_REQUEST);
+        }
+
+        if (stats.changedFiles() != null && stats.changedFiles() > maxChangedFiles) {
+            return oversized(ValidationReason.TOO_MANY_FILES);
+        }
+
+        if (stats.hasLineCounts() && stats.changedLines() > maxChangedLines) {
+            return oversized(ValidationReason.DIFF_TOO_LARGE);
+        }
+
+        return Result.FETCH;
+    }
+
+    private Result oversized(ValidationReason reason) {
+        Decision decision = oversize == Oversize.PARTIAL ? Decision.PARTIAL : Decision.SKIP;
+        return new Result(decision, reason);
+    }
+}
@@ -12,6 +12,8 @@ public enum ValidationReason {
     COPY_ONLY("File copy without content changes"),
     PERMISSION_ONLY("File permission change only"),
     DIFF_TOO_LARGE("Diff exceeds Kafka message size limit"),
+    TOO_MANY_FILES("Pull request changes more files than can be reviewed"),
+    DRAFT_PULL_REQUEST("Draft pull request"),
 
     // SKIP cases - fallback for future cases
     OTHER_SKIP("Other valid diff that should skip review"),
@@ -1,8 +1,10 @@
 package com.code.context.infrastructure.adapter.inbound.event;
 
 import com.code.context.application.port.inbound.ContextCollectionService;
+import com.code.context.domain.model.PullRequestStats;
 import com.code.context.infrastructure.config.KafkaTopicProperties;
 import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
 import com.code.platform.dlt.DltPublisher;
 import com.code.platform.idempotency.IdempotencyStore;
 import lombok.RequiredArgsConstructor;
@@ -55,7 +57,10 @@ public class PullRequestEventListener {
                     event.pullRequestNumber(),
                     event.title(),
                     diffUrl,
-                    event.correlationId()
+                    event.correlationId(),
+                    new PullRequestStats(event.additions(), event.deletions(), event.changedFiles(), event.draft()),
+                    event.commitSha(),
+                    event.action() == WebhookAction.SYNCHRONIZE
             ).subscribe(
                     context -> {
                         log.info("Context collection completed for PR #{}", event.pullRequestNumber());
@@ -0,0 +1,37 @@
+package com.code.context.infrastructure.adapter.inbound.event;
+
+import com.code.context.application.port.inbound.ContextCollectionService;
+import com.code.events.review.ReviewCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Confirms the head a completed review covered, so the next push to the pull request is diffed
+ * against it. Confirming twice changes nothing, so redeliveries need no idempotency check.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewCompletedEventListener {
+
+    private final ContextCollectionService contextCollectionService;
+
+    @KafkaListener(
+        topics = "${kafka.topics.review-completed}",
+        groupId = "${spring.kafka.consumer.group-id}"
+    )
+    public void onReviewCompleted(ReviewCompletedEvent event, Acknowledgment ack) {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable("correlationId", event.correlationId())) {
+            log.debug("Received ReviewCompleted event: eventId={}, contextId={}, repo={}/{}, PR #{}",
+                event.eventId(), event.contextId(), event.repositoryOwner(), event.repositoryName(),
+                event.pullRequestNumber());
+
+            contextCollectionService.reviewCompleted(event.contextId());
+            ack.acknowledge();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.code.context.infrastructure.adapter.outbound.blob;
+
+import com.code.context.application.port.outbound.DiffStore;
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
+import com.code.platform.blob.BlobClient;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Offloads every diff to the shared blob store, so its size is bounded by the store rather than
+ * by Kafka and consumers that never read the diff do not deserialize it.
+ */
+@Slf4j
+public class BlobDiffStore implements DiffStore {
+
+    private final BlobClient blobClient;
+    private final int maxDiffSizeBytes;
+
+    public BlobDiffStore(BlobClient blobClient, int maxDiffSizeBytes) {
+        this.blobClient = blobClient;
+        this.maxDiffSizeBytes = maxDiffSizeBytes;
+    }
+
+    @Override
+    public int maxDiffSizeBytes() {
+        return maxDiffSizeBytes;
+    }
+
+    @Override
+    public Mono<DiffReference> store(DiffContent diff) {
+        return blobClient.put(diff.utf8())
+                .map(digest -> new DiffReference(digest, (long) diff.sizeBytes()))
+                .doOnNext(reference -> log.debug("Diff offloaded as {} ({} bytes)",
+                        reference.digest(), reference.sizeBytes()));
+    }
+}
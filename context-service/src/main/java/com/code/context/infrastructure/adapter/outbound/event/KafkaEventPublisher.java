@@ -3,6 +3,7 @@ package com.code.context.infrastructure.adapter.outbound.event;
 import com.code.context.application.port.outbound.EventPublisher;
 import com.code.context.infrastructure.config.KafkaTopicProperties;
 import com.code.events.context.ContextCollectedEvent;
+import com.code.platform.partitioning.PartitionKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -16,13 +17,14 @@ public class KafkaEventPublisher implements EventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KafkaTopicProperties topicProperties;
+    private final PartitionKeys partitionKeys;
 
     @Override
     public Mono<Void> publish(ContextCollectedEvent event) {
-        // Use repository as key for partitioning (maintains ordering per repository)
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        // Keyed per pull request, so its events stay ordered on every topic of the pipeline
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing ContextCollectedEvent to Kafka: eventId={}, contextId={}, repo={}",
+        log.debug("Publishing ContextCollectedEvent to Kafka: eventId={}, contextId={}, key={}",
             event.eventId(), event.contextId(), key);
 
         // Convert CompletableFuture to Mono and await completion
@@ -0,0 +1,291 @@
+package com.code.context.infrastructure.adapter.outbound.github;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * HTTP cache for GitHub GET requests, revalidated with conditional requests.
+ * <p>
+ * A 200 carrying an ETag or Last-Modified is kept with its body. The next request for the same
+ * URL and Accept header is sent with If-None-Match (or If-Modified-Since). A 304 is answered from
+ * the cache as a 200, and GitHub does not count it against the primary rate limit. Bodies are
+ * captured while the caller reads them, so a download the caller abandons, such as an oversized
+ * diff, is never cached.
+ * <p>
+ * The cache is bounded by body bytes. With a directory, every entry is also written to one file
+ * that is reloaded on startup and deleted on eviction.
+ */
+@Slf4j
+public class ConditionalRequestCache implements ExchangeFilterFunction {
+
+    private static final int FILE_VERSION = 1;
+    private static final String FILE_SUFFIX = ".entry";
+
+    private final Cache<String, CachedResponse> cache;
+    private final long maxBytes;
+    private final Path directory;
+    private final MetricsHelper metrics;
+
+    public ConditionalRequestCache(long maxBytes, Path directory, MetricsHelper metrics) {
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse entry) -> entry.weight())
+                .removalListener(this::onRemoval)
+                .build();
+
+        if (directory != null) {
+            load();
+        }
+        metrics.gauge("github.cache.size_bytes", this, ConditionalRequestCache::weightedSize);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.method() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+
+        String key = key(request);
+        CachedResponse cached = cache.getIfPresent(key);
+        ClientRequest outgoing = cached == null ? request : ClientRequest.from(request)
+                .headers(cached::applyValidators)
+                .build();
+
+        return next.exchange(outgoing).map(response -> {
+            if (cached != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                metrics.incrementCounter("github.cache.hit");
+                metrics.incrementCounter("github.cache.bytes_saved", cached.body().length);
+                return cached.toResponse(response);
+            }
+            metrics.incrementCounter("github.cache.miss");
+            if (response.statusCode().value() == HttpStatus.OK.value() && isCacheable(response.headers().asHttpHeaders())) {
+                HttpHeaders headers = response.headers().asHttpHeaders();
+                return response.mutate()
+                        .body(body -> capture(body, key, headers))
+                        .build();
+            }
+            return response;
+        });
+    }
+
+    long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static String key(ClientRequest request) {
+        return request.url() + "|" + request.headers().getFirst(HttpHeaders.ACCEPT);
+    }
+
+    private static boolean isCacheable(HttpHeaders headers) {
+        return headers.getETag() != null || headers.getFirst(HttpHeaders.LAST_MODIFIED) != null;
+    }
+
+    /**
+     * Copies the body as it passes through without consuming it, and stores it once the caller
+     * has read it to the end. Bodies larger than the whole cache are dropped as they grow.
+     */
+    private Flux<DataBuffer> capture(Flux<DataBuffer> body, String key, HttpHeaders headers) {
+        return Flux.defer(() -> {
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            AtomicBoolean overflow = new AtomicBoolean();
+            return body
+                    .doOnNext(buffer -> {
+                        if (overflow.get()) {
+                            return;
+                        }
+                        if (captured.size() + buffer.readableByteCount() > maxBytes) {
+                            overflow.set(true);
+                            captured.reset();
+                            return;
+                        }
+                        try (DataBuffer.ByteBufferIterator views = buffer.readableByteBuffers()) {
+                            while (views.hasNext()) {
+                                ByteBuffer view = views.next();
+                                byte[] chunk = new byte[view.remaining()];
+                                view.get(chunk);
+                                captured.write(chunk, 0, chunk.length);
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow.get()) {
+                            put(key, new CachedResponse(key, headers.getETag(),
+                                    headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                                    headers.getFirst(HttpHeaders.CONTENT_TYPE), captured.toByteArray()));
+                        }
+                    });
+        });
+    }
+
+    private void put(String key, CachedResponse entry) {
+        cache.put(key, entry);
+        if (directory != null) {
+            Schedulers.boundedElastic().schedule(() -> write(entry));
+        }
+    }
+
+    private void onRemoval(String key, CachedResponse entry, RemovalCause cause) {
+        // A replaced entry's file is overwritten by the new one, which may already be on disk
+        if (directory != null && key != null && cause != RemovalCause.REPLACED) {
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                log.warn("Failed to delete cached response for {}", key, e);
+            }
+        }
+    }
+
+    private void write(CachedResponse entry) {
+        Path target = file(entry.key());
+        try {
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(FILE_VERSION);
+                out.writeUTF(entry.key());
+                out.writeUTF(nullToEmpty(entry.etag()));
+                out.writeUTF(nullToEmpty(entry.lastModified()));
+                out.writeUTF(nullToEmpty(entry.contentType()));
+                out.writeInt(entry.body().length);
+                out.write(entry.body());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist cached response for {}", entry.key(), e);
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create GitHub cache directory " + directory, e);
+        }
+
+        int loaded = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (!name.endsWith(FILE_SUFFIX)) {
+                    // Left over from a write interrupted by shutdown
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(path);
+                    }
+                    continue;
+                }
+                CachedResponse entry = read(path);
+                if (entry == null) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                cache.put(entry.key(), entry);
+                loaded++;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load GitHub cache from {}", directory, e);
+        }
+        log.info("Loaded {} cached GitHub responses ({} bytes) from {}", loaded, weightedSize(), directory);
+    }
+
+    private static CachedResponse read(Path path) {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(file)) {
+            if (in.readInt() != FILE_VERSION) {
+                return null;
+            }
+            String key = in.readUTF();
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            String contentType = emptyToNull(in.readUTF());
+            byte[] body = in.readNBytes(in.readInt());
+            return new CachedResponse(key, etag, lastModified, contentType, body);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable cached response {}", path, e);
+            return null;
+        }
+    }
+
+    private Path file(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + FILE_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    record CachedResponse(String key, String etag, String lastModified, String contentType, byte[] body) {
+
+        int weight() {
+            return body.length + key.length();
+        }
+
+        void applyValidators(HttpHeaders headers) {
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            } else if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        /**
+         * The 304 as a 200 with the cached body; the 304's own headers, such as the rate-limit
+         * ones, are kept.
+         */
+        ClientResponse toResponse(ClientResponse notModified) {
+            return notModified.mutate()
+                    .statusCode(HttpStatus.OK)
+                    .headers(headers -> {
+                        if (contentType != null) {
+                            headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+                        }
+                        headers.setContentLength(body.length);
+                    })
+                    .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))))
+                    .build();
+        }
+    }
+}
@@ -1,47 +1,126 @@
 package com.code.context.infrastructure.adapter.outbound.github;
 
 import com.code.context.application.port.outbound.GitHubClient;
+import com.code.context.domain.exception.CompareUnavailableException;
+import com.code.context.domain.exception.DiffTooLargeException;
 import com.code.context.domain.exception.InvalidDiffException;
+import com.code.context.domain.model.FileChange;
 import com.code.context.domain.validator.DiffValidator;
 import com.code.context.domain.validator.ValidationResult;
+import com.code.context.infrastructure.config.GitHubFilesProperties;
+import com.code.events.context.DiffContent;
+import com.code.platform.resilience.ResiliencePolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public final class GitHubClientAdapter implements GitHubClient {
 
+    private static final String FILES_URI = "/repos/{owner}/{repo}/pulls/{pull_number}/files?per_page={per_page}&page={page}";
+    private static final String COMPARE_URI = "/repos/%s/%s/compare/%s...%s";
+    // One commit per page keeps the JSON small; only the status is read
+    private static final String COMPARE_STATUS_URI = "/repos/{owner}/{repo}/compare/{base}...{head}?per_page=1";
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("[?&]page=(\\d+)");
+
     private final WebClient gitHubWebClient;
     private final Retry retryStrategy;
+    private final ResiliencePolicy gitHubResilience;
     private final DiffValidator diffValidator;
+    private final GitHubFilesProperties filesProperties;
+
+    record CompareStatus(String status) {
+    }
 
     @Override
-    public Mono<String> getDiff(String diffUrl) {
+    public Mono<DiffContent> getDiff(String diffUrl, int maxSizeBytes) {
         log.debug("Fetching diff from: {}", diffUrl);
 
         return gitHubWebClient.get()
                 .uri(diffUrl)
                 .accept(MediaType.valueOf("application/vnd.github.v3.diff"))
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToFlux(DataBuffer.class)
+                // join cancels the body once the limit is passed, which closes the connection
+                .as(body -> DataBufferUtils.join(body, maxSizeBytes))
+                .onErrorMap(DataBufferLimitException.class, err -> new DiffTooLargeException(maxSizeBytes))
+                .map(GitHubClientAdapter::toBytes)
                 .flatMap(diff -> validateDiff(diff, diffUrl))
+                .transform(gitHubResilience::protect)
                 .retryWhen(retryStrategy)
                 .doOnError(err -> log.error("Failed to fetch diff from {}", diffUrl, err));
     }
 
-    private Mono<String> validateDiff(String diff, String diffUrl) {
+    @Override
+    public Mono<DiffContent> getCompareDiff(String repositoryOwner, String repositoryName, String baseSha,
+                                            String headSha, int maxSizeBytes) {
+        if (repositoryOwner == null || repositoryName == null || baseSha == null || headSha == null) {
+            return Mono.error(new IllegalArgumentException("Parameters must not be null"));
+        }
+        // The three-dot compare diffs from the merge base, so a head that diverged from the base
+        // would still answer, with a diff that includes commits already reviewed
+        return compareStatus(repositoryOwner, repositoryName, baseSha, headSha)
+                .flatMap(status -> switch (status) {
+                    case "ahead", "identical" -> getDiff(
+                            String.format(COMPARE_URI, repositoryOwner, repositoryName, baseSha, headSha),
+                            maxSizeBytes);
+                    default -> Mono.error(new CompareUnavailableException(
+                            "Head %s is %s from %s".formatted(headSha, status, baseSha)));
+                });
+    }
+
+    private Mono<String> compareStatus(String repositoryOwner, String repositoryName, String baseSha,
+                                       String headSha) {
+        return gitHubWebClient.get()
+                .uri(COMPARE_STATUS_URI, repositoryOwner, repositoryName, baseSha, headSha)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(CompareStatus.class)
+                .transform(gitHubResilience::protect)
+                .retryWhen(retryStrategy)
+                .onErrorMap(WebClientResponseException.NotFound.class, err -> new CompareUnavailableException(
+                        "Commit %s or %s not found".formatted(baseSha, headSha)))
+                .mapNotNull(CompareStatus::status)
+                .switchIfEmpty(Mono.error(() -> new CompareUnavailableException(
+                        "No compare status for %s...%s".formatted(baseSha, headSha))));
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private Mono<DiffContent> validateDiff(byte[] diff, String diffUrl) {
         ValidationResult result = diffValidator.validate(diff);
 
         return switch (result.status()) {
             case VALID -> {
-                log.debug("Diff validation: {} ({} bytes)", result.getMessage(), diff.length());
-                yield Mono.just(diff);
+                log.debug("Diff validation: {} ({} bytes)", result.getMessage(), diff.length);
+                yield Mono.just(DiffContent.ofUtf8(diff));
             }
             case SKIP -> {
                 log.debug("Diff validation: {} - skipping review", result.getMessage());
@@ -55,20 +134,67 @@ public final class GitHubClientAdapter implements GitHubClient {
     }
 
     @Override
-    public Mono<String> getFileMetadata(String repositoryOwner, String repositoryName, Integer prNumber) {
+    public Flux<FileChange> getFileChanges(String repositoryOwner, String repositoryName, Integer prNumber) {
         if (repositoryOwner == null || repositoryName == null || prNumber == null) {
-            return Mono.error(new IllegalArgumentException("Parameters must not be null"));
+            return Flux.error(new IllegalArgumentException("Parameters must not be null"));
         }
 
-        String uri = "/repos/{owner}/{repo}/pulls/{pull_number}/files";
         log.debug("Fetching file metadata for PR #{} in {}/{}", prNumber, repositoryOwner, repositoryName);
 
-        return gitHubWebClient.get()
-                .uri(uri, repositoryOwner, repositoryName, prNumber)
-                .retrieve()
-                .bodyToMono(String.class)
+        // Pages are decoded element by element into FileChange; the first page's Link header
+        // gives the page count, and the rest are requested together but emitted in order
+        return filesPage(repositoryOwner, repositoryName, prNumber, 1)
+                .toEntityList(FileChange.class)
+                .transform(gitHubResilience::protect)
                 .retryWhen(retryStrategy)
-                .doOnSuccess(metadata -> log.debug("File metadata fetched successfully"))
+                .flatMapMany(firstPage -> {
+                    int lastPage = lastPage(firstPage.getHeaders());
+                    int pages = Math.min(lastPage, filesProperties.maxPages());
+                    if (lastPage > pages) {
+                        log.warn("PR #{} lists {} pages of files, fetching the first {}", prNumber, lastPage, pages);
+                    }
+
+                    Flux<FileChange> remaining = Flux.range(2, Math.max(0, pages - 1))
+                            .flatMapSequential(page -> filesPage(repositoryOwner, repositoryName, prNumber, page)
+                                    .bodyToFlux(FileChange.class)
+                                    .collectList()
+                                    .transform(gitHubResilience::protect)
+                                    .retryWhen(retryStrategy), filesProperties.concurrency())
+                            .flatMapIterable(Function.identity());
+                    List<FileChange> first = Objects.requireNonNullElse(firstPage.getBody(), List.of());
+                    return Flux.concat(Flux.fromIterable(first), remaining);
+                })
+                // Unparseable metadata degrades to fewer files rather than failing the collection
+                .onErrorResume(DecodingException.class, err -> {
+                    log.warn("Failed to parse file metadata for PR #{}", prNumber, err);
+                    return Flux.empty();
+                })
+                .doOnComplete(() -> log.debug("File metadata fetched successfully"))
                 .doOnError(err -> log.error("Failed to fetch file metadata for PR #{}", prNumber, err));
     }
+
+    private WebClient.ResponseSpec filesPage(String repositoryOwner, String repositoryName, Integer prNumber, int page) {
+        return gitHubWebClient.get()
+                .uri(FILES_URI, repositoryOwner, repositoryName, prNumber, filesProperties.pageSize(), page)
+                .retrieve();
+    }
+
+    /**
+     * Page number of the {@code rel="last"} link, or 1 when there is no further page.
+     */
+    static int lastPage(HttpHeaders headers) {
+        String link = headers.getFirst(HttpHeaders.LINK);
+        if (link == null) {
+            return 1;
+        }
+        for (String part : link.split(",")) {
+            if (part.contains("rel=\"last\"")) {
+                Matcher page = PAGE_PARAMETER.matcher(part);
+                if (page.find()) {
+                    return Integer.parseInt(page.group(1));
+                }
+            }
+        }
+        return 1;
+    }
 }
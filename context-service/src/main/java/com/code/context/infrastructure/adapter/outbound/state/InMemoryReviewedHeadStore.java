@@ -0,0 +1,68 @@
+package com.code.context.infrastructure.adapter.outbound.state;
+
+import com.code.context.application.port.outbound.ReviewedHeadStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-local reviewed heads, bounded by pull request count and dropped after a period without
+ * pushes. Heads awaiting their review are held by context id under the same bounds. A head lost
+ * to a restart or eviction only means the next push is collected in full.
+ * <p>
+ * Heads are numbered as they are sent for review, and a review completing late for a head sent
+ * before the current reviewed head is ignored. Only the instance that collected a context can
+ * confirm it, so this store suits a single context-service instance.
+ */
+public class InMemoryReviewedHeadStore implements ReviewedHeadStore {
+
+    private record PendingHead(String pullRequest, String headSha, long sequence) {
+    }
+
+    private record ReviewedHead(String headSha, long sequence) {
+    }
+
+    private final Cache<String, ReviewedHead> heads;
+    private final Cache<String, PendingHead> pending;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryReviewedHeadStore(long maxPullRequests, Duration retention) {
+        this.heads = Caffeine.newBuilder()
+                .maximumSize(maxPullRequests)
+                .expireAfterWrite(retention)
+                .build();
+        this.pending = Caffeine.newBuilder()
+                .maximumSize(maxPullRequests)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public Optional<String> lastReviewedHead(String repositoryOwner, String repositoryName, int prNumber) {
+        return Optional.ofNullable(heads.getIfPresent(key(repositoryOwner, repositoryName, prNumber)))
+                .map(ReviewedHead::headSha);
+    }
+
+    @Override
+    public void recordPendingHead(String contextId, String repositoryOwner, String repositoryName, int prNumber,
+                                  String headSha) {
+        pending.put(contextId, new PendingHead(key(repositoryOwner, repositoryName, prNumber), headSha,
+                sequence.incrementAndGet()));
+    }
+
+    @Override
+    public void confirmReviewedHead(String contextId) {
+        PendingHead head = pending.asMap().remove(contextId);
+        if (head != null) {
+            heads.asMap().merge(head.pullRequest(), new ReviewedHead(head.headSha(), head.sequence()),
+                    (current, confirmed) -> confirmed.sequence() > current.sequence() ? confirmed : current);
+        }
+    }
+
+    private static String key(String repositoryOwner, String repositoryName, int prNumber) {
+        return repositoryOwner + "/" + repositoryName + "#" + prNumber;
+    }
+}
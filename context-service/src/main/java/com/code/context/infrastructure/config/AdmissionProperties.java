@@ -0,0 +1,40 @@
+package com.code.context.infrastructure.config;
+
+import com.code.context.domain.validator.PullRequestAdmission;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Pre-fetch admission from the size statistics carried on PullRequestReceivedEvent.
+ * maxChangedLines approximates the Kafka diff limit: at roughly 40-50 bytes per diff line,
+ * 10,000 added plus deleted lines is already close to 500 KB before context lines.
+ */
+@Validated
+@ConfigurationProperties(prefix = "context.admission")
+public record AdmissionProperties(
+        Boolean enabled,
+        @Positive Integer maxChangedLines,
+        @Positive Integer maxChangedFiles,
+        Boolean skipDrafts,
+        PullRequestAdmission.Oversize oversize
+) {
+    public AdmissionProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxChangedLines == null) {
+            maxChangedLines = 10_000;
+        }
+        if (maxChangedFiles == null) {
+            maxChangedFiles = 300;
+        }
+        if (skipDrafts == null) {
+            skipDrafts = false;
+        }
+        if (oversize == null) {
+            oversize = PullRequestAdmission.Oversize.SKIP;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.code.context.infrastructure.config;
+
+import com.code.context.domain.model.CollectionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How an admitted pull request's diff is collected. PATCHES needs one GitHub call per PR instead
+ * of two, and only goes back for the raw diff when GitHub omitted a changed file's patch.
+ */
+@ConfigurationProperties(prefix = "context.collection")
+public record CollectionProperties(
+        CollectionMode mode
+) {
+    public CollectionProperties {
+        if (mode == null) {
+            mode = CollectionMode.DIFF;
+        }
+    }
+}
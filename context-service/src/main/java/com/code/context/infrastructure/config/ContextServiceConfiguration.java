@@ -1,10 +1,18 @@
 package com.code.context.infrastructure.config;
 
 import com.code.context.application.port.inbound.ContextCollectionService;
+import com.code.context.application.port.outbound.DiffStore;
 import com.code.context.application.port.outbound.EventPublisher;
 import com.code.context.application.port.outbound.GitHubClient;
+import com.code.context.application.port.outbound.ReviewedHeadStore;
 import com.code.context.application.service.ContextCollectionServiceImpl;
+import com.code.context.domain.validator.PullRequestAdmission;
+import com.code.context.infrastructure.adapter.outbound.blob.BlobDiffStore;
+import com.code.context.infrastructure.adapter.outbound.state.InMemoryReviewedHeadStore;
+import com.code.platform.blob.BlobClient;
+import com.code.platform.blob.BlobProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,8 +23,41 @@ public class ContextServiceConfiguration {
     public ContextCollectionService contextCollectionService(
             GitHubClient gitHubClient,
             EventPublisher eventPublisher,
-            ObjectMapper objectMapper) {
-        return new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper);
+            ObjectMapper objectMapper,
+            PullRequestAdmission pullRequestAdmission,
+            CollectionProperties collectionProperties,
+            ReviewedHeadStore reviewedHeadStore,
+            DiffStore diffStore) {
+        return new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper, pullRequestAdmission,
+                collectionProperties.mode(), reviewedHeadStore, diffStore);
+    }
+
+    @Bean
+    public DiffStore diffStore(ObjectProvider<BlobClient> blobClient, BlobProperties blobProperties) {
+        BlobClient client = blobClient.getIfAvailable();
+        if (client == null) {
+            return DiffStore.inline();
+        }
+        return new BlobDiffStore(client, (int) Math.min(blobProperties.maxSize().toBytes(), Integer.MAX_VALUE));
+    }
+
+    @Bean
+    public ReviewedHeadStore reviewedHeadStore(IncrementalReviewProperties properties) {
+        if (!properties.enabled()) {
+            return ReviewedHeadStore.none();
+        }
+        return new InMemoryReviewedHeadStore(properties.maxPullRequests(), properties.retention());
+    }
+
+    @Bean
+    public PullRequestAdmission pullRequestAdmission(AdmissionProperties properties) {
+        return new PullRequestAdmission(
+                properties.enabled(),
+                properties.maxChangedLines(),
+                properties.maxChangedFiles(),
+                properties.skipDrafts(),
+                properties.oversize()
+        );
     }
 
     @Bean
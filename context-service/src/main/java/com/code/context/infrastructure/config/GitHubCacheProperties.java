@@ -0,0 +1,29 @@
+package com.code.context.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Conditional-request cache for GitHub reads. Bodies are kept with their ETag/Last-Modified
+ * and revalidated with If-None-Match; GitHub does not count a 304 against the primary rate limit.
+ * With a directory set, entries are also written to disk and reloaded on startup. Off unless
+ * enabled: cached bodies include private repositories' diffs, on disk too with a directory.
+ */
+@ConfigurationProperties(prefix = "context.github.cache")
+public record GitHubCacheProperties(
+        Boolean enabled,
+        DataSize maxSize,
+        String directory
+) {
+    public GitHubCacheProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+        if (maxSize == null) {
+            maxSize = DataSize.ofMegabytes(64);
+        }
+        if (directory != null && directory.isBlank()) {
+            directory = null;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.code.context.infrastructure.config;
 
+import com.code.context.domain.exception.DiffTooLargeException;
 import com.code.context.domain.exception.InvalidDiffException;
+import com.code.context.infrastructure.adapter.outbound.github.ConditionalRequestCache;
 import com.code.platform.github.GitHubProperties;
+import com.code.platform.github.GitHubRateLimitException;
+import com.code.platform.github.GitHubRateLimiter;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.ResiliencePolicy;
+import com.code.platform.resilience.ResilienceRegistry;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.netty.http.client.HttpClient;
 import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
 
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -25,7 +37,15 @@ public class GitHubClientConfig {
     private final GitHubProperties properties;
 
     @Bean
-    public WebClient gitHubWebClient() {
+    @ConditionalOnProperty(prefix = "context.github.cache", name = "enabled", havingValue = "true")
+    public ConditionalRequestCache conditionalRequestCache(GitHubCacheProperties cacheProperties, MetricsHelper metricsHelper) {
+        Path directory = cacheProperties.directory() != null ? Path.of(cacheProperties.directory()) : null;
+        return new ConditionalRequestCache(cacheProperties.maxSize().toBytes(), directory, metricsHelper);
+    }
+
+    @Bean
+    public WebClient gitHubWebClient(ObjectProvider<ConditionalRequestCache> conditionalRequestCache,
+                                     ObjectProvider<GitHubRateLimiter> rateLimiter) {
         // Validate token configuration at startup
         if (properties.token() == null || properties.token().isBlank()) {
             throw new IllegalStateException("GitHub API token must be configured (github.api.token)");
@@ -37,24 +57,48 @@ public class GitHubClientConfig {
                         .addHandlerLast(new ReadTimeoutHandler(properties.timeout().read().toMillis(), TimeUnit.MILLISECONDS))
                         .addHandlerLast(new WriteTimeoutHandler(properties.timeout().write().toMillis(), TimeUnit.MILLISECONDS)));
 
-        return WebClient.builder()
+        WebClient.Builder builder = WebClient.builder()
                 .baseUrl(properties.baseUrl())
                 .defaultHeader("Authorization", "token " + properties.token())
                 .defaultHeader("Accept", "application/vnd.github.v3+json")
                 .defaultHeader("User-Agent", "PR-Rule-Bot/1.0")
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        // Revalidate repeated reads (reopens, redeliveries, retries) instead of downloading again
+        conditionalRequestCache.ifAvailable(builder::filter);
+        // Inside the cache so revalidations are scheduled too and it sees the real response headers
+        rateLimiter.ifAvailable(builder::filter);
+        return builder.build();
+    }
+
+    @Bean
+    public ResiliencePolicy gitHubResilience(ResilienceRegistry resilienceRegistry) {
+        return resilienceRegistry.policy("github");
     }
 
     @Bean
-    public Retry retryStrategy() {
-        return Retry.backoff(properties.retry().maxAttempts(), properties.retry().backoff())
+    public Retry retryStrategy(ResiliencePolicy gitHubResilience) {
+        RetryBackoffSpec backoff = Retry.backoff(properties.retry().maxAttempts(), properties.retry().backoff())
                 .filter(throwable -> {
                     // Don't retry validation failures - they won't change on retry
                     if (throwable instanceof InvalidDiffException) {
                         log.debug("Skipping retry for InvalidDiffException");
                         return false;
                     }
+                    // An oversized diff is the same size on the next attempt
+                    if (throwable instanceof DiffTooLargeException) {
+                        log.debug("Skipping retry for DiffTooLargeException");
+                        return false;
+                    }
+                    // A body that failed to parse parses the same way on the next attempt
+                    if (throwable instanceof DecodingException) {
+                        log.debug("Skipping retry for DecodingException");
+                        return false;
+                    }
+                    // The budget will not be back within the backoff
+                    if (throwable instanceof GitHubRateLimitException) {
+                        log.debug("Skipping retry for GitHubRateLimitException");
+                        return false;
+                    }
                     // Don't retry 4xx client errors (401, 403, 404, 422, etc.)
                     if (throwable instanceof WebClientResponseException e) {
                         int status = e.getStatusCode().value();
@@ -69,5 +113,7 @@ public class GitHubClientConfig {
                 .doBeforeRetry(signal ->
                     log.warn("Retrying GitHub API call (attempt {}): {}",
                             signal.totalRetries() + 1, signal.failure().getMessage()));
+        // Retries draw on the shared budget, so an outage does not multiply the load on GitHub
+        return gitHubResilience.withRetryBudget(backoff);
     }
 }
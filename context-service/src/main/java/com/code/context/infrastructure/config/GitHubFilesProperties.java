@@ -0,0 +1,32 @@
+package com.code.context.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Paging of {@code /pulls/{n}/files}. GitHub serves at most 100 files per page and 3000 files
+ * in total, so the defaults cover every listing it can return; pages after the first are
+ * fetched up to {@code concurrency} at a time.
+ */
+@Validated
+@ConfigurationProperties(prefix = "context.github.files")
+public record GitHubFilesProperties(
+        @Positive @Max(100) Integer pageSize,
+        @Positive Integer maxPages,
+        @Positive Integer concurrency
+) {
+    public GitHubFilesProperties {
+        if (pageSize == null) {
+            pageSize = 100;
+        }
+        if (maxPages == null) {
+            maxPages = 30;
+        }
+        if (concurrency == null) {
+            concurrency = 4;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.code.context.infrastructure.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Incremental review of SYNCHRONIZE pushes. The head reviewed last is kept per pull request for
+ * {@code retention} after it was recorded; a push to a PR without one is reviewed in full.
+ * Off by default: heads are kept in memory, where a review completion consumed by another
+ * instance cannot confirm them, so it only pays off with a single instance.
+ */
+@Validated
+@ConfigurationProperties(prefix = "context.incremental")
+public record IncrementalReviewProperties(
+        Boolean enabled,
+        @Positive Integer maxPullRequests,
+        Duration retention
+) {
+    public IncrementalReviewProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+        if (maxPullRequests == null) {
+            maxPullRequests = 10_000;
+        }
+        if (retention == null) {
+            retention = Duration.ofDays(14);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.validation.constraints.NotBlank;
 @ConfigurationProperties(prefix = "kafka.topics")
 public record KafkaTopicProperties(
     @NotBlank String pullRequestReceived,
-    @NotBlank String contextCollected
+    @NotBlank String contextCollected,
+    @NotBlank String reviewCompleted
 ) {
 }
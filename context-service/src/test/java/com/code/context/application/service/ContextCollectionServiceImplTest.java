@@ -1,22 +1,44 @@
 package com.code.context.application.service;
 
+import com.code.context.application.port.outbound.DiffStore;
 import com.code.context.application.port.outbound.EventPublisher;
 import com.code.context.application.port.outbound.GitHubClient;
+import com.code.context.application.port.outbound.ReviewedHeadStore;
+import com.code.context.domain.exception.CompareUnavailableException;
+import com.code.context.domain.exception.DiffTooLargeException;
+import com.code.context.domain.model.CollectionMode;
 import com.code.context.domain.model.CollectionStatus;
+import com.code.context.domain.model.FileChange;
 import com.code.context.domain.model.PullRequestContext;
+import com.code.context.domain.model.PullRequestStats;
+import com.code.context.domain.validator.PullRequestAdmission;
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
+import com.code.platform.github.GitHubRateLimitException;
+import com.code.platform.resilience.CallRejectedException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -41,21 +63,17 @@ class ContextCollectionServiceImplTest {
     static final String DIFF_URL = "https://api.github.com/repos/test-owner/test-repo/pulls/123";
     static final String CORRELATION_ID = "test-correlation-id";
     static final String DIFF = "diff --git a/test.java b/test.java";
-    static final String METADATA = """
-            [
-              {
-                "filename": "test.java",
-                "status": "modified",
-                "additions": 10,
-                "deletions": 5,
-                "patch": "@@ -1,5 +1,10 @@"
-              }
-            ]
-            """;
+    static final FileChange FILE = new FileChange("test.java", "modified", 10, 5, "@@ -1,5 +1,10 @@");
 
     @BeforeEach
     void setUp() {
-        service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper);
+        service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper, admission(
+                PullRequestAdmission.Oversize.SKIP), CollectionMode.DIFF, ReviewedHeadStore.none(),
+                DiffStore.inline());
+    }
+
+    static PullRequestAdmission admission(PullRequestAdmission.Oversize oversize) {
+        return new PullRequestAdmission(true, 1_000, 50, true, oversize);
     }
 
     @Nested
@@ -64,8 +82,8 @@ class ContextCollectionServiceImplTest {
 
         @BeforeEach
         void setUp() {
-            when(gitHubClient.getDiff(DIFF_URL)).thenReturn(Mono.just(DIFF));
-            when(gitHubClient.getFileMetadata(OWNER, REPO, PR_NUMBER)).thenReturn(Mono.just(METADATA));
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
             when(eventPublisher.publish(any())).thenReturn(Mono.empty());
         }
 
@@ -78,17 +96,17 @@ class ContextCollectionServiceImplTest {
                         assertThat(context.repositoryName()).isEqualTo(REPO);
                         assertThat(context.pullRequestNumber()).isEqualTo(PR_NUMBER);
                         assertThat(context.diffUrl()).isEqualTo(DIFF_URL);
-                        assertThat(context.diff()).isEqualTo(DIFF);
+                        assertThat(context.diff()).isEqualTo(DiffContent.of(DIFF));
                         assertThat(context.correlationId()).isEqualTo(CORRELATION_ID);
                     })
                     .verifyComplete();
 
-            verify(gitHubClient).getDiff(DIFF_URL);
-            verify(gitHubClient).getFileMetadata(OWNER, REPO, PR_NUMBER);
+            verify(gitHubClient).getDiff(eq(DIFF_URL), anyInt());
+            verify(gitHubClient).getFileChanges(OWNER, REPO, PR_NUMBER);
         }
 
         @Test
-        @DisplayName("should parse file changes from metadata")
+        @DisplayName("should carry the listed file changes")
         void shouldParseFileChanges() {
             StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
                     .assertNext(context -> {
@@ -97,6 +115,7 @@ class ContextCollectionServiceImplTest {
                         assertThat(context.files().get(0).status()).isEqualTo("modified");
                         assertThat(context.files().get(0).additions()).isEqualTo(10);
                         assertThat(context.files().get(0).deletions()).isEqualTo(5);
+                        assertThat(context.metadata()).isEqualTo("{\"file_count\":1}");
                     })
                     .verifyComplete();
         }
@@ -139,7 +158,8 @@ class ContextCollectionServiceImplTest {
 
         @BeforeEach
         void setUp() {
-            when(gitHubClient.getDiff(DIFF_URL)).thenReturn(Mono.error(new RuntimeException("GitHub error")));
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.error(new RuntimeException("GitHub error")));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
             when(eventPublisher.publish(any())).thenReturn(Mono.empty());
         }
 
@@ -177,14 +197,13 @@ class ContextCollectionServiceImplTest {
     }
 
     @Nested
-    @DisplayName("when parsing invalid metadata")
-    class WhenParsingInvalidMetadata {
+    @DisplayName("when the PR lists no files")
+    class WhenNoFilesListed {
 
         @BeforeEach
         void setUp() {
-            when(gitHubClient.getDiff(DIFF_URL)).thenReturn(Mono.just(DIFF));
-            when(gitHubClient.getFileMetadata(OWNER, REPO, PR_NUMBER))
-                    .thenReturn(Mono.just("invalid json"));
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.empty());
             when(eventPublisher.publish(any())).thenReturn(Mono.empty());
         }
 
@@ -201,62 +220,517 @@ class ContextCollectionServiceImplTest {
     }
 
     @Nested
-    @DisplayName("when metadata is empty array")
-    class WhenMetadataIsEmptyArray {
+    @DisplayName("when diff exceeds size limit")
+    class WhenDiffExceedsSizeLimit {
 
         @BeforeEach
         void setUp() {
-            when(gitHubClient.getDiff(DIFF_URL)).thenReturn(Mono.just(DIFF));
-            when(gitHubClient.getFileMetadata(OWNER, REPO, PR_NUMBER))
-                    .thenReturn(Mono.just("[]"));
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt()))
+                    .thenAnswer(invocation -> Mono.error(new DiffTooLargeException(invocation.getArgument(1))));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
             when(eventPublisher.publish(any())).thenReturn(Mono.empty());
         }
 
         @Test
-        @DisplayName("should return empty file list")
-        void shouldReturnEmptyFileList() {
+        @DisplayName("should cap the download at the Kafka diff limit")
+        void shouldCapDownload() {
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            verify(gitHubClient).getDiff(DIFF_URL, 512_000);
+        }
+
+        @Test
+        @DisplayName("should return SKIPPED status with null diff")
+        void shouldReturnSkippedStatus() {
             StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
                     .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED);
+                        assertThat(context.diff()).isNull();
                         assertThat(context.files()).isEmpty();
+                        assertThat(context.metadata()).contains("exceeds limit");
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should publish ContextCollected event with SKIPPED status")
+        void shouldPublishSkippedEvent() {
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            verify(eventPublisher).publish(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("when webhook stats exceed admission limits")
+    class WhenStatsExceedAdmissionLimits {
+
+        @BeforeEach
+        void setUp() {
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+        }
+
+        @Test
+        @DisplayName("should skip without calling GitHub when too many lines changed")
+        void shouldSkipOnChangedLines() {
+            PullRequestStats stats = new PullRequestStats(900, 200, 10, false);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED);
+                        assertThat(context.diff()).isNull();
+                        assertThat(context.metadata()).contains("Kafka message size limit");
+                    })
+                    .verifyComplete();
+
+            verify(eventPublisher).publish(any());
+            verifyNoInteractions(gitHubClient);
+        }
+
+        @Test
+        @DisplayName("should skip without calling GitHub when too many files changed")
+        void shouldSkipOnChangedFiles() {
+            PullRequestStats stats = new PullRequestStats(10, 10, 51, false);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED))
+                    .verifyComplete();
+
+            verifyNoInteractions(gitHubClient);
+        }
+
+        @Test
+        @DisplayName("should skip drafts when configured")
+        void shouldSkipDrafts() {
+            PullRequestStats stats = new PullRequestStats(1, 1, 1, true);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED);
+                        assertThat(context.metadata()).contains("Draft");
+                    })
+                    .verifyComplete();
+
+            verifyNoInteractions(gitHubClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("when webhook stats are within limits")
+    class WhenStatsWithinLimits {
+
+        @BeforeEach
+        void setUp() {
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+        }
+
+        @Test
+        @DisplayName("should download the full diff")
+        void shouldDownloadFullDiff() {
+            PullRequestStats stats = new PullRequestStats(10, 5, 1, false);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> {
                         assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.diff()).isEqualTo(DiffContent.of(DIFF));
                     })
                     .verifyComplete();
+
+            verify(gitHubClient).getDiff(eq(DIFF_URL), anyInt());
         }
     }
 
     @Nested
-    @DisplayName("when diff exceeds size limit")
-    class WhenDiffExceedsSizeLimit {
+    @DisplayName("when oversized PR is routed to partial review")
+    class WhenRoutedToPartialReview {
+
+        static final List<FileChange> PARTIAL_FILES = List.of(
+                new FileChange("small.java", "modified", 1, 1, "@@ -1 +1 @@\n-old\n+new"),
+                new FileChange("huge.java", "added", 900, 0, "+x".repeat(300_000)),
+                new FileChange("image.png", "added", 0, 0, null),
+                new FileChange("gone.java", "removed", 0, 2, "@@ -1,2 +0,0 @@\n-a\n-b"));
+
+        PullRequestStats stats = new PullRequestStats(900, 200, 4, false);
 
         @BeforeEach
         void setUp() {
-            String largeDiff = "a".repeat(600_000);
-            when(gitHubClient.getDiff(DIFF_URL)).thenReturn(Mono.just(largeDiff));
+            service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper,
+                    admission(PullRequestAdmission.Oversize.PARTIAL), CollectionMode.DIFF, ReviewedHeadStore.none(),
+                    DiffStore.inline());
             when(eventPublisher.publish(any())).thenReturn(Mono.empty());
         }
 
         @Test
-        @DisplayName("should return SKIPPED status with null diff")
-        void shouldReturnSkippedStatus() {
+        @DisplayName("should build the diff from the patches that fit without downloading the full diff")
+        void shouldBuildDiffFromPatches() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.fromIterable(PARTIAL_FILES));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.files()).hasSize(4);
+                        assertThat(context.diff().asString())
+                                .contains("diff --git a/small.java b/small.java\n--- a/small.java\n+++ b/small.java\n")
+                                .contains("--- a/gone.java\n+++ /dev/null\n")
+                                .doesNotContain("huge.java")
+                                .doesNotContain("image.png");
+                    })
+                    .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("should skip when no patch fits")
+        void shouldSkipWhenNoPatchFits() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.empty());
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED);
+                        assertThat(context.diff()).isNull();
+                    })
+                    .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("when collecting from file patches")
+    class WhenCollectingFromPatches {
+
+        static final String RAW_DIFF = """
+                diff --git a/small.java b/small.java
+                @@ -1 +1 @@
+                -old
+                +new
+                diff --git a/generated.json b/generated.json
+                @@ -1 +1 @@
+                -{}
+                +{"a": 1}
+                """;
+
+        @BeforeEach
+        void setUp() {
+            service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper,
+                    admission(PullRequestAdmission.Oversize.SKIP), CollectionMode.PATCHES, ReviewedHeadStore.none(),
+                    DiffStore.inline());
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+        }
+
+        @Test
+        @DisplayName("should build the diff from patches with a single GitHub call")
+        void shouldBuildDiffWithoutDownloading() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE,
+                    new FileChange("logo.png", "modified", 0, 0, null)));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.files()).hasSize(2);
+                        assertThat(context.diff().asString()).isEqualTo(
+                                "diff --git a/test.java b/test.java\n--- a/test.java\n+++ b/test.java\n@@ -1,5 +1,10 @@\n");
+                    })
+                    .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("should take only the files whose patch was omitted from the raw diff")
+        void shouldFallBackForOmittedPatches() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(
+                    new FileChange("small.java", "modified", 1, 1, "@@ -1 +1 @@\n-old\n+new"),
+                    new FileChange("generated.json", "modified", 1, 1, null)));
+            when(gitHubClient.getDiff(DIFF_URL, 512_000)).thenReturn(Mono.just(DiffContent.of(RAW_DIFF)));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.diff().asString())
+                                .startsWith("diff --git a/small.java b/small.java\n--- a/small.java\n")
+                                .endsWith("diff --git a/generated.json b/generated.json\n@@ -1 +1 @@\n-{}\n+{\"a\": 1}\n");
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should keep the returned patches when the raw diff is too large")
+        void shouldDropOmittedFilesWhenRawDiffTooLarge() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(
+                    FILE, new FileChange("generated.json", "modified", 90_000, 0, null)));
+            when(gitHubClient.getDiff(DIFF_URL, 512_000)).thenReturn(Mono.error(new DiffTooLargeException(512_000)));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.diff().asString())
+                                .contains("test.java")
+                                .doesNotContain("generated.json");
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should skip when no file has reviewable changes")
+        void shouldSkipWithoutReviewableChanges() {
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(
+                    new FileChange("logo.png", "added", 0, 0, null)));
+
             StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
                     .assertNext(context -> {
                         assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED);
                         assertThat(context.diff()).isNull();
-                        assertThat(context.files()).isEmpty();
-                        assertThat(context.metadata()).contains("exceeds limit");
                     })
                     .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("when a push follows a reviewed head")
+    class WhenCollectingIncrementally {
+
+        static final String REVIEWED_HEAD = "1111111";
+        static final String NEW_HEAD = "2222222";
+
+        @Mock
+        ReviewedHeadStore reviewedHeadStore;
+
+        @BeforeEach
+        void setUp() {
+            service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper,
+                    admission(PullRequestAdmission.Oversize.SKIP), CollectionMode.DIFF, reviewedHeadStore,
+                    DiffStore.inline());
+            lenient().when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+        }
+
+        @Test
+        @DisplayName("should collect only the compare diff and publish it as incremental")
+        void shouldCollectCompareDiff() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(REVIEWED_HEAD));
+            when(gitHubClient.getCompareDiff(OWNER, REPO, REVIEWED_HEAD, NEW_HEAD, 512_000))
+                    .thenReturn(Mono.just(DiffContent.of(DIFF)));
+            // Over every size limit as a whole PR, which does not matter for one push
+            PullRequestStats stats = new PullRequestStats(50_000, 0, 400, false);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats,
+                            NEW_HEAD, true))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.isIncremental()).isTrue();
+                        assertThat(context.baseSha()).isEqualTo(REVIEWED_HEAD);
+                    })
+                    .verifyComplete();
+
+            ArgumentCaptor<ContextCollectedEvent> event = ArgumentCaptor.forClass(ContextCollectedEvent.class);
+            verify(eventPublisher).publish(event.capture());
+            assertThat(event.getValue().incremental()).isTrue();
+            assertThat(event.getValue().baseSha()).isEqualTo(REVIEWED_HEAD);
+            assertThat(event.getValue().headSha()).isEqualTo(NEW_HEAD);
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+            verify(reviewedHeadStore).recordPendingHead(event.getValue().contextId(), OWNER, REPO, PR_NUMBER,
+                    NEW_HEAD);
+            verify(reviewedHeadStore, never()).confirmReviewedHead(any());
         }
 
         @Test
-        @DisplayName("should publish ContextCollected event with SKIPPED status")
-        void shouldPublishSkippedEvent() {
+        @DisplayName("should collect in full and hold the head for its review when no head was reviewed")
+        void shouldCollectInFullWithoutReviewedHead() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.empty());
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> assertThat(context.isIncremental()).isFalse())
+                    .verifyComplete();
+
+            ArgumentCaptor<ContextCollectedEvent> event = ArgumentCaptor.forClass(ContextCollectedEvent.class);
+            verify(eventPublisher).publish(event.capture());
+            assertThat(event.getValue().incremental()).isFalse();
+            assertThat(event.getValue().headSha()).isEqualTo(NEW_HEAD);
+            verify(reviewedHeadStore).recordPendingHead(event.getValue().contextId(), OWNER, REPO, PR_NUMBER,
+                    NEW_HEAD);
+        }
+
+        @Test
+        @DisplayName("should collect opened pull requests in full without looking up a head")
+        void shouldCollectOpenedInFull() {
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, false))
+                    .assertNext(context -> assertThat(context.isIncremental()).isFalse())
+                    .verifyComplete();
+
+            verify(reviewedHeadStore, never()).lastReviewedHead(any(), any(), anyInt());
+            verify(reviewedHeadStore).recordPendingHead(anyString(), eq(OWNER), eq(REPO), eq(PR_NUMBER), eq(NEW_HEAD));
+        }
+
+        @Test
+        @DisplayName("should skip a push of the head that was already reviewed")
+        void shouldSkipReviewedHead() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(NEW_HEAD));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED))
+                    .verifyComplete();
+
+            verifyNoInteractions(gitHubClient);
+            verify(reviewedHeadStore, never()).recordPendingHead(any(), any(), any(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("should fall back to a full collection when the head no longer descends from the reviewed one")
+        void shouldFallBackWhenHistoryDiverged() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(REVIEWED_HEAD));
+            when(gitHubClient.getCompareDiff(OWNER, REPO, REVIEWED_HEAD, NEW_HEAD, 512_000))
+                    .thenReturn(Mono.error(new CompareUnavailableException("Head 2222222 is diverged from 1111111")));
+            when(gitHubClient.getDiff(eq(DIFF_URL), anyInt())).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> {
+                        assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED);
+                        assertThat(context.isIncremental()).isFalse();
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should fail instead of collecting in full when the compare call is refused")
+        void shouldNotFallBackWhenCompareRefused() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(REVIEWED_HEAD));
+            when(gitHubClient.getCompareDiff(OWNER, REPO, REVIEWED_HEAD, NEW_HEAD, 512_000))
+                    .thenReturn(Mono.error(new CallRejectedException("github",
+                            CallRejectedException.Reason.CIRCUIT_OPEN)));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.FAILED))
+                    .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+            verify(gitHubClient, never()).getFileChanges(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should fail instead of collecting in full when the rate limit budget is spent")
+        void shouldNotFallBackWhenRateLimited() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(REVIEWED_HEAD));
+            when(gitHubClient.getCompareDiff(OWNER, REPO, REVIEWED_HEAD, NEW_HEAD, 512_000))
+                    .thenReturn(Mono.error(new GitHubRateLimitException(Duration.ofMinutes(5))));
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.FAILED))
+                    .verifyComplete();
+
+            verify(gitHubClient, never()).getDiff(any(), anyInt());
+            verify(reviewedHeadStore, never()).recordPendingHead(any(), any(), any(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("should confirm the held head once the review of its context completes")
+        void shouldConfirmHeadOnReviewCompleted() {
+            service.reviewCompleted("context-1");
+
+            verify(reviewedHeadStore).confirmReviewedHead("context-1");
+        }
+
+        @Test
+        @DisplayName("should skip without recording when the push has no reviewable changes")
+        void shouldSkipEmptyPush() {
+            when(reviewedHeadStore.lastReviewedHead(OWNER, REPO, PR_NUMBER)).thenReturn(Optional.of(REVIEWED_HEAD));
+            when(gitHubClient.getCompareDiff(OWNER, REPO, REVIEWED_HEAD, NEW_HEAD, 512_000)).thenReturn(Mono.empty());
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID,
+                            PullRequestStats.unknown(), NEW_HEAD, true))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED))
+                    .verifyComplete();
+
+            verify(reviewedHeadStore, never()).recordPendingHead(any(), any(), any(), anyInt(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("when the diff store offloads diffs")
+    class WhenOffloadingDiffs {
+
+        static final int MAX_OFFLOADED_BYTES = 10_000_000;
+        static final DiffReference REFERENCE = new DiffReference("a".repeat(64), (long) DIFF.length());
+
+        @Mock
+        DiffStore diffStore;
+
+        @BeforeEach
+        void setUp() {
+            lenient().when(diffStore.maxDiffSizeBytes()).thenReturn(MAX_OFFLOADED_BYTES);
+            service = new ContextCollectionServiceImpl(gitHubClient, eventPublisher, objectMapper,
+                    admission(PullRequestAdmission.Oversize.SKIP), CollectionMode.DIFF, ReviewedHeadStore.none(),
+                    diffStore);
+        }
+
+        @Test
+        @DisplayName("should download up to the store's limit and publish only the reference")
+        void shouldPublishReference() {
+            when(gitHubClient.getDiff(DIFF_URL, MAX_OFFLOADED_BYTES)).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+            when(diffStore.store(DiffContent.of(DIFF))).thenReturn(Mono.just(REFERENCE));
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+
             StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
-                    .expectNextCount(1)
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.COMPLETED))
                     .verifyComplete();
 
-            verify(eventPublisher).publish(any());
-            verify(gitHubClient, never()).getFileMetadata(any(), any(), any());
+            ArgumentCaptor<ContextCollectedEvent> event = ArgumentCaptor.forClass(ContextCollectedEvent.class);
+            verify(eventPublisher).publish(event.capture());
+            assertThat(event.getValue().diff()).isNull();
+            assertThat(event.getValue().diffRef()).isEqualTo(REFERENCE);
+        }
+
+        @Test
+        @DisplayName("should publish FAILED without a diff when the store cannot take it")
+        void shouldFailWhenStoreFails() {
+            when(gitHubClient.getDiff(DIFF_URL, MAX_OFFLOADED_BYTES)).thenReturn(Mono.just(DiffContent.of(DIFF)));
+            when(gitHubClient.getFileChanges(OWNER, REPO, PR_NUMBER)).thenReturn(Flux.just(FILE));
+            when(diffStore.store(any())).thenReturn(Mono.error(new RuntimeException("disk full")));
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.FAILED))
+                    .verifyComplete();
+
+            ArgumentCaptor<ContextCollectedEvent> event = ArgumentCaptor.forClass(ContextCollectedEvent.class);
+            verify(eventPublisher).publish(event.capture());
+            assertThat(event.getValue().diff()).isNull();
+            assertThat(event.getValue().diffRef()).isNull();
+        }
+
+        @Test
+        @DisplayName("should not store anything for a skipped PR")
+        void shouldNotStoreSkippedContext() {
+            when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+            PullRequestStats stats = new PullRequestStats(5_000, 0, 10, false);
+
+            StepVerifier.create(service.collect(OWNER, REPO, PR_NUMBER, TITLE, DIFF_URL, CORRELATION_ID, stats,
+                            null, false))
+                    .assertNext(context -> assertThat(context.status()).isEqualTo(CollectionStatus.SKIPPED))
+                    .verifyComplete();
+
+            verify(diffStore, never()).store(any());
         }
     }
 }
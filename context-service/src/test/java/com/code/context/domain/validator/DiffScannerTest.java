@@ -0,0 +1,232 @@
+package com.code.context.domain.validator;
+
+import com.code.context.domain.model.DiffSummary;
+import com.code.context.domain.model.FileDiff;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DiffScanner")
+class DiffScannerTest {
+
+    @Nested
+    @DisplayName("when splitting files")
+    class Files {
+
+        @Test
+        @DisplayName("should return one entry per diff --git section in order")
+        void shouldReturnOneEntryPerSection() {
+            String diff = """
+                diff --git a/src/App.java b/src/App.java
+                index 1234..5678 100644
+                --- a/src/App.java
+                +++ b/src/App.java
+                @@ -1,3 +1,4 @@
+                 class App {
+                -    int a;
+                +    int b;
+                +    int c;
+                 }
+                diff --git a/logo.png b/logo.png
+                Binary files a/logo.png and b/logo.png differ
+                """;
+
+            DiffSummary summary = DiffScanner.scan(diff);
+
+            assertThat(summary.files()).extracting(FileDiff::newPath).containsExactly("src/App.java", "logo.png");
+            FileDiff source = summary.files().get(0);
+            assertThat(source.hunks()).isEqualTo(1);
+            assertThat(source.additions()).isEqualTo(2);
+            assertThat(source.deletions()).isEqualTo(1);
+            assertThat(source.binary()).isFalse();
+            assertThat(summary.files().get(1).binary()).isTrue();
+            assertThat(summary.files().get(1).hasHunks()).isFalse();
+        }
+
+        @Test
+        @DisplayName("should parse paths containing spaces")
+        void shouldParsePathsWithSpaces() {
+            String diff = """
+                diff --git a/docs/read me.md b/docs/read me.md
+                @@ -1 +1 @@
+                -a
+                +b
+                """;
+
+            FileDiff file = DiffScanner.scan(diff).files().get(0);
+
+            assertThat(file.oldPath()).isEqualTo("docs/read me.md");
+            assertThat(file.newPath()).isEqualTo("docs/read me.md");
+        }
+
+        @Test
+        @DisplayName("should decode non-ASCII paths from the UTF-8 bytes")
+        void shouldDecodeNonAsciiPaths() {
+            String diff = "diff --git a/docs/caf\u00e9.md b/docs/na\u00efve.md\nrename from docs/caf\u00e9.md\n"
+                    + "rename to docs/na\u00efve.md\n";
+
+            FileDiff file = DiffScanner.scan(diff.getBytes(StandardCharsets.UTF_8)).files().get(0);
+
+            assertThat(file.oldPath()).isEqualTo("docs/caf\u00e9.md");
+            assertThat(file.newPath()).isEqualTo("docs/na\u00efve.md");
+        }
+
+        @Test
+        @DisplayName("should ignore sections whose header does not name both sides")
+        void shouldIgnoreMalformedHeaders() {
+            DiffSummary summary = DiffScanner.scan("diff --git a/only\n@@ -1 +1 @@\n-a\n+b\n");
+
+            assertThat(summary.files()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should handle CRLF line endings")
+        void shouldHandleCrlf() {
+            String diff = "diff --git a/a.txt b/a.txt\r\n@@ -1,1 +1,1 @@\r\n-old\r\n+new\r\n";
+
+            FileDiff file = DiffScanner.scan(diff).files().get(0);
+
+            assertThat(file.newPath()).isEqualTo("a.txt");
+            assertThat(file.hunks()).isEqualTo(1);
+            assertThat(file.additions()).isEqualTo(1);
+            assertThat(file.deletions()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("when classifying extended headers")
+    class ExtendedHeaders {
+
+        @Test
+        @DisplayName("should take rename paths from rename lines")
+        void shouldTakeRenamePaths() {
+            String diff = """
+                diff --git a/old name.txt b/new name.txt
+                similarity index 100%
+                rename from old name.txt
+                rename to new name.txt
+                """;
+
+            FileDiff file = DiffScanner.scan(diff).files().get(0);
+
+            assertThat(file.renamed()).isTrue();
+            assertThat(file.oldPath()).isEqualTo("old name.txt");
+            assertThat(file.newPath()).isEqualTo("new name.txt");
+        }
+
+        @Test
+        @DisplayName("should flag copy, mode, new and deleted files per file")
+        void shouldFlagEachFile() {
+            String diff = """
+                diff --git a/a.txt b/b.txt
+                copy from a.txt
+                copy to b.txt
+                diff --git a/run.sh b/run.sh
+                old mode 100644
+                new mode 100755
+                diff --git a/empty.txt b/empty.txt
+                new file mode 100644
+                diff --git a/gone.txt b/gone.txt
+                deleted file mode 100644
+                """;
+
+            DiffSummary summary = DiffScanner.scan(diff);
+
+            assertThat(summary.files()).extracting(DiffValidator::classify).containsExactly(
+                    ValidationReason.COPY_ONLY,
+                    ValidationReason.PERMISSION_ONLY,
+                    ValidationReason.NEW_EMPTY_FILE,
+                    ValidationReason.DELETED_FILE);
+        }
+
+        @Test
+        @DisplayName("should treat header-like lines inside a hunk as content")
+        void shouldTreatHeaderLikeLinesInHunkAsContent() {
+            String diff = """
+                diff --git a/notes.md b/notes.md
+                @@ -1,2 +1,1 @@
+                --- removed separator
+                -Binary files are listed below
+                +rename from here
+                """;
+
+            FileDiff file = DiffScanner.scan(diff).files().get(0);
+
+            assertThat(file.deletions()).isEqualTo(2);
+            assertThat(file.additions()).isEqualTo(1);
+            assertThat(file.binary()).isFalse();
+            assertThat(file.renamed()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("when matching hunk headers")
+    class HunkHeaders {
+
+        @Test
+        @DisplayName("should accept ranges with and without counts")
+        void shouldAcceptRanges() {
+            assertThat(isHunkHeader("@@ -1,3 +1,4 @@ class App")).isTrue();
+            assertThat(isHunkHeader("@@ -1 +1 @@")).isTrue();
+            assertThat(isHunkHeader("@@ -0,0 +1,2 @@")).isTrue();
+        }
+
+        @Test
+        @DisplayName("should reject incomplete headers")
+        void shouldRejectIncompleteHeaders() {
+            assertThat(isHunkHeader("@@ -1,3 +1,4")).isFalse();
+            assertThat(isHunkHeader("@@ -a +1 @@")).isFalse();
+            assertThat(isHunkHeader("@@ -1, +1 @@")).isFalse();
+            assertThat(isHunkHeader("@@ +1 -1 @@")).isFalse();
+        }
+
+        private boolean isHunkHeader(String line) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            return DiffScanner.isHunkHeader(bytes, 0, bytes.length);
+        }
+    }
+
+    @Nested
+    @DisplayName("when cutting out sections")
+    class Sections {
+
+        @Test
+        @DisplayName("should return the requested sections whole, keyed by new path")
+        void shouldReturnRequestedSections() {
+            String diff = """
+                diff --git a/keep.txt b/keep.txt
+                @@ -1 +1 @@
+                -a
+                +b
+                diff --git a/old.txt b/new.txt
+                rename from old.txt
+                rename to new.txt
+                @@ -1 +1 @@
+                -diff --git a/x b/x
+                +c
+                diff --git a/last.txt b/last.txt
+                @@ -0,0 +1 @@
+                +d""";
+
+            Map<String, String> sections = DiffScanner.sections(
+                    diff.getBytes(StandardCharsets.UTF_8), Set.of("new.txt", "last.txt"));
+
+            assertThat(sections).containsOnlyKeys("new.txt", "last.txt");
+            assertThat(sections.get("new.txt")).isEqualTo("""
+                diff --git a/old.txt b/new.txt
+                rename from old.txt
+                rename to new.txt
+                @@ -1 +1 @@
+                -diff --git a/x b/x
+                +c
+                """);
+            assertThat(sections.get("last.txt")).isEqualTo("diff --git a/last.txt b/last.txt\n@@ -0,0 +1 @@\n+d");
+        }
+    }
+}
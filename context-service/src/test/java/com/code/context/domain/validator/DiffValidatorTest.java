@@ -18,7 +18,7 @@ class DiffValidatorTest {
         @Test
         @DisplayName("should reject null diff")
         void shouldRejectNullDiff() {
-            ValidationResult result = validator.validate(null);
+            ValidationResult result = validator.validate((String) null);
 
             assertThat(result.status()).isEqualTo(ValidationResult.Status.INVALID);
             assertThat(result.reason()).isEqualTo(ValidationReason.EMPTY_RESPONSE);
@@ -253,6 +253,69 @@ class DiffValidatorTest {
         }
     }
 
+    @Nested
+    @DisplayName("when validating multi-file diffs")
+    class MultiFileDiffs {
+
+        @Test
+        @DisplayName("should accept binary file next to content changes")
+        void shouldAcceptBinaryNextToContent() {
+            String diff = """
+                diff --git a/logo.png b/logo.png
+                Binary files a/logo.png and b/logo.png differ
+                diff --git a/file.txt b/file.txt
+                @@ -1 +1 @@
+                -old
+                +new
+                """;
+
+            ValidationResult result = validator.validate(diff);
+
+            assertThat(result.isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should skip with the highest-priority reason when every file is hunk-less")
+        void shouldSkipWithHighestPriorityReason() {
+            String diff = """
+                diff --git a/old.txt b/new.txt
+                rename from old.txt
+                rename to new.txt
+                diff --git a/logo.png b/logo.png
+                Binary files a/logo.png and b/logo.png differ
+                """;
+
+            ValidationResult result = validator.validate(diff);
+
+            assertThat(result.shouldSkip()).isTrue();
+            assertThat(result.reason()).isEqualTo(ValidationReason.BINARY_FILE);
+        }
+
+        @Test
+        @DisplayName("should reject hunk-less diff when one file is unrecognized")
+        void shouldRejectWhenOneFileIsUnrecognized() {
+            String diff = """
+                diff --git a/logo.png b/logo.png
+                Binary files a/logo.png and b/logo.png differ
+                diff --git a/file.txt b/file.txt
+                index 1234..5678
+                """;
+
+            ValidationResult result = validator.validate(diff);
+
+            assertThat(result.status()).isEqualTo(ValidationResult.Status.INVALID);
+            assertThat(result.reason()).isEqualTo(ValidationReason.MALFORMED_DIFF);
+        }
+
+        @Test
+        @DisplayName("should reject HTML after leading whitespace")
+        void shouldRejectHtmlAfterLeadingWhitespace() {
+            ValidationResult result = validator.validate("\n  <HTML><body>Error</body></html>");
+
+            assertThat(result.reason()).isEqualTo(ValidationReason.HTML_RESPONSE);
+        }
+    }
+
     @Nested
     @DisplayName("when checking helper methods")
     class HelperMethods {
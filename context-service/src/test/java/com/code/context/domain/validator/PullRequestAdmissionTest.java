@@ -0,0 +1,100 @@
+package com.code.context.domain.validator;
+
+import com.code.context.domain.model.PullRequestStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PullRequestAdmission")
+class PullRequestAdmissionTest {
+
+    private final PullRequestAdmission admission =
+            new PullRequestAdmission(true, 1_000, 50, true, PullRequestAdmission.Oversize.SKIP);
+
+    @Nested
+    @DisplayName("when stats are missing")
+    class MissingStats {
+
+        @Test
+        @DisplayName("should fetch when stats are unknown")
+        void shouldFetchWhenUnknown() {
+            PullRequestAdmission.Result result = admission.evaluate(PullRequestStats.unknown());
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.FETCH);
+        }
+
+        @Test
+        @DisplayName("should ignore line limit when only one line count is known")
+        void shouldIgnorePartialLineCounts() {
+            PullRequestAdmission.Result result = admission.evaluate(new PullRequestStats(5_000, null, null, null));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.FETCH);
+        }
+    }
+
+    @Nested
+    @DisplayName("when stats exceed limits")
+    class OversizedStats {
+
+        @Test
+        @DisplayName("should skip when changed lines exceed the limit")
+        void shouldSkipOnChangedLines() {
+            PullRequestAdmission.Result result = admission.evaluate(new PullRequestStats(600, 401, 3, false));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.SKIP);
+            assertThat(result.reason()).isEqualTo(ValidationReason.DIFF_TOO_LARGE);
+        }
+
+        @Test
+        @DisplayName("should admit exactly at the line limit")
+        void shouldAdmitAtLineLimit() {
+            PullRequestAdmission.Result result = admission.evaluate(new PullRequestStats(600, 400, 3, false));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.FETCH);
+        }
+
+        @Test
+        @DisplayName("should skip when changed files exceed the limit")
+        void shouldSkipOnChangedFiles() {
+            PullRequestAdmission.Result result = admission.evaluate(new PullRequestStats(1, 1, 51, false));
+
+            assertThat(result.reason()).isEqualTo(ValidationReason.TOO_MANY_FILES);
+        }
+
+        @Test
+        @DisplayName("should route to partial review when configured")
+        void shouldRouteToPartial() {
+            PullRequestAdmission partial =
+                    new PullRequestAdmission(true, 1_000, 50, false, PullRequestAdmission.Oversize.PARTIAL);
+
+            PullRequestAdmission.Result result = partial.evaluate(new PullRequestStats(2_000, 0, 3, false));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.PARTIAL);
+        }
+    }
+
+    @Nested
+    @DisplayName("when evaluating drafts")
+    class Drafts {
+
+        @Test
+        @DisplayName("should skip drafts when configured")
+        void shouldSkipDrafts() {
+            PullRequestAdmission.Result result = admission.evaluate(new PullRequestStats(1, 1, 1, true));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.SKIP);
+            assertThat(result.reason()).isEqualTo(ValidationReason.DRAFT_PULL_REQUEST);
+        }
+
+        @Test
+        @DisplayName("should admit everything when disabled")
+        void shouldAdmitWhenDisabled() {
+            PullRequestAdmission.Result result = PullRequestAdmission.admitAll()
+                    .evaluate(new PullRequestStats(1_000_000, 0, 10_000, true));
+
+            assertThat(result.decision()).isEqualTo(PullRequestAdmission.Decision.FETCH);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.code.context.infrastructure.adapter.inbound.event;
 import com.code.context.application.port.inbound.ContextCollectionService;
 import com.code.context.domain.model.CollectionStatus;
 import com.code.context.domain.model.PullRequestContext;
+import com.code.context.domain.model.PullRequestStats;
 import com.code.context.infrastructure.config.KafkaTopicProperties;
+import com.code.events.context.DiffContent;
 import com.code.events.webhook.PullRequestReceivedEvent;
 import com.code.events.webhook.WebhookAction;
 import com.code.platform.dlt.DltPublisher;
@@ -22,6 +24,7 @@ import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -71,7 +74,11 @@ class PullRequestEventListenerTest {
                 Instant.now(),
                 CORRELATION_ID,
                 "github",
-                "123456"
+                "123456",
+                120,
+                30,
+                4,
+                false
         );
     }
 
@@ -83,12 +90,13 @@ class PullRequestEventListenerTest {
                 PR_NUMBER,
                 "Test PR Title",
                 "/repos/test-owner/test-repo/pulls/42",
-                "diff content",
+                DiffContent.of("diff content"),
                 List.of(),
                 null,
                 CollectionStatus.COMPLETED,
                 CORRELATION_ID,
-                Instant.now()
+                Instant.now(),
+                null
         );
     }
 
@@ -99,7 +107,7 @@ class PullRequestEventListenerTest {
         @BeforeEach
         void setUp() {
             when(idempotencyStore.tryStart(EVENT_ID)).thenReturn(true);
-            when(contextCollectionService.collect(any(), any(), any(), any(), any(), any()))
+            when(contextCollectionService.collect(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
                     .thenReturn(Mono.just(createContext()));
         }
 
@@ -114,7 +122,10 @@ class PullRequestEventListenerTest {
                     eq(OWNER), eq(REPO), eq(PR_NUMBER),
                     eq("Test PR Title"),
                     eq("/repos/test-owner/test-repo/pulls/42"),
-                    eq(CORRELATION_ID)
+                    eq(CORRELATION_ID),
+                    eq(new PullRequestStats(120, 30, 4, false)),
+                    eq("abc123"),
+                    eq(false)
             );
         }
 
@@ -125,7 +136,8 @@ class PullRequestEventListenerTest {
 
             listener.onPullRequestReceived(event, acknowledgment);
 
-            verify(contextCollectionService).collect(any(), any(), any(), any(), any(), any());
+            verify(contextCollectionService).collect(any(), any(), any(), any(), any(), any(), any(),
+                    eq("abc123"), eq(true));
         }
 
         @Test
@@ -157,7 +169,7 @@ class PullRequestEventListenerTest {
 
             listener.onPullRequestReceived(event, acknowledgment);
 
-            verify(contextCollectionService, never()).collect(any(), any(), any(), any(), any(), any());
+            verify(contextCollectionService, never()).collect(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
             verify(acknowledgment).acknowledge();
         }
     }
@@ -178,7 +190,7 @@ class PullRequestEventListenerTest {
 
             listener.onPullRequestReceived(event, acknowledgment);
 
-            verify(contextCollectionService, never()).collect(any(), any(), any(), any(), any(), any());
+            verify(contextCollectionService, never()).collect(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
             verify(acknowledgment).acknowledge();
         }
     }
@@ -191,7 +203,7 @@ class PullRequestEventListenerTest {
         void setUp() {
             when(idempotencyStore.tryStart(EVENT_ID)).thenReturn(true);
             when(topicProperties.pullRequestReceived()).thenReturn("pull-request-received");
-            when(contextCollectionService.collect(any(), any(), any(), any(), any(), any()))
+            when(contextCollectionService.collect(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
                     .thenReturn(Mono.error(new RuntimeException("Collection failed")));
         }
 
@@ -3,6 +3,9 @@ package com.code.context.infrastructure.adapter.outbound.event;
 import com.code.context.infrastructure.config.KafkaTopicProperties;
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.platform.partitioning.PartitionKeys;
+import com.code.platform.partitioning.PartitioningProperties;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,7 +45,8 @@ class KafkaEventPublisherTest {
 
     @BeforeEach
     void setUp() {
-        publisher = new KafkaEventPublisher(kafkaTemplate, topicProperties);
+        publisher = new KafkaEventPublisher(kafkaTemplate, topicProperties,
+                new PartitionKeys(new PartitioningProperties(null, null)));
         when(topicProperties.contextCollected()).thenReturn(TOPIC);
     }
 
@@ -54,10 +58,14 @@ class KafkaEventPublisherTest {
                 REPO,
                 42,
                 "Test PR",
-                "diff content",
+                DiffContent.of("diff content"),
                 ContextCollectionStatus.COMPLETED,
                 "correlation-789",
-                Instant.now()
+                Instant.now(),
+                false,
+                null,
+                "abc123",
+                null
         );
     }
 
@@ -75,10 +83,10 @@ class KafkaEventPublisherTest {
         }
 
         @Test
-        @DisplayName("should send event to correct topic with repository key")
+        @DisplayName("should send event to correct topic with pull request key")
         void shouldSendToCorrectTopic() {
             ContextCollectedEvent event = createEvent();
-            String expectedKey = OWNER + "/" + REPO;
+            String expectedKey = OWNER + "/" + REPO + "/42";
 
             StepVerifier.create(publisher.publish(event))
                     .verifyComplete();
@@ -0,0 +1,229 @@
+package com.code.context.infrastructure.adapter.outbound.github;
+
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("ConditionalRequestCache")
+class ConditionalRequestCacheTest {
+
+    static final URI FILES_URL = URI.create("https://api.github.com/repos/owner/repo/pulls/1/files");
+    static final String BODY = "[{\"filename\":\"App.java\"}]";
+    static final String ETAG = "\"abc123\"";
+
+    SimpleMeterRegistry meterRegistry;
+    MetricsHelper metrics;
+    RecordingExchange exchange;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new MetricsHelper(meterRegistry, "test");
+        exchange = new RecordingExchange();
+    }
+
+    @Nested
+    @DisplayName("when revalidating")
+    class Revalidating {
+
+        @Test
+        @DisplayName("should send If-None-Match and serve a 304 from the cache")
+        void shouldServeNotModifiedFromCache() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, null, metrics);
+            exchange.respond(ok(BODY, ETAG));
+            exchange.respond(ClientResponse.create(HttpStatus.NOT_MODIFIED).header("X-RateLimit-Remaining", "4999").build());
+
+            assertThat(get(cache)).isEqualTo(BODY);
+            ClientResponse revalidated = cache.filter(request(HttpMethod.GET), exchange).block();
+
+            assertThat(revalidated.statusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(revalidated.headers().asHttpHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("4999");
+            assertThat(revalidated.bodyToMono(String.class).block()).isEqualTo(BODY);
+            assertThat(exchange.requests.get(0).headers().getIfNoneMatch()).isEmpty();
+            assertThat(exchange.requests.get(1).headers().getIfNoneMatch()).containsExactly(ETAG);
+            assertThat(counter("test.github.cache.hit")).isEqualTo(1);
+            assertThat(counter("test.github.cache.miss")).isEqualTo(1);
+            assertThat(counter("test.github.cache.bytes_saved")).isEqualTo(BODY.length());
+        }
+
+        @Test
+        @DisplayName("should fall back to If-Modified-Since without an ETag")
+        void shouldUseLastModified() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, null, metrics);
+            exchange.respond(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.LAST_MODIFIED, "Wed, 21 Oct 2026 07:28:00 GMT")
+                    .body(BODY)
+                    .build());
+            exchange.respond(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+            get(cache);
+            assertThat(get(cache)).isEqualTo(BODY);
+
+            assertThat(exchange.requests.get(1).headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE))
+                    .isEqualTo("Wed, 21 Oct 2026 07:28:00 GMT");
+        }
+
+        @Test
+        @DisplayName("should replace the entry when the resource changed")
+        void shouldReplaceChangedEntry() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, null, metrics);
+            exchange.respond(ok(BODY, ETAG));
+            exchange.respond(ok("[]", "\"def456\""));
+            exchange.respond(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+            get(cache);
+            assertThat(get(cache)).isEqualTo("[]");
+            assertThat(get(cache)).isEqualTo("[]");
+
+            assertThat(exchange.requests.get(2).headers().getIfNoneMatch()).containsExactly("\"def456\"");
+        }
+    }
+
+    @Nested
+    @DisplayName("when a response is not cacheable")
+    class NotCacheable {
+
+        @Test
+        @DisplayName("should not cache responses without validators")
+        void shouldSkipResponsesWithoutValidators() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, null, metrics);
+            exchange.respond(ClientResponse.create(HttpStatus.OK).body(BODY).build());
+            exchange.respond(ClientResponse.create(HttpStatus.OK).body(BODY).build());
+
+            get(cache);
+            get(cache);
+
+            assertThat(exchange.requests.get(1).headers().getIfNoneMatch()).isEmpty();
+            assertThat(counter("test.github.cache.miss")).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should not cache bodies larger than the cache")
+        void shouldSkipOversizedBodies() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(8, null, metrics);
+            exchange.respond(ok(BODY, ETAG));
+            exchange.respond(ok(BODY, ETAG));
+
+            get(cache);
+            get(cache);
+
+            assertThat(exchange.requests.get(1).headers().getIfNoneMatch()).isEmpty();
+            assertThat(cache.weightedSize()).isZero();
+        }
+
+        @Test
+        @DisplayName("should pass non-GET requests through untouched")
+        void shouldBypassNonGet() {
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, null, metrics);
+            exchange.respond(ok(BODY, ETAG));
+
+            cache.filter(request(HttpMethod.POST), exchange).block().releaseBody().block();
+
+            assertThat(cache.weightedSize()).isZero();
+            assertThat(meterRegistry.find("test.github.cache.miss").counter()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("when persisting to a directory")
+    class Persisting {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("should reload entries after a restart")
+        void shouldReloadEntries() {
+            ConditionalRequestCache first = new ConditionalRequestCache(1024, directory, metrics);
+            exchange.respond(ok(BODY, ETAG));
+            get(first);
+            await().atMost(Duration.ofSeconds(5)).until(() -> entryFiles().size() == 1);
+
+            ConditionalRequestCache restarted = new ConditionalRequestCache(1024, directory, metrics);
+            exchange.respond(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+            assertThat(get(restarted)).isEqualTo(BODY);
+            assertThat(exchange.requests.get(1).headers().getIfNoneMatch()).containsExactly(ETAG);
+        }
+
+        @Test
+        @DisplayName("should discard unreadable files on load")
+        void shouldDiscardUnreadableFiles() throws Exception {
+            Path corrupt = Files.writeString(directory.resolve("deadbeef.entry"), "not an entry");
+
+            ConditionalRequestCache cache = new ConditionalRequestCache(1024, directory, metrics);
+
+            assertThat(cache.weightedSize()).isZero();
+            assertThat(corrupt).doesNotExist();
+        }
+
+        private List<Path> entryFiles() throws Exception {
+            try (var files = Files.list(directory)) {
+                return files.filter(path -> path.toString().endsWith(".entry")).toList();
+            }
+        }
+    }
+
+    private String get(ConditionalRequestCache cache) {
+        return cache.filter(request(HttpMethod.GET), exchange)
+                .flatMap(response -> response.bodyToMono(String.class))
+                .block();
+    }
+
+    private static ClientRequest request(HttpMethod method) {
+        return ClientRequest.create(method, FILES_URL)
+                .header(HttpHeaders.ACCEPT, "application/vnd.github.v3+json")
+                .build();
+    }
+
+    private static ClientResponse ok(String body, String etag) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .body(body)
+                .build();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    static class RecordingExchange implements ExchangeFunction {
+
+        final List<ClientRequest> requests = new ArrayList<>();
+        final Deque<ClientResponse> responses = new ArrayDeque<>();
+
+        void respond(ClientResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public Mono<ClientResponse> exchange(ClientRequest request) {
+            requests.add(request);
+            return Mono.just(responses.remove());
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.code.context.infrastructure.adapter.outbound.github;
 
+import com.code.context.domain.exception.CompareUnavailableException;
+import com.code.context.domain.exception.DiffTooLargeException;
 import com.code.context.domain.exception.InvalidDiffException;
+import com.code.context.domain.model.FileChange;
 import com.code.context.domain.validator.DiffValidator;
 import com.code.context.domain.validator.ValidationReason;
 import com.code.context.domain.validator.ValidationResult;
+import com.code.context.infrastructure.config.GitHubFilesProperties;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.ResiliencePolicy;
+import com.code.platform.resilience.ResilienceProperties;
+import com.code.platform.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,13 +20,31 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import reactor.util.retry.Retry;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -45,16 +72,19 @@ class GitHubClientAdapterTest {
 
     static final String DIFF_URL = "https://api.github.com/repos/owner/repo/pulls/123";
     static final String DIFF = "diff --git a/test.java b/test.java";
+    static final int MAX_SIZE_BYTES = 4_096;
     static final String OWNER = "owner";
     static final String REPO = "repo";
     static final Integer PR_NUMBER = 123;
-    static final String METADATA = "[{\"filename\":\"test.java\"}]";
 
     @BeforeEach
     void setUp() {
+        // Failures that cannot change on retry surface as they are, as in GitHubClientConfig
         Retry retryStrategy = Retry.max(0)
-                .filter(throwable -> !(throwable instanceof InvalidDiffException));
-        adapter = new GitHubClientAdapter(webClient, retryStrategy, diffValidator);
+                .filter(throwable -> !(throwable instanceof InvalidDiffException)
+                        && !(throwable instanceof DiffTooLargeException));
+        adapter = new GitHubClientAdapter(webClient, retryStrategy, resilience(), diffValidator,
+                new GitHubFilesProperties(null, null, null));
     }
 
     @Nested
@@ -72,41 +102,52 @@ class GitHubClientAdapterTest {
         @Test
         @DisplayName("should return diff successfully when validation is VALID")
         void shouldReturnDiffSuccessfully() {
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(DIFF));
-            when(diffValidator.validate(DIFF)).thenReturn(ValidationResult.valid());
+            when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(DIFF));
+            when(diffValidator.validate(any(byte[].class))).thenReturn(ValidationResult.valid());
 
-            StepVerifier.create(adapter.getDiff(DIFF_URL))
-                    .assertNext(diff -> assertThat(diff).isEqualTo(DIFF))
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
+                    .assertNext(diff -> assertThat(diff.asString()).isEqualTo(DIFF))
                     .verifyComplete();
 
             verify(webClient).get();
             verify(requestHeadersUriSpec).uri(DIFF_URL);
-            verify(diffValidator).validate(DIFF);
+            verify(diffValidator).validate(DIFF.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("should join a body that arrives in several chunks")
+        void shouldJoinChunks() {
+            when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body("diff --git a/", "test.java b/", "test.java"));
+            when(diffValidator.validate(any(byte[].class))).thenReturn(ValidationResult.valid());
+
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
+                    .assertNext(diff -> assertThat(diff.asString()).isEqualTo(DIFF))
+                    .verifyComplete();
         }
 
         @Test
         @DisplayName("should return empty Mono when validation is SKIP")
         void shouldSkipWhenBinaryFile() {
             String binaryDiff = "diff --git a/image.png b/image.png\nBinary files differ";
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(binaryDiff));
-            when(diffValidator.validate(binaryDiff))
+            when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(binaryDiff));
+            when(diffValidator.validate(any(byte[].class)))
                     .thenReturn(ValidationResult.skip(ValidationReason.BINARY_FILE));
 
-            StepVerifier.create(adapter.getDiff(DIFF_URL))
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
                     .verifyComplete();
 
-            verify(diffValidator).validate(binaryDiff);
+            verify(diffValidator).validate(binaryDiff.getBytes(StandardCharsets.UTF_8));
         }
 
         @Test
         @DisplayName("should throw InvalidDiffException when validation is INVALID")
         void shouldThrowWhenInvalidDiff() {
             String jsonResponse = "{\"message\": \"Not Found\"}";
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
-            when(diffValidator.validate(jsonResponse))
+            when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(jsonResponse));
+            when(diffValidator.validate(any(byte[].class)))
                     .thenReturn(ValidationResult.invalid(ValidationReason.JSON_RESPONSE));
 
-            StepVerifier.create(adapter.getDiff(DIFF_URL))
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
                     .expectErrorSatisfies(error -> {
                         assertThat(error).isInstanceOf(InvalidDiffException.class);
                         InvalidDiffException ex = (InvalidDiffException) error;
@@ -117,71 +158,283 @@ class GitHubClientAdapterTest {
                     })
                     .verify();
 
-            verify(diffValidator).validate(jsonResponse);
+            verify(diffValidator).validate(jsonResponse.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("should abort the download once the size limit is passed")
+        void shouldAbortOversizedDownload() {
+            AtomicBoolean cancelled = new AtomicBoolean();
+            // Endless body: the test only terminates if the adapter cancels it
+            Flux<DataBuffer> endless = Flux.<DataBuffer>generate(sink -> sink.next(buffer("+x".repeat(512))))
+                    .doOnCancel(() -> cancelled.set(true));
+            when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(endless);
+
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
+                    .expectErrorSatisfies(error -> {
+                        assertThat(error).isInstanceOf(DiffTooLargeException.class);
+                        assertThat(((DiffTooLargeException) error).getLimitBytes()).isEqualTo(MAX_SIZE_BYTES);
+                    })
+                    .verify();
+
+            assertThat(cancelled).isTrue();
+            verifyNoInteractions(diffValidator);
         }
 
         @Test
         @DisplayName("should handle WebClient error")
         void shouldHandleError() {
-            when(responseSpec.bodyToMono(String.class))
-                    .thenReturn(Mono.error(new WebClientResponseException(500, "Internal Error", null, null, null)));
+            when(responseSpec.bodyToFlux(DataBuffer.class))
+                    .thenReturn(Flux.error(new WebClientResponseException(500, "Internal Error", null, null, null)));
 
-            StepVerifier.create(adapter.getDiff(DIFF_URL))
+            StepVerifier.create(adapter.getDiff(DIFF_URL, MAX_SIZE_BYTES))
                     .expectErrorSatisfies(error -> {
                         assertThat(error).hasRootCauseInstanceOf(WebClientResponseException.class);
                     })
                     .verify();
         }
+
+        private Flux<DataBuffer> body(String... chunks) {
+            return Flux.fromArray(chunks).map(GitHubClientAdapterTest::buffer);
+        }
+    }
+
+    static DataBuffer buffer(String chunk) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ResiliencePolicy resilience() {
+        return new ResilienceRegistry(new ResilienceProperties(null), new MetricsHelper(new SimpleMeterRegistry(), "test"))
+                .policy("github");
     }
 
     @Nested
-    @DisplayName("when getting file metadata")
-    class WhenGettingFileMetadata {
+    @DisplayName("when comparing commits")
+    class WhenComparingCommits {
+
+        static final String COMPARE_PATH = "/repos/owner/repo/compare/base1...head2";
+
+        final List<String> requested = new CopyOnWriteArrayList<>();
+
+        GitHubClientAdapter compareAdapter(HttpStatus statusCode, String status) {
+            WebClient client = WebClient.builder()
+                    .baseUrl("https://api.github.com")
+                    .exchangeFunction(request -> {
+                        boolean diff = request.headers().getAccept().contains(
+                                MediaType.valueOf("application/vnd.github.v3.diff"));
+                        requested.add((diff ? "diff " : "status ") + request.url().getPath());
+                        if (diff) {
+                            return Mono.just(ClientResponse.create(HttpStatus.OK).body(DIFF).build());
+                        }
+                        return Mono.just(ClientResponse.create(statusCode)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(statusCode.is2xxSuccessful()
+                                        ? "{\"status\": \"%s\", \"ahead_by\": 2, \"files\": []}".formatted(status)
+                                        : "{\"message\": \"Not Found\"}")
+                                .build());
+                    })
+                    .build();
+            // Client errors are not retried, as in GitHubClientConfig
+            Retry retryStrategy = Retry.max(0)
+                    .filter(throwable -> !(throwable instanceof WebClientResponseException));
+            return new GitHubClientAdapter(client, retryStrategy, resilience(), diffValidator,
+                    new GitHubFilesProperties(null, null, null));
+        }
 
-        @BeforeEach
-        void setUp() {
-            when(webClient.get()).thenReturn(requestHeadersUriSpec);
-            when(requestHeadersUriSpec.uri(anyString(), any(), any(), any())).thenReturn(requestHeadersSpec);
-            when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        @Test
+        @DisplayName("should download the compare diff when the head is ahead of the base")
+        void shouldDownloadCompareDiff() {
+            when(diffValidator.validate(any(byte[].class))).thenReturn(ValidationResult.valid());
+
+            StepVerifier.create(compareAdapter(HttpStatus.OK, "ahead")
+                            .getCompareDiff(OWNER, REPO, "base1", "head2", MAX_SIZE_BYTES))
+                    .assertNext(diff -> assertThat(diff.asString()).isEqualTo(DIFF))
+                    .verifyComplete();
+
+            assertThat(requested).containsExactly("status " + COMPARE_PATH, "diff " + COMPARE_PATH);
         }
 
         @Test
-        @DisplayName("should return metadata successfully")
-        void shouldReturnMetadataSuccessfully() {
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(METADATA));
+        @DisplayName("should refuse to compare a head that diverged from the base, without downloading")
+        void shouldRefuseDivergedHead() {
+            StepVerifier.create(compareAdapter(HttpStatus.OK, "diverged")
+                            .getCompareDiff(OWNER, REPO, "base1", "head2", MAX_SIZE_BYTES))
+                    .expectError(CompareUnavailableException.class)
+                    .verify();
+
+            assertThat(requested).containsExactly("status " + COMPARE_PATH);
+        }
+
+        @Test
+        @DisplayName("should refuse to compare against a base GitHub no longer knows")
+        void shouldRefuseUnknownBase() {
+            StepVerifier.create(compareAdapter(HttpStatus.NOT_FOUND, null)
+                            .getCompareDiff(OWNER, REPO, "base1", "head2", MAX_SIZE_BYTES))
+                    .expectError(CompareUnavailableException.class)
+                    .verify();
+        }
+    }
 
-            StepVerifier.create(adapter.getFileMetadata(OWNER, REPO, PR_NUMBER))
-                    .assertNext(metadata -> assertThat(metadata).isEqualTo(METADATA))
+    @Nested
+    @DisplayName("when getting file changes")
+    class WhenGettingFileChanges {
+
+        static final String FILES_PATH = "/repos/owner/repo/pulls/123/files";
+
+        final Map<Integer, ClientResponse> pages = new ConcurrentHashMap<>();
+        final Map<Integer, Duration> delays = new ConcurrentHashMap<>();
+        final List<URI> requested = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        GitHubClientAdapter pagingAdapter(GitHubFilesProperties properties) {
+            WebClient client = WebClient.builder()
+                    .baseUrl("https://api.github.com")
+                    .exchangeFunction(request -> {
+                        requested.add(request.url());
+                        int page = Integer.parseInt(UriComponentsBuilder.fromUri(request.url()).build()
+                                .getQueryParams().getFirst("page"));
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        return Mono.just(pages.get(page))
+                                .delayElement(delays.getOrDefault(page, Duration.ZERO))
+                                .doFinally(signal -> inFlight.decrementAndGet());
+                    })
+                    .build();
+            // Unparseable pages are not retried, as in GitHubClientConfig
+            Retry retryStrategy = Retry.max(0)
+                    .filter(throwable -> !(throwable instanceof DecodingException));
+            return new GitHubClientAdapter(client, retryStrategy, resilience(), diffValidator, properties);
+        }
+
+        @Test
+        @DisplayName("should parse a single page into file changes")
+        void shouldParseSinglePage() {
+            pages.put(1, page("""
+                    [{"sha": "abc", "filename": "test.java", "status": "modified", "additions": 10,
+                      "deletions": 5, "changes": 15, "patch": "@@ -1 +1 @@"},
+                     {"filename": "image.png", "status": "added", "additions": 0, "deletions": 0}]
+                    """, null));
+
+            StepVerifier.create(pagingAdapter(new GitHubFilesProperties(null, null, null))
+                            .getFileChanges(OWNER, REPO, PR_NUMBER))
+                    .expectNext(new FileChange("test.java", "modified", 10, 5, "@@ -1 +1 @@"))
+                    .expectNext(new FileChange("image.png", "added", 0, 0, null))
                     .verifyComplete();
 
-            verify(webClient).get();
-            verify(requestHeadersUriSpec).uri(anyString(), eq(OWNER), eq(REPO), eq(PR_NUMBER));
+            assertThat(requested).singleElement().satisfies(uri -> {
+                assertThat(uri.getPath()).isEqualTo(FILES_PATH);
+                assertThat(uri.getQuery()).isEqualTo("per_page=100&page=1");
+            });
         }
 
         @Test
-        @DisplayName("should use correct URI template")
-        void shouldUseCorrectUriTemplate() {
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(METADATA));
+        @DisplayName("should fetch the remaining pages concurrently and emit them in page order")
+        void shouldFetchRemainingPagesConcurrently() {
+            pages.put(1, page("[" + file("a") + "]", lastLink(4)));
+            pages.put(2, page("[" + file("b") + "]", lastLink(4)));
+            pages.put(3, page("[" + file("c") + "]", lastLink(4)));
+            pages.put(4, page("[" + file("d") + "]", lastLink(4)));
+            delays.put(2, Duration.ofMillis(200));
+
+            StepVerifier.create(pagingAdapter(new GitHubFilesProperties(null, null, 3))
+                            .getFileChanges(OWNER, REPO, PR_NUMBER)
+                            .map(FileChange::filename))
+                    .expectNext("a", "b", "c", "d")
+                    .verifyComplete();
+
+            assertThat(requested).hasSize(4);
+            assertThat(maxInFlight.get()).isGreaterThan(1);
+        }
 
-            StepVerifier.create(adapter.getFileMetadata(OWNER, REPO, PR_NUMBER))
-                    .expectNext(METADATA)
+        @Test
+        @DisplayName("should stop at the configured page limit")
+        void shouldStopAtMaxPages() {
+            pages.put(1, page("[" + file("a") + "]", lastLink(30)));
+            pages.put(2, page("[" + file("b") + "]", lastLink(30)));
+
+            StepVerifier.create(pagingAdapter(new GitHubFilesProperties(null, 2, null))
+                            .getFileChanges(OWNER, REPO, PR_NUMBER)
+                            .map(FileChange::filename))
+                    .expectNext("a", "b")
                     .verifyComplete();
 
-            verify(requestHeadersUriSpec).uri("/repos/{owner}/{repo}/pulls/{pull_number}/files",
-                    OWNER, REPO, PR_NUMBER);
+            assertThat(requested).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("should return no files when the listing cannot be parsed")
+        void shouldReturnNoFilesOnInvalidJson() {
+            pages.put(1, page("invalid json", null));
+
+            StepVerifier.create(pagingAdapter(new GitHubFilesProperties(null, null, null))
+                            .getFileChanges(OWNER, REPO, PR_NUMBER))
+                    .verifyComplete();
         }
 
         @Test
         @DisplayName("should handle error")
         void shouldHandleError() {
-            when(responseSpec.bodyToMono(String.class))
-                    .thenReturn(Mono.error(new WebClientResponseException(404, "Not Found", null, null, null)));
+            pages.put(1, ClientResponse.create(HttpStatus.NOT_FOUND).build());
 
-            StepVerifier.create(adapter.getFileMetadata(OWNER, REPO, PR_NUMBER))
+            StepVerifier.create(pagingAdapter(new GitHubFilesProperties(null, null, null))
+                            .getFileChanges(OWNER, REPO, PR_NUMBER))
                     .expectErrorSatisfies(error -> {
                         assertThat(error).hasRootCauseInstanceOf(WebClientResponseException.class);
                     })
                     .verify();
         }
+
+        @Test
+        @DisplayName("should reject missing parameters")
+        void shouldRejectMissingParameters() {
+            StepVerifier.create(adapter.getFileChanges(OWNER, null, PR_NUMBER))
+                    .expectError(IllegalArgumentException.class)
+                    .verify();
+        }
+
+        private static ClientResponse page(String json, String link) {
+            ClientResponse.Builder response = ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            if (link != null) {
+                response.header(HttpHeaders.LINK, link);
+            }
+            return response.body(json).build();
+        }
+
+        private static String file(String name) {
+            return """
+                    {"filename": "%s", "status": "modified", "additions": 1, "deletions": 1}""".formatted(name);
+        }
+
+        private static String lastLink(int last) {
+            return "<https://api.github.com/repositories/1/pulls/123/files?per_page=100&page=2>; rel=\"next\", "
+                    + "<https://api.github.com/repositories/1/pulls/123/files?per_page=100&page=%d>; rel=\"last\""
+                    .formatted(last);
+        }
+    }
+
+    @Nested
+    @DisplayName("when reading Link headers")
+    class WhenReadingLinkHeaders {
+
+        @Test
+        @DisplayName("should take the page of the last link and ignore per_page")
+        void shouldTakeLastPage() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.LINK, "<https://api.github.com/x?page=2&per_page=100>; rel=\"next\", "
+                    + "<https://api.github.com/x?per_page=100&page=7>; rel=\"last\"");
+
+            assertThat(GitHubClientAdapter.lastPage(headers)).isEqualTo(7);
+        }
+
+        @Test
+        @DisplayName("should treat a missing header or last link as a single page")
+        void shouldDefaultToSinglePage() {
+            HttpHeaders lastPageReached = new HttpHeaders();
+            lastPageReached.add(HttpHeaders.LINK, "<https://api.github.com/x?page=1>; rel=\"prev\"");
+
+            assertThat(GitHubClientAdapter.lastPage(new HttpHeaders())).isEqualTo(1);
+            assertThat(GitHubClientAdapter.lastPage(lastPageReached)).isEqualTo(1);
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.code.context.infrastructure.adapter.outbound.state;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InMemoryReviewedHeadStore")
+class InMemoryReviewedHeadStoreTest {
+
+    static final String OWNER = "owner";
+    static final String REPO = "repo";
+    static final int PR_NUMBER = 7;
+
+    final InMemoryReviewedHeadStore store = new InMemoryReviewedHeadStore(100, Duration.ofDays(1));
+
+    @Test
+    @DisplayName("should not know a head until the review of its context completes")
+    void shouldRecordHeadOnlyOnceReviewed() {
+        store.recordPendingHead("context-1", OWNER, REPO, PR_NUMBER, "1111111");
+
+        assertThat(store.lastReviewedHead(OWNER, REPO, PR_NUMBER)).isEmpty();
+
+        store.confirmReviewedHead("context-1");
+
+        assertThat(store.lastReviewedHead(OWNER, REPO, PR_NUMBER)).contains("1111111");
+    }
+
+    @Test
+    @DisplayName("should keep the reviewed head while a later head awaits its review")
+    void shouldKeepReviewedHeadWhileLaterOnePending() {
+        store.recordPendingHead("context-1", OWNER, REPO, PR_NUMBER, "1111111");
+        store.confirmReviewedHead("context-1");
+        store.recordPendingHead("context-2", OWNER, REPO, PR_NUMBER, "2222222");
+
+        assertThat(store.lastReviewedHead(OWNER, REPO, PR_NUMBER)).contains("1111111");
+    }
+
+    @Test
+    @DisplayName("should ignore a review completing late for a head sent before the reviewed one")
+    void shouldIgnoreLateCompletionOfOlderHead() {
+        store.recordPendingHead("context-1", OWNER, REPO, PR_NUMBER, "1111111");
+        store.recordPendingHead("context-2", OWNER, REPO, PR_NUMBER, "2222222");
+        store.confirmReviewedHead("context-2");
+
+        store.confirmReviewedHead("context-1");
+
+        assertThat(store.lastReviewedHead(OWNER, REPO, PR_NUMBER)).contains("2222222");
+    }
+
+    @Test
+    @DisplayName("should ignore a completed review whose context it does not hold")
+    void shouldIgnoreUnknownContext() {
+        store.confirmReviewedHead("context-1");
+        store.confirmReviewedHead("context-1");
+
+        assertThat(store.lastReviewedHead(OWNER, REPO, PR_NUMBER)).isEmpty();
+    }
+}
@@ -16,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
@@ -39,7 +40,13 @@ public class ContextCollectedEventListener {
         topics = "${kafka.topics.context-collected}",
         groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void onContextCollected(ContextCollectedEvent event, Acknowledgment ack) {
+    public void onContextCollected(@Payload(required = false) ContextCollectedEvent event, Acknowledgment ack) {
+        // Null when completedContextFilter skipped the record by its headers, without parsing it
+        if (event == null) {
+            ack.acknowledge();
+            return;
+        }
+
         try (MDC.MDCCloseable ignored = MDC.putCloseable("correlationId", event.correlationId())) {
             log.info("Received ContextCollected event: eventId={}, contextId={}, repo={}/{}, PR #{}, status={}",
                 event.eventId(), event.contextId(), event.repositoryOwner(),
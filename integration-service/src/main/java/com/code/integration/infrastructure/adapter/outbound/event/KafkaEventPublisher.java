@@ -3,6 +3,7 @@ package com.code.integration.infrastructure.adapter.outbound.event;
 import com.code.events.integration.CommentPostingFailedEvent;
 import com.code.integration.application.port.outbound.EventPublisher;
 import com.code.integration.infrastructure.config.KafkaTopicProperties;
+import com.code.platform.partitioning.PartitionKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -16,12 +17,13 @@ public class KafkaEventPublisher implements EventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KafkaTopicProperties topicProperties;
+    private final PartitionKeys partitionKeys;
 
     @Override
     public Mono<Void> publish(CommentPostingFailedEvent event) {
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing CommentPostingFailedEvent to Kafka: eventId={}, reviewId={}, repo={}, errorType={}",
+        log.debug("Publishing CommentPostingFailedEvent to Kafka: eventId={}, reviewId={}, key={}, errorType={}",
             event.eventId(), event.reviewId(), key, event.errorType());
 
         return Mono.fromFuture(
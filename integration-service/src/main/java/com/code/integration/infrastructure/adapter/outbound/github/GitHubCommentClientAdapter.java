@@ -2,6 +2,7 @@ package com.code.integration.infrastructure.adapter.outbound.github;
 
 import com.code.integration.application.port.outbound.GitHubCommentClient;
 import com.code.integration.domain.model.ReviewComment;
+import com.code.platform.resilience.ResiliencePolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -16,6 +17,7 @@ import java.util.Map;
 public final class GitHubCommentClientAdapter implements GitHubCommentClient {
 
     private final WebClient gitHubWebClient;
+    private final ResiliencePolicy gitHubResilience;
 
     @Override
     public Mono<Long> postComment(ReviewComment comment) {
@@ -50,6 +52,7 @@ public final class GitHubCommentClientAdapter implements GitHubCommentClient {
                 .retrieve()
                 .bodyToMono(GitHubCommentResponse.class)
                 .map(GitHubCommentResponse::id)
+                .transform(gitHubResilience::protect)
                 .doOnSuccess(commentId -> log.debug("Comment posted successfully with ID: {}", commentId))
                 .doOnError(err -> log.error("Failed to post comment to PR #{}", comment.pullRequestNumber(), err));
     }
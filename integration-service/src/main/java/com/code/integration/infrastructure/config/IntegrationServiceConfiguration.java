@@ -1,8 +1,10 @@
 package com.code.integration.infrastructure.config;
 
+import com.code.events.context.ContextCollectionStatus;
 import com.code.integration.application.port.inbound.CommentPostingService;
 import com.code.integration.application.port.outbound.GitHubCommentClient;
 import com.code.integration.application.service.CommentPostingServiceImpl;
+import com.code.platform.envelope.RecordHeaderFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,4 +15,11 @@ public class IntegrationServiceConfiguration {
     public CommentPostingService commentPostingService(GitHubCommentClient gitHubCommentClient) {
         return new CommentPostingServiceImpl(gitHubCommentClient);
     }
+
+    // COMPLETED contexts are review-service's; skipping them by header spares parsing their diffs
+    @Bean
+    public RecordHeaderFilter completedContextFilter(KafkaTopicProperties topicProperties) {
+        return RecordHeaderFilter.onTopic(topicProperties.contextCollected(),
+                envelope -> ContextCollectionStatus.COMPLETED.name().equals(envelope.status()));
+    }
 }
@@ -1,11 +1,15 @@
 package com.code.integration.infrastructure.config;
 
 import com.code.platform.github.GitHubProperties;
+import com.code.platform.github.GitHubRateLimiter;
+import com.code.platform.resilience.ResiliencePolicy;
+import com.code.platform.resilience.ResilienceRegistry;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
@@ -22,7 +26,7 @@ public class WebClientConfiguration {
     private final GitHubProperties gitHubProperties;
 
     @Bean
-    public WebClient gitHubWebClient() {
+    public WebClient gitHubWebClient(ObjectProvider<GitHubRateLimiter> rateLimiter) {
         // Validate token configuration at startup
         if (gitHubProperties.token() == null || gitHubProperties.token().isBlank()) {
             throw new IllegalStateException("GitHub API token must be configured (github.api.token)");
@@ -35,12 +39,19 @@ public class WebClientConfiguration {
                         .addHandlerLast(new ReadTimeoutHandler(gitHubProperties.timeout().read().toMillis(), TimeUnit.MILLISECONDS))
                         .addHandlerLast(new WriteTimeoutHandler(gitHubProperties.timeout().write().toMillis(), TimeUnit.MILLISECONDS)));
 
-        return WebClient.builder()
+        WebClient.Builder builder = WebClient.builder()
                 .baseUrl(gitHubProperties.baseUrl())
                 .defaultHeader("Authorization", "token " + gitHubProperties.token())
                 .defaultHeader("Accept", "application/vnd.github.v3+json")
                 .defaultHeader("User-Agent", "PR-Rule-Bot/1.0")
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        // Comment posts are writes and may spend the budget reserve reads leave alone
+        rateLimiter.ifAvailable(builder::filter);
+        return builder.build();
+    }
+
+    @Bean
+    public ResiliencePolicy gitHubResilience(ResilienceRegistry resilienceRegistry) {
+        return resilienceRegistry.policy("github");
     }
 }
@@ -1,6 +1,8 @@
 package com.code.integration.infrastructure.support;
 
 import com.code.integration.domain.model.ErrorType;
+import com.code.platform.resilience.ResiliencePolicy;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import reactor.core.Exceptions;
 import reactor.util.retry.Retry;
@@ -8,12 +10,16 @@ import reactor.util.retry.Retry;
 import java.time.Duration;
 
 @Component
+@RequiredArgsConstructor
 public class ReactiveRetrySupport {
 
+    private final ResiliencePolicy gitHubResilience;
+
     public Retry transientRetry(int maxAttempts, Duration initialBackoff) {
-        return Retry.backoff(maxAttempts, initialBackoff)
+        // Only GitHub calls are retried here; they share its retry budget
+        return gitHubResilience.withRetryBudget(Retry.backoff(maxAttempts, initialBackoff)
                 .maxBackoff(Duration.ofSeconds(1))
-                .filter(this::isTransientError);
+                .filter(this::isTransientError));
     }
 
     private boolean isTransientError(Throwable error) {
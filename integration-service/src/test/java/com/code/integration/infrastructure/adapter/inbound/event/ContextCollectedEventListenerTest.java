@@ -2,6 +2,7 @@ package com.code.integration.infrastructure.adapter.inbound.event;
 
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
 import com.code.events.integration.CommentPostingFailedEvent;
 import com.code.integration.application.port.inbound.CommentPostingService;
 import com.code.integration.application.port.outbound.EventPublisher;
@@ -91,7 +92,8 @@ class ContextCollectedEventListenerTest {
         return new ContextCollectedEvent(
                 EVENT_ID, CONTEXT_ID,
                 OWNER, REPO, PR_NUMBER, TITLE,
-                diff, status, CORRELATION_ID, Instant.now()
+                diff == null ? null : DiffContent.of(diff), status, CORRELATION_ID, Instant.now(),
+                false, null, null, null
         );
     }
 
@@ -110,6 +112,16 @@ class ContextCollectedEventListenerTest {
             verify(ack).acknowledge();
         }
 
+        @Test
+        @DisplayName("should acknowledge records skipped by their headers")
+        void shouldAcknowledgeSkippedRecords() {
+            listener.onContextCollected(null, ack);
+
+            verify(commentPostingService, never()).postComment(any());
+            verifyNoInteractions(idempotencyStore);
+            verify(ack).acknowledge();
+        }
+
         @Test
         @DisplayName("should post FAILED status notification")
         void shouldPostFailedNotification() throws Exception {
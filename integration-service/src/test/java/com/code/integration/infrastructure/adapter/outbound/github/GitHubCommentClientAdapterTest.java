@@ -1,6 +1,10 @@
 package com.code.integration.infrastructure.adapter.outbound.github;
 
 import com.code.integration.domain.model.ReviewComment;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.ResilienceProperties;
+import com.code.platform.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -43,7 +47,9 @@ class GitHubCommentClientAdapterTest {
 
     @BeforeEach
     void setUp() {
-        adapter = new GitHubCommentClientAdapter(webClient);
+        ResilienceRegistry resilience = new ResilienceRegistry(
+                new ResilienceProperties(null), new MetricsHelper(new SimpleMeterRegistry(), "test"));
+        adapter = new GitHubCommentClientAdapter(webClient, resilience.policy("github"));
     }
 
     @Nested
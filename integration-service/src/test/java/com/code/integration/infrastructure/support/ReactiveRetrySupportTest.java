@@ -1,5 +1,9 @@
 package com.code.integration.infrastructure.support;
 
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.ResilienceProperties;
+import com.code.platform.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,7 +22,9 @@ class ReactiveRetrySupportTest {
 
     @BeforeEach
     void setUp() {
-        retrySupport = new ReactiveRetrySupport();
+        ResilienceRegistry resilience = new ResilienceRegistry(
+                new ResilienceProperties(null), new MetricsHelper(new SimpleMeterRegistry(), "test"));
+        retrySupport = new ReactiveRetrySupport(resilience.policy("github"));
     }
 
     @Nested
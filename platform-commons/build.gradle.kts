@@ -1,5 +1,6 @@
 plugins {
     id("java-library")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.code"
@@ -60,6 +61,15 @@ dependencies {
     // Spring Kafka for DltPublisher
     api("org.springframework.kafka:spring-kafka")
 
+    // Event headers and the zstd dictionary shipped with the schemas
+    implementation(project(":shared-events"))
+
+    // zstd with trained dictionaries for event compression
+    implementation("com.github.luben:zstd-jni:1.5.6-4")
+
+    // Smile, Jackson's binary JSON, as the optional event encoding (managed by Spring Boot BOM)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+
     // Lombok for code generation
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
@@ -73,6 +83,7 @@ dependencies {
     // Test
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
     testImplementation("org.assertj:assertj-core:3.25.1")
+    testImplementation("org.springframework.kafka:spring-kafka-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
     // BlockHound support for reactive testing
@@ -82,6 +93,28 @@ dependencies {
     testImplementation("io.projectreactor:reactor-core:3.7.0")
 }
 
+// Microbenchmarks live in src/jmh and run on demand: ./gradlew :platform-commons:jmh
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
+// Retrains the event compression dictionary; the trainer lives in src/jmh, outside the shipped jar:
+// ./gradlew :platform-commons:trainZstdDictionary -Pcorpus=<directory | git:<repository>[:<range>]> [-Poutput=...] [-Psize=...]
+tasks.register<JavaExec>("trainZstdDictionary") {
+    group = "application"
+    description = "Trains a zstd dictionary for event compression from a corpus of diffs"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.code.platform.compression.ZstdDictionaryTrainer")
+    workingDir = rootDir
+    args(listOfNotNull(
+        providers.gradleProperty("output").getOrElse("build/diffs.dict"),
+        providers.gradleProperty("corpus").getOrElse("git:."),
+        providers.gradleProperty("size").map { "--size=$it" }.orNull
+    ))
+}
+
 tasks.test {
     useJUnitPlatform()
     systemProperty("blockhound.enabled", "true")
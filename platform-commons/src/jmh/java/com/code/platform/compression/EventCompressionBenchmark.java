@@ -0,0 +1,141 @@
+package com.code.platform.compression;
+
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produce and consume cost of {@code context.collected} events through the configured JSON
+ * serializers, as they are and wrapped for compression.
+ * <ul>
+ *   <li>{@code json}: no compression, the size Kafka batch compression starts from</li>
+ *   <li>{@code zstd}: {@link ZstdEventCodec} without a dictionary</li>
+ *   <li>{@code zstd-dictionary}: with the dictionary shipped in shared-events</li>
+ * </ul>
+ * Each event carries the diff of one commit from {@code corpus}, a source as read by
+ * {@link ZstdDictionaryTrainer}. The default is this repository's history after the commits
+ * the shipped dictionary was trained on, so no event is one it has seen. Run from the
+ * platform-commons directory, or pass {@code -p corpus=...}; average wire bytes per event are
+ * printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventCompressionBenchmark {
+
+    private static final String TOPIC = "context.collected";
+    private static final String DICTIONARY = "/com/code/events/zstd/diffs-v1.dict";
+
+    @Param({"json", "zstd", "zstd-dictionary"})
+    public String encoding;
+
+    @Param({"git:..:72cd8af..HEAD"})
+    public String corpus;
+
+    private Serializer<ContextCollectedEvent> serializer;
+    private Deserializer<ContextCollectedEvent> deserializer;
+    private List<ContextCollectedEvent> events;
+    private List<byte[]> values;
+    private List<Headers> headers;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonSerializer<ContextCollectedEvent> json = new JsonSerializer<>();
+        json.setAddTypeInfo(false);
+        JsonDeserializer<ContextCollectedEvent> fromJson = new JsonDeserializer<>(ContextCollectedEvent.class, false);
+        switch (encoding) {
+            case "json" -> {
+                serializer = json;
+                deserializer = fromJson;
+            }
+            case "zstd", "zstd-dictionary" -> {
+                ZstdEventCodec codec = new ZstdEventCodec(encoding.equals("zstd") ? null : dictionary(), List.of(),
+                        ZstdDictionaryTrainer.DEFAULT_LEVEL);
+                serializer = new CompressingSerializer<>(json, codec, 512,
+                        new MetricsHelper(new SimpleMeterRegistry(), "benchmark"));
+                deserializer = new DecompressingDeserializer<>(fromJson, codec);
+            }
+            default -> throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+
+        events = new ArrayList<>();
+        values = new ArrayList<>();
+        headers = new ArrayList<>();
+        long raw = 0;
+        long wire = 0;
+        for (String diff : ZstdDictionaryTrainer.load(corpus)) {
+            ContextCollectedEvent event = event(diff);
+            Headers recordHeaders = new RecordHeaders();
+            byte[] value = serializer.serialize(TOPIC, recordHeaders, event);
+            events.add(event);
+            values.add(value);
+            headers.add(recordHeaders);
+            raw += json.serialize(TOPIC, event).length;
+            wire += value.length;
+        }
+        if (events.isEmpty()) {
+            throw new IllegalStateException("No diffs in " + corpus);
+        }
+        System.out.printf("%n%s: %d events, %d bytes of JSON on average, %d on the wire (%.2fx)%n",
+                encoding, events.size(), raw / events.size(), wire / events.size(), (double) raw / wire);
+    }
+
+    @Benchmark
+    public byte[] produce() {
+        int i = next();
+        return serializer.serialize(TOPIC, new RecordHeaders(), events.get(i));
+    }
+
+    @Benchmark
+    public ContextCollectedEvent consume() {
+        int i = next();
+        return deserializer.deserialize(TOPIC, headers.get(i), values.get(i));
+    }
+
+    private int next() {
+        int i = next;
+        next = i + 1 == events.size() ? 0 : i + 1;
+        return i;
+    }
+
+    private static ContextCollectedEvent event(String diff) {
+        return new ContextCollectedEvent(UUID.randomUUID().toString(), UUID.randomUUID().toString(), "code",
+                "platform", 42, "Benchmark pull request", DiffContent.ofUtf8(diff.getBytes(StandardCharsets.UTF_8)),
+                ContextCollectionStatus.COMPLETED, UUID.randomUUID().toString(), Instant.now(), false, null, null, null);
+    }
+
+    private static byte[] dictionary() throws IOException {
+        try (InputStream in = EventCompressionBenchmark.class.getResourceAsStream(DICTIONARY)) {
+            if (in == null) {
+                throw new IllegalStateException("Dictionary not on the classpath: " + DICTIONARY);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
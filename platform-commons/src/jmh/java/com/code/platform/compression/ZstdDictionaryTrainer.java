@@ -0,0 +1,183 @@
+package com.code.platform.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Trains the zstd dictionary {@link ZstdEventCodec} compresses events with, from a corpus of real
+ * diffs. Run it with {@code ./gradlew :platform-commons:trainZstdDictionary -Pcorpus=<source>}
+ * and commit the output under a new name, keeping the previous dictionary as a retired one until
+ * every producer has moved on.
+ * <p>
+ * A source is either a directory, where every file is one diff and {@code .gz} files are
+ * decompressed first (so a blob store directory can be used as is), or {@code git:<repository>}
+ * with an optional {@code :<revision range>}, which takes the diff of every commit. Diffs are
+ * split into their per-file sections, since that is what recurs from one pull request to the
+ * next, and every tenth section is held out to report the ratio the dictionary achieves.
+ * <p>
+ * An offline tool, kept with the benchmarks that read the same corpora, so it is not shipped in
+ * the platform-commons jar.
+ */
+public final class ZstdDictionaryTrainer {
+
+    static final int DEFAULT_DICTIONARY_BYTES = 112 * 1024;
+    static final int DEFAULT_LEVEL = 3;
+    private static final int MAX_SAMPLE_BYTES = 128 * 1024;
+    private static final String FILE_HEADER = "diff --git ";
+
+    private ZstdDictionaryTrainer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ZstdDictionaryTrainer <output.dict> <directory | git:<repository>[:<range>]>... "
+                    + "[--size=<bytes>]");
+            System.exit(2);
+        }
+        Path output = Path.of(args[0]);
+        int dictionaryBytes = DEFAULT_DICTIONARY_BYTES;
+        List<byte[]> sections = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--size=")) {
+                dictionaryBytes = Integer.parseInt(args[i].substring("--size=".length()));
+            } else {
+                for (String diff : load(args[i])) {
+                    sections.addAll(sections(diff));
+                }
+            }
+        }
+
+        // Shuffled so held-out sections are not all from one end of the history
+        Collections.shuffle(sections, new Random(42));
+        List<byte[]> training = new ArrayList<>();
+        List<byte[]> heldOut = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            (i % 10 == 9 ? heldOut : training).add(sections.get(i));
+        }
+
+        byte[] dictionary = train(training, dictionaryBytes);
+        Files.write(output, dictionary);
+        System.out.printf("Trained dictionary %d (%d bytes) from %d sections, %d bytes%n",
+                Zstd.getDictIdFromDict(dictionary), dictionary.length, training.size(), totalBytes(training));
+        report(heldOut, dictionary);
+    }
+
+    static byte[] train(List<byte[]> samples, int dictionaryBytes) {
+        long total = totalBytes(samples);
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(total, Integer.MAX_VALUE - 8), dictionaryBytes);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
+
+    /**
+     * Compressed size of the held-out sections, one frame each, as an event would be.
+     */
+    private static void report(List<byte[]> heldOut, byte[] dictionary) {
+        if (heldOut.isEmpty()) {
+            return;
+        }
+        ZstdEventCodec plain = new ZstdEventCodec(null, List.of(), DEFAULT_LEVEL);
+        ZstdEventCodec primed = new ZstdEventCodec(dictionary, List.of(), DEFAULT_LEVEL);
+        long raw = 0;
+        long withoutDictionary = 0;
+        long withDictionary = 0;
+        for (byte[] section : heldOut) {
+            raw += section.length;
+            withoutDictionary += plain.compress(section).length;
+            withDictionary += primed.compress(section).length;
+        }
+        System.out.printf("Held-out %d sections, %d bytes: zstd %d bytes (%.2fx), with dictionary %d bytes (%.2fx)%n",
+                heldOut.size(), raw, withoutDictionary, (double) raw / withoutDictionary,
+                withDictionary, (double) raw / withDictionary);
+    }
+
+    /**
+     * The diffs in a source, see the class comment.
+     */
+    public static List<String> load(String source) throws IOException {
+        if (source.startsWith("git:")) {
+            String[] parts = source.substring("git:".length()).split(":", 2);
+            return gitLog(Path.of(parts[0]), parts.length > 1 ? parts[1] : "HEAD");
+        }
+        List<String> diffs = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(Path.of(source))) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                try (InputStream in = file.toString().endsWith(".gz")
+                        ? new GZIPInputStream(Files.newInputStream(file))
+                        : Files.newInputStream(file)) {
+                    diffs.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return diffs;
+    }
+
+    /**
+     * The diff of every commit in the range, oldest history included, merges excluded.
+     */
+    static List<String> gitLog(Path repository, String range) throws IOException {
+        Process git = new ProcessBuilder("git", "-C", repository.toString(), "log", "-p", "--no-color",
+                "--no-merges", "--format=%x00", range)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = git.getInputStream()) {
+            in.transferTo(out);
+        }
+        try {
+            if (git.waitFor() != 0) {
+                throw new IOException("git log failed for " + repository + " " + range);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading git history", e);
+        }
+        List<String> diffs = new ArrayList<>();
+        for (String commit : out.toString(StandardCharsets.UTF_8).split("\0")) {
+            if (!commit.isBlank()) {
+                diffs.add(commit.strip() + "\n");
+            }
+        }
+        return diffs;
+    }
+
+    /**
+     * Per-file sections of a diff, each cut to a size the trainer can use.
+     */
+    static List<byte[]> sections(String diff) {
+        List<byte[]> sections = new ArrayList<>();
+        int start = diff.indexOf(FILE_HEADER);
+        while (start >= 0) {
+            int next = diff.indexOf("\n" + FILE_HEADER, start);
+            int end = next < 0 ? diff.length() : next + 1;
+            byte[] section = diff.substring(start, end).getBytes(StandardCharsets.UTF_8);
+            sections.add(section.length > MAX_SAMPLE_BYTES ? Arrays.copyOf(section, MAX_SAMPLE_BYTES) : section);
+            start = next < 0 ? -1 : next + 1;
+        }
+        return sections;
+    }
+
+    private static long totalBytes(List<byte[]> samples) {
+        long total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,150 @@
+package com.code.platform.encoding;
+
+import com.code.events.EventEnvelope;
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.events.review.ReviewCompletedEvent;
+import com.code.platform.compression.ZstdDictionaryTrainer;
+import com.code.platform.envelope.EventEnvelopeHeaders;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Produce and consume cost and value size of JSON against Smile, through the serializers as
+ * they are configured by class name.
+ * <ul>
+ *   <li>{@code review-completed}: one event per Markdown file in {@code repository}, standing in
+ *       for review bodies</li>
+ *   <li>{@code context-collected}: one event per commit diff in {@code repository} since the
+ *       compression dictionary was trained</li>
+ * </ul>
+ * Run from the platform-commons directory, or pass {@code -p repository=...}; average value
+ * sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventEncodingBenchmark {
+
+    private static final String TOPIC = "events";
+    private static final Map<String, Object> CONFIGS = Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.code.events.*");
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"review-completed", "context-collected"})
+    public String event;
+
+    @Param({".."})
+    public String repository;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+    private List<Object> events;
+    private List<byte[]> values;
+    private List<Headers> headers;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        serializer = switch (format) {
+            case "json" -> new JsonSerializer<>();
+            case "smile" -> new SmileEventSerializer<>();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        serializer.configure(CONFIGS, false);
+        deserializer = new EventDeserializer<>();
+        deserializer.configure(CONFIGS, false);
+
+        events = switch (event) {
+            case "review-completed" -> reviews(Path.of(repository));
+            case "context-collected" -> contexts(repository);
+            default -> throw new IllegalArgumentException("Unknown event: " + event);
+        };
+        if (events.isEmpty()) {
+            throw new IllegalStateException("No " + event + " corpus in " + repository);
+        }
+        values = new ArrayList<>();
+        headers = new ArrayList<>();
+        long total = 0;
+        for (Object value : events) {
+            Headers recordHeaders = new RecordHeaders();
+            EventEnvelopeHeaders.write(EventEnvelope.of(value), recordHeaders);
+            byte[] bytes = serializer.serialize(TOPIC, recordHeaders, value);
+            values.add(bytes);
+            headers.add(recordHeaders);
+            total += bytes.length;
+        }
+        System.out.printf("%n%s %s: %d events, %d bytes on average%n", format, event, events.size(), total / events.size());
+    }
+
+    @Benchmark
+    public byte[] produce() {
+        int i = next();
+        Headers recordHeaders = new RecordHeaders();
+        EventEnvelopeHeaders.write(EventEnvelope.of(events.get(i)), recordHeaders);
+        return serializer.serialize(TOPIC, recordHeaders, events.get(i));
+    }
+
+    @Benchmark
+    public Object consume() {
+        int i = next();
+        return deserializer.deserialize(TOPIC, new RecordHeaders(headers.get(i).toArray()), values.get(i));
+    }
+
+    private int next() {
+        int i = next;
+        next = i + 1 == events.size() ? 0 : i + 1;
+        return i;
+    }
+
+    private static List<Object> reviews(Path repository) throws IOException {
+        List<Object> reviews = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(repository)) {
+            for (Path file : (Iterable<Path>) files
+                    .filter(path -> path.toString().endsWith(".md") && !path.toString().contains("/build/"))
+                    .sorted()::iterator) {
+                reviews.add(new ReviewCompletedEvent(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                        UUID.randomUUID().toString(), "code", "platform", 42, Files.readString(file), "openai",
+                        "gpt-4o", UUID.randomUUID().toString(), Instant.now()));
+            }
+        }
+        return reviews;
+    }
+
+    private static List<Object> contexts(String repository) throws IOException {
+        List<Object> contexts = new ArrayList<>();
+        for (String diff : ZstdDictionaryTrainer.load("git:" + repository + ":72cd8af..HEAD")) {
+            contexts.add(new ContextCollectedEvent(UUID.randomUUID().toString(), UUID.randomUUID().toString(), "code",
+                    "platform", 42, "Benchmark pull request", DiffContent.ofUtf8(diff.getBytes(StandardCharsets.UTF_8)),
+                    ContextCollectionStatus.COMPLETED, UUID.randomUUID().toString(), Instant.now(), false, null, null,
+                    null));
+        }
+        return contexts;
+    }
+}
@@ -0,0 +1,79 @@
+package com.code.platform.blob;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Claim-check access to a {@link BlobStore}: producers put content and send its digest, consumers
+ * get it back by digest when they need it.
+ * <p>
+ * Reads go through a local cache bounded by content bytes, so a redelivered event or a retried
+ * review does not read the store again. Content read from the store is checked against its
+ * digest before it is cached or returned. Returned arrays are shared with the cache and must not
+ * be modified.
+ */
+@Slf4j
+public class BlobClient {
+
+    private final BlobStore store;
+    private final Cache<String, byte[]> cache;
+    private final MetricsHelper metrics;
+
+    public BlobClient(BlobStore store, long cacheBytes, MetricsHelper metrics) {
+        this.store = store;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheBytes)
+                .weigher((String digest, byte[] content) -> content.length)
+                .build();
+    }
+
+    /**
+     * Stores the content and returns its digest, the reference to send in its place.
+     */
+    public Mono<String> put(byte[] content) {
+        return Mono.fromSupplier(() -> digest(content))
+                .flatMap(digest -> store.put(digest, content)
+                        .doOnSuccess(ignored -> metrics.incrementCounter("blob.put.bytes", content.length))
+                        .thenReturn(digest));
+    }
+
+    /**
+     * The content stored under the digest, failing with {@link BlobNotFoundException} if the
+     * store does not hold it.
+     */
+    public Mono<byte[]> get(String digest) {
+        return Mono.defer(() -> {
+            byte[] cached = cache.getIfPresent(digest);
+            if (cached != null) {
+                metrics.incrementCounter("blob.cache.hit");
+                return Mono.just(cached);
+            }
+            metrics.incrementCounter("blob.cache.miss");
+            return store.get(digest)
+                    .switchIfEmpty(Mono.error(() -> new BlobNotFoundException(digest)))
+                    .map(content -> {
+                        if (!digest.equals(digest(content))) {
+                            throw new IllegalStateException("Blob " + digest + " does not match its digest");
+                        }
+                        cache.put(digest, content);
+                        return content;
+                    });
+        });
+    }
+
+    public static String digest(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.code.platform.blob;
+
+/**
+ * Raised when an event refers to a blob the store does not hold, such as one written to a
+ * directory this service does not share.
+ */
+public class BlobNotFoundException extends RuntimeException {
+
+    private final String digest;
+
+    public BlobNotFoundException(String digest) {
+        super("Blob not found: %s".formatted(digest));
+        this.digest = digest;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+}
@@ -0,0 +1,44 @@
+package com.code.platform.blob;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Claim-check blob store. Every service that produces or consumes a reference must see the same
+ * {@code directory}. {@code maxSize} bounds a single blob, {@code cacheSize} the content each
+ * consumer keeps in memory. Blobs not stored again for {@code retention} are deleted by a sweep
+ * every {@code sweepInterval}, so retention must outlast every event that may still reference
+ * one: the longest consumer lag plus the time events may wait on a dead letter topic for replay.
+ */
+@ConfigurationProperties(prefix = "platform.blob")
+public record BlobProperties(
+        Boolean enabled,
+        String directory,
+        DataSize maxSize,
+        DataSize cacheSize,
+        Duration retention,
+        Duration sweepInterval
+) {
+    public BlobProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+        if (directory == null || directory.isBlank()) {
+            directory = System.getProperty("java.io.tmpdir") + "/code-platform-blobs";
+        }
+        if (maxSize == null) {
+            maxSize = DataSize.ofMegabytes(10);
+        }
+        if (cacheSize == null) {
+            cacheSize = DataSize.ofMegabytes(64);
+        }
+        if (retention == null) {
+            retention = Duration.ofDays(40);
+        }
+        if (sweepInterval == null) {
+            sweepInterval = Duration.ofHours(1);
+        }
+    }
+}
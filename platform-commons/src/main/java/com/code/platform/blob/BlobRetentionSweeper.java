@@ -0,0 +1,72 @@
+package com.code.platform.blob;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes blobs of a {@link FileSystemBlobStore} once they are older than the retention, every
+ * sweep interval. A failed sweep is logged and tried again at the next interval.
+ */
+@Slf4j
+public class BlobRetentionSweeper implements SmartLifecycle {
+
+    private final FileSystemBlobStore store;
+    private final Duration retention;
+    private final Duration sweepInterval;
+    private final MetricsHelper metrics;
+    private volatile Disposable sweeps;
+
+    public BlobRetentionSweeper(FileSystemBlobStore store, Duration retention, Duration sweepInterval,
+                                MetricsHelper metrics) {
+        this.store = store;
+        this.retention = retention;
+        this.sweepInterval = sweepInterval;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Deletes blobs last stored more than the retention ago and returns how many there were.
+     */
+    public int sweep() {
+        int deleted = store.deleteOlderThan(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} blob(s) older than {}", deleted, retention);
+            metrics.incrementCounter("blob.swept", deleted);
+        }
+        return deleted;
+    }
+
+    @Override
+    public void start() {
+        sweeps = Flux.interval(Duration.ZERO, sweepInterval, Schedulers.boundedElastic())
+                .subscribe(tick -> {
+                    try {
+                        sweep();
+                    } catch (RuntimeException e) {
+                        log.error("Blob sweep failed", e);
+                        metrics.incrementCounter("blob.sweep.failed");
+                    }
+                });
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = sweeps;
+        if (running != null) {
+            running.dispose();
+            sweeps = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sweeps != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.code.platform.blob;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Content-addressed storage for payloads too large to travel inside an event. Content is stored
+ * under the hex SHA-256 of its bytes, so the same content is only ever stored once and a stored
+ * blob never changes. Implementations decide how it is kept, compressed or otherwise.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the content under its digest; a digest already stored is left as it is.
+     */
+    Mono<Void> put(String digest, byte[] content);
+
+    /**
+     * The content stored under the digest, or empty if there is none.
+     */
+    Mono<byte[]> get(String digest);
+}
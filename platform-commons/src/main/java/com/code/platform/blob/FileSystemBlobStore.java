@@ -0,0 +1,150 @@
+package com.code.platform.blob;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Blobs as gzip files in a directory every service mounts, at {@code <dd>/<digest>.gz} under the
+ * first two hex digits so no single directory grows unbounded. A blob is written to a temporary
+ * file and moved into place, so readers never see a partial one. File IO runs on the
+ * boundedElastic scheduler.
+ * <p>
+ * A blob's modification time is when it was last stored: storing content that is already there
+ * touches the file, so {@link #deleteOlderThan(Instant)} only removes blobs no recent event
+ * references.
+ */
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+    private static final String FILE_SUFFIX = ".gz";
+
+    private final Path directory;
+
+    public FileSystemBlobStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create blob directory " + directory, e);
+        }
+    }
+
+    @Override
+    public Mono<Void> put(String digest, byte[] content) {
+        return Mono.<Void>fromRunnable(() -> write(digest, content))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<byte[]> get(String digest) {
+        return Mono.fromCallable(() -> read(digest))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Deletes blobs last stored before the cutoff, and temporary files a writer left behind, and
+     * returns how many blobs were deleted. Every service sharing the directory may sweep it;
+     * a file another sweep deleted first is skipped.
+     */
+    public int deleteOlderThan(Instant cutoff) {
+        FileTime before = FileTime.from(cutoff);
+        int deleted = 0;
+        try (Stream<Path> prefixes = Files.list(directory)) {
+            for (Path prefix : prefixes.filter(Files::isDirectory).toList()) {
+                List<Path> files;
+                try (Stream<Path> listed = Files.list(prefix)) {
+                    files = listed.toList();
+                }
+                for (Path file : files) {
+                    if (isOlderThan(file, before) && Files.deleteIfExists(file)
+                            && file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                        deleted++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sweep blob directory " + directory, e);
+        }
+        return deleted;
+    }
+
+    private static boolean isOlderThan(Path file, FileTime before) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(before) < 0;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void write(String digest, byte[] content) {
+        Path target = file(digest);
+        if (touch(target)) {
+            return;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "blob", ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                    out.write(content);
+                }
+                // Same content under the same name, so a concurrent writer winning the race is harmless
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Stored blob {} ({} bytes, {} on disk)", digest, content.length, Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + digest, e);
+        }
+    }
+
+    // Restarts the retention of a blob stored again; false if there is no such blob, or a sweep
+    // deleted it meanwhile, and it has to be written
+    private static boolean touch(Path target) {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to refresh blob " + target.getFileName(), e);
+        }
+    }
+
+    private byte[] read(String digest) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file(digest)))) {
+            return in.readAllBytes();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + digest, e);
+        }
+    }
+
+    private Path file(String digest) {
+        // The digest comes from an event; never let it name a path outside the directory
+        if (digest == null || !DIGEST.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + digest);
+        }
+        return directory.resolve(digest.substring(0, 2)).resolve(digest + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,64 @@
+package com.code.platform.compression;
+
+import com.code.events.EventHeaders;
+import com.code.platform.metrics.MetricsHelper;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Compresses what the configured value serializer produces and marks the record with a
+ * {@code content-encoding} header. Values under {@code minSizeBytes}, and values that would not
+ * get smaller, are sent as they are and without the header.
+ */
+public class CompressingSerializer<T> implements Serializer<T> {
+
+    private static final byte[] ENCODING = ZstdEventCodec.ENCODING.getBytes(StandardCharsets.UTF_8);
+
+    private final Serializer<T> delegate;
+    private final ZstdEventCodec codec;
+    private final int minSizeBytes;
+    private final MetricsHelper metrics;
+
+    public CompressingSerializer(Serializer<T> delegate, ZstdEventCodec codec, int minSizeBytes, MetricsHelper metrics) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.minSizeBytes = minSizeBytes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    // Without headers there is nowhere to say the value is compressed
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return delegate.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        byte[] value = delegate.serialize(topic, headers, data);
+        headers.remove(EventHeaders.CONTENT_ENCODING);
+        if (value == null || value.length < minSizeBytes) {
+            return value;
+        }
+        byte[] compressed = codec.compress(value);
+        if (compressed.length >= value.length) {
+            return value;
+        }
+        metrics.incrementCounter("event.compression.raw_bytes", value.length, "topic", topic);
+        metrics.incrementCounter("event.compression.wire_bytes", compressed.length, "topic", topic);
+        headers.add(EventHeaders.CONTENT_ENCODING, ENCODING);
+        return compressed;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.code.platform.compression;
+
+import com.code.events.EventHeaders;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Decompresses values whose record carries a {@code content-encoding} header before handing them
+ * to the configured value deserializer. Records without the header, from producers that do not
+ * compress, pass straight through, so consumers can be deployed ahead of producers.
+ */
+public class DecompressingDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final ZstdEventCodec codec;
+
+    public DecompressingDeserializer(Deserializer<T> delegate, ZstdEventCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Header encoding = headers.lastHeader(EventHeaders.CONTENT_ENCODING);
+        if (encoding == null || data == null) {
+            return delegate.deserialize(topic, headers, data);
+        }
+        String value = new String(encoding.value(), StandardCharsets.UTF_8);
+        if (!ZstdEventCodec.ENCODING.equals(value)) {
+            throw new SerializationException("Unsupported content-encoding '%s' on %s".formatted(value, topic));
+        }
+        byte[] decompressed;
+        try {
+            decompressed = codec.decompress(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot decompress record value on " + topic, e);
+        }
+        return delegate.deserialize(topic, headers, decompressed);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
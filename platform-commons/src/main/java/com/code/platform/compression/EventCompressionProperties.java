@@ -0,0 +1,44 @@
+package com.code.platform.compression;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+/**
+ * zstd compression of Kafka record values. Consumers always decompress records marked with a
+ * {@code content-encoding} header; {@code enabled} only decides whether this service's producers
+ * compress. {@code dictionary} is the resource frames are compressed with and
+ * {@code retiredDictionaries} those still accepted from producers that have not moved on.
+ */
+@Validated
+@ConfigurationProperties(prefix = "platform.compression")
+public record EventCompressionProperties(
+        Boolean enabled,
+        String dictionary,
+        List<String> retiredDictionaries,
+        @Min(1) @Max(19) Integer level,
+        DataSize minSize
+) {
+    public EventCompressionProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+        if (dictionary != null && dictionary.isBlank()) {
+            dictionary = null;
+        }
+        if (retiredDictionaries == null) {
+            retiredDictionaries = List.of();
+        }
+        if (level == null) {
+            level = 3;
+        }
+        if (minSize == null) {
+            minSize = DataSize.ofBytes(512);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.code.platform.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * zstd for event payloads, primed with a dictionary trained on real diffs by
+ * {@code ZstdDictionaryTrainer}, which lives with the benchmarks in {@code src/jmh}.
+ * <p>
+ * Every frame records the id of the dictionary it was compressed with. Compression uses the
+ * current dictionary; decompression accepts it and any retired one, so a retrained dictionary can
+ * be rolled out to consumers before producers start using it. Without a dictionary this is plain
+ * zstd.
+ */
+public class ZstdEventCodec {
+
+    public static final String ENCODING = "zstd";
+
+    // Bounds what a small frame may expand to, whatever its header claims
+    static final long MAX_DECOMPRESSED_BYTES = 64L * 1024 * 1024;
+
+    private final int level;
+    private final long dictionaryId;
+    private final ZstdDictCompress compressDictionary;
+    private final Map<Long, ZstdDictDecompress> decompressDictionaries = new HashMap<>();
+
+    /**
+     * @param dictionary          dictionary to compress with, or null for none
+     * @param retiredDictionaries dictionaries that are only decompressed with
+     */
+    public ZstdEventCodec(byte[] dictionary, List<byte[]> retiredDictionaries, int level) {
+        this.level = level;
+        if (dictionary != null) {
+            this.dictionaryId = register(dictionary);
+            this.compressDictionary = new ZstdDictCompress(dictionary, level);
+        } else {
+            this.dictionaryId = 0;
+            this.compressDictionary = null;
+        }
+        retiredDictionaries.forEach(this::register);
+    }
+
+    public byte[] compress(byte[] data) {
+        return compressDictionary != null ? Zstd.compress(data, compressDictionary) : Zstd.compress(data, level);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame is malformed, does not state its size, expands
+     *                                  beyond the bound or needs a dictionary this codec lacks
+     */
+    public byte[] decompress(byte[] frame) {
+        long size = Zstd.getFrameContentSize(frame);
+        if (size < 0 || size > MAX_DECOMPRESSED_BYTES) {
+            throw new IllegalArgumentException("Not a zstd frame of a known size up to %d bytes (%d)"
+                    .formatted(MAX_DECOMPRESSED_BYTES, size));
+        }
+        long frameDictionaryId = Zstd.getDictIdFromFrame(frame);
+        if (frameDictionaryId == 0) {
+            return Zstd.decompress(frame, (int) size);
+        }
+        ZstdDictDecompress dictionary = decompressDictionaries.get(frameDictionaryId);
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Frame was compressed with unknown zstd dictionary " + frameDictionaryId);
+        }
+        return Zstd.decompress(frame, dictionary, (int) size);
+    }
+
+    /**
+     * Id of the dictionary frames are compressed with, 0 for none.
+     */
+    public long dictionaryId() {
+        return dictionaryId;
+    }
+
+    private long register(byte[] dictionary) {
+        long id = Zstd.getDictIdFromDict(dictionary);
+        if (id == 0) {
+            // Raw content has no id, so frames could not say which dictionary they need
+            throw new IllegalArgumentException("Not a trained zstd dictionary");
+        }
+        decompressDictionaries.put(id, new ZstdDictDecompress(dictionary));
+        return id;
+    }
+}
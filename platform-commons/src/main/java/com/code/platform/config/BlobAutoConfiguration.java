@@ -0,0 +1,42 @@
+package com.code.platform.config;
+
+import com.code.platform.blob.BlobClient;
+import com.code.platform.blob.BlobProperties;
+import com.code.platform.blob.BlobRetentionSweeper;
+import com.code.platform.blob.BlobStore;
+import com.code.platform.blob.FileSystemBlobStore;
+import com.code.platform.metrics.MetricsHelper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * The file system store unless a service defines its own {@link BlobStore}, swept of blobs older
+ * than the retention; a store of the service's own keeps blobs as long as it sees fit.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "platform.blob", name = "enabled", havingValue = "true")
+public class BlobAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(BlobStore.class)
+    public FileSystemBlobStore blobStore(BlobProperties properties) {
+        return new FileSystemBlobStore(Path.of(properties.directory()));
+    }
+
+    @Bean
+    @ConditionalOnBean(FileSystemBlobStore.class)
+    public BlobRetentionSweeper blobRetentionSweeper(FileSystemBlobStore blobStore, BlobProperties properties,
+                                                     MetricsHelper metricsHelper) {
+        return new BlobRetentionSweeper(blobStore, properties.retention(), properties.sweepInterval(), metricsHelper);
+    }
+
+    @Bean
+    public BlobClient blobClient(BlobStore blobStore, BlobProperties properties, MetricsHelper metricsHelper) {
+        return new BlobClient(blobStore, properties.cacheSize().toBytes(), metricsHelper);
+    }
+}
@@ -0,0 +1,101 @@
+package com.code.platform.config;
+
+import com.code.platform.compression.CompressingSerializer;
+import com.code.platform.compression.DecompressingDeserializer;
+import com.code.platform.compression.EventCompressionProperties;
+import com.code.platform.compression.ZstdEventCodec;
+import com.code.platform.envelope.HeaderFilteringDeserializer;
+import com.code.platform.envelope.RecordHeaderFilter;
+import com.code.platform.metrics.MetricsHelper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Wraps the value (de)serializers configured for Spring Boot's Kafka factories: consumers always
+ * decompress, after applying any {@link RecordHeaderFilter} beans, and producers compress once
+ * {@code platform.compression.enabled} is set. Enable it on producers only after every consumer
+ * of their topics runs with this configuration.
+ */
+@Configuration
+public class EventCompressionAutoConfiguration {
+
+    @Bean
+    public ZstdEventCodec zstdEventCodec(EventCompressionProperties properties) {
+        byte[] dictionary = properties.dictionary() != null ? load(properties.dictionary()) : null;
+        List<byte[]> retired = properties.retiredDictionaries().stream()
+                .map(EventCompressionAutoConfiguration::load)
+                .toList();
+        return new ZstdEventCodec(dictionary, retired, properties.level());
+    }
+
+    // Header filters run first, so a skipped record is neither decompressed nor parsed
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaConsumerFactoryCustomizer decompressingConsumerFactoryCustomizer(
+            ZstdEventCodec codec, ObjectProvider<RecordHeaderFilter> filters, MetricsHelper metricsHelper) {
+        List<RecordHeaderFilter> headerFilters = filters.orderedStream().toList();
+        return factory -> {
+            Object configured = factory.getConfigurationProperties().get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+            if (configured != null) {
+                ((DefaultKafkaConsumerFactory<Object, Object>) factory).setValueDeserializerSupplier(() ->
+                        new HeaderFilteringDeserializer<>(
+                                new DecompressingDeserializer<>(instantiate(configured, Deserializer.class), codec),
+                                headerFilters, metricsHelper));
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "platform.compression", name = "enabled", havingValue = "true")
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer compressingProducerFactoryCustomizer(
+            ZstdEventCodec codec, EventCompressionProperties properties, MetricsHelper metricsHelper) {
+        int minSizeBytes = (int) properties.minSize().toBytes();
+        return factory -> {
+            Object configured = factory.getConfigurationProperties().get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+            if (configured != null) {
+                ((DefaultKafkaProducerFactory<Object, Object>) factory).setValueSerializerSupplier(() ->
+                        new CompressingSerializer<>(instantiate(configured, Serializer.class), codec, minSizeBytes,
+                                metricsHelper));
+            }
+        };
+    }
+
+    // A fresh delegate per producer or consumer, as Kafka would create from the class name
+    @SuppressWarnings("unchecked")
+    private static <T> T instantiate(Object configured, Class<?> type) {
+        try {
+            Class<?> clazz = configured instanceof Class<?> c ? c : ClassUtils.forName(configured.toString(), null);
+            return (T) BeanUtils.instantiateClass(clazz, type);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot load Kafka " + type.getSimpleName() + " " + configured, e);
+        }
+    }
+
+    private static byte[] load(String location) {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read zstd dictionary " + location, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.code.platform.config;
+
+import com.code.platform.envelope.EventEnvelopeInterceptor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stamps the event envelope headers on everything Spring Boot's Kafka producers send, keeping
+ * any interceptors a service configures itself. The consumer side is in
+ * {@link EventCompressionAutoConfiguration}, which owns the value deserializer chain.
+ */
+@Configuration
+public class EventEnvelopeAutoConfiguration {
+
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer eventEnvelopeProducerFactoryCustomizer() {
+        return factory -> {
+            Object configured = factory.getConfigurationProperties().get(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+            List<Object> interceptors = new ArrayList<>();
+            if (configured instanceof Collection<?> classes) {
+                interceptors.addAll(classes);
+            } else if (configured instanceof String names) {
+                interceptors.addAll(StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(names)));
+            } else if (configured != null) {
+                interceptors.add(configured);
+            }
+            interceptors.add(EventEnvelopeInterceptor.class);
+            factory.updateConfigs(Map.of(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, interceptors));
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.code.platform.config;
+
+import com.code.platform.github.GitHubProperties;
+import com.code.platform.github.GitHubRateLimiter;
+import com.code.platform.metrics.MetricsHelper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One rate limiter per service, shared by every GitHub WebClient it builds so they all draw on
+ * the same budget.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "github.api.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GitHubRateLimitAutoConfiguration {
+
+    @Bean
+    public GitHubRateLimiter gitHubRateLimiter(GitHubProperties properties, MetricsHelper metricsHelper) {
+        return new GitHubRateLimiter(properties.rateLimit(), metricsHelper);
+    }
+}
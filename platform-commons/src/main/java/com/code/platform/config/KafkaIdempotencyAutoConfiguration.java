@@ -0,0 +1,63 @@
+package com.code.platform.config;
+
+import com.code.platform.idempotency.IdempotencyPartitionTracker;
+import com.code.platform.idempotency.IdempotencyProperties;
+import com.code.platform.idempotency.KafkaIdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.time.Clock;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "platform.idempotency", name = "store", havingValue = "kafka")
+public class KafkaIdempotencyAutoConfiguration {
+
+    @Bean
+    public NewTopic idempotencyTopic(IdempotencyProperties properties) {
+        IdempotencyProperties.Kafka kafka = properties.kafka();
+        // Compaction keeps the latest status per key; delete retention ages keys out after the TTL
+        return TopicBuilder.name(kafka.topic())
+                .partitions(kafka.partitions())
+                .replicas(kafka.replicationFactor())
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG,
+                        TopicConfig.CLEANUP_POLICY_COMPACT + "," + TopicConfig.CLEANUP_POLICY_DELETE)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(properties.ttl().toMillis()))
+                .build();
+    }
+
+    @Bean
+    public KafkaIdempotencyStore kafkaIdempotencyStore(
+            KafkaProperties kafkaProperties,
+            IdempotencyProperties properties,
+            MetricsHelper metricsHelper) {
+        Map<String, Object> consumerProps = kafkaProperties.buildConsumerProperties(null);
+        consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        return new KafkaIdempotencyStore(
+                new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null),
+                        new StringSerializer(), new StringSerializer()),
+                new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new StringDeserializer()),
+                properties,
+                metricsHelper,
+                Clock.systemUTC()
+        );
+    }
+
+    @Bean
+    public IdempotencyPartitionTracker idempotencyPartitionTracker(KafkaIdempotencyStore store) {
+        return new IdempotencyPartitionTracker(store);
+    }
+}
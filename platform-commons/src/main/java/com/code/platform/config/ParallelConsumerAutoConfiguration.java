@@ -0,0 +1,24 @@
+package com.code.platform.config;
+
+import com.code.platform.consumer.ParallelConsumerCustomizer;
+import com.code.platform.consumer.ParallelConsumerProperties;
+import com.code.platform.metrics.MetricsHelper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+@Configuration
+@ConditionalOnProperty(prefix = "platform.consumer.parallel", name = "enabled", havingValue = "true")
+public class ParallelConsumerAutoConfiguration {
+
+    // Spring Boot applies a single ContainerCustomizer bean to its container factory
+    @Bean
+    public ParallelConsumerCustomizer parallelConsumerCustomizer(
+            ParallelConsumerProperties properties,
+            ObjectProvider<RecordInterceptor<Object, Object>> recordInterceptor,
+            MetricsHelper metricsHelper) {
+        return new ParallelConsumerCustomizer(properties, recordInterceptor, metricsHelper);
+    }
+}
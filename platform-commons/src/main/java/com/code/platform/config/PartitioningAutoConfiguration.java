@@ -0,0 +1,15 @@
+package com.code.platform.config;
+
+import com.code.platform.partitioning.PartitionKeys;
+import com.code.platform.partitioning.PartitioningProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PartitioningAutoConfiguration {
+
+    @Bean
+    public PartitionKeys partitionKeys(PartitioningProperties properties) {
+        return new PartitionKeys(properties);
+    }
+}
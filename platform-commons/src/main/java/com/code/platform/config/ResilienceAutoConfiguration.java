@@ -0,0 +1,16 @@
+package com.code.platform.config;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.ResilienceProperties;
+import com.code.platform.resilience.ResilienceRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceAutoConfiguration {
+
+    @Bean
+    public ResilienceRegistry resilienceRegistry(ResilienceProperties properties, MetricsHelper metricsHelper) {
+        return new ResilienceRegistry(properties, metricsHelper);
+    }
+}
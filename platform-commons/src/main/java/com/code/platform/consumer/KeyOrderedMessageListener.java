@@ -0,0 +1,460 @@
+package com.code.platform.consumer;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a record listener on worker threads instead of the consumer thread.
+ * <p>
+ * Records with the same key in a partition run one at a time, in offset order; records with
+ * other keys run concurrently on {@code parallelism} threads. A record is in flight from delivery
+ * until the listener acknowledges it, which it may do later and from any thread. Each partition
+ * commits only up to its lowest incomplete record, and the container is paused once
+ * {@code maxInFlight} records are in flight and resumed when half of them have completed.
+ * <p>
+ * On revocation, records that have not started are dropped, and running ones get
+ * {@code drainTimeout} to finish before the container commits. Whatever is left is redelivered
+ * to the partition's next owner. The container's record interceptor runs here, on the worker,
+ * around the listener.
+ * <p>
+ * A record whose listener throws, or does not acknowledge it within {@code ackTimeout}, goes to
+ * the container's error handler, as it would on the consumer thread: the record is invoked again
+ * while the handler retries it, and commits only once the handler has recovered it, by skipping
+ * it or publishing it to a dead letter topic. Retries hold the record's key, not the partition.
+ */
+@Slf4j
+final class KeyOrderedMessageListener
+        implements AcknowledgingConsumerAwareMessageListener<Object, Object>, ConsumerAwareRebalanceListener,
+        AutoCloseable {
+
+    private record Lane(TopicPartition partition, Object key) {
+    }
+
+    private final class Task implements Acknowledgment {
+        private final ConsumerRecord<Object, Object> record;
+        private final Consumer<?, ?> consumer;
+        private final Lane lane;
+        private final PartitionOffsets offsets;
+        private final PartitionOffsets.Pending pending;
+        private ScheduledFuture<?> expiry;
+        private boolean done;
+
+        private Task(ConsumerRecord<Object, Object> record, Acknowledgment ack, Consumer<?, ?> consumer,
+                     Lane lane, PartitionOffsets offsets) {
+            this.record = record;
+            this.consumer = consumer;
+            this.lane = lane;
+            this.offsets = offsets;
+            this.pending = offsets.track(record.offset(), ack);
+        }
+
+        @Override
+        public void acknowledge() {
+            complete(this);
+        }
+    }
+
+    private final AcknowledgingConsumerAwareMessageListener<Object, Object> delegate;
+    private final RecordInterceptor<Object, Object> interceptor;
+    private final ConsumerRebalanceListener rebalanceListener;
+    private final CommonErrorHandler errorHandler;
+    private final MessageListenerContainer container;
+    private final int maxInFlight;
+    private final Duration drainTimeout;
+    private final Duration ackTimeout;
+    private final MetricsHelper metrics;
+    private final String listenerId;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService ackTimeouts;
+    private final Object pauseLock = new Object();
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new HashMap<>();
+    private final Map<Lane, Deque<Task>> lanes = new HashMap<>();
+    private int inFlight;
+    private boolean paused;
+
+    KeyOrderedMessageListener(AcknowledgingConsumerAwareMessageListener<Object, Object> delegate,
+                              RecordInterceptor<Object, Object> interceptor,
+                              ConsumerRebalanceListener rebalanceListener,
+                              CommonErrorHandler errorHandler,
+                              MessageListenerContainer container,
+                              ParallelConsumerProperties properties,
+                              MetricsHelper metrics) {
+        this.delegate = delegate;
+        this.interceptor = interceptor;
+        this.rebalanceListener = rebalanceListener;
+        this.errorHandler = errorHandler;
+        this.container = container;
+        this.maxInFlight = properties.maxInFlight();
+        this.drainTimeout = properties.drainTimeout();
+        this.ackTimeout = properties.ackTimeout();
+        this.metrics = metrics;
+        this.listenerId = container.getListenerId();
+        this.workers = Executors.newFixedThreadPool(properties.parallelism(),
+                Thread.ofPlatform().name(listenerId + "-parallel-", 0).daemon().factory());
+        this.ackTimeouts = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name(listenerId + "-ack-timeout").daemon().factory());
+
+        metrics.gauge("kafka.parallel.in_flight", this, KeyOrderedMessageListener::inFlight, "listener", listenerId);
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<Object, Object> record, Acknowledgment ack, Consumer<?, ?> consumer) {
+        Task start;
+        boolean pause;
+        synchronized (this) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets == null || !offsets.accepts(record.offset())) {
+                if (offsets != null) {
+                    offsets.release();
+                }
+                offsets = new PartitionOffsets();
+                partitions.put(partition, offsets);
+            }
+            Task task = new Task(record, ack, consumer, new Lane(partition, record.key()), offsets);
+            Deque<Task> lane = lanes.computeIfAbsent(task.lane, key -> new ArrayDeque<>());
+            lane.addLast(task);
+            start = lane.size() == 1 ? task : null;
+            inFlight++;
+            pause = !paused && inFlight >= maxInFlight;
+            paused |= pause;
+        }
+        if (pause) {
+            log.debug("Listener {} has {} records in flight, pausing", listenerId, maxInFlight);
+            metrics.incrementCounter("kafka.parallel.paused", "listener", listenerId);
+            applyPause();
+        }
+        if (start != null) {
+            workers.execute(() -> run(start));
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (rebalanceListener instanceof ConsumerAwareRebalanceListener aware) {
+            aware.onPartitionsAssigned(consumer, partitions);
+        } else if (rebalanceListener != null) {
+            rebalanceListener.onPartitionsAssigned(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions, drainTimeout);
+        if (rebalanceListener instanceof ConsumerAwareRebalanceListener aware) {
+            aware.onPartitionsRevokedBeforeCommit(consumer, partitions);
+        } else if (rebalanceListener != null) {
+            rebalanceListener.onPartitionsRevoked(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (rebalanceListener instanceof ConsumerAwareRebalanceListener aware) {
+            aware.onPartitionsRevokedAfterCommit(consumer, partitions);
+        }
+    }
+
+    // Lost partitions can no longer be committed, so there is nothing to drain for
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions, Duration.ZERO);
+        if (rebalanceListener instanceof ConsumerAwareRebalanceListener aware) {
+            aware.onPartitionsLost(consumer, partitions);
+        } else if (rebalanceListener != null) {
+            rebalanceListener.onPartitionsLost(partitions);
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        ackTimeouts.shutdownNow();
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private void run(Task task) {
+        run(task, null);
+    }
+
+    // Retries stay on this worker, the thread the error handler counts the record's attempts on,
+    // until the record's partition is revoked or the listener is closed
+    private void run(Task task, RuntimeException failure) {
+        while (!isRevoked(task) && !Thread.currentThread().isInterrupted()) {
+            if (failure == null) {
+                failure = invoke(task);
+                if (failure == null) {
+                    return;
+                }
+            }
+            if (recovered(task, failure)) {
+                complete(task);
+                return;
+            }
+            failure = null;
+        }
+        abandon(task);
+    }
+
+    /**
+     * Hands the record to the listener, returning what it threw. A record the listener returns
+     * from without acknowledging is given {@code ackTimeout} to be acknowledged.
+     */
+    @SuppressWarnings("unchecked")
+    private RuntimeException invoke(Task task) {
+        Consumer<Object, Object> consumer = (Consumer<Object, Object>) task.consumer;
+        ConsumerRecord<Object, Object> record = task.record;
+        try {
+            if (interceptor != null) {
+                record = interceptor.intercept(record, consumer);
+            }
+            if (record == null) {
+                log.debug("Record interceptor skipped {}-{}@{}", task.record.topic(), task.record.partition(),
+                        task.record.offset());
+                complete(task);
+                return null;
+            }
+            delegate.onMessage(record, task, consumer);
+            if (interceptor != null) {
+                interceptor.success(record, consumer);
+            }
+            expireUnlessAcknowledged(task);
+            return null;
+        } catch (RuntimeException e) {
+            log.warn("Listener {} failed on {}-{}@{}", listenerId, task.record.topic(), task.record.partition(),
+                    task.record.offset(), e);
+            metrics.incrementCounter("kafka.parallel.failed", "listener", listenerId);
+            if (interceptor != null && record != null) {
+                interceptor.failure(record, e, consumer);
+            }
+            return e;
+        } finally {
+            if (interceptor != null && record != null) {
+                interceptor.afterRecord(record, consumer);
+            }
+        }
+    }
+
+    /**
+     * Whether the error handler is done with the failed record, having skipped it or published
+     * it to a dead letter topic; otherwise it has backed off and wants the record retried. The
+     * consumer belongs to the consumer thread, so the handler is not given it.
+     */
+    private boolean recovered(Task task, RuntimeException failure) {
+        try {
+            return errorHandler.handleOne(failure, task.record, null, container);
+        } catch (RuntimeException e) {
+            log.error("Error handler of listener {} failed on {}-{}@{}, retrying the record", listenerId,
+                    task.record.topic(), task.record.partition(), task.record.offset(), e);
+            return false;
+        }
+    }
+
+    private void expireUnlessAcknowledged(Task task) {
+        synchronized (this) {
+            if (!task.done) {
+                task.expiry = ackTimeouts.schedule(() -> expire(task), ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // The listener may still acknowledge the record later; whichever comes first completes it
+    private void expire(Task task) {
+        synchronized (this) {
+            if (task.done) {
+                return;
+            }
+        }
+        log.warn("Listener {} did not acknowledge {}-{}@{} within {}", listenerId, task.record.topic(),
+                task.record.partition(), task.record.offset(), ackTimeout);
+        metrics.incrementCounter("kafka.parallel.ack_timeout", "listener", listenerId);
+        workers.execute(() -> run(task, new KafkaException("Record not acknowledged within " + ackTimeout)));
+    }
+
+    private synchronized boolean isRevoked(Task task) {
+        return task.offsets.isRevoked();
+    }
+
+    private void complete(Task task) {
+        Task next = null;
+        boolean resume;
+        synchronized (this) {
+            if (task.done) {
+                return;
+            }
+            task.done = true;
+            if (task.expiry != null) {
+                task.expiry.cancel(false);
+            }
+            inFlight--;
+            // Acknowledged under the lock, so a partition's commits reach the container in order
+            Acknowledgment commit = task.offsets.complete(task.pending);
+            if (commit != null) {
+                commit.acknowledge();
+            }
+            Deque<Task> lane = lanes.get(task.lane);
+            if (lane.peekFirst() == task) {
+                lane.removeFirst();
+                next = lane.peekFirst();
+            } else {
+                lane.remove(task);
+            }
+            if (lane.isEmpty()) {
+                lanes.remove(task.lane);
+            }
+            resume = resumeIfDrained();
+            notifyAll();
+        }
+        if (resume) {
+            applyPause();
+        }
+        if (next != null) {
+            Task start = next;
+            workers.execute(() -> run(start));
+        }
+    }
+
+    /**
+     * Drops the task, and the rest of its key, without completing them: the partition never
+     * commits past them, so they are redelivered once it is assigned again.
+     */
+    private void abandon(Task task) {
+        boolean resume;
+        synchronized (this) {
+            if (task.done) {
+                return;
+            }
+            Deque<Task> lane = lanes.remove(task.lane);
+            for (Task abandoned : lane) {
+                abandoned.done = true;
+                if (abandoned.expiry != null) {
+                    abandoned.expiry.cancel(false);
+                }
+                inFlight--;
+            }
+            resume = resumeIfDrained();
+            notifyAll();
+        }
+        if (resume) {
+            applyPause();
+        }
+    }
+
+    private void release(Collection<TopicPartition> revoked, Duration timeout) {
+        int dropped = 0;
+        int abandoned;
+        boolean resume;
+        synchronized (this) {
+            Set<TopicPartition> draining = new HashSet<>();
+            for (TopicPartition partition : revoked) {
+                PartitionOffsets offsets = partitions.get(partition);
+                if (offsets != null) {
+                    offsets.revoke();
+                    draining.add(partition);
+                }
+            }
+            // Records not yet started stay uncommitted for the partition's next owner
+            for (Map.Entry<Lane, Deque<Task>> entry : lanes.entrySet()) {
+                if (draining.contains(entry.getKey().partition())) {
+                    Deque<Task> lane = entry.getValue();
+                    while (lane.size() > 1) {
+                        lane.removeLast().done = true;
+                        dropped++;
+                    }
+                }
+            }
+            inFlight -= dropped;
+
+            long deadline = System.nanoTime() + timeout.toNanos();
+            abandoned = running(draining);
+            while (abandoned > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                abandoned = running(draining);
+            }
+            for (TopicPartition partition : draining) {
+                partitions.remove(partition).release();
+            }
+            resume = resumeIfDrained();
+        }
+        if (dropped > 0 || abandoned > 0) {
+            log.info("Listener {} released {}: {} queued records dropped, {} still running left uncommitted",
+                    listenerId, revoked, dropped, abandoned);
+        }
+        if (resume) {
+            applyPause();
+        }
+    }
+
+    private int running(Set<TopicPartition> draining) {
+        int running = 0;
+        for (Lane lane : lanes.keySet()) {
+            if (draining.contains(lane.partition())) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    private boolean resumeIfDrained() {
+        boolean resume = paused && inFlight <= maxInFlight / 2;
+        if (resume) {
+            paused = false;
+            log.debug("Listener {} is down to {} records in flight, resuming", listenerId, inFlight);
+        }
+        return resume;
+    }
+
+    // Serialized and reading the latest decision, so a pause and a resume racing each other
+    // leave the container in the state that was decided last
+    private void applyPause() {
+        synchronized (pauseLock) {
+            boolean pause;
+            synchronized (this) {
+                pause = paused;
+            }
+            if (pause) {
+                container.pause();
+            } else {
+                container.resume();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.code.platform.consumer;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Switches each listener container of Spring Boot's factory to a {@link KeyOrderedMessageListener}.
+ * <p>
+ * The container's listener, record interceptor and rebalance listener move behind the parallel
+ * listener, so the interceptor runs on the worker that runs the listener. Failed records go to the
+ * container's error handler, or to a {@link DefaultErrorHandler} like the container's own default
+ * when it has none. Containers that are not in a MANUAL ack mode, or whose listener is not a
+ * record listener, are left serial.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ParallelConsumerCustomizer
+        implements ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>>,
+        DisposableBean {
+
+    private final ParallelConsumerProperties properties;
+    private final ObjectProvider<RecordInterceptor<Object, Object>> recordInterceptor;
+    private final MetricsHelper metricsHelper;
+    private final List<KeyOrderedMessageListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(ConcurrentMessageListenerContainer<Object, Object> container) {
+        ContainerProperties containerProperties = container.getContainerProperties();
+        ContainerProperties.AckMode ackMode = containerProperties.getAckMode();
+        if (ackMode != ContainerProperties.AckMode.MANUAL && ackMode != ContainerProperties.AckMode.MANUAL_IMMEDIATE) {
+            log.warn("Listener {} uses ack-mode {}, consuming it serially; parallel consumption needs MANUAL",
+                    container.getListenerId(), ackMode);
+            return;
+        }
+        if (!(containerProperties.getMessageListener() instanceof AcknowledgingConsumerAwareMessageListener<?, ?> listener)) {
+            log.warn("Listener {} is not a record listener, consuming it serially", container.getListenerId());
+            return;
+        }
+
+        CommonErrorHandler errorHandler = container.getCommonErrorHandler();
+        KeyOrderedMessageListener parallel = new KeyOrderedMessageListener(
+                (AcknowledgingConsumerAwareMessageListener<Object, Object>) listener,
+                recordInterceptor.getIfUnique(),
+                containerProperties.getConsumerRebalanceListener(),
+                errorHandler != null ? errorHandler : new DefaultErrorHandler(),
+                container,
+                properties,
+                metricsHelper);
+        container.setRecordInterceptor(null);
+        container.setupMessageListener(parallel);
+        containerProperties.setConsumerRebalanceListener(parallel);
+        listeners.add(parallel);
+
+        log.info("Listener {} consumes in parallel: {} workers, up to {} records in flight",
+                container.getListenerId(), properties.parallelism(), properties.maxInFlight());
+    }
+
+    @Override
+    public void destroy() {
+        listeners.forEach(KeyOrderedMessageListener::close);
+    }
+}
@@ -0,0 +1,44 @@
+package com.code.platform.consumer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+import java.time.Duration;
+
+/**
+ * Parallel consumption for {@code @KafkaListener} containers in a MANUAL ack mode.
+ * {@code parallelism} is the number of worker threads per listener, {@code maxInFlight} the
+ * number of delivered but unacknowledged records at which the container pauses,
+ * {@code drainTimeout} how long a revocation waits for running records before committing, and
+ * {@code ackTimeout} how long a listener has to acknowledge a record before it is handed to the
+ * container's error handler as failed.
+ */
+@Validated
+@ConfigurationProperties(prefix = "platform.consumer.parallel")
+public record ParallelConsumerProperties(
+        Boolean enabled,
+        @Positive Integer parallelism,
+        @Positive Integer maxInFlight,
+        Duration drainTimeout,
+        Duration ackTimeout
+) {
+    public ParallelConsumerProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+        if (parallelism == null) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (maxInFlight == null) {
+            maxInFlight = 64;
+        }
+        if (drainTimeout == null) {
+            drainTimeout = Duration.ofSeconds(5);
+        }
+        if (ackTimeout == null) {
+            ackTimeout = Duration.ofMinutes(10);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.code.platform.consumer;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Records of one partition handed to a {@link KeyOrderedMessageListener}, in offset order.
+ * <p>
+ * Records complete in any order, but the partition only commits up to its lowest incomplete
+ * record: {@link #complete(Pending)} returns the acknowledgment of the last record before it,
+ * which commits exactly that position, or null when the position did not move. Once revoked no
+ * further records start, and once released nothing more is committed. Not thread-safe; the
+ * listener guards it.
+ */
+final class PartitionOffsets {
+
+    static final class Pending {
+        private final long offset;
+        private final Acknowledgment ack;
+        private boolean complete;
+
+        private Pending(long offset, Acknowledgment ack) {
+            this.offset = offset;
+            this.ack = ack;
+        }
+    }
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private long lastTracked = -1;
+    private boolean revoked;
+    private boolean released;
+
+    /**
+     * Whether a record at this offset continues the partition; a lower one means the consumer
+     * was rewound, and the records it is replaying belong to fresh offsets.
+     */
+    boolean accepts(long offset) {
+        return !revoked && offset > lastTracked;
+    }
+
+    Pending track(long offset, Acknowledgment ack) {
+        Pending record = new Pending(offset, ack);
+        pending.addLast(record);
+        lastTracked = offset;
+        return record;
+    }
+
+    Acknowledgment complete(Pending record) {
+        record.complete = true;
+        Acknowledgment commit = null;
+        while (!pending.isEmpty() && pending.peekFirst().complete) {
+            commit = pending.removeFirst().ack;
+        }
+        return released ? null : commit;
+    }
+
+    void revoke() {
+        revoked = true;
+    }
+
+    boolean isRevoked() {
+        return revoked;
+    }
+
+    void release() {
+        revoked = true;
+        released = true;
+    }
+}
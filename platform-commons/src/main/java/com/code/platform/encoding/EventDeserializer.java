@@ -0,0 +1,72 @@
+package com.code.platform.encoding;
+
+import com.code.events.EventEnvelope;
+import com.code.events.EventHeaders;
+import com.code.platform.envelope.EventEnvelopeHeaders;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reads JSON and Smile values alike, by their {@code content-type} header, so topics can carry
+ * both while producers move to {@link SmileEventSerializer}. Configured by class name in place of
+ * Spring's {@code JsonDeserializer}, with the same {@code spring.json.*} properties.
+ * <p>
+ * A Smile record whose envelope names a schema the {@link LocalSchemaRegistry} does not have is
+ * refused, as it would be by a registry-backed deserializer.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+    private final JsonDeserializer<T> json = new JsonDeserializer<>();
+    private final JsonDeserializer<T> smile = new JsonDeserializer<>(EventEncodings.smileMapper());
+    private final LocalSchemaRegistry registry;
+
+    public EventDeserializer() {
+        this(LocalSchemaRegistry.fromClasspath());
+    }
+
+    public EventDeserializer(LocalSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        smile.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Header contentType = headers.lastHeader(EventHeaders.CONTENT_TYPE);
+        String format = contentType != null ? new String(contentType.value(), StandardCharsets.UTF_8) : EventEncodings.JSON;
+        return switch (format) {
+            case EventEncodings.JSON -> json.deserialize(topic, headers, data);
+            case EventEncodings.SMILE -> {
+                EventEnvelope envelope = EventEnvelopeHeaders.read(headers);
+                if (envelope.eventType() != null
+                        && registry.find(envelope.eventType(), envelope.schemaVersion()).isEmpty()) {
+                    throw new SerializationException("No schema %s v%s registered for a record on %s"
+                            .formatted(envelope.eventType(), envelope.schemaVersion(), topic));
+                }
+                yield smile.deserialize(topic, headers, data);
+            }
+            default -> throw new SerializationException("Unsupported content-type '%s' on %s".formatted(format, topic));
+        };
+    }
+
+    @Override
+    public void close() {
+        json.close();
+        smile.close();
+    }
+}
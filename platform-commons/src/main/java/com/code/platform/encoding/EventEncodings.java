@@ -0,0 +1,30 @@
+package com.code.platform.encoding;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Values of the {@code content-type} header and the mapper for the binary one.
+ */
+public final class EventEncodings {
+
+    public static final String JSON = "application/json";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private EventEncodings() {
+    }
+
+    /**
+     * Configured like {@code JacksonUtils.enhancedObjectMapper()}, which Spring's
+     * {@code JsonSerializer} uses, so both formats carry exactly the same data model.
+     */
+    public static ObjectMapper smileMapper() {
+        return SmileMapper.builder()
+                .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .findAndAddModules()
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.code.platform.encoding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The top-level properties of one JSON schema in {@code event-schemas}, which is as much of it as
+ * an encoder needs to agree on.
+ */
+public record EventSchema(
+        String eventType,
+        String schemaVersion,
+        Set<String> properties,
+        Set<String> required
+) {
+
+    public static EventSchema parse(String eventType, String schemaVersion, JsonNode schema) {
+        Set<String> properties = new LinkedHashSet<>();
+        schema.path("properties").fieldNames().forEachRemaining(properties::add);
+        Set<String> required = new LinkedHashSet<>();
+        schema.path("required").forEach(name -> required.add(name.asText()));
+        return new EventSchema(eventType, schemaVersion, Set.copyOf(properties), Set.copyOf(required));
+    }
+
+    /**
+     * Differences that would make a record of this class fail validation against the schema: a
+     * component the schema does not declare, or a required property the record cannot carry.
+     */
+    public List<String> incompatibilities(Class<? extends Record> eventClass) {
+        List<String> problems = new ArrayList<>();
+        Set<String> components = new LinkedHashSet<>();
+        for (RecordComponent component : eventClass.getRecordComponents()) {
+            components.add(component.getName());
+            if (!properties.contains(component.getName())) {
+                problems.add("'" + component.getName() + "' is not in the schema");
+            }
+        }
+        for (String name : required) {
+            if (!components.contains(name)) {
+                problems.add("required '" + name + "' is missing");
+            }
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,79 @@
+package com.code.platform.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in for a schema registry that needs no server: the schemas are the {@code event-schemas}
+ * files shared-events ships on the classpath, keyed by event type and major version as in the
+ * envelope headers. Binary producers check their event classes against it and binary consumers
+ * refuse records of a schema they do not have.
+ */
+public class LocalSchemaRegistry {
+
+    static final String LOCATION = "classpath*:event-schemas/v*/*/*.json";
+    private static final Pattern PATH = Pattern.compile("event-schemas/v(\\d+)/[^/]+/([^/]+)\\.json$");
+
+    private final Map<String, EventSchema> schemas;
+
+    public LocalSchemaRegistry(Collection<EventSchema> schemas) {
+        this.schemas = schemas.stream().collect(Collectors.toUnmodifiableMap(
+                schema -> key(schema.eventType(), schema.schemaVersion()), Function.identity()));
+    }
+
+    /**
+     * The schemas on the classpath, read once; Kafka creates serializers without access to beans.
+     */
+    public static LocalSchemaRegistry fromClasspath() {
+        return Holder.CLASSPATH;
+    }
+
+    public Optional<EventSchema> find(String eventType, String schemaVersion) {
+        return Optional.ofNullable(schemas.get(key(eventType, schemaVersion)));
+    }
+
+    public Collection<EventSchema> schemas() {
+        return schemas.values();
+    }
+
+    static LocalSchemaRegistry load(String location) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+            List<EventSchema> schemas = new ArrayList<>();
+            for (Resource resource : resources) {
+                Matcher path = PATH.matcher(resource.getURL().toString());
+                if (path.find()) {
+                    try (InputStream in = resource.getInputStream()) {
+                        schemas.add(EventSchema.parse(path.group(2), path.group(1), objectMapper.readTree(in)));
+                    }
+                }
+            }
+            return new LocalSchemaRegistry(schemas);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read event schemas from " + location, e);
+        }
+    }
+
+    private static String key(String eventType, String schemaVersion) {
+        return eventType + "@" + schemaVersion;
+    }
+
+    private static final class Holder {
+        static final LocalSchemaRegistry CLASSPATH = load(LOCATION);
+    }
+}
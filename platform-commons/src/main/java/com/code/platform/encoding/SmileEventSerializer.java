@@ -0,0 +1,86 @@
+package com.code.platform.encoding;
+
+import com.code.events.EventEnvelope;
+import com.code.events.EventHeaders;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes values as Smile, Jackson's binary JSON, and marks them with a {@code content-type}
+ * header; configured by class name in place of Spring's {@code JsonSerializer}, with the same
+ * {@code spring.json.*} properties. Only consumers running {@link EventDeserializer} can read
+ * them.
+ * <p>
+ * Each shared event class is checked against its schema in the {@link LocalSchemaRegistry} the
+ * first time it is sent; a mismatch fails the send instead of publishing records consumers
+ * cannot validate. The headerless {@link #serialize(String, Object)} writes plain JSON, since
+ * nothing could mark it.
+ */
+public class SmileEventSerializer<T> implements Serializer<T> {
+
+    private static final byte[] SMILE = EventEncodings.SMILE.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonSerializer<T> json = new JsonSerializer<>();
+    private final JsonSerializer<T> smile = new JsonSerializer<>(EventEncodings.smileMapper());
+    private final LocalSchemaRegistry registry;
+    private final Map<Class<?>, List<String>> checked = new ConcurrentHashMap<>();
+
+    public SmileEventSerializer() {
+        this(LocalSchemaRegistry.fromClasspath());
+    }
+
+    public SmileEventSerializer(LocalSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        smile.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return smile.serialize(topic, headers, null);
+        }
+        List<String> problems = checked.computeIfAbsent(data.getClass(), this::check);
+        if (!problems.isEmpty()) {
+            throw new SerializationException("%s does not match its schema: %s"
+                    .formatted(data.getClass().getSimpleName(), String.join(", ", problems)));
+        }
+        headers.remove(EventHeaders.CONTENT_TYPE);
+        headers.add(EventHeaders.CONTENT_TYPE, SMILE);
+        return smile.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+        smile.close();
+    }
+
+    // Values that are not shared events have no schema to hold them to
+    @SuppressWarnings("unchecked")
+    private List<String> check(Class<?> type) {
+        String eventType = EventEnvelope.eventType(type);
+        if (eventType == null) {
+            return List.of();
+        }
+        return registry.find(eventType, EventEnvelope.SCHEMA_VERSION)
+                .map(schema -> schema.incompatibilities((Class<? extends Record>) type))
+                .orElseGet(() -> List.of("no schema " + eventType + " v" + EventEnvelope.SCHEMA_VERSION + " registered"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.code.platform.envelope;
+
+import com.code.events.EventEnvelope;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link EventEnvelope} to and from Kafka record headers, UTF-8 encoded.
+ */
+public final class EventEnvelopeHeaders {
+
+    private EventEnvelopeHeaders() {
+    }
+
+    public static void write(EventEnvelope envelope, Headers headers) {
+        envelope.headers().forEach((name, value) -> {
+            headers.remove(name);
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    public static EventEnvelope read(Headers headers) {
+        return EventEnvelope.fromHeaders(name -> {
+            Header header = headers.lastHeader(name);
+            return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+        });
+    }
+}
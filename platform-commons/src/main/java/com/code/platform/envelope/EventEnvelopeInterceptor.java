@@ -0,0 +1,37 @@
+package com.code.platform.envelope;
+
+import com.code.events.EventEnvelope;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Map;
+
+/**
+ * Adds the {@link EventEnvelope} headers to every record whose value is one of the shared events,
+ * before it is serialized. Kafka creates it from {@code interceptor.classes}, so it needs no
+ * beans.
+ */
+public class EventEnvelopeInterceptor implements ProducerInterceptor<Object, Object> {
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        EventEnvelope envelope = EventEnvelope.of(record.value());
+        if (envelope != null) {
+            EventEnvelopeHeaders.write(envelope, record.headers());
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
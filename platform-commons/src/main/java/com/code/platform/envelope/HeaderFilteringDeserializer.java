@@ -0,0 +1,58 @@
+package com.code.platform.envelope;
+
+import com.code.events.EventEnvelope;
+import com.code.platform.metrics.MetricsHelper;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Returns null without calling the delegate for records a {@link RecordHeaderFilter} skips,
+ * counting them as {@code event.filter.skipped}. Listeners see them as a null payload, the same as
+ * a tombstone, and acknowledge them.
+ */
+public class HeaderFilteringDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final List<RecordHeaderFilter> filters;
+    private final MetricsHelper metrics;
+
+    public HeaderFilteringDeserializer(Deserializer<T> delegate, List<RecordHeaderFilter> filters,
+                                       MetricsHelper metrics) {
+        this.delegate = delegate;
+        this.filters = List.copyOf(filters);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!filters.isEmpty()) {
+            EventEnvelope envelope = EventEnvelopeHeaders.read(headers);
+            for (RecordHeaderFilter filter : filters) {
+                if (filter.skip(topic, envelope)) {
+                    metrics.incrementCounter("event.filter.skipped", "topic", topic,
+                            "event_type", envelope.eventType() != null ? envelope.eventType() : "unknown");
+                    return null;
+                }
+            }
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.code.platform.envelope;
+
+import com.code.events.EventEnvelope;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides from the envelope headers alone whether a consumed record is of no interest. Every
+ * filter bean is applied by {@link HeaderFilteringDeserializer}, so a skipped record is never
+ * decompressed or parsed and reaches the listener with a null value.
+ * <p>
+ * Records from producers that predate the envelope have only null fields; a filter must let
+ * those through and leave the decision to the listener.
+ */
+@FunctionalInterface
+public interface RecordHeaderFilter {
+
+    boolean skip(String topic, EventEnvelope envelope);
+
+    static RecordHeaderFilter onTopic(String topic, Predicate<EventEnvelope> skip) {
+        return (recordTopic, envelope) -> topic.equals(recordTopic) && skip.test(envelope);
+    }
+}
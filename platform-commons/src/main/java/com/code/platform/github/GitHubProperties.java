@@ -9,12 +9,16 @@ public record GitHubProperties(
         String baseUrl,
         String token,
         Timeout timeout,
-        Retry retry
+        Retry retry,
+        RateLimit rateLimit
 ) {
     public GitHubProperties {
         if (baseUrl == null || baseUrl.isBlank()) {
             baseUrl = "https://api.github.com";
         }
+        if (rateLimit == null) {
+            rateLimit = new RateLimit(null, null, null, null);
+        }
     }
 
     public record Timeout(
@@ -48,4 +52,32 @@ public record GitHubProperties(
             }
         }
     }
+
+    /**
+     * Client-side scheduling against the budget GitHub reports in X-RateLimit-* headers.
+     * {@code reserve} is the share of the limit only writes may spend; reads are paced to last
+     * until the reset once the budget falls below {@code throttleBelow}. A request that would
+     * wait longer than {@code maxWait} fails instead.
+     */
+    public record RateLimit(
+            Boolean enabled,
+            Double reserve,
+            Double throttleBelow,
+            Duration maxWait
+    ) {
+        public RateLimit {
+            if (enabled == null) {
+                enabled = true;
+            }
+            if (reserve == null) {
+                reserve = 0.1;
+            }
+            if (throttleBelow == null) {
+                throttleBelow = 0.25;
+            }
+            if (maxWait == null) {
+                maxWait = Duration.ofSeconds(30);
+            }
+        }
+    }
 }
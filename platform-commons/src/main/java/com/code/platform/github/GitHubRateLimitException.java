@@ -0,0 +1,21 @@
+package com.code.platform.github;
+
+import java.time.Duration;
+
+/**
+ * Raised instead of sending a GitHub request when the rate-limit budget would not allow it within
+ * the configured wait; nothing was sent, so nothing was spent.
+ */
+public class GitHubRateLimitException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GitHubRateLimitException(Duration retryAfter) {
+        super("GitHub rate limit budget exhausted, retry after %ds".formatted(retryAfter.toSeconds()));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,230 @@
+package com.code.platform.github;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schedules GitHub requests against the rate-limit budget GitHub reports on every response.
+ * <p>
+ * The budget is tracked per credential (the Authorization header, so per token or installation)
+ * from X-RateLimit-Limit, X-RateLimit-Remaining and X-RateLimit-Reset, and is decremented as
+ * requests go out so a burst does not overshoot before the next response arrives. Writes, such
+ * as comment posts, may spend the whole budget; reads stop at a reserve kept for writes and, once
+ * the budget runs low, are spaced out evenly until the reset. Retry-After and exhausted 403/429
+ * responses pause every request on that credential. A request that would have to wait longer
+ * than {@code maxWait} fails with {@link GitHubRateLimitException} without being sent.
+ */
+@Slf4j
+public class GitHubRateLimiter implements ExchangeFilterFunction {
+
+    static final String LIMIT = "X-RateLimit-Limit";
+    static final String REMAINING = "X-RateLimit-Remaining";
+    static final String RESET = "X-RateLimit-Reset";
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final GitHubProperties.RateLimit properties;
+    private final MetricsHelper metrics;
+    private final Clock clock;
+
+    public GitHubRateLimiter(GitHubProperties.RateLimit properties, MetricsHelper metrics) {
+        this(properties, metrics, Clock.systemUTC());
+    }
+
+    GitHubRateLimiter(GitHubProperties.RateLimit properties, MetricsHelper metrics, Clock clock) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        // Deferred so a resubscription by a retry takes its own place in the budget
+        return Mono.defer(() -> {
+            boolean write = isWrite(request.method());
+            String priority = write ? "write" : "read";
+            Budget budget = budget(request.headers().getFirst(HttpHeaders.AUTHORIZATION));
+
+            long delay = budget.acquire(write, clock.millis(), properties.maxWait().toMillis());
+            if (delay < 0) {
+                long retryAfter = budget.retryAfter(clock.millis());
+                log.warn("GitHub rate limit budget for credential {} exhausted, refusing {} {} (resets in {}s)",
+                        budget.id, request.method(), request.url().getPath(), retryAfter / 1000);
+                metrics.incrementCounter("github.ratelimit.rejected", "priority", priority);
+                return Mono.error(new GitHubRateLimitException(Duration.ofMillis(retryAfter)));
+            }
+
+            Mono<ClientResponse> exchange = next.exchange(request)
+                    .doOnNext(response -> budget.update(response, clock.millis()));
+            if (delay == 0) {
+                return exchange;
+            }
+            log.debug("Delaying {} {} by {}ms for the GitHub rate limit", request.method(), request.url().getPath(), delay);
+            metrics.incrementCounter("github.ratelimit.delayed", "priority", priority);
+            metrics.recordDuration("github.ratelimit.delay", Duration.ofMillis(delay), "priority", priority);
+            return Mono.delay(Duration.ofMillis(delay)).then(exchange);
+        });
+    }
+
+    private static boolean isWrite(HttpMethod method) {
+        return method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS;
+    }
+
+    private Budget budget(String authorization) {
+        String id = credentialId(authorization);
+        return budgets.computeIfAbsent(id, key -> {
+            Budget budget = new Budget(key);
+            metrics.gauge("github.ratelimit.remaining", budget, Budget::remaining, "credential", key);
+            metrics.gauge("github.ratelimit.reset_seconds", budget, b -> b.secondsToReset(clock.millis()), "credential", key);
+            return budget;
+        });
+    }
+
+    /**
+     * A short, stable id for a credential that is safe to log and tag metrics with.
+     */
+    static String credentialId(String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            return "anonymous";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Long parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            // Retry-After may also be an HTTP date; GitHub sends seconds
+            return null;
+        }
+    }
+
+    Budget budgetFor(String authorization) {
+        return budgets.get(credentialId(authorization));
+    }
+
+    /**
+     * One credential's window. All times are epoch millis; a limit of zero means no response has
+     * reported the budget yet, so requests go out unscheduled.
+     */
+    final class Budget {
+
+        private final String id;
+        private long limit;
+        private long remaining;
+        private long resetAt;
+        private long pausedUntil;
+        private long nextReadAt;
+
+        Budget(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Takes one request from the budget and returns how long it must wait first, or -1 if
+         * that would be longer than {@code maxWait}, in which case nothing is taken.
+         */
+        synchronized long acquire(boolean write, long now, long maxWait) {
+            long start = Math.max(now, pausedUntil);
+            boolean counted = limit > 0 && resetAt > start;
+            long usable = 0;
+            boolean paced = false;
+            if (counted) {
+                long floor = write ? 0 : (long) Math.ceil(limit * properties.reserve());
+                usable = remaining - floor;
+                if (usable <= 0) {
+                    // Nothing left for this priority until the window resets
+                    start = resetAt;
+                    counted = false;
+                } else if (!write && remaining < limit * properties.throttleBelow()) {
+                    start = Math.max(start, nextReadAt);
+                    paced = true;
+                }
+            }
+
+            long delay = start - now;
+            if (delay > maxWait) {
+                return -1;
+            }
+            if (counted) {
+                if (paced) {
+                    // Spread what is left for reads evenly over the rest of the window
+                    nextReadAt = start + (resetAt - start) / usable;
+                }
+                remaining--;
+            }
+            return delay;
+        }
+
+        synchronized long retryAfter(long now) {
+            long until = Math.max(pausedUntil, limit > 0 ? resetAt : 0);
+            return Math.max(0, until - now);
+        }
+
+        void update(ClientResponse response, long now) {
+            HttpHeaders headers = response.headers().asHttpHeaders();
+            int status = response.statusCode().value();
+            Long reportedLimit = parse(headers.getFirst(LIMIT));
+            Long reportedRemaining = parse(headers.getFirst(REMAINING));
+            Long reportedReset = parse(headers.getFirst(RESET));
+            Long retryAfterSeconds = parse(headers.getFirst(HttpHeaders.RETRY_AFTER));
+
+            synchronized (this) {
+                if (reportedLimit != null && reportedRemaining != null && reportedReset != null) {
+                    long reset = reportedReset * 1000;
+                    if (reset != resetAt || now >= resetAt) {
+                        // A new window: the response is the whole truth
+                        limit = reportedLimit;
+                        remaining = reportedRemaining;
+                        resetAt = reset;
+                        nextReadAt = 0;
+                    } else {
+                        // Responses can arrive out of order; in-flight requests are already counted
+                        remaining = Math.min(remaining, reportedRemaining);
+                    }
+                }
+                boolean limited = status == 429 || status == 403 && reportedRemaining != null && reportedRemaining == 0;
+                // Secondary limits come as a 403 with Retry-After and a non-zero remaining
+                if (retryAfterSeconds != null && (status == 403 || status == 429)) {
+                    pausedUntil = Math.max(pausedUntil, now + retryAfterSeconds * 1000);
+                } else if (limited && resetAt > now) {
+                    pausedUntil = Math.max(pausedUntil, resetAt);
+                }
+            }
+            if (status == 403 || status == 429) {
+                log.warn("GitHub rate limited credential {} ({}), remaining={}", id, status, reportedRemaining);
+            }
+        }
+
+        synchronized long remaining() {
+            return remaining;
+        }
+
+        synchronized long secondsToReset(long now) {
+            return Math.max(0, resetAt - now) / 1000;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.code.platform.idempotency;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size Bloom filter over pre-hashed 64-bit keys. Probe positions come from double hashing
+ * a remix of the key, so adding or testing a key does no further work on the original id.
+ * <p>
+ * For {@code n} keys and a target false-positive rate {@code p} the filter takes
+ * {@code -n ln p / (ln 2)^2} bits, rounded up to a power of two, with {@code (m / n) ln 2} probes.
+ * Not thread-safe; callers serialize access.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitMask;
+    private final int probes;
+
+    private BloomFilter(long bits, int probes) {
+        this.words = new long[(int) Math.max(1, bits >>> 6)];
+        this.bitMask = bits - 1;
+        this.probes = probes;
+    }
+
+    static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bits = Math.max(64, Long.highestOneBit(Math.max(1, optimalBits - 1)) << 1);
+        int probes = (int) Math.max(1, Math.round((double) bits / expectedKeys * LN2));
+        return new BloomFilter(bits, probes);
+    }
+
+    void put(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < probes; i++) {
+            long bit = (h1 + (long) i * h2) & bitMask;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < probes; i++) {
+            long bit = (h1 + (long) i * h2) & bitMask;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    long bitSize() {
+        return bitMask + 1;
+    }
+
+    // Decorrelates probe positions from the table slot, which uses the low bits of the same hash
+    private static long mix(long hash) {
+        long h = hash + 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
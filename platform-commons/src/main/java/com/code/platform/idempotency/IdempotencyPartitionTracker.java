@@ -0,0 +1,51 @@
+package com.code.platform.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.Collection;
+
+/**
+ * Keeps {@link KafkaIdempotencyStore} in step with listener containers: owned changelog
+ * partitions follow the consumer assignment, and the partition of the record being handled is
+ * bound to the listener thread while the listener runs.
+ * <p>
+ * Spring Boot applies a single bean of each type to its auto-configured container factory.
+ */
+@RequiredArgsConstructor
+public class IdempotencyPartitionTracker
+        implements ConsumerAwareRebalanceListener, RecordInterceptor<Object, Object> {
+
+    private final KafkaIdempotencyStore store;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        store.assigned(partitions);
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        store.revoked(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        store.lost(partitions);
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                    Consumer<Object, Object> consumer) {
+        store.bind(record.partition());
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        store.unbind();
+    }
+}
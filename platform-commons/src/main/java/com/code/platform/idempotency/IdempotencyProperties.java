@@ -0,0 +1,130 @@
+package com.code.platform.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Positive;
+
+import java.time.Duration;
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "platform.idempotency")
+public record IdempotencyProperties(
+        StoreType store,
+        Duration ttl,
+        @Valid Lease lease,
+        @Valid Kafka kafka,
+        @Valid OffHeap offHeap
+) {
+    public IdempotencyProperties {
+        if (store == null) {
+            store = StoreType.MEMORY;
+        }
+        if (ttl == null) {
+            ttl = Duration.ofHours(24);
+        }
+        if (lease == null) {
+            lease = new Lease(null, null);
+        }
+        if (kafka == null) {
+            kafka = new Kafka(null, null, null, null, null);
+        }
+        if (offHeap == null) {
+            offHeap = new OffHeap(null, null, null);
+        }
+    }
+
+    public enum StoreType {
+        /** Per-JVM Caffeine cache */
+        MEMORY,
+        /** Log-compacted Kafka topic, materialized per owned partition */
+        KAFKA,
+        /** Per-JVM 64-bit hash table in direct memory behind a Bloom filter */
+        OFFHEAP
+    }
+
+    /**
+     * IN_PROGRESS keys are held on a lease. Work that outlives {@code duration} must renew it,
+     * every {@code renewInterval}, or a redelivery may reclaim the key and process it again.
+     */
+    public record Lease(
+            Duration duration,
+            Duration renewInterval
+    ) {
+        public Lease {
+            if (duration == null) {
+                duration = Duration.ofMinutes(10);
+            }
+            if (renewInterval == null) {
+                renewInterval = duration.dividedBy(3);
+            }
+        }
+    }
+
+    /**
+     * Changelog topic for the Kafka store. One topic per consumer group, with as many partitions
+     * as the topics that group consumes, so record partition N is deduplicated in changelog partition N.
+     * <p>
+     * Calls made outside a listener hash their event ids over {@code unboundPartitions} only.
+     * Every instance that makes such calls holds all of those partitions: each unbound key written
+     * within the TTL, plus the listener keys of the same partitions. List every partition to spread
+     * unbound keys over the whole topic, at the cost of every instance holding all of its keys.
+     */
+    public record Kafka(
+            String topic,
+            @Positive Integer partitions,
+            @Positive Short replicationFactor,
+            Duration restoreTimeout,
+            List<Integer> unboundPartitions
+    ) {
+        public Kafka {
+            if (topic == null || topic.isBlank()) {
+                topic = "idempotency";
+            }
+            if (partitions == null) {
+                partitions = 3;
+            }
+            if (replicationFactor == null) {
+                replicationFactor = 1;
+            }
+            if (restoreTimeout == null) {
+                restoreTimeout = Duration.ofSeconds(30);
+            }
+            if (unboundPartitions == null || unboundPartitions.isEmpty()) {
+                unboundPartitions = List.of(0);
+            }
+            int count = partitions;
+            if (unboundPartitions.stream().anyMatch(partition -> partition < 0 || partition >= count)) {
+                throw new IllegalArgumentException("platform.idempotency.kafka.unbound-partitions "
+                        + unboundPartitions + " must lie within the " + count + " changelog partitions");
+            }
+            unboundPartitions = List.copyOf(unboundPartitions);
+        }
+    }
+
+    /**
+     * Sizing for the off-heap store. {@code capacity} is the number of events expected within one
+     * TTL; the TTL is split into {@code buckets} time buckets that expire as a whole.
+     * {@code falsePositiveRate} is the chance that an unseen event has to probe the table.
+     */
+    public record OffHeap(
+            @Positive Integer capacity,
+            @Positive @DecimalMax(value = "1.0", inclusive = false) Double falsePositiveRate,
+            @Positive Integer buckets
+    ) {
+        public OffHeap {
+            if (capacity == null) {
+                capacity = 1_000_000;
+            }
+            if (falsePositiveRate == null) {
+                falsePositiveRate = 0.01;
+            }
+            if (buckets == null) {
+                buckets = 8;
+            }
+        }
+    }
+}
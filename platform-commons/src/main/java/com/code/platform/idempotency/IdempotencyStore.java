@@ -2,7 +2,25 @@ package com.code.platform.idempotency;
 
 public interface IdempotencyStore {
 
+    /**
+     * Claims the event for processing. The claim is a lease: if it is neither renewed nor
+     * completed before it expires, a later delivery reclaims the event instead of skipping it.
+     *
+     * @return false when the event was already processed or is held by a live lease
+     */
     boolean tryStart(String eventId);
 
+    /**
+     * Extends the lease taken by {@link #tryStart} for work that runs longer than one lease.
+     *
+     * @return false when the event is no longer held, for example because it was reclaimed
+     */
+    boolean renew(String eventId);
+
     void markProcessed(String eventId);
+
+    /**
+     * Forgets an event that failed before completion so a redelivery is processed again.
+     */
+    void release(String eventId);
 }
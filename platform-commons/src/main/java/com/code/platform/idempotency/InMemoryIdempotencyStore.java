@@ -1,14 +1,19 @@
 package com.code.platform.idempotency;
 
+import com.code.platform.metrics.MetricsHelper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.Duration;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(prefix = "platform.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
 public class InMemoryIdempotencyStore implements IdempotencyStore {
 
     private static final Duration TTL = Duration.ofHours(24);
@@ -19,11 +24,35 @@ public class InMemoryIdempotencyStore implements IdempotencyStore {
         PROCESSED
     }
 
-    private final Cache<String, Status> cache = Caffeine.newBuilder()
+    private record Entry(Status status, long leaseExpiresAt) {
+
+        boolean isStuck(long now) {
+            return status == Status.IN_PROGRESS && leaseExpiresAt <= now;
+        }
+    }
+
+    private final Cache<String, Entry> cache = Caffeine.newBuilder()
             .expireAfterWrite(TTL)
             .maximumSize(MAX_SIZE)
             .build();
 
+    private final long leaseMillis;
+    private final MetricsHelper metrics;
+    private final Clock clock;
+
+    @Autowired
+    public InMemoryIdempotencyStore(IdempotencyProperties properties, MetricsHelper metrics) {
+        this(properties, metrics, Clock.systemUTC());
+    }
+
+    InMemoryIdempotencyStore(IdempotencyProperties properties, MetricsHelper metrics, Clock clock) {
+        this.leaseMillis = properties.lease().duration().toMillis();
+        this.metrics = metrics;
+        this.clock = clock;
+
+        metrics.gauge("idempotency.lease.stuck", cache, this::countStuck, "store", "memory");
+    }
+
     @Override
     public boolean tryStart(String eventId) {
         if (eventId == null) {
@@ -31,14 +60,55 @@ public class InMemoryIdempotencyStore implements IdempotencyStore {
             return true;
         }
 
-        Status previous = cache.asMap().putIfAbsent(eventId, Status.IN_PROGRESS);
-        return previous == null;
+        long now = clock.millis();
+        Entry started = new Entry(Status.IN_PROGRESS, now + leaseMillis);
+        boolean[] reclaimed = new boolean[1];
+        Entry current = cache.asMap().compute(eventId, (key, existing) -> {
+            if (existing == null) {
+                return started;
+            }
+            if (existing.isStuck(now)) {
+                reclaimed[0] = true;
+                return started;
+            }
+            return existing;
+        });
+
+        if (reclaimed[0]) {
+            log.warn("Reclaimed expired lease for event {}", eventId);
+            metrics.incrementCounter("idempotency.lease.reclaimed", "store", "memory");
+        }
+        return current == started;
+    }
+
+    @Override
+    public boolean renew(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+
+        long now = clock.millis();
+        Entry renewed = cache.asMap().computeIfPresent(eventId, (key, existing) ->
+                existing.status() == Status.IN_PROGRESS ? new Entry(Status.IN_PROGRESS, now + leaseMillis) : existing);
+        return renewed != null && renewed.status() == Status.IN_PROGRESS;
     }
 
     @Override
     public void markProcessed(String eventId) {
         if (eventId != null) {
-            cache.put(eventId, Status.PROCESSED);
+            cache.put(eventId, new Entry(Status.PROCESSED, 0L));
+        }
+    }
+
+    @Override
+    public void release(String eventId) {
+        if (eventId != null) {
+            cache.invalidate(eventId);
         }
     }
+
+    private long countStuck(Cache<String, Entry> entries) {
+        long now = clock.millis();
+        return entries.asMap().values().stream().filter(entry -> entry.isStuck(now)).count();
+    }
 }
@@ -0,0 +1,443 @@
+package com.code.platform.idempotency;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IdempotencyStore} backed by a log-compacted Kafka topic.
+ * <p>
+ * The changelog is co-partitioned with the consumed topics: a record from partition N is tracked
+ * in changelog partition N, and an instance only materializes the changelog partitions matching
+ * the partitions its consumers own. On assignment the partition is restored from the changelog
+ * before any record is delivered, so duplicates are caught across restarts and rebalances.
+ * <p>
+ * IN_PROGRESS keys are leased from their last write; a key restored from a crashed owner
+ * becomes reclaimable once that lease runs out.
+ * <p>
+ * Calls made outside a listener (no partition bound to the thread) hash the event id over the
+ * configured unbound partitions only, and the first such call materializes all of them. Nothing
+ * assigns those partitions to one instance, so every instance writes them: after the restore a
+ * background consumer keeps tailing them, and callers like webhook ingress see other instances'
+ * keys once the tail has read them, shortly after they are written. Every such instance holds
+ * every unbound key within the TTL; the other partitions stay with their listeners.
+ */
+@Slf4j
+public class KafkaIdempotencyStore implements IdempotencyStore, AutoCloseable {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+    private static final int EVICT_EVERY = 10_000;
+
+    private enum Status {
+        IN_PROGRESS,
+        PROCESSED
+    }
+
+    private record Entry(Status status, long writtenAt) {
+    }
+
+    private record InFlight(int partition, long startedAt) {
+    }
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final ProducerFactory<String, String> producerFactory;
+    private final Producer<String, String> producer;
+    private final String topic;
+    private final int partitions;
+    private final List<Integer> unboundPartitions;
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final Duration restoreTimeout;
+    private final MetricsHelper metrics;
+    private final Clock clock;
+
+    private final Map<Integer, Map<String, Entry>> owned = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<TopicPartition>> owners = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Integer> boundPartition = new ThreadLocal<>();
+    private final AtomicLong starts = new AtomicLong();
+
+    // Changelog partitions used by unbound callers, tailed from where their restore stopped
+    private final Map<Integer, Long> restoredTo = new ConcurrentHashMap<>();
+    private final Set<Integer> tailed = ConcurrentHashMap.newKeySet();
+    private final Queue<Integer> tailRequests = new ConcurrentLinkedQueue<>();
+    private Thread tailer;
+    private volatile boolean closed;
+
+    public KafkaIdempotencyStore(
+            ProducerFactory<String, String> producerFactory,
+            ConsumerFactory<String, String> consumerFactory,
+            IdempotencyProperties properties,
+            MetricsHelper metrics,
+            Clock clock) {
+        this.consumerFactory = consumerFactory;
+        this.producerFactory = producerFactory;
+        this.producer = producerFactory.createProducer();
+        this.topic = properties.kafka().topic();
+        this.partitions = properties.kafka().partitions();
+        this.unboundPartitions = properties.kafka().unboundPartitions();
+        this.ttlMillis = properties.ttl().toMillis();
+        this.leaseMillis = properties.lease().duration().toMillis();
+        this.restoreTimeout = properties.kafka().restoreTimeout();
+        this.metrics = metrics;
+        this.clock = clock;
+
+        metrics.gauge("idempotency.entries", owned,
+                map -> map.values().stream().mapToInt(Map::size).sum(), "store", "kafka");
+        metrics.gauge("idempotency.partitions.owned", owned, Map::size, "store", "kafka");
+        metrics.gauge("idempotency.lease.stuck", owned, this::countStuck, "store", "kafka");
+    }
+
+    @Override
+    public boolean tryStart(String eventId) {
+        if (eventId == null) {
+            log.warn("Event with null eventId, skipping idempotency check");
+            return true;
+        }
+
+        if (boundPartition.get() == null) {
+            unboundPartitions.forEach(this::tail);
+        }
+        int partition = partitionFor(eventId);
+        Map<String, Entry> entries = materialize(partition);
+        long now = clock.millis();
+
+        Entry started = new Entry(Status.IN_PROGRESS, now);
+        boolean[] reclaimed = new boolean[1];
+        Entry current = entries.compute(eventId, (key, existing) -> {
+            if (existing == null || isExpired(existing, now)) {
+                return started;
+            }
+            if (isStuck(existing, now)) {
+                reclaimed[0] = true;
+                return started;
+            }
+            return existing;
+        });
+        if (current != started) {
+            metrics.incrementCounter("idempotency.duplicate", "store", "kafka");
+            return false;
+        }
+        if (reclaimed[0]) {
+            log.warn("Reclaimed expired lease for event {}", eventId);
+            metrics.incrementCounter("idempotency.lease.reclaimed", "store", "kafka");
+        }
+
+        inFlight.put(eventId, new InFlight(partition, now));
+        write(partition, eventId, Status.IN_PROGRESS.name());
+
+        if (starts.incrementAndGet() % EVICT_EVERY == 0) {
+            evictExpired();
+        }
+        return true;
+    }
+
+    /**
+     * Renewals are written to the changelog too, so an instance that takes over the partition
+     * restores the renewed lease. Returns false once the partition has moved to another instance.
+     */
+    @Override
+    public boolean renew(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+
+        InFlight started = inFlight.get(eventId);
+        int partition = started != null ? started.partition() : partitionFor(eventId);
+        Map<String, Entry> entries = owned.get(partition);
+        if (entries == null) {
+            return false;
+        }
+
+        long now = clock.millis();
+        Entry renewed = entries.computeIfPresent(eventId, (key, existing) ->
+                existing.status() == Status.IN_PROGRESS ? new Entry(Status.IN_PROGRESS, now) : existing);
+        if (renewed == null || renewed.status() != Status.IN_PROGRESS) {
+            return false;
+        }
+        write(partition, eventId, Status.IN_PROGRESS.name());
+        return true;
+    }
+
+    @Override
+    public void markProcessed(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+
+        // Completion usually runs on another thread than tryStart, possibly after the partition
+        // was revoked, so the partition recorded at start wins over the thread binding
+        InFlight started = inFlight.remove(eventId);
+        int partition = started != null ? started.partition() : partitionFor(eventId);
+
+        Map<String, Entry> entries = owned.get(partition);
+        if (entries != null) {
+            entries.put(eventId, new Entry(Status.PROCESSED, clock.millis()));
+        }
+        write(partition, eventId, Status.PROCESSED.name());
+    }
+
+    @Override
+    public void release(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+
+        InFlight started = inFlight.remove(eventId);
+        int partition = started != null ? started.partition() : partitionFor(eventId);
+
+        Map<String, Entry> entries = owned.get(partition);
+        if (entries != null) {
+            entries.remove(eventId);
+        }
+        // Tombstone, so compaction drops the key and restores on other instances forget it too
+        write(partition, eventId, null);
+    }
+
+    /**
+     * Binds the source partition of the record being processed on the current thread.
+     */
+    void bind(int sourcePartition) {
+        boundPartition.set(sourcePartition);
+    }
+
+    void unbind() {
+        boundPartition.remove();
+    }
+
+    void assigned(Collection<TopicPartition> sourcePartitions) {
+        for (TopicPartition source : sourcePartitions) {
+            int partition = changelogPartition(source.partition());
+            owners.computeIfAbsent(partition, p -> ConcurrentHashMap.newKeySet()).add(source);
+            materialize(partition);
+        }
+        // Eager rebalances revoke everything first; state kept for partitions that came back
+        // is still current because nobody else consumed them in between
+        releaseUnowned();
+    }
+
+    void revoked(Collection<TopicPartition> sourcePartitions) {
+        for (TopicPartition source : sourcePartitions) {
+            owners.computeIfPresent(changelogPartition(source.partition()), (partition, sources) -> {
+                sources.remove(source);
+                return sources.isEmpty() ? null : sources;
+            });
+        }
+    }
+
+    void lost(Collection<TopicPartition> sourcePartitions) {
+        revoked(sourcePartitions);
+        releaseUnowned();
+    }
+
+    private void releaseUnowned() {
+        owned.keySet().removeIf(partition -> {
+            boolean release = !owners.containsKey(partition) && !tailed.contains(partition);
+            if (release) {
+                log.info("Released idempotency partition {}-{}", topic, partition);
+            }
+            return release;
+        });
+    }
+
+    /**
+     * Removes entries older than the TTL from every owned partition. Kafka retention drops them
+     * from the changelog on its own schedule.
+     */
+    public void evictExpired() {
+        long now = clock.millis();
+        owned.values().forEach(entries -> entries.values().removeIf(entry -> isExpired(entry, now)));
+        inFlight.values().removeIf(started -> now - started.startedAt() >= ttlMillis);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread running;
+        synchronized (tailed) {
+            running = tailer;
+        }
+        if (running != null) {
+            try {
+                running.join(POLL_TIMEOUT.multipliedBy(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // The factory hands out a shared producer whose close() is a no-op; flush, then reset the factory
+        producer.flush();
+        producerFactory.reset();
+    }
+
+    private int partitionFor(String eventId) {
+        Integer source = boundPartition.get();
+        if (source != null) {
+            return changelogPartition(source);
+        }
+        int hash = Utils.toPositive(Utils.murmur2(eventId.getBytes(StandardCharsets.UTF_8)));
+        return unboundPartitions.get(hash % unboundPartitions.size());
+    }
+
+    private int changelogPartition(int sourcePartition) {
+        return sourcePartition % partitions;
+    }
+
+    private Map<String, Entry> materialize(int partition) {
+        Map<String, Entry> entries = owned.get(partition);
+        if (entries != null) {
+            return entries;
+        }
+        synchronized (owned) {
+            return owned.computeIfAbsent(partition, this::restore);
+        }
+    }
+
+    private Map<String, Entry> restore(int partition) {
+        long startNanos = System.nanoTime();
+        TopicPartition changelog = new TopicPartition(topic, partition);
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        long now = clock.millis();
+        long deadline = startNanos + restoreTimeout.toNanos();
+
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer()) {
+            consumer.assign(List.of(changelog));
+            consumer.seekToBeginning(List.of(changelog));
+            long endOffset = consumer.endOffsets(List.of(changelog)).get(changelog);
+
+            while (consumer.position(changelog) < endOffset) {
+                if (System.nanoTime() > deadline) {
+                    log.warn("Restore of {} timed out at offset {} of {}, continuing with partial state",
+                            changelog, consumer.position(changelog), endOffset);
+                    metrics.incrementCounter("idempotency.restore.timeout", "store", "kafka");
+                    break;
+                }
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    apply(entries, record, now);
+                }
+            }
+            restoredTo.put(partition, consumer.position(changelog));
+        }
+
+        metrics.recordDuration("idempotency.restore", Duration.ofNanos(System.nanoTime() - startNanos),
+                "store", "kafka");
+        log.info("Restored {} idempotency keys from {}", entries.size(), changelog);
+        return entries;
+    }
+
+    private void tail(int partition) {
+        if (tailed.contains(partition)) {
+            return;
+        }
+        materialize(partition);
+        if (!tailed.add(partition)) {
+            return;
+        }
+        tailRequests.add(partition);
+        synchronized (tailed) {
+            if (tailer == null && !closed) {
+                tailer = Thread.ofPlatform().name("idempotency-tail-" + topic).daemon(true).start(this::tailLoop);
+            }
+        }
+    }
+
+    /**
+     * Applies every write to the tailed partitions, this instance's own included, in log order.
+     * Own writes arrive after they were applied locally, and the last one in the log wins.
+     */
+    private void tailLoop() {
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer()) {
+            Set<TopicPartition> assignment = new HashSet<>();
+            while (!closed) {
+                try {
+                    Integer partition;
+                    while ((partition = tailRequests.poll()) != null) {
+                        TopicPartition changelog = new TopicPartition(topic, partition);
+                        assignment.add(changelog);
+                        // Partitions already assigned keep their positions
+                        consumer.assign(assignment);
+                        consumer.seek(changelog, restoredTo.getOrDefault(partition, 0L));
+                        log.info("Tailing idempotency partition {} for unbound callers", changelog);
+                    }
+
+                    long now = clock.millis();
+                    for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                        Map<String, Entry> entries = owned.get(record.partition());
+                        if (entries != null) {
+                            apply(entries, record, now);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Tailing {} failed, retrying", topic, e);
+                    metrics.incrementCounter("idempotency.tail.failed", "store", "kafka");
+                    Thread.sleep(POLL_TIMEOUT.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(Map<String, Entry> entries, ConsumerRecord<String, String> record, long now) {
+        if (record.key() == null) {
+            return;
+        }
+        if (record.value() == null) {
+            entries.remove(record.key());
+            return;
+        }
+        Entry entry = new Entry(Status.valueOf(record.value()), record.timestamp());
+        if (isExpired(entry, now)) {
+            entries.remove(record.key());
+        } else {
+            entries.put(record.key(), entry);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.writtenAt() >= ttlMillis;
+    }
+
+    // IN_PROGRESS entries are rewritten on every renewal, so the write time starts the lease
+    private boolean isStuck(Entry entry, long now) {
+        return entry.status() == Status.IN_PROGRESS && now - entry.writtenAt() >= leaseMillis;
+    }
+
+    private long countStuck(Map<Integer, Map<String, Entry>> partitions) {
+        long now = clock.millis();
+        return partitions.values().stream()
+                .flatMap(entries -> entries.values().stream())
+                .filter(entry -> isStuck(entry, now))
+                .count();
+    }
+
+    private void write(int partition, String eventId, String status) {
+        ProducerRecord<String, String> record =
+                new ProducerRecord<>(topic, partition, clock.millis(), eventId, status);
+        producer.send(record, (metadata, exception) -> {
+            if (exception != null) {
+                log.error("Failed to write idempotency key {} ({}) to {}", eventId, status, topic, exception);
+                metrics.incrementCounter("idempotency.write", "store", "kafka", "status", "failed");
+            }
+        });
+    }
+}
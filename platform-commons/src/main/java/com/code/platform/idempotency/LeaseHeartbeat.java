@@ -0,0 +1,48 @@
+package com.code.platform.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Renews the idempotency lease of an event while its processing is in flight, for work such as
+ * AI reviews that can outlast a single lease.
+ */
+@Slf4j
+@Component
+public class LeaseHeartbeat {
+
+    private final IdempotencyStore idempotencyStore;
+    private final Duration renewInterval;
+
+    public LeaseHeartbeat(IdempotencyStore idempotencyStore, IdempotencyProperties properties) {
+        this.idempotencyStore = idempotencyStore;
+        this.renewInterval = properties.lease().renewInterval();
+    }
+
+    /**
+     * Renews the lease every renew interval until {@code work} terminates or is cancelled, or
+     * until the store reports the lease lost.
+     */
+    public <T> Mono<T> keepAlive(String eventId, Mono<T> work) {
+        if (eventId == null) {
+            return work;
+        }
+        return Mono.defer(() -> {
+            // Stores may block briefly (locks, producer buffer), so renew off the parallel scheduler
+            Disposable heartbeat = Flux.interval(renewInterval, renewInterval, Schedulers.boundedElastic())
+                    .takeWhile(tick -> idempotencyStore.renew(eventId))
+                    .subscribe(
+                            tick -> {},
+                            error -> log.error("Lease renewal failed for event {}", eventId, error),
+                            () -> log.warn("Lease for event {} is no longer held, it may be processed again", eventId)
+                    );
+            return work.doFinally(signal -> heartbeat.dispose());
+        });
+    }
+}
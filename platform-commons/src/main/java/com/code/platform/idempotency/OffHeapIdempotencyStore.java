@@ -0,0 +1,374 @@
+package com.code.platform.idempotency;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+
+/**
+ * {@link IdempotencyStore} that keeps 64-bit hashes of event ids in open-addressing tables in
+ * direct memory, so tracked events cost no heap objects.
+ * <p>
+ * The TTL is split into time buckets, each with its own table and Bloom filter. New keys go into
+ * the current bucket; when a bucket's window ends the oldest one is wiped and reused, so entries
+ * live between the TTL and TTL plus one bucket width. A bucket that fills up before its window
+ * ends forces an early rotation, counted as {@code idempotency.evicted}.
+ * <p>
+ * IN_PROGRESS entries carry a lease expiry in place of a timestamp; an expired lease is
+ * reclaimed by the next {@link #tryStart} for the same event.
+ * <p>
+ * First-seen events, the common case, are answered from the Bloom filters alone. A Bloom hit
+ * that turns out to be absent from every table is counted as
+ * {@code idempotency.bloom.false_positive}; its rate stays under the configured rate while
+ * the store is within capacity. Two distinct ids colliding on all 64 bits would be reported as a
+ * duplicate, which at a million live keys happens with probability around 10<sup>-8</sup>.
+ * <p>
+ * Each slot takes 16 bytes off-heap and tables are sized at half load, under 40 bytes per event
+ * including the spare bucket. The only heap cost per event is the Bloom filters, under five bytes
+ * at the default sizing, where a {@code String} key and cache node take well over a hundred.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "platform.idempotency", name = "store", havingValue = "offheap")
+public class OffHeapIdempotencyStore implements IdempotencyStore {
+
+    private static final double MAX_LOAD = 0.75;
+
+    private static final long IN_PROGRESS = 1;
+    private static final long PROCESSED = 2;
+    private static final long RELEASED = 3;
+    private static final long STATUS_MASK = 3;
+
+    private final Bucket[] buckets;
+    private final long bucketWidthMillis;
+    private final long leaseMillis;
+    private final MetricsHelper metrics;
+    private final Clock clock;
+
+    private int current;
+    private long rotatedAt;
+
+    @Autowired
+    public OffHeapIdempotencyStore(IdempotencyProperties properties, MetricsHelper metrics) {
+        this(properties, metrics, Clock.systemUTC());
+    }
+
+    OffHeapIdempotencyStore(IdempotencyProperties properties, MetricsHelper metrics, Clock clock) {
+        IdempotencyProperties.OffHeap offHeap = properties.offHeap();
+        this.metrics = metrics;
+        this.clock = clock;
+        this.bucketWidthMillis = Math.max(1, properties.ttl().toMillis() / offHeap.buckets());
+        this.leaseMillis = properties.lease().duration().toMillis();
+
+        // One spare bucket so the oldest live bucket still covers a full TTL
+        int bucketCount = offHeap.buckets() + 1;
+        long perBucket = Math.max(1, (offHeap.capacity() + offHeap.buckets() - 1) / offHeap.buckets());
+        int slots = Math.toIntExact(Math.max(16, Long.highestOneBit(perBucket * 2 - 1) << 1));
+        double bucketRate = offHeap.falsePositiveRate() / bucketCount;
+
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(slots, bucketRate);
+        }
+        this.rotatedAt = clock.millis();
+
+        log.info("Off-heap idempotency store: {} buckets x {} slots ({} KiB direct), Bloom {} bits per bucket",
+                bucketCount, slots, (long) bucketCount * slots * Bucket.SLOT_BYTES / 1024,
+                buckets[0].bloom.bitSize());
+        metrics.gauge("idempotency.entries", this, OffHeapIdempotencyStore::size, "store", "offheap");
+        metrics.gauge("idempotency.lease.stuck", this, OffHeapIdempotencyStore::stuck, "store", "offheap");
+    }
+
+    @Override
+    public synchronized boolean tryStart(String eventId) {
+        if (eventId == null) {
+            log.warn("Event with null eventId, skipping idempotency check");
+            return true;
+        }
+
+        long hash = hash(eventId);
+        long now = clock.millis();
+        advance(now);
+
+        if (mightContain(hash)) {
+            long meta = lookup(hash);
+            long status = meta & STATUS_MASK;
+            if (status == IN_PROGRESS && leaseExpiresAt(meta) <= now) {
+                log.warn("Reclaimed expired lease for event {}", eventId);
+                metrics.incrementCounter("idempotency.lease.reclaimed", "store", "offheap");
+                update(hash, lease(now));
+                return true;
+            }
+            if (status == IN_PROGRESS || status == PROCESSED) {
+                metrics.incrementCounter("idempotency.duplicate", "store", "offheap");
+                return false;
+            }
+            if (status == 0) {
+                metrics.incrementCounter("idempotency.bloom.false_positive", "store", "offheap");
+            }
+        }
+
+        insert(hash, lease(now));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean renew(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+
+        long hash = hash(eventId);
+        long now = clock.millis();
+        advance(now);
+
+        return (lookup(hash) & STATUS_MASK) == IN_PROGRESS && update(hash, lease(now));
+    }
+
+    @Override
+    public synchronized void markProcessed(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+
+        long hash = hash(eventId);
+        long now = clock.millis();
+        advance(now);
+
+        if (!update(hash, PROCESSED)) {
+            insert(hash, PROCESSED);
+        }
+    }
+
+    @Override
+    public synchronized void release(String eventId) {
+        if (eventId != null) {
+            update(hash(eventId), RELEASED);
+        }
+    }
+
+    /**
+     * Expired leases, counted without the store's lock so a scrape never holds up {@link #tryStart}.
+     * Only buckets holding IN_PROGRESS entries are scanned, and only until all of them were seen;
+     * entries changing meanwhile may be counted either way.
+     */
+    long stuck() {
+        long now = clock.millis();
+        long stuck = 0;
+        for (Bucket bucket : buckets) {
+            stuck += bucket.countExpiredLeases(now);
+        }
+        return stuck;
+    }
+
+    synchronized long size() {
+        long size = 0;
+        for (Bucket bucket : buckets) {
+            size += bucket.size;
+        }
+        return size;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the SplitMix64 mixer so the low
+     * bits used for slot selection depend on every character. Zero marks an empty slot.
+     */
+    static long hash(String eventId) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < eventId.length(); i++) {
+            h ^= eventId.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return h == 0 ? 1 : h;
+    }
+
+    private boolean mightContain(long hash) {
+        for (Bucket bucket : buckets) {
+            if (bucket.size > 0 && bucket.bloom.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Meta of the newest entry for the hash, or 0 when no bucket holds it.
+     */
+    private long lookup(long hash) {
+        for (int i = 0; i < buckets.length; i++) {
+            Bucket bucket = buckets[Math.floorMod(current - i, buckets.length)];
+            int slot = bucket.find(hash);
+            if (slot >= 0) {
+                return bucket.meta(slot);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Overwrites the newest entry for the hash unless it was released.
+     */
+    private boolean update(long hash, long meta) {
+        for (int i = 0; i < buckets.length; i++) {
+            Bucket bucket = buckets[Math.floorMod(current - i, buckets.length)];
+            int slot = bucket.find(hash);
+            if (slot >= 0) {
+                if ((bucket.meta(slot) & STATUS_MASK) == RELEASED) {
+                    return false;
+                }
+                bucket.setMeta(slot, meta);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long lease(long now) {
+        return ((now + leaseMillis) << 2) | IN_PROGRESS;
+    }
+
+    private static long leaseExpiresAt(long meta) {
+        return meta >>> 2;
+    }
+
+    private void insert(long hash, long meta) {
+        Bucket bucket = buckets[current];
+        if (bucket.isFull()) {
+            rotate();
+            rotatedAt = clock.millis();
+            bucket = buckets[current];
+        }
+        bucket.put(hash, meta);
+    }
+
+    private void advance(long now) {
+        long windows = (now - rotatedAt) / bucketWidthMillis;
+        if (windows <= 0) {
+            return;
+        }
+        for (long i = 0; i < Math.min(windows, buckets.length); i++) {
+            current = (current + 1) % buckets.length;
+            buckets[current].clear();
+        }
+        rotatedAt += windows * bucketWidthMillis;
+    }
+
+    private void rotate() {
+        current = (current + 1) % buckets.length;
+        Bucket oldest = buckets[current];
+        if (oldest.size > 0) {
+            log.warn("Idempotency bucket full, evicting {} entries before their TTL", oldest.size);
+            metrics.incrementCounter("idempotency.evicted", oldest.size, "store", "offheap", "reason", "capacity");
+        }
+        oldest.clear();
+    }
+
+    /**
+     * Linear-probing table of {@code (hash, meta)} slots in a direct buffer, where meta is the
+     * lease expiry in millis shifted left by two over the status bits. Released keys stay as
+     * tombstones until the bucket is wiped. Written under the store's lock; {@code inProgress} is
+     * volatile so the lease scan can read the table without it.
+     */
+    private static final class Bucket {
+
+        static final int SLOT_BYTES = 16;
+
+        final ByteBuffer slots;
+        final BloomFilter bloom;
+        final int mask;
+        final int maxSize;
+        int size;
+        volatile int inProgress;
+
+        Bucket(int slotCount, double falsePositiveRate) {
+            this.slots = ByteBuffer.allocateDirect(slotCount * SLOT_BYTES);
+            this.mask = slotCount - 1;
+            this.maxSize = (int) (slotCount * MAX_LOAD);
+            this.bloom = BloomFilter.create(maxSize, falsePositiveRate);
+        }
+
+        int find(long hash) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long key = slots.getLong(slot * SLOT_BYTES);
+                if (key == hash) {
+                    return slot;
+                }
+                if (key == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long hash, long meta) {
+            int slot = (int) hash & mask;
+            while (true) {
+                long key = slots.getLong(slot * SLOT_BYTES);
+                if (key == hash) {
+                    break;
+                }
+                if (key == 0) {
+                    slots.putLong(slot * SLOT_BYTES, hash);
+                    size++;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            setMeta(slot, meta);
+            bloom.put(hash);
+        }
+
+        long meta(int slot) {
+            return slots.getLong(slot * SLOT_BYTES + 8);
+        }
+
+        void setMeta(int slot, long meta) {
+            int delta = (isInProgress(meta) ? 1 : 0) - (isInProgress(meta(slot)) ? 1 : 0);
+            slots.putLong(slot * SLOT_BYTES + 8, meta);
+            if (delta != 0) {
+                inProgress += delta;
+            }
+        }
+
+        long countExpiredLeases(long now) {
+            int remaining = inProgress;
+            long expired = 0;
+            for (int offset = 0; remaining > 0 && offset < slots.capacity(); offset += SLOT_BYTES) {
+                long meta = slots.getLong(offset + 8);
+                if (isInProgress(meta)) {
+                    remaining--;
+                    if (leaseExpiresAt(meta) <= now) {
+                        expired++;
+                    }
+                }
+            }
+            return expired;
+        }
+
+        private static boolean isInProgress(long meta) {
+            return (meta & STATUS_MASK) == IN_PROGRESS;
+        }
+
+        boolean isFull() {
+            return size >= maxSize;
+        }
+
+        void clear() {
+            if (size == 0) {
+                return;
+            }
+            for (int offset = 0; offset < slots.capacity(); offset += 8) {
+                slots.putLong(offset, 0L);
+            }
+            bloom.clear();
+            size = 0;
+            inProgress = 0;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.code.platform.partitioning;
+
+import java.util.Map;
+
+/**
+ * Record keys for events about a pull request. Every publisher in the pipeline derives its keys
+ * here from the same three fields, so each hop keeps one pull request's events on one partition
+ * and in order, whatever the strategy.
+ * <p>
+ * Under {@code PULL_REQUEST} a busy repository's pull requests hash over all partitions and are
+ * consumed in parallel. Under {@code REPOSITORY} they share one key and are handled one at a
+ * time, except in hot repositories, whose pull requests are spread over as many keys as their
+ * weight by number. Keys are hashed to partitions by Kafka's default partitioner, so distinct
+ * keys can still meet on one partition.
+ */
+public class PartitionKeys {
+
+    private final PartitioningProperties.KeyStrategy strategy;
+    private final Map<String, Integer> hotRepositories;
+
+    public PartitionKeys(PartitioningProperties properties) {
+        this.strategy = properties.strategy();
+        this.hotRepositories = Map.copyOf(properties.hotRepositories());
+    }
+
+    /**
+     * The key for an event; without a pull request number it is the repository alone.
+     */
+    public String key(String owner, String repository, Integer pullRequestNumber) {
+        String name = owner + "/" + repository;
+        if (pullRequestNumber == null) {
+            return name;
+        }
+        return switch (strategy) {
+            case PULL_REQUEST -> name + "/" + pullRequestNumber;
+            case REPOSITORY -> {
+                Integer spread = hotRepositories.get(name);
+                yield spread != null && spread > 1 ? name + "/" + Math.floorMod(pullRequestNumber, spread) : name;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.code.platform.partitioning;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+import java.util.Map;
+
+/**
+ * How publishers key the events of a pull request. {@code hotRepositories} maps
+ * {@code owner/repo} to the number of keys its pull requests are spread over under the
+ * {@code repository} strategy; in YAML the names need brackets, {@code "[org/monorepo]": 8}.
+ */
+@Validated
+@ConfigurationProperties(prefix = "platform.partitioning")
+public record PartitioningProperties(
+        KeyStrategy strategy,
+        Map<String, @Positive Integer> hotRepositories
+) {
+    public PartitioningProperties {
+        if (strategy == null) {
+            strategy = KeyStrategy.PULL_REQUEST;
+        }
+        if (hotRepositories == null) {
+            hotRepositories = Map.of();
+        }
+    }
+
+    public enum KeyStrategy {
+        /** owner/repo/number: every pull request on its own key */
+        PULL_REQUEST,
+        /** owner/repo, except hot repositories, which get one key per spread bucket */
+        REPOSITORY
+    }
+}
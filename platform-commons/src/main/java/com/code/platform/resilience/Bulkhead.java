@@ -0,0 +1,111 @@
+package com.code.platform.resilience;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency limit. A call beyond the limit waits up to {@code maxWait} for a permit, in arrival
+ * order, without holding a thread, and is refused once that runs out; a zero wait refuses at once.
+ */
+final class Bulkhead {
+
+    private final class Waiter {
+        private final MonoSink<Boolean> sink;
+        private boolean granted;
+
+        private Waiter(MonoSink<Boolean> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private int active;
+
+    Bulkhead(int maxConcurrent, Duration maxWait) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Emits true once a permit is held, which the caller gives back with {@link #release()}, or
+     * false when none came free in time. A subscriber cancelled while waiting holds nothing.
+     */
+    Mono<Boolean> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            boolean admitted;
+            boolean queued = false;
+            synchronized (this) {
+                admitted = active < maxConcurrent;
+                if (admitted) {
+                    active++;
+                    waiter.granted = true;
+                } else if (maxWait.isPositive()) {
+                    waiting.addLast(waiter);
+                    queued = true;
+                }
+            }
+
+            if (queued) {
+                Disposable timeout = Schedulers.parallel().schedule(() -> {
+                    if (withdraw(waiter)) {
+                        sink.success(false);
+                    }
+                }, maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                sink.onDispose(timeout);
+            } else {
+                sink.success(admitted);
+            }
+            // Registered last, so it also runs, at once, for a subscriber that was already gone;
+            // a permit granted to a subscriber that never received it would otherwise leak
+            sink.onCancel(() -> {
+                if (!withdraw(waiter) && isGranted(waiter)) {
+                    release();
+                }
+            });
+        });
+    }
+
+    /**
+     * Hands the permit to the longest waiting call, if any.
+     */
+    void release() {
+        Waiter next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                active--;
+            } else {
+                next.granted = true;
+            }
+        }
+        if (next != null) {
+            next.sink.success(true);
+        }
+    }
+
+    synchronized int active() {
+        return active;
+    }
+
+    synchronized int waiting() {
+        return waiting.size();
+    }
+
+    private synchronized boolean withdraw(Waiter waiter) {
+        return waiting.remove(waiter);
+    }
+
+    private synchronized boolean isGranted(Waiter waiter) {
+        return waiter.granted;
+    }
+}
@@ -0,0 +1,30 @@
+package com.code.platform.resilience;
+
+/**
+ * Raised instead of calling a dependency that {@link ResiliencePolicy} is protecting; nothing
+ * was sent. Never worth retrying right away, so retry budgets let it through.
+ */
+public class CallRejectedException extends RuntimeException {
+
+    public enum Reason {
+        CIRCUIT_OPEN,
+        BULKHEAD_FULL
+    }
+
+    private final String dependency;
+    private final Reason reason;
+
+    public CallRejectedException(String dependency, Reason reason) {
+        super("Call to %s rejected: %s".formatted(dependency, reason.name().toLowerCase()));
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,155 @@
+package com.code.platform.resilience;
+
+import java.time.Clock;
+
+/**
+ * Count-based circuit breaker with a half-open probe phase.
+ * <p>
+ * CLOSED records the outcome of the last {@code windowSize} calls in a ring and opens when the
+ * failure rate reaches the threshold. OPEN rejects every call until {@code openDuration} has
+ * passed, then turns HALF_OPEN on the next attempt, which lets a fixed number of trial calls
+ * through. State changes are reported to the listener outside of the lock.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+
+    private final ResilienceProperties.Breaker config;
+    private final Clock clock;
+    private final TransitionListener listener;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+    private long generation;
+
+    CircuitBreaker(ResilienceProperties.Breaker config, Clock clock, TransitionListener listener) {
+        this.config = config;
+        this.clock = clock;
+        this.listener = listener;
+        this.window = new boolean[config.windowSize()];
+    }
+
+    /**
+     * Admits a call and returns the generation to report its outcome under, or -1 if rejected.
+     */
+    long tryAcquire() {
+        State from;
+        State to;
+        long admitted = -1;
+        synchronized (this) {
+            from = state;
+            if (state == State.OPEN && clock.millis() - openedAt >= config.openDuration().toMillis()) {
+                moveTo(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED || state == State.HALF_OPEN && trialPermits > 0) {
+                if (state == State.HALF_OPEN) {
+                    trialPermits--;
+                }
+                admitted = generation;
+            }
+            to = state;
+        }
+        notifyIfChanged(from, to);
+        return admitted;
+    }
+
+    void onSuccess(long admittedIn) {
+        record(admittedIn, false);
+    }
+
+    void onFailure(long admittedIn) {
+        record(admittedIn, true);
+    }
+
+    /**
+     * A call that ended without an outcome, such as a cancelled one; a trial permit is returned.
+     */
+    synchronized void onIgnored(long admittedIn) {
+        if (admittedIn == generation && state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(long admittedIn, boolean failed) {
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            // Outcomes of calls admitted before the last transition say nothing about this state
+            if (admittedIn == generation) {
+                if (state == State.CLOSED) {
+                    recordClosed(failed);
+                } else if (state == State.HALF_OPEN) {
+                    if (failed) {
+                        moveTo(State.OPEN);
+                    } else if (++trialSuccesses >= config.halfOpenCalls()) {
+                        moveTo(State.CLOSED);
+                    }
+                }
+            }
+            to = state;
+        }
+        notifyIfChanged(from, to);
+    }
+
+    private void recordClosed(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+
+        int minimumCalls = Math.min(config.minimumCalls(), window.length);
+        if (recorded >= minimumCalls && failures >= config.failureRateThreshold() * recorded) {
+            moveTo(State.OPEN);
+        }
+    }
+
+    private void moveTo(State target) {
+        state = target;
+        generation++;
+        switch (target) {
+            case OPEN -> openedAt = clock.millis();
+            case HALF_OPEN -> {
+                trialPermits = config.halfOpenCalls();
+                trialSuccesses = 0;
+            }
+            case CLOSED -> {
+                recorded = 0;
+                next = 0;
+                failures = 0;
+            }
+        }
+    }
+
+    private void notifyIfChanged(State from, State to) {
+        if (from != to) {
+            listener.onTransition(from, to);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.code.platform.resilience;
+
+import com.code.platform.metrics.MetricsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Clock;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Retry budget, circuit breaker and bulkhead for one outbound dependency.
+ * <p>
+ * {@link #protect(Mono)} wraps a single attempt: it is rejected with
+ * {@link CallRejectedException} while the circuit is open or when no bulkhead permit comes free
+ * within the configured wait, and its
+ * outcome feeds the breaker and, on success, the retry budget. Retries belong outside it, with
+ * their spec passed through {@link #withRetryBudget(RetryBackoffSpec)}, so every attempt is
+ * admitted on its own and no retry is scheduled once the budget is spent.
+ */
+@Slf4j
+public class ResiliencePolicy {
+
+    private final String dependency;
+    private final Predicate<Throwable> isFailure;
+    private final MetricsHelper metrics;
+    private final RetryBudget retryBudget;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    ResiliencePolicy(String dependency, ResilienceProperties.Dependency config, Predicate<Throwable> isFailure,
+                     MetricsHelper metrics, Clock clock) {
+        this.dependency = dependency;
+        this.isFailure = isFailure;
+        this.metrics = metrics;
+        this.retryBudget = new RetryBudget(config.retry().ratio(), config.retry().maxTokens());
+        this.circuitBreaker = new CircuitBreaker(config.breaker(), clock, this::onTransition);
+        this.bulkhead = new Bulkhead(config.concurrency().maxConcurrent(), config.concurrency().maxWait());
+
+        metrics.gauge("resilience.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal(),
+                "dependency", dependency);
+        metrics.gauge("resilience.bulkhead.active", bulkhead, Bulkhead::active, "dependency", dependency);
+        metrics.gauge("resilience.bulkhead.waiting", bulkhead, Bulkhead::waiting, "dependency", dependency);
+        metrics.gauge("resilience.retry_budget.tokens", retryBudget, RetryBudget::tokens, "dependency", dependency);
+    }
+
+    /**
+     * Failures that say something about the health of an HTTP dependency: transport errors,
+     * timeouts, 5xx and 429. Other 4xx and errors raised while handling a good response do not.
+     */
+    public static boolean isTransientFailure(Throwable error) {
+        return switch (error) {
+            case WebClientResponseException e -> e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+            case WebClientRequestException e -> true;
+            case TimeoutException e -> true;
+            default -> false;
+        };
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            long admittedIn = circuitBreaker.tryAcquire();
+            if (admittedIn < 0) {
+                return reject(CallRejectedException.Reason.CIRCUIT_OPEN);
+            }
+
+            AtomicBoolean completed = new AtomicBoolean();
+            return bulkhead.acquire()
+                    .doOnCancel(() -> {
+                        if (completed.compareAndSet(false, true)) {
+                            circuitBreaker.onIgnored(admittedIn);
+                        }
+                    })
+                    .flatMap(acquired -> {
+                        if (!acquired) {
+                            if (completed.compareAndSet(false, true)) {
+                                circuitBreaker.onIgnored(admittedIn);
+                            }
+                            return reject(CallRejectedException.Reason.BULKHEAD_FULL);
+                        }
+                        return call
+                                .doOnSuccess(value -> {
+                                    if (completed.compareAndSet(false, true)) {
+                                        retryBudget.deposit();
+                                        circuitBreaker.onSuccess(admittedIn);
+                                    }
+                                })
+                                .doOnError(error -> {
+                                    if (completed.compareAndSet(false, true)) {
+                                        if (isFailure.test(error)) {
+                                            circuitBreaker.onFailure(admittedIn);
+                                        } else {
+                                            circuitBreaker.onSuccess(admittedIn);
+                                        }
+                                    }
+                                })
+                                .doFinally(signal -> {
+                                    bulkhead.release();
+                                    if (completed.compareAndSet(false, true)) {
+                                        circuitBreaker.onIgnored(admittedIn);
+                                    }
+                                });
+                    });
+        });
+    }
+
+    /**
+     * The given spec, retrying only what it already retries, never a rejected call, and only
+     * while the budget has a token to spend on it. The filter runs before the attempt count is
+     * checked, so a sequence that runs out of attempts spends one token without retrying.
+     */
+    public RetryBackoffSpec withRetryBudget(RetryBackoffSpec spec) {
+        return spec.modifyErrorFilter(filter -> error -> {
+            if (error instanceof CallRejectedException || !filter.test(error)) {
+                return false;
+            }
+            if (retryBudget.tryWithdraw()) {
+                return true;
+            }
+            log.debug("Retry budget for {} exhausted, not retrying: {}", dependency, error.toString());
+            metrics.incrementCounter("resilience.rejected", "dependency", dependency, "reason", "retry_budget");
+            return false;
+        });
+    }
+
+    public String dependency() {
+        return dependency;
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private <T> Mono<T> reject(CallRejectedException.Reason reason) {
+        metrics.incrementCounter("resilience.rejected", "dependency", dependency, "reason", reason.name().toLowerCase());
+        return Mono.error(new CallRejectedException(dependency, reason));
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        if (to == CircuitBreaker.State.OPEN) {
+            log.warn("Circuit for {} opened ({} -> {})", dependency, from, to);
+        } else {
+            log.info("Circuit for {} moved {} -> {}", dependency, from, to);
+        }
+        metrics.incrementCounter("resilience.circuit.transition",
+                "dependency", dependency, "from", from.name().toLowerCase(), "to", to.name().toLowerCase());
+    }
+}
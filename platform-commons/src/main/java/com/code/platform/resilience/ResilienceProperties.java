@@ -0,0 +1,119 @@
+package com.code.platform.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Positive;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Resilience settings per outbound dependency, keyed by the name the service asks
+ * {@link ResilienceRegistry} for ({@code github}, {@code ai}). A dependency without an entry gets
+ * the defaults.
+ */
+@Validated
+@ConfigurationProperties(prefix = "platform.resilience")
+public record ResilienceProperties(
+        Map<String, @Valid Dependency> dependencies
+) {
+    public ResilienceProperties {
+        if (dependencies == null) {
+            dependencies = Map.of();
+        }
+    }
+
+    public Dependency dependency(String name) {
+        return dependencies.getOrDefault(name, new Dependency(null, null, null));
+    }
+
+    public record Dependency(
+            @Valid Retry retry,
+            @Valid Breaker breaker,
+            @Valid Concurrency concurrency
+    ) {
+        public Dependency {
+            if (retry == null) {
+                retry = new Retry(null, null);
+            }
+            if (breaker == null) {
+                breaker = new Breaker(null, null, null, null, null);
+            }
+            if (concurrency == null) {
+                concurrency = new Concurrency(null, null);
+            }
+        }
+    }
+
+    /**
+     * Retry budget: every successful call earns {@code ratio} of a token, every retry spends one,
+     * and at most {@code maxTokens} are banked. Retries therefore stay near {@code ratio} of the
+     * successful traffic and stop altogether once the dependency keeps failing.
+     */
+    public record Retry(
+            @Positive @DecimalMax("1.0") Double ratio,
+            @Positive Integer maxTokens
+    ) {
+        public Retry {
+            if (ratio == null) {
+                ratio = 0.1;
+            }
+            if (maxTokens == null) {
+                maxTokens = 10;
+            }
+        }
+    }
+
+    /**
+     * Opens once {@code failureRateThreshold} of the last {@code windowSize} calls failed, after
+     * at least {@code minimumCalls}. After {@code openDuration} it lets {@code halfOpenCalls}
+     * trial calls through; all of them succeeding closes it, any failure opens it again.
+     */
+    public record Breaker(
+            @Positive @DecimalMax("1.0") Double failureRateThreshold,
+            @Positive Integer windowSize,
+            @Positive Integer minimumCalls,
+            Duration openDuration,
+            @Positive Integer halfOpenCalls
+    ) {
+        public Breaker {
+            if (failureRateThreshold == null) {
+                failureRateThreshold = 0.5;
+            }
+            if (windowSize == null) {
+                windowSize = 20;
+            }
+            if (minimumCalls == null) {
+                minimumCalls = 10;
+            }
+            if (openDuration == null) {
+                openDuration = Duration.ofSeconds(30);
+            }
+            if (halfOpenCalls == null) {
+                halfOpenCalls = 3;
+            }
+        }
+    }
+
+    /**
+     * Bulkhead: calls beyond {@code maxConcurrent} in flight wait up to {@code maxWait} for a
+     * permit, in arrival order, and are rejected after that. The default zero wait rejects them
+     * at once, for callers that would rather fail fast than queue.
+     */
+    public record Concurrency(
+            @Positive Integer maxConcurrent,
+            Duration maxWait
+    ) {
+        public Concurrency {
+            if (maxConcurrent == null) {
+                maxConcurrent = 32;
+            }
+            if (maxWait == null) {
+                maxWait = Duration.ZERO;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.code.platform.resilience;
+
+import com.code.platform.metrics.MetricsHelper;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * One {@link ResiliencePolicy} per dependency name, shared by everything in the service that
+ * calls that dependency, so their retries draw on one budget and trip one breaker.
+ */
+public class ResilienceRegistry {
+
+    private final Map<String, ResiliencePolicy> policies = new ConcurrentHashMap<>();
+    private final ResilienceProperties properties;
+    private final MetricsHelper metrics;
+    private final Clock clock;
+
+    public ResilienceRegistry(ResilienceProperties properties, MetricsHelper metrics) {
+        this(properties, metrics, Clock.systemUTC());
+    }
+
+    ResilienceRegistry(ResilienceProperties properties, MetricsHelper metrics, Clock clock) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * The policy for an HTTP dependency, counting {@link ResiliencePolicy#isTransientFailure}
+     * errors against its breaker.
+     */
+    public ResiliencePolicy policy(String dependency) {
+        return policy(dependency, ResiliencePolicy::isTransientFailure);
+    }
+
+    /**
+     * The policy for a dependency whose failures {@code isFailure} recognizes. The predicate of
+     * the first caller for a name is the one that sticks.
+     */
+    public ResiliencePolicy policy(String dependency, Predicate<Throwable> isFailure) {
+        return policies.computeIfAbsent(dependency, name ->
+                new ResiliencePolicy(name, properties.dependency(name), isFailure, metrics, clock));
+    }
+}
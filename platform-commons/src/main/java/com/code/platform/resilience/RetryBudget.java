@@ -0,0 +1,45 @@
+package com.code.platform.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that retries draw from and successful calls refill. Tokens are kept in
+ * thousandths in a single CAS-updated counter, so event-loop threads never block each other.
+ */
+final class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerSuccess;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.depositPerSuccess = Math.max(1L, Math.round(ratio * SCALE));
+        this.capacity = maxTokens * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(depositPerSuccess, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    /**
+     * Spends one token if a whole one is banked.
+     */
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    double tokens() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,181 @@
+package com.code.platform.blob;
+
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileSystemBlobStore and BlobClient")
+class FileSystemBlobStoreTest {
+
+    static final byte[] DIFF = "diff --git a/file b/file\n@@ -1 +1 @@\n-foo\n+bar\n".repeat(1_000)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    SimpleMeterRegistry meterRegistry;
+    FileSystemBlobStore store;
+    BlobClient client;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new FileSystemBlobStore(directory);
+        client = new BlobClient(store, 1_000_000, new MetricsHelper(meterRegistry, "test"));
+    }
+
+    @Nested
+    @DisplayName("when storing")
+    class Storing {
+
+        @Test
+        @DisplayName("should key content by its SHA-256 and store it compressed")
+        void shouldStoreCompressedByDigest() throws IOException {
+            String digest = client.put(DIFF).block();
+
+            assertThat(digest).isEqualTo(BlobClient.digest(DIFF)).hasSize(64);
+            Path file = directory.resolve(digest.substring(0, 2)).resolve(digest + ".gz");
+            assertThat(file).exists();
+            assertThat(Files.size(file)).isLessThan(DIFF.length / 10);
+        }
+
+        @Test
+        @DisplayName("should store the same content once and leave no temporary files")
+        void shouldDeduplicate() throws IOException {
+            String first = client.put(DIFF).block();
+            String second = client.put(DIFF.clone()).block();
+
+            assertThat(second).isEqualTo(first);
+            try (Stream<Path> files = Files.walk(directory)) {
+                assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when reading")
+    class Reading {
+
+        @Test
+        @DisplayName("should return the stored content and cache it")
+        void shouldReadThroughCache() {
+            String digest = client.put(DIFF).block();
+
+            StepVerifier.create(client.get(digest))
+                    .assertNext(content -> assertThat(content).isEqualTo(DIFF))
+                    .verifyComplete();
+            StepVerifier.create(client.get(digest))
+                    .assertNext(content -> assertThat(content).isEqualTo(DIFF))
+                    .verifyComplete();
+
+            assertThat(meterRegistry.counter("test.blob.cache.miss").count()).isEqualTo(1);
+            assertThat(meterRegistry.counter("test.blob.cache.hit").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should fail with BlobNotFoundException for an unknown digest")
+        void shouldFailWhenMissing() {
+            String digest = BlobClient.digest("never stored".getBytes(StandardCharsets.UTF_8));
+
+            StepVerifier.create(client.get(digest))
+                    .expectErrorSatisfies(error -> assertThat(error).isInstanceOfSatisfying(BlobNotFoundException.class,
+                            e -> assertThat(e.getDigest()).isEqualTo(digest)))
+                    .verify();
+        }
+
+        @Test
+        @DisplayName("should reject content that does not match its digest")
+        void shouldRejectCorruptContent() {
+            String digest = BlobClient.digest(DIFF);
+            store.put(digest, "something else".getBytes(StandardCharsets.UTF_8)).block();
+
+            StepVerifier.create(client.get(digest)).expectError(IllegalStateException.class).verify();
+        }
+
+        @Test
+        @DisplayName("should refuse a digest that is not a path-safe SHA-256")
+        void shouldRejectInvalidDigest() {
+            StepVerifier.create(store.get("../../etc/passwd")).expectError(IllegalArgumentException.class).verify();
+            StepVerifier.create(store.put("../escape", DIFF)).expectError(IllegalArgumentException.class).verify();
+        }
+    }
+
+    @Nested
+    @DisplayName("when sweeping")
+    class Sweeping {
+
+        static final Duration RETENTION = Duration.ofDays(40);
+
+        @Test
+        @DisplayName("should delete blobs older than the retention and keep recent ones")
+        void shouldDeleteExpiredBlobs() throws IOException {
+            String expired = client.put(DIFF).block();
+            String recent = client.put("recent".getBytes(StandardCharsets.UTF_8)).block();
+            age(expired, RETENTION.plusDays(1));
+
+            int deleted = sweeper().sweep();
+
+            assertThat(deleted).isOne();
+            assertThat(blobFile(expired)).doesNotExist();
+            assertThat(blobFile(recent)).exists();
+            assertThat(meterRegistry.counter("test.blob.swept").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should keep a blob that was stored again within the retention")
+        void shouldKeepBlobStoredAgain() throws IOException {
+            String digest = client.put(DIFF).block();
+            age(digest, RETENTION.plusDays(1));
+
+            client.put(DIFF.clone()).block();
+            int deleted = sweeper().sweep();
+
+            assertThat(deleted).isZero();
+            StepVerifier.create(store.get(digest))
+                    .assertNext(content -> assertThat(content).isEqualTo(DIFF))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should delete temporary files a writer left behind")
+        void shouldDeleteAbandonedTemporaryFiles() throws IOException {
+            Path prefix = Files.createDirectories(directory.resolve("ab"));
+            Path temp = Files.createTempFile(prefix, "blob", ".tmp");
+            Files.setLastModifiedTime(temp, FileTime.from(Instant.now().minus(RETENTION.plusDays(1))));
+
+            int deleted = sweeper().sweep();
+
+            assertThat(deleted).isZero();
+            assertThat(temp).doesNotExist();
+        }
+
+        private BlobRetentionSweeper sweeper() {
+            return new BlobRetentionSweeper(store, RETENTION, Duration.ofHours(1),
+                    new MetricsHelper(meterRegistry, "test"));
+        }
+
+        private void age(String digest, Duration age) throws IOException {
+            Files.setLastModifiedTime(blobFile(digest), FileTime.from(Instant.now().minus(age)));
+        }
+
+        private Path blobFile(String digest) {
+            return directory.resolve(digest.substring(0, 2)).resolve(digest + ".gz");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.code.platform.compression;
+
+import com.code.events.EventHeaders;
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ZstdEventCodec")
+class ZstdEventCodecTest {
+
+    static final String TOPIC = "context.collected";
+    static final String DIFF = """
+            {"eventId":"5b0e6c1e-2f7a-4d0a-9f5e-0d6c1f3e2a11","diff":"diff --git a/src/main/java/com/example/OrderService.java \
+            b/src/main/java/com/example/OrderService.java\\nindex 3b18e51..a9c4f2d 100644\\n\
+            --- a/src/main/java/com/example/OrderService.java\\n+++ b/src/main/java/com/example/OrderService.java\\n\
+            @@ -12,7 +12,9 @@ public class OrderService {\\n     private final OrderRepository orderRepository;\\n\
+            -    public Order create(OrderRequest request) {\\n+    public Order create(OrderRequest request) {\\n\
+            +        if (request == null) {\\n+            throw new IllegalArgumentException(\\"request must not be null\\");\\n\
+            +        }\\n         return orderRepository.save(Order.from(request));\\n     }\\n","status":"COMPLETED"}""";
+
+    static byte[] dictionary;
+
+    SimpleMeterRegistry meterRegistry;
+    ZstdEventCodec codec;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        if (dictionary == null) {
+            try (InputStream in = ZstdEventCodecTest.class.getResourceAsStream("/com/code/events/zstd/diffs-v1.dict")) {
+                dictionary = in.readAllBytes();
+            }
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        codec = new ZstdEventCodec(dictionary, List.of(), 3);
+    }
+
+    @Nested
+    @DisplayName("when compressing with a dictionary")
+    class WithDictionary {
+
+        @Test
+        @DisplayName("should round trip and beat zstd without the dictionary")
+        void shouldRoundTripSmaller() {
+            byte[] value = DIFF.getBytes(StandardCharsets.UTF_8);
+
+            byte[] compressed = codec.compress(value);
+
+            assertThat(codec.decompress(compressed)).isEqualTo(value);
+            assertThat(compressed.length).isLessThan(new ZstdEventCodec(null, List.of(), 3).compress(value).length);
+        }
+
+        @Test
+        @DisplayName("should still read frames compressed with a retired dictionary")
+        void shouldReadRetiredDictionary() {
+            byte[] frame = codec.compress(DIFF.getBytes(StandardCharsets.UTF_8));
+            ZstdEventCodec retrained = new ZstdEventCodec(null, List.of(dictionary), 3);
+
+            assertThat(retrained.decompress(frame)).isEqualTo(DIFF.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("should refuse frames that need a dictionary it does not have")
+        void shouldRejectUnknownDictionary() {
+            byte[] frame = codec.compress(DIFF.getBytes(StandardCharsets.UTF_8));
+            ZstdEventCodec withoutDictionary = new ZstdEventCodec(null, List.of(), 3);
+
+            assertThatThrownBy(() -> withoutDictionary.decompress(frame))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(String.valueOf(codec.dictionaryId()));
+        }
+    }
+
+    @Nested
+    @DisplayName("when used by Kafka clients")
+    class OnTheWire {
+
+        CompressingSerializer<String> serializer;
+        DecompressingDeserializer<String> deserializer;
+
+        @BeforeEach
+        void setUp() {
+            serializer = new CompressingSerializer<>(new StringSerializer(), codec, 256,
+                    new MetricsHelper(meterRegistry, "test"));
+            deserializer = new DecompressingDeserializer<>(new StringDeserializer(), codec);
+        }
+
+        @Test
+        @DisplayName("should mark compressed values and restore them for the configured deserializer")
+        void shouldRoundTrip() {
+            Headers headers = new RecordHeaders();
+
+            byte[] value = serializer.serialize(TOPIC, headers, DIFF);
+
+            assertThat(value.length).isLessThan(DIFF.length());
+            assertThat(new String(headers.lastHeader(EventHeaders.CONTENT_ENCODING).value(), StandardCharsets.UTF_8))
+                    .isEqualTo(ZstdEventCodec.ENCODING);
+            assertThat(deserializer.deserialize(TOPIC, headers, value)).isEqualTo(DIFF);
+            assertThat(meterRegistry.counter("test.event.compression.raw_bytes", "topic", TOPIC).count())
+                    .isEqualTo(DIFF.length());
+        }
+
+        @Test
+        @DisplayName("should send small values as they are")
+        void shouldSkipSmallValues() {
+            Headers headers = new RecordHeaders();
+
+            byte[] value = serializer.serialize(TOPIC, headers, "{\"status\":\"SKIPPED\"}");
+
+            assertThat(new String(value, StandardCharsets.UTF_8)).isEqualTo("{\"status\":\"SKIPPED\"}");
+            assertThat(headers.lastHeader(EventHeaders.CONTENT_ENCODING)).isNull();
+        }
+
+        @Test
+        @DisplayName("should pass records from producers that do not compress straight through")
+        void shouldReadPlainRecords() {
+            byte[] plain = DIFF.getBytes(StandardCharsets.UTF_8);
+
+            assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), plain)).isEqualTo(DIFF);
+        }
+
+        @Test
+        @DisplayName("should fail on an encoding it does not know")
+        void shouldRejectUnknownEncoding() {
+            Headers headers = new RecordHeaders().add(EventHeaders.CONTENT_ENCODING, "br".getBytes(StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, new byte[]{1, 2, 3}))
+                    .isInstanceOf(SerializationException.class);
+        }
+
+        @Test
+        @DisplayName("should fail on a value that is not a zstd frame")
+        void shouldRejectCorruptValue() {
+            Headers headers = new RecordHeaders().add(EventHeaders.CONTENT_ENCODING,
+                    ZstdEventCodec.ENCODING.getBytes(StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, DIFF.getBytes(StandardCharsets.UTF_8)))
+                    .isInstanceOf(SerializationException.class);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.code.platform.consumer;
+
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeyOrderedMessageListener")
+class KeyOrderedMessageListenerTest {
+
+    static final String TOPIC = "context.collected";
+    static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+    static final long WAIT_MILLIS = 5_000;
+
+    record Delivery(ConsumerRecord<Object, Object> record, Acknowledgment ack, String thread) {
+    }
+
+    SimpleMeterRegistry meterRegistry;
+    ConcurrentMessageListenerContainer<Object, Object> container;
+    List<String> rebalanceCalls;
+    ConsumerAwareRebalanceListener rebalanceListener;
+    Consumer<?, ?> consumer;
+    BlockingQueue<Delivery> deliveries;
+    List<Long> committed;
+    CommonErrorHandler errorHandler;
+    Duration ackTimeout;
+    KeyOrderedMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Never started: pause and resume only record the request
+        container = new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(Map.of()),
+                new ContainerProperties(TOPIC));
+        container.setBeanName("test-listener");
+        rebalanceCalls = new CopyOnWriteArrayList<>();
+        rebalanceListener = new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                rebalanceCalls.add("assigned " + partitions);
+            }
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                rebalanceCalls.add("revoked " + partitions);
+            }
+        };
+        consumer = null;
+        deliveries = new LinkedBlockingQueue<>();
+        committed = new CopyOnWriteArrayList<>();
+        errorHandler = new DefaultErrorHandler();
+        ackTimeout = Duration.ofMinutes(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (listener != null) {
+            listener.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("when records complete out of order")
+    class OffsetTracking {
+
+        @Test
+        @DisplayName("should commit only up to the lowest incomplete record")
+        void shouldCommitUpToLowestIncomplete() throws InterruptedException {
+            listener = listener(64, Duration.ofSeconds(5), null);
+            deliver(0, "a");
+            deliver(1, "b");
+            deliver(2, "c");
+            Map<Long, Delivery> running = byOffset(List.of(next(), next(), next()));
+
+            running.get(2L).ack().acknowledge();
+            running.get(1L).ack().acknowledge();
+            assertThat(committed).isEmpty();
+
+            running.get(0L).ack().acknowledge();
+
+            // Acknowledging offset 2 commits 3, which covers the records before it
+            assertThat(committed).containsExactly(2L);
+            assertThat(listener.inFlight()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("when the listener fails")
+    class Failures {
+
+        @Test
+        @DisplayName("should retry a failed record on its key, without committing or skipping it")
+        void shouldRetryFailedRecord() throws InterruptedException {
+            errorHandler = new DefaultErrorHandler(new FixedBackOff(10, 5));
+            AtomicInteger attempts = new AtomicInteger();
+            listener = listener((record, ack, consumer) -> {
+                if (record.offset() == 0 && attempts.incrementAndGet() < 3) {
+                    throw new IllegalStateException("boom");
+                }
+                deliveries.add(new Delivery(record, ack, Thread.currentThread().getName()));
+            });
+            deliver(0, "a");
+            deliver(1, "a");
+
+            Delivery retried = next();
+            assertThat(retried.record().offset()).isZero();
+            assertThat(attempts).hasValue(3);
+            assertThat(committed).isEmpty();
+            assertThat(deliveries.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+            retried.ack().acknowledge();
+            next().ack().acknowledge();
+
+            assertThat(committed).containsExactly(0L, 1L);
+            assertThat(meterRegistry.counter("test.kafka.parallel.failed", "listener", "test-listener").count())
+                    .isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should keep a failing record uncommitted while the error handler retries it")
+        void shouldHoldFailingRecord() throws InterruptedException {
+            errorHandler = new DefaultErrorHandler(new FixedBackOff(10, FixedBackOff.UNLIMITED_ATTEMPTS));
+            AtomicInteger attempts = new AtomicInteger();
+            listener = listener((record, ack, consumer) -> {
+                if (record.offset() == 0) {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("boom");
+                }
+                deliveries.add(new Delivery(record, ack, Thread.currentThread().getName()));
+            });
+            deliver(0, "a");
+            deliver(1, "b");
+
+            next().ack().acknowledge();
+            Thread.sleep(200);
+
+            assertThat(attempts.get()).isGreaterThan(2);
+            assertThat(committed).isEmpty();
+            assertThat(listener.inFlight()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should commit a failed record once the error handler recovers it")
+        void shouldCommitRecoveredRecord() throws InterruptedException {
+            List<Long> recovered = new CopyOnWriteArrayList<>();
+            errorHandler = new DefaultErrorHandler((record, e) -> recovered.add(record.offset()), new FixedBackOff(0, 0));
+            listener = listener((record, ack, consumer) -> {
+                if ("boom".equals(record.value())) {
+                    throw new IllegalStateException("boom");
+                }
+                deliveries.add(new Delivery(record, ack, Thread.currentThread().getName()));
+            });
+            listener.onMessage(record(0, "a", "boom"), containerAck(0), consumer);
+            deliver(1, "a");
+
+            next().ack().acknowledge();
+
+            // The recovered record is complete, so it commits before the next one runs
+            assertThat(recovered).containsExactly(0L);
+            assertThat(committed).containsExactly(0L, 1L);
+        }
+
+        @Test
+        @DisplayName("should hand a record not acknowledged in time to the error handler")
+        void shouldRetryUnacknowledgedRecord() throws InterruptedException {
+            errorHandler = new DefaultErrorHandler(new FixedBackOff(0, 1));
+            ackTimeout = Duration.ofMillis(100);
+            listener = listener(64, Duration.ofSeconds(5), null);
+            deliver(0, "a");
+
+            Delivery unacknowledged = next();
+            Delivery redelivered = next();
+            assertThat(redelivered.record().offset()).isZero();
+            assertThat(committed).isEmpty();
+
+            redelivered.ack().acknowledge();
+            unacknowledged.ack().acknowledge();
+
+            assertThat(committed).containsExactly(0L);
+            assertThat(meterRegistry.counter("test.kafka.parallel.ack_timeout", "listener", "test-listener").count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("when records share a key")
+    class KeyOrdering {
+
+        @Test
+        @DisplayName("should run them one at a time, in offset order, while other keys run alongside")
+        void shouldRunSameKeyInOrder() throws InterruptedException {
+            listener = listener(64, Duration.ofSeconds(5), null);
+            deliver(0, "a");
+            deliver(1, "a");
+            deliver(2, "b");
+
+            Map<Long, Delivery> running = byOffset(List.of(next(), next()));
+            assertThat(running).containsOnlyKeys(0L, 2L);
+            assertThat(deliveries.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+            running.get(0L).ack().acknowledge();
+
+            assertThat(next().record().offset()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should run the record interceptor on the worker, around the listener")
+        void shouldInterceptOnWorker() throws Exception {
+            CompletableFuture<String> interceptedOn = new CompletableFuture<>();
+            CompletableFuture<String> afterRecordOn = new CompletableFuture<>();
+            listener = listener(64, Duration.ofSeconds(5), new RecordInterceptor<>() {
+                @Override
+                public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                                Consumer<Object, Object> consumer) {
+                    interceptedOn.complete(Thread.currentThread().getName());
+                    return record;
+                }
+
+                @Override
+                public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+                    afterRecordOn.complete(Thread.currentThread().getName());
+                }
+            });
+
+            deliver(0, "a");
+
+            String worker = next().thread();
+            assertThat(worker).startsWith("test-listener-parallel-");
+            assertThat(interceptedOn.get(WAIT_MILLIS, TimeUnit.MILLISECONDS)).isEqualTo(worker);
+            assertThat(afterRecordOn.get(WAIT_MILLIS, TimeUnit.MILLISECONDS)).isEqualTo(worker);
+        }
+    }
+
+    @Nested
+    @DisplayName("when the in-flight limit is reached")
+    class Backpressure {
+
+        @Test
+        @DisplayName("should pause the container and resume it once half the records have completed")
+        void shouldPauseAndResume() throws InterruptedException {
+            listener = listener(4, Duration.ofSeconds(5), null);
+            for (int offset = 0; offset < 4; offset++) {
+                deliver(offset, "key-" + offset);
+            }
+            assertThat(container.isPauseRequested()).isTrue();
+            Map<Long, Delivery> running = byOffset(List.of(next(), next(), next(), next()));
+
+            running.get(3L).ack().acknowledge();
+            assertThat(container.isPauseRequested()).isTrue();
+            running.get(2L).ack().acknowledge();
+
+            assertThat(container.isPauseRequested()).isFalse();
+            assertThat(meterRegistry.counter("test.kafka.parallel.paused", "listener", "test-listener").count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("test.kafka.parallel.in_flight").gauge().value()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("when partitions are revoked")
+    class Rebalancing {
+
+        @Test
+        @DisplayName("should drop queued records and wait for running ones before the commit")
+        void shouldDrainBeforeCommit() throws InterruptedException {
+            listener = listener(64, Duration.ofSeconds(5), null);
+            deliver(0, "a");
+            deliver(1, "a");
+            Delivery running = next();
+
+            CompletableFuture.runAsync(() -> running.ack().acknowledge(),
+                    CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+            listener.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+
+            assertThat(committed).containsExactly(0L);
+            assertThat(rebalanceCalls).containsExactly("revoked " + List.of(PARTITION));
+            assertThat(deliveries.poll(100, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(listener.inFlight()).isZero();
+        }
+
+        @Test
+        @DisplayName("should leave records still running after the drain timeout uncommitted")
+        void shouldNotCommitAbandonedRecords() throws InterruptedException {
+            listener = listener(64, Duration.ofMillis(50), null);
+            deliver(0, "a");
+            Delivery running = next();
+
+            listener.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+            running.ack().acknowledge();
+
+            assertThat(committed).isEmpty();
+            assertThat(listener.inFlight()).isZero();
+        }
+
+        @Test
+        @DisplayName("should keep a key in order across a reassignment of its partition")
+        void shouldOrderRedeliveryAfterRunningRecord() throws InterruptedException {
+            listener = listener(64, Duration.ofMillis(50), null);
+            deliver(0, "a");
+            Delivery abandoned = next();
+            listener.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+            listener.onPartitionsAssigned(consumer, List.of(PARTITION));
+
+            deliver(0, "a");
+            assertThat(deliveries.poll(100, TimeUnit.MILLISECONDS)).isNull();
+            abandoned.ack().acknowledge();
+            next().ack().acknowledge();
+
+            // Only the redelivered record commits; the abandoned one was revoked before it finished
+            assertThat(committed).containsExactly(0L);
+            assertThat(rebalanceCalls).contains("assigned " + List.of(PARTITION));
+        }
+    }
+
+    private KeyOrderedMessageListener listener(int maxInFlight, Duration drainTimeout,
+                                               RecordInterceptor<Object, Object> interceptor) {
+        return new KeyOrderedMessageListener(
+                (record, ack, consumer) -> deliveries.add(new Delivery(record, ack, Thread.currentThread().getName())),
+                interceptor, rebalanceListener, errorHandler, container,
+                new ParallelConsumerProperties(true, 4, maxInFlight, drainTimeout, ackTimeout),
+                new MetricsHelper(meterRegistry, "test"));
+    }
+
+    private KeyOrderedMessageListener listener(AcknowledgingConsumerAwareMessageListener<Object, Object> delegate) {
+        return new KeyOrderedMessageListener(delegate, null, rebalanceListener, errorHandler, container,
+                new ParallelConsumerProperties(true, 4, 64, Duration.ofSeconds(5), ackTimeout),
+                new MetricsHelper(meterRegistry, "test"));
+    }
+
+    private void deliver(long offset, String key) {
+        listener.onMessage(record(offset, key, "value-" + offset), containerAck(offset), consumer);
+    }
+
+    private Acknowledgment containerAck(long offset) {
+        return () -> committed.add(offset);
+    }
+
+    private static ConsumerRecord<Object, Object> record(long offset, String key, String value) {
+        return new ConsumerRecord<>(TOPIC, PARTITION.partition(), offset, key, value);
+    }
+
+    private Delivery next() throws InterruptedException {
+        Delivery delivery = deliveries.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        assertThat(delivery).as("record delivered to the listener").isNotNull();
+        return delivery;
+    }
+
+    private static Map<Long, Delivery> byOffset(Iterable<Delivery> running) {
+        Map<Long, Delivery> byOffset = new HashMap<>();
+        running.forEach(delivery -> byOffset.put(delivery.record().offset(), delivery));
+        return byOffset;
+    }
+}
@@ -0,0 +1,132 @@
+package com.code.platform.encoding;
+
+import com.code.events.EventEnvelope;
+import com.code.events.EventHeaders;
+import com.code.events.review.ReviewCompletedEvent;
+import com.code.platform.envelope.EventEnvelopeHeaders;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Event encodings")
+class EventEncodingTest {
+
+    static final String TOPIC = "review.completed";
+    static final Map<String, Object> CONFIGS = Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.code.events.*");
+    static final ReviewCompletedEvent EVENT = new ReviewCompletedEvent("event-1", "review-1", "context-1", "owner",
+            "repo", 7, "## Review\n\n- `Foo.java`: \"quoted\" and\ttabbed\n\n```java\nint x = 1;\n```\n",
+            "openai", "gpt", "corr-1", Instant.parse("2025-11-20T10:15:30Z"));
+
+    @Test
+    @DisplayName("should have a schema on the classpath matching every shared event")
+    @SuppressWarnings("unchecked")
+    void everyEventShouldMatchItsSchema() {
+        LocalSchemaRegistry registry = LocalSchemaRegistry.fromClasspath();
+
+        for (Class<?> eventClass : EventEnvelope.eventClasses()) {
+            EventSchema schema = registry.find(EventEnvelope.eventType(eventClass), EventEnvelope.SCHEMA_VERSION)
+                    .orElseThrow(() -> new AssertionError("No schema for " + eventClass.getSimpleName()));
+            assertThat(schema.incompatibilities((Class<? extends Record>) eventClass))
+                    .as(eventClass.getSimpleName())
+                    .isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("when producers and consumers are mixed")
+    class MixedRollout {
+
+        SmileEventSerializer<Object> smileSerializer;
+        JsonSerializer<Object> jsonSerializer;
+        EventDeserializer<Object> deserializer;
+
+        @BeforeEach
+        void setUp() {
+            smileSerializer = new SmileEventSerializer<>();
+            smileSerializer.configure(CONFIGS, false);
+            jsonSerializer = new JsonSerializer<>();
+            jsonSerializer.configure(CONFIGS, false);
+            deserializer = new EventDeserializer<>();
+            deserializer.configure(CONFIGS, false);
+        }
+
+        @Test
+        @DisplayName("should read Smile records by their content-type")
+        void shouldReadSmile() {
+            Headers headers = stamped();
+
+            byte[] value = smileSerializer.serialize(TOPIC, headers, EVENT);
+
+            assertThat(new String(headers.lastHeader(EventHeaders.CONTENT_TYPE).value(), StandardCharsets.UTF_8))
+                    .isEqualTo(EventEncodings.SMILE);
+            assertThat(value.length).isLessThan(jsonSerializer.serialize(TOPIC, new RecordHeaders(), EVENT).length);
+            assertThat(deserializer.deserialize(TOPIC, headers, value)).isEqualTo(EVENT);
+        }
+
+        @Test
+        @DisplayName("should read JSON records from producers that have not switched")
+        void shouldReadJson() {
+            Headers headers = stamped();
+
+            byte[] value = jsonSerializer.serialize(TOPIC, headers, EVENT);
+
+            assertThat(deserializer.deserialize(TOPIC, headers, value)).isEqualTo(EVENT);
+        }
+
+        @Test
+        @DisplayName("should refuse Smile records of a schema it does not have")
+        void shouldRefuseUnknownSchema() {
+            Headers headers = stamped();
+            byte[] value = smileSerializer.serialize(TOPIC, headers, EVENT);
+            EventDeserializer<Object> withoutSchemas = new EventDeserializer<>(new LocalSchemaRegistry(List.of()));
+            withoutSchemas.configure(CONFIGS, false);
+
+            assertThatThrownBy(() -> withoutSchemas.deserialize(TOPIC, headers, value))
+                    .isInstanceOf(SerializationException.class)
+                    .hasMessageContaining("review-completed");
+        }
+
+        @Test
+        @DisplayName("should refuse a content-type it does not know")
+        void shouldRefuseUnknownContentType() {
+            Headers headers = new RecordHeaders().add(EventHeaders.CONTENT_TYPE,
+                    "application/avro".getBytes(StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, new byte[]{0}))
+                    .isInstanceOf(SerializationException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("should not send events that no longer match their schema")
+    void shouldRefuseToSendMismatchedEvents() {
+        EventSchema outdated = new EventSchema("review-completed", "1", Set.of("eventId", "reviewId"), Set.of("eventId"));
+        SmileEventSerializer<Object> serializer = new SmileEventSerializer<>(new LocalSchemaRegistry(List.of(outdated)));
+        serializer.configure(CONFIGS, false);
+
+        assertThatThrownBy(() -> serializer.serialize(TOPIC, new RecordHeaders(), EVENT))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("'reviewMarkdown' is not in the schema");
+    }
+
+    private static Headers stamped() {
+        Headers headers = new RecordHeaders();
+        EventEnvelopeHeaders.write(EventEnvelope.of(EVENT), headers);
+        return headers;
+    }
+}
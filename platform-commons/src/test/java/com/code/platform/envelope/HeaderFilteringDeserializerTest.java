@@ -0,0 +1,87 @@
+package com.code.platform.envelope;
+
+import com.code.events.EventEnvelope;
+import com.code.events.EventHeaders;
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.context.ContextCollectionStatus;
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HeaderFilteringDeserializer")
+class HeaderFilteringDeserializerTest {
+
+    static final String TOPIC = "context.collected";
+    static final byte[] VALUE = "{\"status\":\"COMPLETED\"}".getBytes(StandardCharsets.UTF_8);
+
+    SimpleMeterRegistry meterRegistry;
+    AtomicInteger parsed;
+    HeaderFilteringDeserializer<String> deserializer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        parsed = new AtomicInteger();
+        Deserializer<String> counting = new StringDeserializer() {
+            @Override
+            public String deserialize(String topic, Headers headers, byte[] data) {
+                parsed.incrementAndGet();
+                return super.deserialize(topic, headers, data);
+            }
+        };
+        deserializer = new HeaderFilteringDeserializer<>(counting,
+                List.of(RecordHeaderFilter.onTopic(TOPIC, envelope -> "COMPLETED".equals(envelope.status()))),
+                new MetricsHelper(meterRegistry, "test"));
+    }
+
+    @Test
+    @DisplayName("should skip matching records without calling the value deserializer")
+    void shouldSkipMatchingRecords() {
+        Headers headers = stamped(ContextCollectionStatus.COMPLETED);
+
+        assertThat(deserializer.deserialize(TOPIC, headers, VALUE)).isNull();
+        assertThat(parsed).hasValue(0);
+        assertThat(meterRegistry.counter("test.event.filter.skipped", "topic", TOPIC,
+                "event_type", "context-collected").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should deserialize records the filters do not match")
+    void shouldKeepOtherRecords() {
+        assertThat(deserializer.deserialize(TOPIC, stamped(ContextCollectionStatus.FAILED), VALUE)).isNotNull();
+        assertThat(deserializer.deserialize("review.completed", stamped(ContextCollectionStatus.COMPLETED), VALUE))
+                .isNotNull();
+        assertThat(parsed).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should deserialize records from producers that predate the envelope")
+    void shouldKeepRecordsWithoutEnvelope() {
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), VALUE)).isNotNull();
+        assertThat(parsed).hasValue(1);
+    }
+
+    // As the producer side writes them
+    private static Headers stamped(ContextCollectionStatus status) {
+        ContextCollectedEvent event = new ContextCollectedEvent("event-1", "context-1", "owner", "repo", 7, "title",
+                null, status, "corr-1", Instant.now(), false, null, null, null);
+        ProducerRecord<Object, Object> record = new EventEnvelopeInterceptor().onSend(new ProducerRecord<>(TOPIC, event));
+        assertThat(EventEnvelopeHeaders.read(record.headers())).isEqualTo(EventEnvelope.of(event));
+        assertThat(record.headers().lastHeader(EventHeaders.SCHEMA_VERSION)).isNotNull();
+        return record.headers();
+    }
+}
@@ -0,0 +1,264 @@
+package com.code.platform.github;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.test.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("GitHubRateLimiter")
+class GitHubRateLimiterTest {
+
+    static final URI FILES_URL = URI.create("https://api.github.com/repos/owner/repo/pulls/1/files");
+    static final URI COMMENTS_URL = URI.create("https://api.github.com/repos/owner/repo/issues/1/comments");
+    static final String TOKEN = "token abc";
+    static final Duration WINDOW = Duration.ofSeconds(1000);
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
+    StubExchange exchange;
+    GitHubRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        exchange = new StubExchange();
+        limiter = limiter(Duration.ofHours(1));
+    }
+
+    @Nested
+    @DisplayName("when the budget is unknown")
+    class Unknown {
+
+        @Test
+        @DisplayName("should send without waiting and learn the budget from the response")
+        void shouldLearnBudget() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 4321));
+
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(exchange.requests).hasSize(1);
+            assertThat(gauge("test.github.ratelimit.remaining")).isEqualTo(4321);
+            assertThat(gauge("test.github.ratelimit.reset_seconds")).isEqualTo(WINDOW.toSeconds());
+        }
+
+        @Test
+        @DisplayName("should keep a separate budget per credential")
+        void shouldTrackCredentialsSeparately() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 0));
+            exchange.respond(budget(HttpStatus.OK, 5000, 4000));
+
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+            send(HttpMethod.GET, FILES_URL, "token other");
+
+            assertThat(acquire(false, TOKEN)).isEqualTo(WINDOW.toMillis());
+            assertThat(acquire(false, "token other")).isZero();
+            assertThat(GitHubRateLimiter.credentialId(TOKEN))
+                    .hasSize(8)
+                    .isNotEqualTo(GitHubRateLimiter.credentialId("token other"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when prioritizing writes")
+    class Priorities {
+
+        @Test
+        @DisplayName("should hold reads at the reserve while writes go out")
+        void shouldKeepReserveForWrites() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 500));
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(acquire(true, TOKEN)).isZero();
+            assertThat(acquire(false, TOKEN)).isEqualTo(WINDOW.toMillis());
+        }
+
+        @Test
+        @DisplayName("should refuse a read that would wait longer than max wait without sending it")
+        void shouldRefuseLongWait() {
+            limiter = limiter(Duration.ofSeconds(30));
+            exchange.respond(budget(HttpStatus.OK, 5000, 500));
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            StepVerifier.create(limiter.filter(request(HttpMethod.GET, FILES_URL, TOKEN), exchange))
+                    .expectErrorSatisfies(error -> assertThat(error).isInstanceOfSatisfying(
+                            GitHubRateLimitException.class, e -> assertThat(e.getRetryAfter()).isEqualTo(WINDOW)))
+                    .verify();
+
+            assertThat(exchange.requests).hasSize(1);
+            assertThat(meterRegistry.counter("test.github.ratelimit.rejected", "priority", "read").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should count requests in flight against the budget")
+        void shouldCountInFlightRequests() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 2));
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(acquire(true, TOKEN)).isZero();
+            assertThat(acquire(true, TOKEN)).isZero();
+            assertThat(acquire(true, TOKEN)).isEqualTo(WINDOW.toMillis());
+        }
+    }
+
+    @Nested
+    @DisplayName("when the budget runs low")
+    class Pacing {
+
+        @Test
+        @DisplayName("should space reads evenly over the rest of the window")
+        void shouldPaceReads() {
+            exchange.respond(budget(HttpStatus.OK, 1000, 200));
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            // 100 reads above the reserve of 100, over 1000 seconds
+            assertThat(acquire(false, TOKEN)).isZero();
+            assertThat(acquire(false, TOKEN)).isEqualTo(10_000);
+            assertThat(acquire(true, TOKEN)).isZero();
+        }
+
+        @Test
+        @DisplayName("should delay the exchange itself")
+        void shouldDelayExchange() {
+            exchange.respond(budget(HttpStatus.OK, 1000, 200));
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+            acquire(false, TOKEN);
+            exchange.respond(budget(HttpStatus.OK, 1000, 198));
+
+            StepVerifier.withVirtualTime(() -> limiter.filter(request(HttpMethod.GET, FILES_URL, TOKEN), exchange))
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofSeconds(9))
+                    .thenAwait(Duration.ofSeconds(1))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            assertThat(meterRegistry.counter("test.github.ratelimit.delayed", "priority", "read").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should not let a late response raise the remaining budget")
+        void shouldIgnoreStaleRemaining() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 100));
+            exchange.respond(budget(HttpStatus.OK, 5000, 300));
+
+            send(HttpMethod.POST, COMMENTS_URL, TOKEN);
+            send(HttpMethod.POST, COMMENTS_URL, TOKEN);
+
+            assertThat(gauge("test.github.ratelimit.remaining")).isEqualTo(99);
+        }
+
+        @Test
+        @DisplayName("should start over when a new window is reported")
+        void shouldResetWithNewWindow() {
+            exchange.respond(budget(HttpStatus.OK, 5000, 0));
+            send(HttpMethod.POST, COMMENTS_URL, TOKEN);
+            clock.advance(WINDOW);
+            exchange.respond(budget(HttpStatus.OK, 5000, 4999));
+
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(gauge("test.github.ratelimit.remaining")).isEqualTo(4999);
+            assertThat(acquire(false, TOKEN)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("when GitHub rate limits a request")
+    class Limited {
+
+        @Test
+        @DisplayName("should pause every request for Retry-After")
+        void shouldHonorRetryAfter() {
+            exchange.respond(ClientResponse.create(HttpStatus.FORBIDDEN)
+                    .header(GitHubRateLimiter.LIMIT, "5000")
+                    .header(GitHubRateLimiter.REMAINING, "4000")
+                    .header(GitHubRateLimiter.RESET, reset())
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build());
+
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(acquire(true, TOKEN)).isEqualTo(60_000);
+        }
+
+        @Test
+        @DisplayName("should pause until the reset on an exhausted 403")
+        void shouldPauseUntilReset() {
+            exchange.respond(budget(HttpStatus.FORBIDDEN, 5000, 0));
+
+            send(HttpMethod.GET, FILES_URL, TOKEN);
+
+            assertThat(acquire(true, TOKEN)).isEqualTo(WINDOW.toMillis());
+        }
+    }
+
+    private GitHubRateLimiter limiter(Duration maxWait) {
+        return new GitHubRateLimiter(new GitHubProperties.RateLimit(true, 0.1, 0.25, maxWait),
+                new MetricsHelper(meterRegistry, "test"), clock);
+    }
+
+    private void send(HttpMethod method, URI url, String authorization) {
+        limiter.filter(request(method, url, authorization), exchange).block();
+    }
+
+    private long acquire(boolean write, String authorization) {
+        GitHubRateLimiter.Budget budget = limiter.budgetFor(authorization);
+        return budget == null ? 0 : budget.acquire(write, clock.millis(), Duration.ofHours(1).toMillis());
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private String reset() {
+        return String.valueOf(clock.instant().plus(WINDOW).getEpochSecond());
+    }
+
+    private ClientResponse budget(HttpStatus status, int limit, int remaining) {
+        return ClientResponse.create(status)
+                .header(GitHubRateLimiter.LIMIT, String.valueOf(limit))
+                .header(GitHubRateLimiter.REMAINING, String.valueOf(remaining))
+                .header(GitHubRateLimiter.RESET, reset())
+                .build();
+    }
+
+    private static ClientRequest request(HttpMethod method, URI url, String authorization) {
+        return ClientRequest.create(method, url)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .build();
+    }
+
+    static class StubExchange implements ExchangeFunction {
+
+        final List<ClientRequest> requests = new ArrayList<>();
+        final List<ClientResponse> responses = new ArrayList<>();
+
+        void respond(ClientResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public Mono<ClientResponse> exchange(ClientRequest request) {
+            requests.add(request);
+            return Mono.just(responses.remove(0));
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.code.platform.idempotency;
 
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.test.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("InMemoryIdempotencyStore")
 class InMemoryIdempotencyStoreTest {
 
+    private static final Duration LEASE = Duration.ofMinutes(10);
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
     InMemoryIdempotencyStore store;
 
     @BeforeEach
     void setUp() {
-        store = new InMemoryIdempotencyStore();
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        IdempotencyProperties properties = new IdempotencyProperties(
+                null, null, new IdempotencyProperties.Lease(LEASE, null), null, null);
+        store = new InMemoryIdempotencyStore(properties, new MetricsHelper(meterRegistry, "test"), clock);
     }
 
     @Nested
@@ -72,4 +85,64 @@ class InMemoryIdempotencyStoreTest {
             store.markProcessed(null);
         }
     }
+
+    @Nested
+    @DisplayName("lease")
+    class Lease {
+
+        @Test
+        @DisplayName("should treat event as duplicate while its lease is live")
+        void shouldRejectWhileLeaseIsLive() {
+            store.tryStart("event-1");
+
+            clock.advance(LEASE.minusMillis(1));
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should reclaim event whose lease expired and count it")
+        void shouldReclaimExpiredLease() {
+            store.tryStart("event-1");
+            clock.advance(LEASE);
+
+            assertThat(meterRegistry.get("test.idempotency.lease.stuck").gauge().value()).isEqualTo(1);
+            assertThat(store.tryStart("event-1")).isTrue();
+            assertThat(meterRegistry.get("test.idempotency.lease.reclaimed").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("test.idempotency.lease.stuck").gauge().value()).isZero();
+        }
+
+        @Test
+        @DisplayName("should keep renewed lease from being reclaimed")
+        void shouldKeepRenewedLease() {
+            store.tryStart("event-1");
+            clock.advance(LEASE.minusMinutes(1));
+
+            assertThat(store.renew("event-1")).isTrue();
+            clock.advance(LEASE.minusMinutes(1));
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should not renew processed or unknown events")
+        void shouldNotRenewProcessedOrUnknownEvents() {
+            store.tryStart("event-1");
+            store.markProcessed("event-1");
+
+            assertThat(store.renew("event-1")).isFalse();
+            assertThat(store.renew("event-2")).isFalse();
+            assertThat(store.renew(null)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should never reclaim processed events")
+        void shouldNeverReclaimProcessedEvents() {
+            store.tryStart("event-1");
+            store.markProcessed("event-1");
+            clock.advance(LEASE.multipliedBy(2));
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+    }
 }
@@ -0,0 +1,326 @@
+package com.code.platform.idempotency;
+
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KafkaIdempotencyStore")
+class KafkaIdempotencyStoreTest {
+
+    static final String CHANGELOG = "test.idempotency";
+    private static final String SOURCE = "pr.received";
+
+    // Started once for the outer class, so every nested class shares it
+    static EmbeddedKafkaBroker broker;
+
+    SimpleMeterRegistry meterRegistry;
+    List<KafkaIdempotencyStore> stores = new ArrayList<>();
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 2, CHANGELOG);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(KafkaIdempotencyStore::close);
+    }
+
+    @Nested
+    @DisplayName("tryStart")
+    class TryStart {
+
+        @Test
+        @DisplayName("should return false for duplicate event on the same partition")
+        void shouldReturnFalseForDuplicateEvent() {
+            KafkaIdempotencyStore store = startStore(0);
+            String eventId = eventId();
+
+            store.bind(0);
+            assertThat(store.tryStart(eventId)).isTrue();
+            assertThat(store.tryStart(eventId)).isFalse();
+            store.unbind();
+        }
+
+        @Test
+        @DisplayName("should return true for null eventId")
+        void shouldReturnTrueForNullEventId() {
+            KafkaIdempotencyStore store = startStore(0);
+
+            assertThat(store.tryStart(null)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should fall back to hashing the eventId when no partition is bound")
+        void shouldFallBackToHashingWhenUnbound() {
+            KafkaIdempotencyStore store = newStore();
+            String eventId = eventId();
+
+            assertThat(store.tryStart(eventId)).isTrue();
+            assertThat(store.tryStart(eventId)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("restore")
+    class Restore {
+
+        @Test
+        @DisplayName("should reject events processed by a previous instance after assignment")
+        void shouldRejectEventsProcessedByPreviousInstance() {
+            KafkaIdempotencyStore first = startStore(0);
+            String eventId = eventId();
+            first.bind(0);
+            first.tryStart(eventId);
+            first.unbind();
+            first.markProcessed(eventId);
+            stop(first);
+
+            KafkaIdempotencyStore second = startStore(0);
+            second.bind(0);
+            assertThat(second.tryStart(eventId)).isFalse();
+            second.unbind();
+        }
+
+        @Test
+        @DisplayName("should accept redelivery of an event released by a previous instance")
+        void shouldAcceptReleasedEvent() {
+            KafkaIdempotencyStore first = startStore(1);
+            String eventId = eventId();
+            first.bind(1);
+            first.tryStart(eventId);
+            first.unbind();
+            first.release(eventId);
+            stop(first);
+
+            KafkaIdempotencyStore second = startStore(1);
+            second.bind(1);
+            assertThat(second.tryStart(eventId)).isTrue();
+            second.unbind();
+        }
+    }
+
+    @Nested
+    @DisplayName("unbound callers")
+    class Unbound {
+
+        @Test
+        @DisplayName("should see a key another running instance wrote after both restored the partition")
+        void shouldSeeKeysWrittenByOtherInstanceAfterRestore() throws InterruptedException {
+            String eventId = eventId();
+            String earlier = eventIdInSamePartition(eventId);
+            KafkaIdempotencyStore first = newStore();
+            SimpleMeterRegistry secondRegistry = new SimpleMeterRegistry();
+            KafkaIdempotencyStore second = newStore(Duration.ofMinutes(10), secondRegistry);
+            assertThat(second.tryStart(earlier)).isTrue();
+            double restored = entries(secondRegistry);
+
+            assertThat(first.tryStart(eventId)).isTrue();
+            first.markProcessed(eventId);
+
+            // The second instance restored the partition before the key was written
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (entries(secondRegistry) <= restored && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(second.tryStart(eventId)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should hold only the configured unbound partitions however many event ids it sees")
+        void shouldHoldOnlyConfiguredUnboundPartitions() {
+            KafkaIdempotencyStore store = newStore(Duration.ofMinutes(10), meterRegistry, List.of(1));
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(store.tryStart(eventId())).isTrue();
+            }
+
+            assertThat(ownedPartitions()).isEqualTo(1);
+            store.assigned(List.of(new TopicPartition(SOURCE, 0)));
+            store.revoked(List.of(new TopicPartition(SOURCE, 0)));
+            store.assigned(List.of());
+            assertThat(ownedPartitions()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("lease")
+    class Lease {
+
+        @Test
+        @DisplayName("should reclaim an in-progress event left behind by a crashed instance once its lease expires")
+        void shouldReclaimStuckEventAfterLease() throws InterruptedException {
+            KafkaIdempotencyStore crashed = startStore(0, Duration.ofMillis(200));
+            String eventId = eventId();
+            crashed.bind(0);
+            crashed.tryStart(eventId);
+            crashed.unbind();
+            stop(crashed);
+
+            KafkaIdempotencyStore next = startStore(0, Duration.ofMillis(200));
+            Thread.sleep(250);
+
+            next.bind(0);
+            assertThat(next.tryStart(eventId)).isTrue();
+            next.unbind();
+            assertThat(meterRegistry.get("test.idempotency.lease.reclaimed").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should renew the lease of an owned in-progress event")
+        void shouldRenewOwnedEvent() {
+            KafkaIdempotencyStore store = startStore(1);
+            String eventId = eventId();
+            store.bind(1);
+            store.tryStart(eventId);
+            store.unbind();
+
+            assertThat(store.renew(eventId)).isTrue();
+
+            store.markProcessed(eventId);
+            assertThat(store.renew(eventId)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("rebalance")
+    class Rebalance {
+
+        @Test
+        @DisplayName("should only hold changelog partitions for assigned source partitions")
+        void shouldOnlyHoldAssignedPartitions() {
+            KafkaIdempotencyStore store = startStore(0);
+            assertThat(ownedPartitions()).isEqualTo(1);
+
+            store.assigned(List.of(new TopicPartition(SOURCE, 1)));
+            assertThat(ownedPartitions()).isEqualTo(2);
+
+            store.revoked(List.of(new TopicPartition(SOURCE, 0)));
+            store.assigned(List.of());
+            assertThat(ownedPartitions()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should release state when partitions are lost")
+        void shouldReleaseLostPartitions() {
+            KafkaIdempotencyStore store = startStore(0);
+
+            store.lost(List.of(new TopicPartition(SOURCE, 0)));
+
+            assertThat(ownedPartitions()).isZero();
+        }
+    }
+
+    private KafkaIdempotencyStore startStore(int sourcePartition) {
+        return startStore(sourcePartition, Duration.ofMinutes(10));
+    }
+
+    private KafkaIdempotencyStore startStore(int sourcePartition, Duration lease) {
+        KafkaIdempotencyStore store = newStore(lease);
+        store.assigned(List.of(new TopicPartition(SOURCE, sourcePartition)));
+        return store;
+    }
+
+    private void stop(KafkaIdempotencyStore store) {
+        store.close();
+        stores.remove(store);
+    }
+
+    private KafkaIdempotencyStore newStore() {
+        return newStore(Duration.ofMinutes(10));
+    }
+
+    private KafkaIdempotencyStore newStore(Duration lease) {
+        return newStore(lease, meterRegistry);
+    }
+
+    private KafkaIdempotencyStore newStore(Duration lease, SimpleMeterRegistry registry) {
+        return newStore(lease, registry, List.of(0, 1));
+    }
+
+    private KafkaIdempotencyStore newStore(Duration lease, SimpleMeterRegistry registry,
+                                           List<Integer> unboundPartitions) {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(broker.getBrokersAsString(), "unused", "false");
+        consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        IdempotencyProperties properties = new IdempotencyProperties(
+                IdempotencyProperties.StoreType.KAFKA,
+                Duration.ofHours(1),
+                new IdempotencyProperties.Lease(lease, null),
+                new IdempotencyProperties.Kafka(CHANGELOG, 2, (short) 1, Duration.ofSeconds(10),
+                        unboundPartitions),
+                null);
+
+        KafkaIdempotencyStore store = new KafkaIdempotencyStore(
+                new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker.getBrokersAsString()),
+                        new StringSerializer(), new StringSerializer()),
+                new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new StringDeserializer()),
+                properties,
+                new MetricsHelper(registry, "test"),
+                Clock.systemUTC());
+        stores.add(store);
+        return store;
+    }
+
+    private double ownedPartitions() {
+        return meterRegistry.get("test.idempotency.partitions.owned").gauge().value();
+    }
+
+    private static double entries(SimpleMeterRegistry registry) {
+        return registry.get("test.idempotency.entries").gauge().value();
+    }
+
+    private static String eventId() {
+        return UUID.randomUUID().toString();
+    }
+
+    // With both partitions unbound, callers pick one the way Kafka's default partitioner would
+    private static String eventIdInSamePartition(String eventId) {
+        int partition = changelogPartition(eventId);
+        String other;
+        do {
+            other = eventId();
+        } while (changelogPartition(other) != partition);
+        return other;
+    }
+
+    private static int changelogPartition(String eventId) {
+        return Utils.toPositive(Utils.murmur2(eventId.getBytes(StandardCharsets.UTF_8))) % 2;
+    }
+}
@@ -0,0 +1,314 @@
+package com.code.platform.idempotency;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.test.MutableClock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OffHeapIdempotencyStore")
+class OffHeapIdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(24);
+    private static final int BUCKETS = 4;
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
+    OffHeapIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        store = newStore(10_000, 0.01);
+    }
+
+    @Nested
+    @DisplayName("tryStart")
+    class TryStart {
+
+        @Test
+        @DisplayName("should return true for new event")
+        void shouldReturnTrueForNewEvent() {
+            assertThat(store.tryStart("event-1")).isTrue();
+        }
+
+        @Test
+        @DisplayName("should return false for duplicate event")
+        void shouldReturnFalseForDuplicateEvent() {
+            store.tryStart("event-1");
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should return true for null eventId")
+        void shouldReturnTrueForNullEventId() {
+            assertThat(store.tryStart(null)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should handle multiple distinct events")
+        void shouldHandleMultipleDistinctEvents() {
+            assertThat(store.tryStart("event-1")).isTrue();
+            assertThat(store.tryStart("event-2")).isTrue();
+            assertThat(store.tryStart("event-3")).isTrue();
+            assertThat(store.size()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("markProcessed and release")
+    class MarkProcessedAndRelease {
+
+        @Test
+        @DisplayName("should keep processed event as duplicate")
+        void shouldKeepProcessedEventAsDuplicate() {
+            store.tryStart("event-1");
+            store.markProcessed("event-1");
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should accept released event again")
+        void shouldAcceptReleasedEvent() {
+            store.tryStart("event-1");
+            store.release("event-1");
+
+            assertThat(store.tryStart("event-1")).isTrue();
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should handle null eventId gracefully")
+        void shouldHandleNullEventIdGracefully() {
+            store.markProcessed(null);
+            store.release(null);
+        }
+    }
+
+    @Nested
+    @DisplayName("lease")
+    class Lease {
+
+        private static final Duration LEASE = Duration.ofMinutes(10);
+
+        @Test
+        @DisplayName("should reclaim event whose lease expired and count it")
+        void shouldReclaimExpiredLease() {
+            store.tryStart("event-1");
+            clock.advance(LEASE);
+
+            assertThat(store.stuck()).isEqualTo(1);
+            assertThat(store.tryStart("event-1")).isTrue();
+            assertThat(counter("idempotency.lease.reclaimed")).isEqualTo(1);
+            assertThat(store.stuck()).isZero();
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should count only leases still in progress once expired")
+        void shouldCountOnlyExpiredInProgressLeases() {
+            store.tryStart("event-1");
+            store.tryStart("event-2");
+            store.tryStart("event-3");
+            store.markProcessed("event-2");
+            store.release("event-3");
+            clock.advance(LEASE);
+            store.tryStart("event-4");
+
+            assertThat(store.stuck()).isEqualTo(1);
+
+            clock.advance(TTL.plus(TTL.dividedBy(BUCKETS)));
+            store.tryStart("event-5");
+
+            // Wiping the buckets drops their leases from the count
+            assertThat(store.stuck()).isZero();
+        }
+
+        @Test
+        @DisplayName("should count expired leases while the store is locked")
+        void shouldCountWithoutStoreLock() throws Exception {
+            store.tryStart("event-1");
+            clock.advance(LEASE);
+            CountDownLatch locked = new CountDownLatch(1);
+            CountDownLatch unlock = new CountDownLatch(1);
+            Thread holder = new Thread(() -> {
+                synchronized (store) {
+                    locked.countDown();
+                    awaitQuietly(unlock);
+                }
+            });
+            holder.start();
+            locked.await();
+
+            try {
+                assertThat(CompletableFuture.supplyAsync(store::stuck).get(1, TimeUnit.SECONDS)).isEqualTo(1);
+            } finally {
+                unlock.countDown();
+                holder.join();
+            }
+        }
+
+        @Test
+        @DisplayName("should keep renewed lease from being reclaimed")
+        void shouldKeepRenewedLease() {
+            store.tryStart("event-1");
+            clock.advance(LEASE.minusMinutes(1));
+
+            assertThat(store.renew("event-1")).isTrue();
+            clock.advance(LEASE.minusMinutes(1));
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should not renew processed, released or unknown events")
+        void shouldNotRenewInactiveEvents() {
+            store.tryStart("event-1");
+            store.markProcessed("event-1");
+            store.tryStart("event-2");
+            store.release("event-2");
+
+            assertThat(store.renew("event-1")).isFalse();
+            assertThat(store.renew("event-2")).isFalse();
+            assertThat(store.renew("event-3")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("expiry")
+    class Expiry {
+
+        @Test
+        @DisplayName("should remember events for the full TTL")
+        void shouldRememberEventsForFullTtl() {
+            store.tryStart("event-1");
+            store.markProcessed("event-1");
+
+            clock.advance(TTL.minusMillis(1));
+
+            assertThat(store.tryStart("event-1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should forget events once TTL plus one bucket has passed")
+        void shouldForgetExpiredEvents() {
+            store.tryStart("event-1");
+
+            clock.advance(TTL.plus(TTL.dividedBy(BUCKETS)));
+
+            assertThat(store.tryStart("event-1")).isTrue();
+            assertThat(store.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should evict the oldest bucket early when the current one is full")
+        void shouldEvictOldestBucketWhenFull() {
+            OffHeapIdempotencyStore small = newStore(BUCKETS * 8, 0.01);
+
+            // 16 slots per bucket, full at 12; five buckets hold 60 before the first wraps
+            for (int i = 0; i < 61; i++) {
+                small.tryStart("event-" + i);
+            }
+
+            assertThat(counter("idempotency.evicted")).isEqualTo(12);
+            assertThat(small.tryStart("event-0")).isTrue();
+            assertThat(small.tryStart("event-60")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Bloom filter")
+    class Bloom {
+
+        @Test
+        @DisplayName("should keep the filter false-positive rate under the target at its design load")
+        void shouldKeepFilterFalsePositiveRateUnderTarget() {
+            int keys = 10_000;
+            double rate = 0.01;
+            BloomFilter filter = BloomFilter.create(keys, rate);
+            for (int i = 0; i < keys; i++) {
+                filter.put(OffHeapIdempotencyStore.hash("seen-" + i));
+            }
+
+            int probes = 100_000;
+            int hits = 0;
+            for (int i = 0; i < probes; i++) {
+                if (filter.mightContain(OffHeapIdempotencyStore.hash("unseen-" + i))) {
+                    hits++;
+                }
+            }
+
+            assertThat((double) hits / probes).isLessThan(rate);
+        }
+
+        @Test
+        @DisplayName("should answer unseen events under the configured rate with every bucket loaded")
+        void shouldKeepStoreFalsePositiveRateUnderConfiguredRate() {
+            int capacity = 200_000;
+            double rate = 0.01;
+            OffHeapIdempotencyStore loaded = newStore(capacity, rate);
+
+            // Spread the capacity over the live buckets as steady traffic would
+            for (int i = 0; i < capacity; i++) {
+                if (i > 0 && i % (capacity / BUCKETS) == 0) {
+                    clock.advance(TTL.dividedBy(BUCKETS));
+                }
+                loaded.tryStart("seen-" + i);
+            }
+
+            // Stays within the current bucket's headroom so no bucket is evicted while probing
+            double before = counter("idempotency.bloom.false_positive");
+            int probes = 40_000;
+            for (int i = 0; i < probes; i++) {
+                assertThat(loaded.tryStart("unseen-" + i)).isTrue();
+            }
+
+            assertThat(counter("idempotency.evicted")).isZero();
+            assertThat((counter("idempotency.bloom.false_positive") - before) / probes).isLessThan(rate);
+        }
+
+        @Test
+        @DisplayName("should size the filter from expected keys and rate")
+        void shouldSizeFilterFromExpectedKeysAndRate() {
+            BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+            // 9,586 bits optimal, rounded up to a power of two
+            assertThat(filter.bitSize()).isEqualTo(16_384);
+        }
+    }
+
+    private OffHeapIdempotencyStore newStore(int capacity, double falsePositiveRate) {
+        IdempotencyProperties properties = new IdempotencyProperties(
+                IdempotencyProperties.StoreType.OFFHEAP,
+                TTL,
+                null,
+                null,
+                new IdempotencyProperties.OffHeap(capacity, falsePositiveRate, BUCKETS));
+        return new OffHeapIdempotencyStore(properties, new MetricsHelper(meterRegistry, "test"), clock);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double counter(String name) {
+        Counter counter = meterRegistry.find("test." + name).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.code.platform.partitioning;
+
+import com.code.platform.consumer.ParallelConsumerCustomizer;
+import com.code.platform.consumer.ParallelConsumerProperties;
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PartitionKeys")
+class PartitionKeysTest {
+
+    static final int PARTITIONS = 6;
+    static final int PULL_REQUESTS = 8;
+    static final List<String> STAGES = List.of("received", "collected", "review-started", "review-completed");
+    static final String PER_PULL_REQUEST_TOPIC = "test.pull-request-keyed";
+    static final String PER_REPOSITORY_TOPIC = "test.repository-keyed";
+
+    // What the listener does with one stage of one pull request before acknowledging it
+    interface Stage {
+        void handle(int pullRequest, int stage) throws InterruptedException;
+    }
+
+    // Started once for the outer class, so every nested class shares it
+    static EmbeddedKafkaBroker broker;
+
+    ConcurrentMessageListenerContainer<Object, Object> container;
+    ParallelConsumerCustomizer customizer;
+    final Map<Integer, List<Integer>> stagesByPullRequest = new ConcurrentHashMap<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    CountDownLatch consumed;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, PER_PULL_REQUEST_TOPIC, PER_REPOSITORY_TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (container != null) {
+            container.stop();
+            customizer.destroy();
+        }
+    }
+
+    @Nested
+    @DisplayName("when keying per pull request")
+    class PerPullRequest {
+
+        PartitionKeys keys = new PartitionKeys(new PartitioningProperties(null, null));
+
+        @Test
+        @DisplayName("should consume one repository's pull requests concurrently, each in stage order")
+        void shouldConsumeRepositoryConcurrentlyAndPullRequestsInOrder() throws InterruptedException {
+            // The first stage of pull requests 1 and 2 only finishes once both are running
+            CountDownLatch bothRunning = new CountDownLatch(2);
+            List<Boolean> ranTogether = new CopyOnWriteArrayList<>();
+            consume(PER_PULL_REQUEST_TOPIC, (pullRequest, stage) -> {
+                if (stage == 0 && pullRequest <= 2) {
+                    bothRunning.countDown();
+                    ranTogether.add(bothRunning.await(5, TimeUnit.SECONDS));
+                }
+            });
+
+            publishInterleaved(keys, PER_PULL_REQUEST_TOPIC);
+
+            awaitConsumed();
+            assertThat(ranTogether).containsExactly(true, true);
+            assertStagesInOrder();
+        }
+
+        @Test
+        @DisplayName("should fall back to the repository without a pull request number")
+        void shouldKeyRepositoryWithoutNumber() {
+            assertThat(keys.key("org", "monorepo", null)).isEqualTo("org/monorepo");
+            assertThat(keys.key("org", "monorepo", 7)).isEqualTo("org/monorepo/7");
+        }
+    }
+
+    @Nested
+    @DisplayName("when keying per repository")
+    class PerRepository {
+
+        @Test
+        @DisplayName("should consume an ordinary repository one event at a time, each pull request in order")
+        void shouldSerializeOrdinaryRepository() throws InterruptedException {
+            PartitionKeys keys = new PartitionKeys(new PartitioningProperties(
+                    PartitioningProperties.KeyStrategy.REPOSITORY, Map.of("org/other", 4)));
+            consume(PER_REPOSITORY_TOPIC, (pullRequest, stage) -> Thread.sleep(10));
+
+            publishInterleaved(keys, PER_REPOSITORY_TOPIC);
+
+            awaitConsumed();
+            assertThat(maxInFlight).hasValue(1);
+            assertStagesInOrder();
+        }
+
+        @Test
+        @DisplayName("should spread a hot repository over as many keys as its weight")
+        void shouldSpreadHotRepository() {
+            PartitionKeys keys = new PartitionKeys(new PartitioningProperties(
+                    PartitioningProperties.KeyStrategy.REPOSITORY, Map.of("org/monorepo", 4)));
+
+            Set<String> distinct = new HashSet<>();
+            for (int pullRequest = 1; pullRequest <= 24; pullRequest++) {
+                distinct.add(keys.key("org", "monorepo", pullRequest));
+            }
+
+            assertThat(distinct).hasSize(4);
+            assertThat(keys.key("org", "monorepo", 5)).isEqualTo(keys.key("org", "monorepo", 5));
+        }
+    }
+
+    /**
+     * Every stage of every pull request of one repository, sent stage by stage so pull requests
+     * interleave the way concurrent ones do, keyed as the services' publishers key them.
+     */
+    private static void publishInterleaved(PartitionKeys keys, String topic) {
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(broker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer()));
+        try {
+            for (int stage = 0; stage < STAGES.size(); stage++) {
+                for (int pullRequest = 1; pullRequest <= PULL_REQUESTS; pullRequest++) {
+                    template.send(topic, keys.key("org", "monorepo", pullRequest), pullRequest + ":" + stage);
+                }
+            }
+            template.flush();
+        } finally {
+            template.destroy();
+        }
+    }
+
+    /**
+     * Consumes the topic the way the services do with parallel consumption enabled: one consumer
+     * for every partition, in a MANUAL ack mode, behind the {@link ParallelConsumerCustomizer}.
+     */
+    @SuppressWarnings("unchecked")
+    private void consume(String topic, Stage stage) {
+        consumed = new CountDownLatch(PULL_REQUESTS * STAGES.size());
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(broker.getBrokersAsString(),
+                "test-" + UUID.randomUUID(), "false");
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setMessageListener((AcknowledgingConsumerAwareMessageListener<Object, Object>)
+                (record, ack, consumer) -> {
+                    String[] event = ((String) record.value()).split(":");
+                    int pullRequest = Integer.parseInt(event[0]);
+                    int index = Integer.parseInt(event[1]);
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        stage.handle(pullRequest, index);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    stagesByPullRequest.computeIfAbsent(pullRequest, key -> new CopyOnWriteArrayList<>()).add(index);
+                    ack.acknowledge();
+                    consumed.countDown();
+                });
+        container = new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(consumerProps),
+                containerProperties);
+        container.setBeanName("test-listener");
+
+        ObjectProvider<RecordInterceptor<Object, Object>> noInterceptor =
+                (ObjectProvider<RecordInterceptor<Object, Object>>) (ObjectProvider<?>)
+                        new DefaultListableBeanFactory().getBeanProvider(RecordInterceptor.class);
+        customizer = new ParallelConsumerCustomizer(new ParallelConsumerProperties(true, 4, 64,
+                Duration.ofSeconds(5), null), noInterceptor, new MetricsHelper(new SimpleMeterRegistry(), "test"));
+        customizer.configure(container);
+        container.start();
+    }
+
+    private void awaitConsumed() throws InterruptedException {
+        assertThat(consumed.await(30, TimeUnit.SECONDS)).as("every event consumed").isTrue();
+    }
+
+    private void assertStagesInOrder() {
+        List<Integer> allStages = IntStream.range(0, STAGES.size()).boxed().toList();
+        assertThat(stagesByPullRequest).hasSize(PULL_REQUESTS);
+        stagesByPullRequest.forEach((pullRequest, stages) -> assertThat(stages)
+                .as("stages of pull request %d", pullRequest)
+                .isEqualTo(allStages));
+    }
+}
@@ -0,0 +1,334 @@
+package com.code.platform.resilience;
+
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.test.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ResiliencePolicy")
+class ResiliencePolicyTest {
+
+    static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
+    AtomicInteger attempts;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        attempts = new AtomicInteger();
+    }
+
+    @Nested
+    @DisplayName("when the dependency keeps failing")
+    class CircuitBreaking {
+
+        @Test
+        @DisplayName("should open once the failure rate is reached and reject without calling")
+        void shouldOpenAndReject() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(0.5, 4, 4, OPEN_DURATION, 2), 10, 10);
+
+            succeed(policy);
+            succeed(policy);
+            fail(policy, serverError());
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            fail(policy, serverError());
+
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+            StepVerifier.create(policy.protect(call(Mono.just("ok"))))
+                    .expectErrorSatisfies(error -> assertThat(error).isInstanceOfSatisfying(CallRejectedException.class,
+                            e -> assertThat(e.getReason()).isEqualTo(CallRejectedException.Reason.CIRCUIT_OPEN)))
+                    .verify();
+            assertThat(attempts).hasValue(4);
+            assertThat(counter("test.resilience.rejected", "reason", "circuit_open")).isEqualTo(1);
+            assertThat(counter("test.resilience.circuit.transition", "from", "closed", "to", "open")).isEqualTo(1);
+            assertThat(meterRegistry.get("test.resilience.circuit.state").gauge().value()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should not count client errors against the dependency")
+        void shouldIgnoreClientErrors() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(0.5, 4, 4, OPEN_DURATION, 2), 10, 10);
+
+            for (int i = 0; i < 4; i++) {
+                fail(policy, WebClientResponseException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null, null));
+            }
+
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        @DisplayName("should close again after the trial calls succeed")
+        void shouldCloseAfterTrialCalls() {
+            ResiliencePolicy policy = open();
+            clock.advance(OPEN_DURATION);
+
+            succeed(policy);
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+            succeed(policy);
+
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(counter("test.resilience.circuit.transition", "from", "open", "to", "half_open")).isEqualTo(1);
+            assertThat(counter("test.resilience.circuit.transition", "from", "half_open", "to", "closed")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should reopen when a trial call fails")
+        void shouldReopenOnTrialFailure() {
+            ResiliencePolicy policy = open();
+            clock.advance(OPEN_DURATION);
+
+            fail(policy, serverError());
+
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+            StepVerifier.create(policy.protect(call(Mono.just("ok"))))
+                    .expectError(CallRejectedException.class)
+                    .verify();
+        }
+
+        @Test
+        @DisplayName("should only admit as many trial calls as configured")
+        void shouldLimitTrialCalls() {
+            ResiliencePolicy policy = open();
+            clock.advance(OPEN_DURATION);
+            Sinks.One<String> first = Sinks.one();
+            Sinks.One<String> second = Sinks.one();
+
+            StepVerifier.create(policy.protect(first.asMono())).then(() -> {
+                StepVerifier.create(policy.protect(second.asMono())).then(() -> {
+                    StepVerifier.create(policy.protect(Mono.just("third")))
+                            .expectError(CallRejectedException.class)
+                            .verify();
+                    second.tryEmitValue("second");
+                }).expectNext("second").verifyComplete();
+                first.tryEmitValue("first");
+            }).expectNext("first").verifyComplete();
+
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        private ResiliencePolicy open() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(0.5, 2, 2, OPEN_DURATION, 2), 10, 10);
+            fail(policy, serverError());
+            fail(policy, serverError());
+            assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+            return policy;
+        }
+    }
+
+    @Nested
+    @DisplayName("when limiting concurrency")
+    class Bulkheading {
+
+        @Test
+        @DisplayName("should reject calls beyond the limit and free the permit when a call ends")
+        void shouldRejectBeyondLimit() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1);
+            Sinks.One<String> inFlight = Sinks.one();
+
+            StepVerifier.create(policy.protect(inFlight.asMono())).then(() -> {
+                StepVerifier.create(policy.protect(Mono.just("second")))
+                        .expectErrorSatisfies(error -> assertThat(error).isInstanceOfSatisfying(CallRejectedException.class,
+                                e -> assertThat(e.getReason()).isEqualTo(CallRejectedException.Reason.BULKHEAD_FULL)))
+                        .verify();
+                inFlight.tryEmitValue("first");
+            }).expectNext("first").verifyComplete();
+
+            StepVerifier.create(policy.protect(Mono.just("third"))).expectNext("third").verifyComplete();
+            assertThat(counter("test.resilience.rejected", "reason", "bulkhead_full")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should free the permit when a call is cancelled")
+        void shouldReleaseOnCancel() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1);
+
+            StepVerifier.create(policy.protect(Mono.never())).thenCancel().verify();
+
+            StepVerifier.create(policy.protect(Mono.just("next"))).expectNext("next").verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should let calls beyond the limit wait for a permit, in arrival order")
+        void shouldQueueBeyondLimit() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1,
+                    Duration.ofSeconds(5));
+            Sinks.One<String> first = Sinks.one();
+            Sinks.One<String> second = Sinks.one();
+            List<String> started = new CopyOnWriteArrayList<>();
+
+            StepVerifier.create(policy.protect(started(started, "first", first.asMono()))).then(() -> {
+                StepVerifier.create(policy.protect(started(started, "second", second.asMono()))).then(() -> {
+                    StepVerifier.create(policy.protect(started(started, "third", Mono.just("third"))))
+                            .then(() -> {
+                                assertThat(started).containsExactly("first");
+                                first.tryEmitValue("first");
+                                assertThat(started).containsExactly("first", "second");
+                                second.tryEmitValue("second");
+                            })
+                            .expectNext("third")
+                            .verifyComplete();
+                }).expectNext("second").verifyComplete();
+            }).expectNext("first").verifyComplete();
+
+            assertThat(started).containsExactly("first", "second", "third");
+            assertThat(counter("test.resilience.rejected", "reason", "bulkhead_full")).isZero();
+        }
+
+        @Test
+        @DisplayName("should reject a waiting call once the wait runs out")
+        void shouldRejectAfterMaxWait() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1,
+                    Duration.ofMillis(50));
+            Sinks.One<String> inFlight = Sinks.one();
+
+            StepVerifier.create(policy.protect(inFlight.asMono())).then(() -> {
+                StepVerifier.create(policy.protect(Mono.just("second")))
+                        .expectErrorSatisfies(error -> assertThat(error).isInstanceOfSatisfying(CallRejectedException.class,
+                                e -> assertThat(e.getReason()).isEqualTo(CallRejectedException.Reason.BULKHEAD_FULL)))
+                        .verify(Duration.ofSeconds(5));
+                inFlight.tryEmitValue("first");
+            }).expectNext("first").verifyComplete();
+
+            StepVerifier.create(policy.protect(Mono.just("third"))).expectNext("third").verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should give up the place of a waiting call that is cancelled")
+        void shouldWithdrawCancelledWaiter() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1,
+                    Duration.ofSeconds(5));
+            Sinks.One<String> inFlight = Sinks.one();
+
+            StepVerifier.create(policy.protect(inFlight.asMono())).then(() -> {
+                StepVerifier.create(policy.protect(Mono.just("cancelled"))).thenCancel().verify();
+                assertThat(meterRegistry.get("test.resilience.bulkhead.waiting").gauge().value()).isZero();
+                inFlight.tryEmitValue("first");
+            }).expectNext("first").verifyComplete();
+
+            assertThat(meterRegistry.get("test.resilience.bulkhead.active").gauge().value()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("when retrying")
+    class RetryBudgets {
+
+        @Test
+        @DisplayName("should stop retrying once the budget is spent")
+        void shouldStopRetryingWhenBudgetSpent() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, 100, 100, null, null), 2, 10);
+            Retry retry = policy.withRetryBudget(Retry.backoff(5, Duration.ofMillis(1)).filter(ResiliencePolicy::isTransientFailure));
+
+            StepVerifier.create(policy.protect(call(Mono.error(serverError()))).retryWhen(retry))
+                    .expectError(WebClientResponseException.class)
+                    .verify();
+
+            // One attempt plus the two retries the budget held
+            assertThat(attempts).hasValue(3);
+            assertThat(counter("test.resilience.rejected", "reason", "retry_budget")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should earn retries back with successful calls")
+        void shouldRefillWithSuccesses() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, 100, 100, null, null), 1, 10);
+            Retry retry = policy.withRetryBudget(Retry.backoff(1, Duration.ofMillis(1)).filter(ResiliencePolicy::isTransientFailure));
+            StepVerifier.create(policy.protect(call(Mono.error(serverError()))).retryWhen(retry))
+                    .expectError()
+                    .verify();
+
+            // A ratio of 0.5 earns a whole token every two successes
+            succeed(policy);
+            succeed(policy);
+            attempts.set(0);
+
+            StepVerifier.create(policy.protect(call(Mono.error(serverError()))).retryWhen(retry))
+                    .expectError()
+                    .verify();
+            assertThat(attempts).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("should never retry a rejected call")
+        void shouldNotRetryRejections() {
+            ResiliencePolicy policy = policy(new ResilienceProperties.Breaker(null, null, null, null, null), 10, 1);
+            Retry retry = policy.withRetryBudget(Retry.backoff(3, Duration.ofMillis(1)).filter(error -> true));
+            Sinks.One<String> inFlight = Sinks.one();
+
+            StepVerifier.create(policy.protect(inFlight.asMono())).then(() -> {
+                StepVerifier.create(policy.protect(Mono.just("second")).retryWhen(retry))
+                        .expectError(CallRejectedException.class)
+                        .verify();
+                inFlight.tryEmitValue("first");
+            }).expectNext("first").verifyComplete();
+        }
+    }
+
+    private ResiliencePolicy policy(ResilienceProperties.Breaker breaker, int maxRetryTokens, int maxConcurrent) {
+        return policy(breaker, maxRetryTokens, maxConcurrent, Duration.ZERO);
+    }
+
+    private ResiliencePolicy policy(ResilienceProperties.Breaker breaker, int maxRetryTokens, int maxConcurrent,
+                                    Duration maxWait) {
+        ResilienceProperties.Dependency dependency = new ResilienceProperties.Dependency(
+                new ResilienceProperties.Retry(0.5, maxRetryTokens),
+                breaker,
+                new ResilienceProperties.Concurrency(maxConcurrent, maxWait));
+        return new ResilienceRegistry(new ResilienceProperties(Map.of("github", dependency)),
+                new MetricsHelper(meterRegistry, "test"), clock).policy("github");
+    }
+
+    private <T> Mono<T> call(Mono<T> result) {
+        return Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return result;
+        });
+    }
+
+    private static <T> Mono<T> started(List<String> started, String name, Mono<T> result) {
+        return Mono.defer(() -> {
+            started.add(name);
+            return result;
+        });
+    }
+
+    private void succeed(ResiliencePolicy policy) {
+        StepVerifier.create(policy.protect(call(Mono.just("ok")))).expectNext("ok").verifyComplete();
+    }
+
+    private void fail(ResiliencePolicy policy, Throwable error) {
+        StepVerifier.create(policy.protect(call(Mono.error(error)))).expectError().verify();
+    }
+
+    private static WebClientResponseException serverError() {
+        return WebClientResponseException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null, null);
+    }
+
+    private double counter(String name, String... tags) {
+        String[] all = new String[tags.length + 2];
+        all[0] = "dependency";
+        all[1] = "github";
+        System.arraycopy(tags, 0, all, 2, tags.length);
+        return meterRegistry.counter(name, all).count();
+    }
+}
@@ -5,7 +5,7 @@ import reactor.core.publisher.Mono;
 
 public interface ReviewService {
 
-    Mono<ReviewResult> perform(
+    default Mono<ReviewResult> perform(
             String contextId,
             String repositoryOwner,
             String repositoryName,
@@ -13,5 +13,23 @@ public interface ReviewService {
             String prTitle,
             String diff,
             String correlationId
+    ) {
+        return perform(contextId, repositoryOwner, repositoryName, pullRequestNumber, prTitle, diff,
+                correlationId, null);
+    }
+
+    /**
+     * Reviews {@code diff}. With {@code incrementalSince}, the diff only holds the changes pushed
+     * after that commit and the review says so; the rest of the pull request was reviewed before.
+     */
+    Mono<ReviewResult> perform(
+            String contextId,
+            String repositoryOwner,
+            String repositoryName,
+            Integer pullRequestNumber,
+            String prTitle,
+            String diff,
+            String correlationId,
+            String incrementalSince
     );
 }
@@ -35,6 +35,11 @@ public class ReviewServiceImpl implements ReviewService {
             ---
             %d files were not reviewed due to exceeding the %d-token limit.
             ---""";
+    private static final String INCREMENTAL_REVIEW_NOTICE = """
+            Reviewed the changes pushed since %s.
+
+            """;
+    private static final int SHORT_SHA_LENGTH = 7;
 
     private final AiModelPort aiModelPort;
     private final EventPublisher eventPublisher;
@@ -50,7 +55,8 @@ public class ReviewServiceImpl implements ReviewService {
             Integer pullRequestNumber,
             String prTitle,
             String diff,
-            String correlationId) {
+            String correlationId,
+            String incrementalSince) {
 
         // Validate required parameters
         if (contextId == null || contextId.isBlank()) {
@@ -70,8 +76,8 @@ public class ReviewServiceImpl implements ReviewService {
         PrContext prContext = PrContext.from(prTitle);
         Instant startTime = Instant.now();
 
-        log.info("Starting review for PR #{} (reviewId: {}, contextId: {}, type: {}, correlationId: {})",
-                pullRequestNumber, reviewId, contextId, prContext.type(), correlationId);
+        log.info("Starting review for PR #{} (reviewId: {}, contextId: {}, type: {}, incrementalSince: {}, correlationId: {})",
+                pullRequestNumber, reviewId, contextId, prContext.type(), incrementalSince, correlationId);
 
         metricsHelper.incrementCounter("review.request", "status", "started");
 
@@ -82,6 +88,9 @@ public class ReviewServiceImpl implements ReviewService {
                     return Mono.empty();
                 })
                 .then(performReview(diff, prContext))
+                .map(reviewComment -> incrementalSince == null
+                        ? reviewComment
+                        : INCREMENTAL_REVIEW_NOTICE.formatted(shortSha(incrementalSince)) + reviewComment)
                 .map(reviewComment -> createReviewResult(
                         reviewId, contextId, repositoryOwner, repositoryName,
                         pullRequestNumber, reviewComment, ReviewStatus.COMPLETED, correlationId))
@@ -269,6 +278,10 @@ public class ReviewServiceImpl implements ReviewService {
         return eventPublisher.publish(event).thenReturn(failedResult);
     }
 
+    private static String shortSha(String sha) {
+        return sha.length() > SHORT_SHA_LENGTH ? sha.substring(0, SHORT_SHA_LENGTH) : sha;
+    }
+
     private String getErrorMessage(Throwable error) {
         return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
     }
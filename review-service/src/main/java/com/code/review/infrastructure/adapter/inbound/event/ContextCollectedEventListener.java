@@ -2,16 +2,23 @@ package com.code.review.infrastructure.adapter.inbound.event;
 
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffReference;
+import com.code.platform.blob.BlobClient;
 import com.code.platform.dlt.DltPublisher;
 import com.code.platform.idempotency.IdempotencyStore;
+import com.code.platform.idempotency.LeaseHeartbeat;
 import com.code.review.application.port.inbound.ReviewService;
 import com.code.review.infrastructure.config.KafkaTopicProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
 
 @Slf4j
 @Component
@@ -22,6 +29,8 @@ public class ContextCollectedEventListener {
     private final IdempotencyStore idempotencyStore;
     private final DltPublisher dltPublisher;
     private final KafkaTopicProperties topicProperties;
+    private final LeaseHeartbeat leaseHeartbeat;
+    private final ObjectProvider<BlobClient> blobClient;
 
     @KafkaListener(
         topics = "${kafka.topics.context-collected}",
@@ -45,7 +54,7 @@ public class ContextCollectedEventListener {
                 return;
             }
 
-            if (event.diff() == null || event.diff().isBlank()) {
+            if (event.diffRef() == null && (event.diff() == null || event.diff().isBlank())) {
                 log.warn("Context collected but diff is empty, skipping review: contextId={}", event.contextId());
                 ack.acknowledge();
                 return;
@@ -53,15 +62,17 @@ public class ContextCollectedEventListener {
 
             log.debug("Starting code review for PR #{}: contextId={}", event.pullRequestNumber(), event.contextId());
 
-            reviewService.perform(
+            // AI reviews can outlast a lease; keep it renewed so a redelivery does not reclaim it
+            leaseHeartbeat.keepAlive(event.eventId(), diff(event).flatMap(diff -> reviewService.perform(
                     event.contextId(),
                     event.repositoryOwner(),
                     event.repositoryName(),
                     event.pullRequestNumber(),
                     event.title(),
-                    event.diff(),
-                    event.correlationId()
-            ).subscribe(
+                    diff,
+                    event.correlationId(),
+                    Boolean.TRUE.equals(event.incremental()) ? event.baseSha() : null
+            ))).subscribe(
                     result -> {
                         if (result.isSuccessful()) {
                             log.info("Review completed for PR #{} (status={})", event.pullRequestNumber(), result.status());
@@ -81,4 +92,23 @@ public class ContextCollectedEventListener {
                 );
         }
     }
+
+    /**
+     * The diff carried by the event, or fetched from the blob store when the event only carries
+     * a reference to it. A diff that cannot be fetched fails the review and goes to the DLT.
+     */
+    private Mono<String> diff(ContextCollectedEvent event) {
+        DiffReference reference = event.diffRef();
+        if (reference == null) {
+            return Mono.just(event.diff().asString());
+        }
+        BlobClient client = blobClient.getIfAvailable();
+        if (client == null) {
+            return Mono.error(new IllegalStateException(
+                    "Diff %s is in the blob store but platform.blob is not enabled".formatted(reference.digest())));
+        }
+        log.debug("Fetching offloaded diff {} ({} bytes)", reference.digest(), reference.sizeBytes());
+        return client.get(reference.digest())
+                .map(diff -> new String(diff, StandardCharsets.UTF_8));
+    }
 }
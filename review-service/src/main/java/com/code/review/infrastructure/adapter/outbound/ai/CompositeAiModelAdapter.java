@@ -1,8 +1,11 @@
 package com.code.review.infrastructure.adapter.outbound.ai;
 
+import com.code.platform.resilience.ResiliencePolicy;
+import com.code.platform.resilience.ResilienceRegistry;
 import com.code.review.application.port.outbound.AiModelPort;
 import com.code.review.domain.model.PrContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.NonTransientAiException;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
@@ -13,8 +16,10 @@ import java.util.List;
 public class CompositeAiModelAdapter implements AiModelPort {
 
     private final AiClient activeClient;
+    private final ResiliencePolicy aiResilience;
 
-    public CompositeAiModelAdapter(List<AiClient> clients, AiProperties aiProperties) {
+    public CompositeAiModelAdapter(List<AiClient> clients, AiProperties aiProperties,
+                                   ResilienceRegistry resilienceRegistry) {
         AiProvider configuredProvider = aiProperties.provider();
 
         this.activeClient = clients.stream()
@@ -33,16 +38,27 @@ public class CompositeAiModelAdapter implements AiModelPort {
         } else {
             log.info("Using configured AI provider: {}", configuredProvider);
         }
+        this.aiResilience = resilienceRegistry.policy("ai", CompositeAiModelAdapter::isProviderFailure);
+    }
+
+    /**
+     * Anything the provider fails with counts against the breaker, except requests it rejected
+     * as invalid and a client that was never configured.
+     */
+    static boolean isProviderFailure(Throwable error) {
+        return !(error instanceof NonTransientAiException
+                || error instanceof IllegalArgumentException
+                || error instanceof IllegalStateException);
     }
 
     @Override
     public Mono<String> reviewCode(String diff, PrContext prContext) {
-        return activeClient.reviewCode(diff, prContext);
+        return activeClient.reviewCode(diff, prContext).transform(aiResilience::protect);
     }
 
     @Override
     public Mono<String> mergeReviews(String combinedReviews, PrContext prContext) {
-        return activeClient.mergeReviews(combinedReviews, prContext);
+        return activeClient.mergeReviews(combinedReviews, prContext).transform(aiResilience::protect);
     }
 
     @Override
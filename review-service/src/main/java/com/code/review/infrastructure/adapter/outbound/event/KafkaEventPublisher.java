@@ -3,6 +3,7 @@ package com.code.review.infrastructure.adapter.outbound.event;
 import com.code.events.review.ReviewCompletedEvent;
 import com.code.events.review.ReviewFailedEvent;
 import com.code.events.review.ReviewStartedEvent;
+import com.code.platform.partitioning.PartitionKeys;
 import com.code.review.application.port.outbound.EventPublisher;
 import com.code.review.infrastructure.config.KafkaTopicProperties;
 import lombok.RequiredArgsConstructor;
@@ -18,12 +19,13 @@ public class KafkaEventPublisher implements EventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KafkaTopicProperties topicProperties;
+    private final PartitionKeys partitionKeys;
 
     @Override
     public Mono<Void> publish(ReviewStartedEvent event) {
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing ReviewStartedEvent to Kafka: eventId={}, reviewId={}, repo={}",
+        log.debug("Publishing ReviewStartedEvent to Kafka: eventId={}, reviewId={}, key={}",
             event.eventId(), event.reviewId(), key);
 
         // Convert CompletableFuture to Mono and await completion
@@ -39,9 +41,9 @@ public class KafkaEventPublisher implements EventPublisher {
 
     @Override
     public Mono<Void> publish(ReviewCompletedEvent event) {
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing ReviewCompletedEvent to Kafka: eventId={}, reviewId={}, repo={}",
+        log.debug("Publishing ReviewCompletedEvent to Kafka: eventId={}, reviewId={}, key={}",
             event.eventId(), event.reviewId(), key);
 
         // Convert CompletableFuture to Mono and await completion
@@ -57,9 +59,9 @@ public class KafkaEventPublisher implements EventPublisher {
 
     @Override
     public Mono<Void> publish(ReviewFailedEvent event) {
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing ReviewFailedEvent to Kafka: eventId={}, reviewId={}, repo={}",
+        log.debug("Publishing ReviewFailedEvent to Kafka: eventId={}, reviewId={}, key={}",
             event.eventId(), event.reviewId(), key);
 
         // Convert CompletableFuture to Mono and await completion
@@ -134,6 +134,20 @@ class ReviewServiceImplTest {
             verify(aiModelPort, times(1)).mergeReviews("OK", PrContext.from(PR_TITLE));
         }
 
+        @Test
+        @DisplayName("should say which push an incremental review covers")
+        void shouldMarkIncrementalReview() {
+            when(encoding.countTokens(anyString())).thenReturn(50);
+            when(aiModelPort.reviewCode(anyString(), any(PrContext.class))).thenReturn(Mono.just("OK"));
+            when(aiModelPort.mergeReviews(anyString(), any(PrContext.class))).thenReturn(Mono.just("Merged"));
+
+            StepVerifier.create(reviewService.perform(CONTEXT_ID, REPO_OWNER, REPO_NAME, PR_NUMBER, PR_TITLE, diff,
+                            CORRELATION_ID, "6dcb09b5b57875f334f61aebed695e2e4193db5e"))
+                    .assertNext(result -> assertThat(result.reviewComment())
+                            .isEqualTo("Reviewed the changes pushed since 6dcb09b.\n\nMerged"))
+                    .verifyComplete();
+        }
+
         @Test
         @DisplayName("should merge multiple file reviews")
         void shouldMergeMultipleFileReviews() {
@@ -2,8 +2,14 @@ package com.code.review.infrastructure.adapter.inbound.event;
 
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
+import com.code.platform.blob.BlobClient;
+import com.code.platform.blob.BlobNotFoundException;
 import com.code.platform.dlt.DltPublisher;
+import com.code.platform.idempotency.IdempotencyProperties;
 import com.code.platform.idempotency.IdempotencyStore;
+import com.code.platform.idempotency.LeaseHeartbeat;
 import com.code.review.application.port.inbound.ReviewService;
 import com.code.review.domain.model.ReviewResult;
 import com.code.review.domain.model.ReviewStatus;
@@ -15,9 +21,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.support.Acknowledgment;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +53,12 @@ class ContextCollectedEventListenerTest {
     @Mock
     private KafkaTopicProperties topicProperties;
 
+    @Mock
+    private ObjectProvider<BlobClient> blobClients;
+
+    @Mock
+    private BlobClient blobClient;
+
     private ContextCollectedEventListener listener;
 
     private static final String EVENT_ID = "event-123";
@@ -59,15 +73,18 @@ class ContextCollectedEventListenerTest {
     @BeforeEach
     void setUp() {
         listener = new ContextCollectedEventListener(reviewService,
-                idempotencyStore, dltPublisher, topicProperties);
+                idempotencyStore, dltPublisher, topicProperties,
+                new LeaseHeartbeat(idempotencyStore, new IdempotencyProperties(null, null, null, null, null)),
+                blobClients);
     }
 
     private ContextCollectedEvent createEvent(ContextCollectionStatus status) {
         return new ContextCollectedEvent(
                 EVENT_ID, CONTEXT_ID,
                 OWNER, REPO, PR_NUMBER,
-                TITLE, DIFF, status,
-                CORRELATION_ID, Instant.now()
+                TITLE, DiffContent.of(DIFF), status,
+                CORRELATION_ID, Instant.now(),
+                false, null, null, null
         );
     }
 
@@ -98,7 +115,7 @@ class ContextCollectedEventListenerTest {
             CountDownLatch latch = new CountDownLatch(1);
 
             when(idempotencyStore.tryStart(EVENT_ID)).thenReturn(true, false);
-            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString()))
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
                     .thenReturn(Mono.just(createReviewResult(ReviewStatus.COMPLETED)));
             doAnswer(inv -> {
                 latch.countDown();
@@ -110,7 +127,7 @@ class ContextCollectedEventListenerTest {
 
             assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
 
-            verify(reviewService, times(1)).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService, times(1)).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
             verify(ack, times(2)).acknowledge();
         }
 
@@ -121,7 +138,7 @@ class ContextCollectedEventListenerTest {
             CountDownLatch latch = new CountDownLatch(1);
 
             when(idempotencyStore.tryStart(EVENT_ID)).thenReturn(true);
-            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString()))
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
                     .thenReturn(Mono.just(createReviewResult(ReviewStatus.COMPLETED)));
             doAnswer(inv -> {
                 latch.countDown();
@@ -132,7 +149,7 @@ class ContextCollectedEventListenerTest {
 
             assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
 
-            verify(reviewService).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
         }
     }
 
@@ -147,7 +164,7 @@ class ContextCollectedEventListenerTest {
 
             listener.onContextCollected(event, ack);
 
-            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
             verify(ack).acknowledge();
         }
 
@@ -158,7 +175,7 @@ class ContextCollectedEventListenerTest {
 
             listener.onContextCollected(event, ack);
 
-            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
             verify(ack).acknowledge();
         }
     }
@@ -174,12 +191,13 @@ class ContextCollectedEventListenerTest {
                     EVENT_ID, CONTEXT_ID,
                     OWNER, REPO, PR_NUMBER,
                     TITLE, null, ContextCollectionStatus.COMPLETED,
-                    CORRELATION_ID, Instant.now()
+                    CORRELATION_ID, Instant.now(),
+                    false, null, null, null
             );
 
             listener.onContextCollected(event, ack);
 
-            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
             verify(ack).acknowledge();
         }
 
@@ -189,13 +207,14 @@ class ContextCollectedEventListenerTest {
             ContextCollectedEvent event = new ContextCollectedEvent(
                     EVENT_ID, CONTEXT_ID,
                     OWNER, REPO, PR_NUMBER,
-                    TITLE, "   ", ContextCollectionStatus.COMPLETED,
-                    CORRELATION_ID, Instant.now()
+                    TITLE, DiffContent.of("   "), ContextCollectionStatus.COMPLETED,
+                    CORRELATION_ID, Instant.now(),
+                    false, null, null, null
             );
 
             listener.onContextCollected(event, ack);
 
-            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString());
+            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
             verify(ack).acknowledge();
         }
     }
@@ -211,7 +230,7 @@ class ContextCollectedEventListenerTest {
             CountDownLatch latch = new CountDownLatch(1);
 
             when(idempotencyStore.tryStart(any())).thenReturn(true);
-            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString()))
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
                     .thenReturn(Mono.just(createReviewResult(ReviewStatus.COMPLETED)));
             doAnswer(inv -> {
                 latch.countDown();
@@ -224,6 +243,25 @@ class ContextCollectedEventListenerTest {
 
             verify(ack).acknowledge();
         }
+
+        @Test
+        @DisplayName("should pass the base commit of an incremental context")
+        void shouldPassIncrementalBase() {
+            ContextCollectedEvent event = new ContextCollectedEvent(
+                    EVENT_ID, CONTEXT_ID,
+                    OWNER, REPO, PR_NUMBER,
+                    TITLE, DiffContent.of(DIFF), ContextCollectionStatus.COMPLETED,
+                    CORRELATION_ID, Instant.now(),
+                    true, "base-sha", "head-sha", null
+            );
+            when(idempotencyStore.tryStart(any())).thenReturn(true);
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
+                    .thenReturn(Mono.just(createReviewResult(ReviewStatus.COMPLETED)));
+
+            listener.onContextCollected(event, ack);
+
+            verify(reviewService).perform(CONTEXT_ID, OWNER, REPO, PR_NUMBER, TITLE, DIFF, CORRELATION_ID, "base-sha");
+        }
     }
 
     @Nested
@@ -238,7 +276,7 @@ class ContextCollectedEventListenerTest {
 
             // ReviewService returns FAILED result (error was handled internally)
             when(idempotencyStore.tryStart(any())).thenReturn(true);
-            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString()))
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
                     .thenReturn(Mono.just(createReviewResult(ReviewStatus.FAILED)));
             when(topicProperties.contextCollected()).thenReturn("context.collected");
             doAnswer(inv -> {
@@ -266,7 +304,7 @@ class ContextCollectedEventListenerTest {
 
             // ReviewService throws error (rare case, most errors are handled internally)
             when(idempotencyStore.tryStart(any())).thenReturn(true);
-            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString()))
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
                     .thenReturn(Mono.error(new RuntimeException("Unexpected error")));
             when(topicProperties.contextCollected()).thenReturn("context.collected");
             doAnswer(inv -> {
@@ -281,4 +319,64 @@ class ContextCollectedEventListenerTest {
             verify(dltPublisher).forwardToDlt(eq("context.collected.dlt"), eq(EVENT_ID), eq(event), eq(ack));
         }
     }
+
+    @Nested
+    @DisplayName("when the diff was offloaded to the blob store")
+    class WhenDiffOffloaded {
+
+        static final String DIGEST = BlobClient.digest(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        private ContextCollectedEvent createOffloadedEvent() {
+            return new ContextCollectedEvent(
+                    EVENT_ID, CONTEXT_ID,
+                    OWNER, REPO, PR_NUMBER,
+                    TITLE, null, ContextCollectionStatus.COMPLETED,
+                    CORRELATION_ID, Instant.now(),
+                    false, null, null,
+                    new DiffReference(DIGEST, (long) DIFF.length())
+            );
+        }
+
+        @Test
+        @DisplayName("should review the diff fetched by reference")
+        void shouldReviewFetchedDiff() {
+            when(idempotencyStore.tryStart(any())).thenReturn(true);
+            when(blobClients.getIfAvailable()).thenReturn(blobClient);
+            when(blobClient.get(DIGEST)).thenReturn(Mono.just(DIFF.getBytes(StandardCharsets.UTF_8)));
+            when(reviewService.perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any()))
+                    .thenReturn(Mono.just(createReviewResult(ReviewStatus.COMPLETED)));
+
+            listener.onContextCollected(createOffloadedEvent(), ack);
+
+            verify(reviewService).perform(CONTEXT_ID, OWNER, REPO, PR_NUMBER, TITLE, DIFF, CORRELATION_ID, null);
+            verify(ack).acknowledge();
+        }
+
+        @Test
+        @DisplayName("should forward to DLT when the diff is not in the store")
+        void shouldForwardMissingDiffToDlt() {
+            ContextCollectedEvent event = createOffloadedEvent();
+            when(idempotencyStore.tryStart(any())).thenReturn(true);
+            when(blobClients.getIfAvailable()).thenReturn(blobClient);
+            when(blobClient.get(DIGEST)).thenReturn(Mono.error(new BlobNotFoundException(DIGEST)));
+            when(topicProperties.contextCollected()).thenReturn("context.collected");
+
+            listener.onContextCollected(event, ack);
+
+            verify(dltPublisher).forwardToDlt(eq("context.collected.dlt"), eq(EVENT_ID), eq(event), eq(ack));
+            verify(reviewService, never()).perform(anyString(), anyString(), anyString(), anyInt(), anyString(), anyString(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("should forward to DLT when no blob store is configured")
+        void shouldForwardToDltWithoutBlobStore() {
+            ContextCollectedEvent event = createOffloadedEvent();
+            when(idempotencyStore.tryStart(any())).thenReturn(true);
+            when(topicProperties.contextCollected()).thenReturn("context.collected");
+
+            listener.onContextCollected(event, ack);
+
+            verify(dltPublisher).forwardToDlt(eq("context.collected.dlt"), eq(EVENT_ID), eq(event), eq(ack));
+        }
+    }
 }
@@ -1,22 +1,42 @@
 package com.code.review.infrastructure.adapter.outbound.ai;
 
+import com.code.events.review.ReviewCompletedEvent;
+import com.code.events.review.ReviewStartedEvent;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.platform.resilience.CallRejectedException;
+import com.code.platform.resilience.ResilienceProperties;
+import com.code.platform.resilience.ResilienceRegistry;
+import com.code.review.application.port.outbound.EventPublisher;
+import com.code.review.application.service.ReviewServiceImpl;
 import com.code.review.domain.model.PrContext;
 import com.code.review.domain.model.PrType;
+import com.code.review.domain.model.ReviewResult;
+import com.code.review.domain.model.ReviewStatus;
+import com.code.review.infrastructure.config.ReactorProperties;
+import com.knuddels.jtokkit.api.Encoding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +53,9 @@ class CompositeAiModelAdapterTest {
     @Mock
     AiProperties aiProperties;
 
+    ResilienceRegistry resilienceRegistry = new ResilienceRegistry(
+            new ResilienceProperties(null), new MetricsHelper(new SimpleMeterRegistry(), "test"));
+
     static final PrContext PR_CONTEXT = PrContext.from("fix: critical bug");
     static final String DIFF = "diff --git a/test.java";
     static final String REVIEW = "Review comment";
@@ -52,7 +75,7 @@ class CompositeAiModelAdapterTest {
             when(geminiClient.provider()).thenReturn(AiProvider.GEMINI);
 
             CompositeAiModelAdapter adapter = new CompositeAiModelAdapter(
-                    List.of(ollamaClient, geminiClient), aiProperties);
+                    List.of(ollamaClient, geminiClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.providerName()).isEqualTo("ollama");
         }
@@ -68,7 +91,7 @@ class CompositeAiModelAdapterTest {
             when(geminiClient.providerName()).thenReturn("gemini");
 
             CompositeAiModelAdapter adapter = new CompositeAiModelAdapter(
-                    List.of(ollamaClient, geminiClient), aiProperties);
+                    List.of(ollamaClient, geminiClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.providerName()).isEqualTo("gemini");
         }
@@ -83,7 +106,7 @@ class CompositeAiModelAdapterTest {
             when(geminiClient.isReady()).thenReturn(false);
 
             assertThatThrownBy(() -> new CompositeAiModelAdapter(
-                    List.of(ollamaClient, geminiClient), aiProperties))
+                    List.of(ollamaClient, geminiClient), aiProperties, resilienceRegistry))
                     .isInstanceOf(IllegalStateException.class)
                     .hasMessageContaining("No AI client is ready")
                     .hasMessageContaining("OLLAMA");
@@ -100,7 +123,7 @@ class CompositeAiModelAdapterTest {
             when(geminiClient.providerName()).thenReturn("gemini");
 
             CompositeAiModelAdapter adapter = new CompositeAiModelAdapter(
-                    List.of(ollamaClient, geminiClient), aiProperties);
+                    List.of(ollamaClient, geminiClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.providerName()).isEqualTo("gemini");
         }
@@ -121,7 +144,7 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.reviewCode(anyString(), any(PrContext.class)))
                     .thenReturn(Mono.just(REVIEW));
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             StepVerifier.create(adapter.reviewCode(DIFF, PR_CONTEXT))
                     .expectNext(REVIEW)
@@ -137,7 +160,7 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.mergeReviews(anyString(), any(PrContext.class)))
                     .thenReturn(Mono.just(MERGED_REVIEW));
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             StepVerifier.create(adapter.mergeReviews("Review 1\nReview 2", PR_CONTEXT))
                     .expectNext(MERGED_REVIEW)
@@ -152,7 +175,7 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.isReady()).thenReturn(true);
             when(ollamaClient.maxTokens()).thenReturn(8000);
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.maxTokens()).isEqualTo(8000);
         }
@@ -165,7 +188,7 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.isReady()).thenReturn(true);
             when(ollamaClient.providerName()).thenReturn("ollama");
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.providerName()).isEqualTo("ollama");
         }
@@ -178,7 +201,7 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.isReady()).thenReturn(true);
             when(ollamaClient.modelName()).thenReturn("qwen2.5-coder:7b");
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             assertThat(adapter.modelName()).isEqualTo("qwen2.5-coder:7b");
         }
@@ -192,12 +215,97 @@ class CompositeAiModelAdapterTest {
             when(ollamaClient.reviewCode(anyString(), any(PrContext.class)))
                     .thenReturn(Mono.error(new RuntimeException("AI service error")));
 
-            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties);
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
 
             StepVerifier.create(adapter.reviewCode(DIFF, PR_CONTEXT))
                     .expectErrorMatches(e -> e instanceof RuntimeException &&
                             e.getMessage().contains("AI service error"))
                     .verify();
         }
+
+        @Test
+        @DisplayName("should stop calling the provider once the circuit opens")
+        void shouldStopCallingProviderWhenCircuitOpens() {
+            AtomicInteger calls = new AtomicInteger();
+            when(aiProperties.provider()).thenReturn(AiProvider.OLLAMA);
+            when(ollamaClient.provider()).thenReturn(AiProvider.OLLAMA);
+            when(ollamaClient.isReady()).thenReturn(true);
+            when(ollamaClient.reviewCode(anyString(), any(PrContext.class)))
+                    .thenReturn(Mono.defer(() -> {
+                        calls.incrementAndGet();
+                        return Mono.error(new RuntimeException("AI service error"));
+                    }));
+
+            adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, resilienceRegistry);
+            // The default breaker opens after half of at least 10 calls failed
+            for (int i = 0; i < 10; i++) {
+                StepVerifier.create(adapter.reviewCode(DIFF, PR_CONTEXT)).expectError().verify();
+            }
+
+            StepVerifier.create(adapter.reviewCode(DIFF, PR_CONTEXT))
+                    .expectError(CallRejectedException.class)
+                    .verify();
+            assertThat(calls).hasValue(10);
+        }
+    }
+    @Nested
+    @DisplayName("when more reviews run than the bulkhead admits")
+    class WhenReviewsExceedPermits {
+
+        @Test
+        @DisplayName("should queue chunk calls for a permit instead of failing the reviews")
+        void shouldQueueChunkCallsInsteadOfFailingReviews() {
+            // Two permits for four reviews of three files each, all in flight at once
+            ResilienceRegistry registry = new ResilienceRegistry(
+                    new ResilienceProperties(Map.of("ai", new ResilienceProperties.Dependency(null, null,
+                            new ResilienceProperties.Concurrency(2, Duration.ofSeconds(10))))),
+                    new MetricsHelper(new SimpleMeterRegistry(), "test"));
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            when(aiProperties.provider()).thenReturn(AiProvider.OLLAMA);
+            when(ollamaClient.provider()).thenReturn(AiProvider.OLLAMA);
+            when(ollamaClient.isReady()).thenReturn(true);
+            when(ollamaClient.maxTokens()).thenReturn(8000);
+            when(ollamaClient.reviewCode(anyString(), any(PrContext.class))).thenReturn(Mono.defer(() -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                return Mono.delay(Duration.ofMillis(20)).thenReturn(REVIEW).doOnTerminate(active::decrementAndGet);
+            }));
+            when(ollamaClient.mergeReviews(anyString(), any(PrContext.class))).thenReturn(Mono.just(MERGED_REVIEW));
+            EventPublisher eventPublisher = mock(EventPublisher.class);
+            when(eventPublisher.publish(any(ReviewStartedEvent.class))).thenReturn(Mono.empty());
+            when(eventPublisher.publish(any(ReviewCompletedEvent.class))).thenReturn(Mono.empty());
+            Encoding encoding = mock(Encoding.class);
+            when(encoding.countTokens(anyString())).thenReturn(50);
+
+            CompositeAiModelAdapter adapter = new CompositeAiModelAdapter(List.of(ollamaClient), aiProperties, registry);
+            ReviewServiceImpl reviewService = new ReviewServiceImpl(adapter, eventPublisher, encoding,
+                    new ReactorProperties(10, 1), new MetricsHelper(new SimpleMeterRegistry(), "test"));
+
+            List<ReviewResult> results = Flux.range(1, 4)
+                    .flatMap(number -> reviewService.perform("ctx-" + number, "owner", "repo", number,
+                            "fix: bug", diffOfFiles(3), "corr-" + number))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            assertThat(results).hasSize(4)
+                    .allSatisfy(result -> assertThat(result.status()).isEqualTo(ReviewStatus.COMPLETED));
+            assertThat(peak).hasValue(2);
+            verify(ollamaClient, times(12)).reviewCode(anyString(), any(PrContext.class));
+        }
+
+        private static String diffOfFiles(int files) {
+            StringBuilder diff = new StringBuilder();
+            for (int file = 0; file < files; file++) {
+                diff.append("""
+                        diff --git a/File%1$d.java b/File%1$d.java
+                        --- a/File%1$d.java
+                        +++ b/File%1$d.java
+                        @@ -1,1 +1,1 @@
+                        -old
+                        +new
+                        """.formatted(file));
+            }
+            return diff.toString();
+        }
     }
 }
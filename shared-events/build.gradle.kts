@@ -16,6 +16,9 @@ repositories {
 }
 
 dependencies {
+    // DiffContent carries its own Jackson (de)serializers; every consuming service brings databind
+    compileOnly("com.fasterxml.jackson.core:jackson-databind:2.17.0")
+
     // Test
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -24,6 +27,14 @@ dependencies {
     testImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.17.0")
 }
 
+// The JSON schemas ship with the events, for the local schema registry in platform-commons
+tasks.processResources {
+    from(rootProject.file("event-schemas")) {
+        include("v*/**/*.json")
+        into("event-schemas")
+    }
+}
+
 tasks.test {
     useJUnitPlatform()
 }
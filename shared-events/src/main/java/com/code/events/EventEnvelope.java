@@ -0,0 +1,104 @@
+package com.code.events;
+
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.integration.CommentPostingFailedEvent;
+import com.code.events.review.ReviewCompletedEvent;
+import com.code.events.review.ReviewFailedEvent;
+import com.code.events.review.ReviewStartedEvent;
+import com.code.events.webhook.PullRequestReceivedEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * What a consumer needs to route or drop an event without reading its payload, carried in the
+ * {@link EventHeaders} next to it. {@code eventType} is the schema name in {@code event-schemas}
+ * and {@code schemaVersion} its major version; {@code status} is set only for events that have
+ * one.
+ * <p>
+ * Every field is null when read from a record whose producer predates the envelope, so a
+ * decision taken on the envelope alone must keep such records.
+ */
+public record EventEnvelope(
+        String eventId,
+        String correlationId,
+        String eventType,
+        String schemaVersion,
+        String status
+) {
+
+    public static final String SCHEMA_VERSION = "1";
+
+    // Named after their schema files in event-schemas
+    private static final Map<Class<?>, String> EVENT_TYPES = Map.of(
+            PullRequestReceivedEvent.class, "pull-request-received",
+            ContextCollectedEvent.class, "context-collected",
+            ReviewStartedEvent.class, "review-started",
+            ReviewCompletedEvent.class, "review-completed",
+            ReviewFailedEvent.class, "review-failed",
+            CommentPostingFailedEvent.class, "comment-posting-failed");
+
+    /**
+     * The envelope of one of the shared events, or null for any other value.
+     */
+    public static EventEnvelope of(Object event) {
+        return switch (event) {
+            case PullRequestReceivedEvent e -> envelope(e, e.eventId(), e.correlationId(), null);
+            case ContextCollectedEvent e -> envelope(e, e.eventId(), e.correlationId(),
+                    e.status() != null ? e.status().name() : null);
+            case ReviewStartedEvent e -> envelope(e, e.eventId(), e.correlationId(), null);
+            case ReviewCompletedEvent e -> envelope(e, e.eventId(), e.correlationId(), null);
+            case ReviewFailedEvent e -> envelope(e, e.eventId(), e.correlationId(), null);
+            case CommentPostingFailedEvent e -> envelope(e, e.eventId(), e.correlationId(), null);
+            case null, default -> null;
+        };
+    }
+
+    /**
+     * The schema name of a shared event class, or null for any other class.
+     */
+    public static String eventType(Class<?> eventClass) {
+        return EVENT_TYPES.get(eventClass);
+    }
+
+    public static Set<Class<?>> eventClasses() {
+        return EVENT_TYPES.keySet();
+    }
+
+    /**
+     * Reads the envelope through a lookup of header values by name, null for absent headers.
+     */
+    public static EventEnvelope fromHeaders(Function<String, String> header) {
+        return new EventEnvelope(
+                header.apply(EventHeaders.EVENT_ID),
+                header.apply(EventHeaders.CORRELATION_ID),
+                header.apply(EventHeaders.EVENT_TYPE),
+                header.apply(EventHeaders.SCHEMA_VERSION),
+                header.apply(EventHeaders.STATUS));
+    }
+
+    /**
+     * Header values by name, without the fields that are null.
+     */
+    public Map<String, String> headers() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        putIfPresent(headers, EventHeaders.EVENT_ID, eventId);
+        putIfPresent(headers, EventHeaders.CORRELATION_ID, correlationId);
+        putIfPresent(headers, EventHeaders.EVENT_TYPE, eventType);
+        putIfPresent(headers, EventHeaders.SCHEMA_VERSION, schemaVersion);
+        putIfPresent(headers, EventHeaders.STATUS, status);
+        return headers;
+    }
+
+    private static EventEnvelope envelope(Object event, String eventId, String correlationId, String status) {
+        return new EventEnvelope(eventId, correlationId, eventType(event.getClass()), SCHEMA_VERSION, status);
+    }
+
+    private static void putIfPresent(Map<String, String> headers, String name, String value) {
+        if (value != null) {
+            headers.put(name, value);
+        }
+    }
+}
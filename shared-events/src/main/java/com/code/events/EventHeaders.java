@@ -0,0 +1,30 @@
+package com.code.events;
+
+/**
+ * Kafka record headers that are part of the event wire contract, next to the payload schemas in
+ * {@code event-schemas}.
+ */
+public final class EventHeaders {
+
+    /**
+     * How the record value is encoded on top of its JSON, such as {@code zstd}. Absent for plain
+     * JSON, so consumers read records from producers that never compress unchanged.
+     */
+    public static final String CONTENT_ENCODING = "content-encoding";
+
+    /**
+     * The format of the record value before any content encoding, such as
+     * {@code application/x-jackson-smile}. Absent for JSON.
+     */
+    public static final String CONTENT_TYPE = "content-type";
+
+    // The envelope, see EventEnvelope; absent on records from producers that predate it
+    public static final String EVENT_ID = "event-id";
+    public static final String CORRELATION_ID = "correlation-id";
+    public static final String EVENT_TYPE = "event-type";
+    public static final String SCHEMA_VERSION = "schema-version";
+    public static final String STATUS = "status";
+
+    private EventHeaders() {
+    }
+}
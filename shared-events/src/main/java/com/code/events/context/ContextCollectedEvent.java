@@ -2,6 +2,14 @@ package com.code.events.context;
 
 import java.time.Instant;
 
+/**
+ * {@code incremental} is true when {@code diff} holds only the changes pushed since
+ * {@code baseSha}, the head reviewed last, up to {@code headSha}; otherwise it is the whole pull
+ * request. The three fields are null on events from producers that predate them.
+ * <p>
+ * When the producer offloads the diff to the blob store, {@code diff} is null and
+ * {@code diffRef} says where to fetch it from.
+ */
 public record ContextCollectedEvent(
         String eventId,
         String contextId,
@@ -9,9 +17,13 @@ public record ContextCollectedEvent(
         String repositoryName,
         Integer pullRequestNumber,
         String title,
-        String diff,
+        DiffContent diff,
         ContextCollectionStatus status,
         String correlationId,
-        Instant timestamp
+        Instant timestamp,
+        Boolean incremental,
+        String baseSha,
+        String headSha,
+        DiffReference diffRef
 ) {
 }
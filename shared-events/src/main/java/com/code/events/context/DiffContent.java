@@ -0,0 +1,132 @@
+package com.code.events.context;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Unified diff text held as UTF-8 bytes, the form it is downloaded in, so the producer can
+ * measure and serialize it without decoding to a {@code String}. On the wire it is a plain JSON
+ * string; consumers get it decoded once by Jackson and can read it with {@link #asString()} for
+ * free.
+ * <p>
+ * Either representation is derived from the other on first use and cached. The byte array is
+ * shared, never copied, and must not be modified after {@link #ofUtf8(byte[])}.
+ */
+@JsonSerialize(using = DiffContent.Serializer.class)
+@JsonDeserialize(using = DiffContent.Deserializer.class)
+public final class DiffContent {
+
+    // Volatile so a representation cached on one thread is seen whole on another
+    private volatile byte[] utf8;
+    private volatile String text;
+
+    private DiffContent(byte[] utf8, String text) {
+        this.utf8 = utf8;
+        this.text = text;
+    }
+
+    public static DiffContent ofUtf8(byte[] utf8) {
+        return new DiffContent(utf8, null);
+    }
+
+    public static DiffContent of(String text) {
+        return new DiffContent(null, text);
+    }
+
+    public byte[] utf8() {
+        byte[] bytes = utf8;
+        if (bytes == null) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            utf8 = bytes;
+        }
+        return bytes;
+    }
+
+    public String asString() {
+        String string = text;
+        if (string == null) {
+            string = new String(utf8, StandardCharsets.UTF_8);
+            text = string;
+        }
+        return string;
+    }
+
+    public int sizeBytes() {
+        return utf8().length;
+    }
+
+    /**
+     * Whitespace-only check that never decodes: every non-ASCII byte is part of a
+     * non-whitespace character as far as diffs are concerned.
+     */
+    public boolean isBlank() {
+        String string = text;
+        if (string != null) {
+            return string.isBlank();
+        }
+        for (byte b : utf8) {
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x0B) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof DiffContent other && Arrays.equals(utf8(), other.utf8());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(utf8());
+    }
+
+    // Never the content itself, so a logged event does not leak code
+    @Override
+    public String toString() {
+        return "DiffContent[" + sizeBytes() + " bytes]";
+    }
+
+    public static final class Serializer extends StdSerializer<DiffContent> {
+
+        public Serializer() {
+            super(DiffContent.class);
+        }
+
+        @Override
+        public void serialize(DiffContent value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            byte[] utf8 = value.utf8;
+            // Writer-backed generators (writeValueAsString) do not support raw UTF-8 input
+            if (utf8 != null && gen.getOutputTarget() instanceof OutputStream) {
+                // Escapes while copying the raw bytes into the output, no String in between
+                gen.writeUTF8String(utf8, 0, utf8.length);
+            } else {
+                gen.writeString(value.asString());
+            }
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<DiffContent> {
+
+        public Deserializer() {
+            super(DiffContent.class);
+        }
+
+        @Override
+        public DiffContent deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return DiffContent.of(parser.getValueAsString());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.code.events.context;
+
+/**
+ * Claim check for a diff kept in the blob store instead of the event: the hex SHA-256 of its
+ * UTF-8 bytes, which is also its key in the store, and its size in bytes.
+ */
+public record DiffReference(
+        String digest,
+        Long sizeBytes
+) {
+}
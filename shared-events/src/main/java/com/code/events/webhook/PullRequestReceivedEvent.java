@@ -2,6 +2,10 @@ package com.code.events.webhook;
 
 import java.time.Instant;
 
+/**
+ * Size statistics ({@code additions}, {@code deletions}, {@code changedFiles}) and {@code draft}
+ * are copied from the webhook payload and are null when the producer did not supply them.
+ */
 public record PullRequestReceivedEvent(
         String eventId,
         String repositoryOwner,
@@ -14,7 +18,11 @@ public record PullRequestReceivedEvent(
         Instant timestamp,
         String correlationId,
         String platform,
-        String installationId
+        String installationId,
+        Integer additions,
+        Integer deletions,
+        Integer changedFiles,
+        Boolean draft
 ) {
     public boolean triggersReview() {
         return action.triggersReview();
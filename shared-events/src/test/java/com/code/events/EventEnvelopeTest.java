@@ -0,0 +1,43 @@
+package com.code.events;
+
+import com.code.events.context.ContextCollectedEvent;
+import com.code.events.context.ContextCollectionStatus;
+import com.code.events.review.ReviewStartedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventEnvelopeTest {
+
+    @Test
+    void contextCollectedShouldCarryItsStatus() {
+        ContextCollectedEvent event = new ContextCollectedEvent("event-1", "context-1", "owner", "repo", 7, "title",
+                null, ContextCollectionStatus.COMPLETED, "corr-1", Instant.now(), false, null, null, null);
+
+        EventEnvelope envelope = EventEnvelope.of(event);
+
+        assertEquals(new EventEnvelope("event-1", "corr-1", "context-collected", "1", "COMPLETED"), envelope);
+    }
+
+    @Test
+    void shouldRoundTripThroughHeaders() {
+        ReviewStartedEvent event = new ReviewStartedEvent("event-2", "review-1", "context-1", "owner", "repo", 7,
+                "corr-2", Instant.now());
+
+        Map<String, String> headers = EventEnvelope.of(event).headers();
+
+        assertFalse(headers.containsKey(EventHeaders.STATUS));
+        assertEquals(EventEnvelope.of(event), EventEnvelope.fromHeaders(headers::get));
+    }
+
+    @Test
+    void shouldHaveNoEnvelopeForOtherValues() {
+        assertNull(EventEnvelope.of("not an event"));
+        assertNull(EventEnvelope.of(null));
+    }
+}
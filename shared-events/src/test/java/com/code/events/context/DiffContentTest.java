@@ -0,0 +1,53 @@
+package com.code.events.context;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiffContentTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String DIFF = "diff --git a/\"q\".txt b/\"q\".txt\n@@ -1 +1 @@\n-\tcafé\n+naïve \\ 日本\n";
+
+    @Test
+    void bytesShouldSerializeAsEscapedJsonString() throws Exception {
+        DiffContent content = DiffContent.ofUtf8(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        byte[] json = OBJECT_MAPPER.writeValueAsBytes(content);
+
+        assertEquals(OBJECT_MAPPER.writeValueAsString(DIFF), new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writerBackedSerializationShouldMatchByteSerialization() throws Exception {
+        DiffContent content = DiffContent.ofUtf8(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new String(OBJECT_MAPPER.writeValueAsBytes(content), StandardCharsets.UTF_8),
+                OBJECT_MAPPER.writeValueAsString(content));
+    }
+
+    @Test
+    void shouldRoundTripThroughJson() throws Exception {
+        DiffContent content = DiffContent.ofUtf8(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        DiffContent read = OBJECT_MAPPER.readValue(OBJECT_MAPPER.writeValueAsBytes(content), DiffContent.class);
+
+        assertEquals(DIFF, read.asString());
+        assertEquals(content, read);
+        assertEquals(DIFF.getBytes(StandardCharsets.UTF_8).length, read.sizeBytes());
+    }
+
+    @Test
+    void blankCheckShouldNotDependOnRepresentation() {
+        assertTrue(DiffContent.ofUtf8(" \r\n\t".getBytes(StandardCharsets.UTF_8)).isBlank());
+        assertTrue(DiffContent.of(" \r\n\t").isBlank());
+        assertFalse(DiffContent.ofUtf8("  é ".getBytes(StandardCharsets.UTF_8)).isBlank());
+        assertFalse(DiffContent.of("  é ").isBlank());
+    }
+}
@@ -2,6 +2,8 @@ package com.code.events.schema;
 
 import com.code.events.context.ContextCollectedEvent;
 import com.code.events.context.ContextCollectionStatus;
+import com.code.events.context.DiffContent;
+import com.code.events.context.DiffReference;
 import com.code.events.integration.CommentPostingFailedEvent;
 import com.code.events.review.ReviewCompletedEvent;
 import com.code.events.review.ReviewFailedEvent;
@@ -19,6 +21,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
@@ -55,6 +58,7 @@ class EventSchemaContractTest {
         return Stream.of(
                 Arguments.of(createPullRequestReceivedEvent(), Path.of("webhook", "pull-request-received.json").toString()),
                 Arguments.of(createContextCollectedEvent(), Path.of("context", "context-collected.json").toString()),
+                Arguments.of(createOffloadedContextCollectedEvent(), Path.of("context", "context-collected.json").toString()),
                 Arguments.of(createReviewStartedEvent(), Path.of("review", "review-started.json").toString()),
                 Arguments.of(createReviewCompletedEvent(), Path.of("review", "review-completed.json").toString()),
                 Arguments.of(createReviewFailedEvent(), Path.of("review", "review-failed.json").toString()),
@@ -75,7 +79,11 @@ class EventSchemaContractTest {
                 Instant.now(),
                 uuid(),
                 "github",
-                "install-123"
+                "install-123",
+                120,
+                30,
+                4,
+                false
         );
     }
 
@@ -87,10 +95,33 @@ class EventSchemaContractTest {
                 "repo",
                 1,
                 "PR title",
-                "diff --git a/file b/file\n@@ -1 +1 @@\n-foo\n+bar",
+                DiffContent.ofUtf8("diff --git a/file b/file\n@@ -1 +1 @@\n-foo\n+bar".getBytes(StandardCharsets.UTF_8)),
                 ContextCollectionStatus.COMPLETED,
                 uuid(),
-                Instant.now()
+                Instant.now(),
+                true,
+                "6dcb09b5b57875f334f61aebed695e2e4193db5e",
+                "a1b2c3d4e5f60718293a4b5c6d7e8f9012345678",
+                null
+        );
+    }
+
+    private static ContextCollectedEvent createOffloadedContextCollectedEvent() {
+        return new ContextCollectedEvent(
+                uuid(),
+                uuid(),
+                "owner",
+                "repo",
+                1,
+                "PR title",
+                null,
+                ContextCollectionStatus.COMPLETED,
+                uuid(),
+                Instant.now(),
+                false,
+                null,
+                "a1b2c3d4e5f60718293a4b5c6d7e8f9012345678",
+                new DiffReference("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", 2_400_000L)
         );
     }
 
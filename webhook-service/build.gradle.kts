@@ -4,6 +4,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     `jvm-test-suite`
     jacoco
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.code"
@@ -82,6 +83,14 @@ testing {
     }
 }
 
+// Microbenchmarks live in src/jmh and run on demand: ./gradlew :webhook-service:jmh
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgsAppend.add("-Dwebhook.benchmark.payload=${rootProject.file("test-webhook-payload.json")}")
+}
+
 tasks.named("check") {
     dependsOn(testing.suites.named("integrationTest"))
 }
@@ -0,0 +1,95 @@
+package com.code.webhook.infrastructure.adapter.inbound.rest.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares full databind of {@link GitHubPullRequestEventDto} against the projecting
+ * {@link GitHubPullRequestEventReader}.
+ * <ul>
+ *   <li>{@code sample}: test-webhook-payload.json as checked in</li>
+ *   <li>{@code padded}: the same payload with sender, repository and pull request objects
+ *       padded to the ~30 KB GitHub typically sends</li>
+ *   <li>{@code ignored}: the padded payload with an action that never triggers a review</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GitHubPullRequestEventReaderBenchmark {
+
+    private static final Set<String> REVIEWED_ACTIONS = Set.of("opened", "synchronize", "reopened");
+
+    @Param({"sample", "padded", "ignored"})
+    public String payloadShape;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path path = Path.of(System.getProperty("webhook.benchmark.payload", "../test-webhook-payload.json"));
+        byte[] sample = Files.readAllBytes(path);
+
+        payload = switch (payloadShape) {
+            case "sample" -> sample;
+            case "padded" -> objectMapper.writeValueAsBytes(pad(sample, "opened"));
+            case "ignored" -> objectMapper.writeValueAsBytes(pad(sample, "labeled"));
+            default -> throw new IllegalArgumentException("Unknown payload shape: " + payloadShape);
+        };
+    }
+
+    @Benchmark
+    public GitHubPullRequestEventDto databind() throws IOException {
+        return objectMapper.readValue(payload, GitHubPullRequestEventDto.class);
+    }
+
+    @Benchmark
+    public GitHubPullRequestEventDto streaming() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            return GitHubPullRequestEventReader.read(parser, REVIEWED_ACTIONS::contains);
+        }
+    }
+
+    private ObjectNode pad(byte[] sample, String action) throws IOException {
+        ObjectNode root = (ObjectNode) objectMapper.readTree(sample);
+        root.put("action", action);
+        padObject((ObjectNode) root.get("repository"), "repo", 120);
+        padObject((ObjectNode) root.get("pull_request"), "pr", 120);
+        padObject(root.putObject("sender"), "sender", 40);
+        root.putObject("installation").put("id", 12345678L);
+
+        ArrayNode labels = ((ObjectNode) root.get("pull_request")).putArray("labels");
+        for (int i = 0; i < 20; i++) {
+            ObjectNode label = labels.addObject();
+            label.put("id", 1_000_000L + i);
+            label.put("name", "label-" + i);
+            label.put("description", "Label description used to pad the payload " + i);
+            label.put("color", "ededed");
+        }
+        return root;
+    }
+
+    private static void padObject(ObjectNode node, String prefix, int fields) {
+        for (int i = 0; i < fields; i++) {
+            node.put(prefix + "_url_" + i,
+                    "https://api.github.com/repos/testowner/testrepo/" + prefix + "/" + i + "{/placeholder}");
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.code.webhook.application.port.inbound;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface WebhookService {
 
-    Mono<Void> receive(byte[] payload, String signature, String deliveryId);
+    Mono<Void> receive(byte[] payload, String signature, String deliveryId, String hookTargetId);
+
+    Mono<Void> receiveStream(Flux<DataBuffer> body, String signature, String deliveryId, String hookTargetId);
 }
@@ -5,4 +5,6 @@ import com.code.webhook.domain.model.WebhookValidationResult;
 public interface SignatureValidator {
 
     WebhookValidationResult validate(byte[] payload, String signature, String secret);
+
+    SignatureVerification begin(String secret);
 }
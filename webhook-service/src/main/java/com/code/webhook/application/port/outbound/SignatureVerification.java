@@ -0,0 +1,19 @@
+package com.code.webhook.application.port.outbound;
+
+import com.code.webhook.domain.model.WebhookValidationResult;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental signature check fed chunk by chunk while the request body is still arriving.
+ * Must be closed so the underlying MAC can be returned to its pool.
+ */
+public interface SignatureVerification extends AutoCloseable {
+
+    void update(ByteBuffer chunk);
+
+    WebhookValidationResult verify(String signature);
+
+    @Override
+    void close();
+}
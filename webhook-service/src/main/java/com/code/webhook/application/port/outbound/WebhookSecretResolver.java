@@ -0,0 +1,14 @@
+package com.code.webhook.application.port.outbound;
+
+import java.util.List;
+
+public interface WebhookSecretResolver {
+
+    /**
+     * Candidate secrets for a hook target, most likely match first.
+     * During rotation both the new and the previous secret are returned.
+     */
+    List<String> resolve(String hookTargetId);
+
+    void recordMatch(String hookTargetId, String secret);
+}
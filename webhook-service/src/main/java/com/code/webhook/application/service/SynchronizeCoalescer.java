@@ -0,0 +1,160 @@
+package com.code.webhook.application.service;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debounces SYNCHRONIZE events per pull request so a burst of pushes produces one review of
+ * the latest head instead of one review per commit.
+ * <p>
+ * A SYNCHRONIZE is held for {@code window}; another one for the same pull request replaces it
+ * and restarts the window, but nothing is held longer than {@code maxHold} after the first push
+ * of a burst. Every other action is forwarded immediately. Held events are acknowledged to
+ * GitHub before they are published, so a publish failure after the window is only logged.
+ */
+@Slf4j
+public class SynchronizeCoalescer implements SmartLifecycle {
+
+    private final EventPublisher delegate;
+    private final Duration window;
+    private final Duration maxHold;
+    private final MetricsHelper metricsHelper;
+    private final Scheduler scheduler;
+    private final ConcurrentMap<String, Held> pending = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    private volatile boolean running;
+
+    public SynchronizeCoalescer(EventPublisher delegate, Duration window, Duration maxHold, MetricsHelper metricsHelper) {
+        this(delegate, window, maxHold, metricsHelper, Schedulers.parallel());
+    }
+
+    SynchronizeCoalescer(
+            EventPublisher delegate, Duration window, Duration maxHold, MetricsHelper metricsHelper, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.window = window;
+        this.maxHold = maxHold;
+        this.metricsHelper = metricsHelper;
+        this.scheduler = scheduler;
+
+        metricsHelper.gauge("coalescing.pending", pending, ConcurrentMap::size);
+    }
+
+    public Mono<Void> publish(PullRequestReceivedEvent event) {
+        if (event.action() != WebhookAction.SYNCHRONIZE || !running) {
+            return delegate.publish(event);
+        }
+
+        return Mono.fromRunnable(() -> hold(event));
+    }
+
+    private void hold(PullRequestReceivedEvent event) {
+        String key = key(event);
+        long now = scheduler.now(TimeUnit.NANOSECONDS);
+
+        pending.compute(key, (k, held) -> {
+            long firstSeen = held != null ? held.firstSeenNanos() : now;
+            int superseded = held != null ? held.superseded() + 1 : 0;
+            if (held != null) {
+                held.timer().dispose();
+                metricsHelper.incrementCounter("coalescing.superseded");
+                log.debug("Superseding held SYNCHRONIZE for {}: {} -> {}",
+                        key, held.event().commitSha(), event.commitSha());
+            }
+
+            long remaining = maxHold.toNanos() - (now - firstSeen);
+            long delay = Math.max(0, Math.min(window.toNanos(), remaining));
+            long generation = generations.incrementAndGet();
+            Disposable timer = scheduler.schedule(() -> release(key, generation), delay, TimeUnit.NANOSECONDS);
+            return new Held(event, firstSeen, superseded, generation, timer);
+        });
+    }
+
+    private void release(String key, long generation) {
+        Held[] released = new Held[1];
+        pending.computeIfPresent(key, (k, held) -> {
+            if (held.generation() != generation) {
+                return held;
+            }
+            released[0] = held;
+            return null;
+        });
+
+        if (released[0] != null) {
+            forward(released[0]).subscribe();
+        }
+    }
+
+    private Mono<Void> forward(Held held) {
+        PullRequestReceivedEvent event = held.event();
+        metricsHelper.recordValue("coalescing.burst.size", held.superseded() + 1);
+        log.info("Forwarding SYNCHRONIZE for {} at {} after coalescing {} earlier push(es)",
+                key(event), event.commitSha(), held.superseded());
+
+        return delegate.publish(event)
+                .doOnError(error -> {
+                    metricsHelper.incrementCounter("coalescing.publish.failed");
+                    log.error("Failed to publish coalesced SYNCHRONIZE: eventId={}", event.eventId(), error);
+                })
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+
+        // Flush everything still held rather than dropping it on shutdown
+        List<Held> remaining = List.copyOf(pending.values());
+        pending.clear();
+        remaining.forEach(held -> held.timer().dispose());
+        Flux.fromIterable(remaining)
+                .flatMap(this::forward)
+                .then()
+                .block(Duration.ofSeconds(10));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server, but before any ingest queue or outbox we publish into
+        return SmartLifecycle.DEFAULT_PHASE - 3072;
+    }
+
+    private static String key(PullRequestReceivedEvent event) {
+        return event.repositoryOwner() + "/" + event.repositoryName() + "#" + event.pullRequestNumber();
+    }
+
+    private record Held(
+            PullRequestReceivedEvent event,
+            long firstSeenNanos,
+            int superseded,
+            long generation,
+            Disposable timer
+    ) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.code.webhook.application.service;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.platform.idempotency.IdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-installation and per-repository admission in front of the event publisher, so one noisy
+ * tenant cannot use up the GitHub and AI capacity shared by everyone else.
+ * <p>
+ * Each event takes a token from its repository bucket and, when the installation is known, from
+ * its installation bucket. Over the limit, events are either rejected (the caller answers 429
+ * with Retry-After) or, in DEFER mode, acknowledged and published once their reserved token
+ * becomes available, provided that is within {@code maxDefer}.
+ * <p>
+ * A deferred event has already been acknowledged, so GitHub will not redeliver it on its own. When
+ * its publish fails, the delivery id the caller put in the subscriber context under
+ * {@link #DELIVERY_ID} is released, so a manual redelivery is accepted again. The delegate is the
+ * outbox or ingress queue when either is enabled; without them a failed deferred publish loses
+ * the event, counted as {@code admission.deferred.failed}.
+ */
+@Slf4j
+public class TenantAdmissionLimiter {
+
+    /** Subscriber context key of the webhook delivery id, released when a deferred publish fails */
+    static final String DELIVERY_ID = "webhook.delivery-id";
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+    private static final Duration IDLE_EXPIRY = Duration.ofHours(1);
+
+    private final EventPublisher delegate;
+    private final IdempotencyStore deliveryStore;
+    private final WebhookProperties.RateLimit config;
+    private final MetricsHelper metricsHelper;
+    private final Scheduler scheduler;
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_KEYS)
+            .expireAfterAccess(IDLE_EXPIRY)
+            .build();
+
+    public TenantAdmissionLimiter(
+            EventPublisher delegate,
+            IdempotencyStore deliveryStore,
+            WebhookProperties.RateLimit config,
+            MetricsHelper metricsHelper) {
+        this(delegate, deliveryStore, config, metricsHelper, Schedulers.parallel());
+    }
+
+    TenantAdmissionLimiter(
+            EventPublisher delegate,
+            IdempotencyStore deliveryStore,
+            WebhookProperties.RateLimit config,
+            MetricsHelper metricsHelper,
+            Scheduler scheduler) {
+        this.delegate = delegate;
+        this.deliveryStore = deliveryStore;
+        this.config = config;
+        this.metricsHelper = metricsHelper;
+        this.scheduler = scheduler;
+
+        metricsHelper.gauge("admission.buckets", buckets, Cache::estimatedSize);
+    }
+
+    public Mono<Void> publish(PullRequestReceivedEvent event) {
+        return Mono.defer(() -> {
+            long now = scheduler.now(TimeUnit.NANOSECONDS);
+            long maxWait = config.mode() == WebhookProperties.OverLimit.DEFER ? config.maxDefer().toNanos() : 0L;
+
+            String repository = event.repositoryOwner() + "/" + event.repositoryName();
+            TokenBucket repositoryBucket = bucket("repository:" + repository, config.repository(), repository, now);
+            long wait = repositoryBucket.tryReserve(now, maxWait);
+            if (wait > maxWait) {
+                return reject(event, "repository", wait);
+            }
+
+            String installationId = event.installationId();
+            if (installationId != null && !installationId.isBlank()) {
+                TokenBucket installationBucket = bucket(
+                        "installation:" + installationId, config.installation(), installationId, now);
+                long installationWait = installationBucket.tryReserve(now, maxWait);
+                if (installationWait > maxWait) {
+                    repositoryBucket.refund();
+                    return reject(event, "installation", installationWait);
+                }
+                wait = Math.max(wait, installationWait);
+            }
+
+            if (wait == 0L) {
+                metricsHelper.incrementCounter("admission.admitted");
+                return delegate.publish(event);
+            }
+            return defer(event, Duration.ofNanos(wait));
+        });
+    }
+
+    private Mono<Void> defer(PullRequestReceivedEvent event, Duration wait) {
+        metricsHelper.incrementCounter("admission.deferred");
+        metricsHelper.recordDuration("admission.defer.delay", wait);
+        log.info("Deferring PullRequestReceivedEvent for {}/{} by {} ms",
+                event.repositoryOwner(), event.repositoryName(), wait.toMillis());
+
+        return Mono.deferContextual(context -> {
+            String deliveryId = context.getOrDefault(DELIVERY_ID, null);
+            // Started once the caller has seen the acknowledgement and marked the delivery processed,
+            // so releasing it on failure cannot be overwritten
+            return Mono.<Void>empty().doAfterTerminate(() -> Mono.delay(wait, scheduler)
+                    .then(Mono.defer(() -> delegate.publish(event)))
+                    .subscribe(null, error -> deferredFailed(event, deliveryId, error)));
+        });
+    }
+
+    private void deferredFailed(PullRequestReceivedEvent event, String deliveryId, Throwable error) {
+        metricsHelper.incrementCounter("admission.deferred.failed");
+        log.error("Failed to publish deferred event, it is lost unless redelivered: eventId={}, deliveryId={}",
+                event.eventId(), deliveryId, error);
+        if (deliveryId != null) {
+            deliveryStore.release(deliveryId);
+        }
+    }
+
+    private Mono<Void> reject(PullRequestReceivedEvent event, String scope, long waitNanos) {
+        metricsHelper.incrementCounter("admission.rejected", "scope", scope);
+        log.warn("Rate limit exceeded for {} of {}/{}: eventId={}",
+                scope, event.repositoryOwner(), event.repositoryName(), event.eventId());
+
+        // Round up so the sender does not come back a moment too early
+        Duration retryAfter = Duration.ofSeconds(Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1));
+        return Mono.error(new IngestRejectedException("Rate limit exceeded for " + scope, retryAfter, false));
+    }
+
+    private TokenBucket bucket(String key, WebhookProperties.Limit defaults, String overrideKey, long now) {
+        return buckets.get(key, k -> {
+            WebhookProperties.Limit limit = config.overrides().getOrDefault(overrideKey, defaults);
+            return new TokenBucket(limit.perMinute() / 60.0, limit.burst(), now);
+        });
+    }
+}
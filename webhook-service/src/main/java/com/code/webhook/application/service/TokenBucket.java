@@ -0,0 +1,48 @@
+package com.code.webhook.application.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form. The whole state is a single theoretical arrival time
+ * advanced by CAS, so concurrent event-loop threads never block each other.
+ * Holds {@code burst} tokens and earns one every {@code 1 / tokensPerSecond} seconds.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double tokensPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Reserves the next token if it becomes available within {@code maxWaitNanos}.
+     *
+     * @return nanos until the reserved token is available (0 when available now); a value above
+     *         {@code maxWaitNanos} means nothing was reserved and is the time until one would be
+     */
+    long tryReserve(long nowNanos, long maxWaitNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, nowNanos);
+            long wait = start - burstToleranceNanos - nowNanos;
+            if (wait > maxWaitNanos) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return Math.max(0L, wait);
+            }
+        }
+    }
+
+    /**
+     * Gives back a token reserved by {@link #tryReserve} that ended up unused.
+     */
+    void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+}
@@ -5,39 +5,54 @@ import com.code.events.webhook.WebhookAction;
 import com.code.webhook.application.port.inbound.WebhookService;
 import com.code.webhook.application.port.outbound.EventPublisher;
 import com.code.webhook.application.port.outbound.SignatureValidator;
+import com.code.webhook.application.port.outbound.SignatureVerification;
+import com.code.webhook.application.port.outbound.WebhookSecretResolver;
 import com.code.webhook.domain.model.WebhookValidationResult;
 import com.code.webhook.infrastructure.adapter.inbound.rest.dto.GitHubPullRequestEventDto;
+import com.code.webhook.infrastructure.adapter.inbound.rest.dto.GitHubPullRequestEventReader;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
 import com.code.platform.correlation.CorrelationId;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.code.platform.idempotency.IdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RequiredArgsConstructor
 public class WebhookServiceImpl implements WebhookService {
 
+    private static final String VERIFICATION_METRIC = "signature.verification";
+    private static final String SECRET_FALLBACK_METRIC = "signature.secret.fallback";
+    private static final String NO_SECRET_CONFIGURED = "No webhook secret configured";
+
     private final SignatureValidator signatureValidator;
     private final EventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
-    private final String webhookSecret;
-    private final Cache<String, Boolean> processedDeliveries = Caffeine.newBuilder()
-        .expireAfterWrite(Duration.ofHours(24))
-        .maximumSize(10_000)
-        .build();
+    private final WebhookSecretResolver secretResolver;
+    private final int maxPayloadBytes;
+    private final MetricsHelper metricsHelper;
+    private final IdempotencyStore deliveryStore;
 
     @Override
-    public Mono<Void> receive(byte[] payload, String signature, String deliveryId) {
+    public Mono<Void> receive(byte[] payload, String signature, String deliveryId, String hookTargetId) {
         if (payload == null || payload.length == 0) {
             return Mono.error(new WebhookValidationException("Payload cannot be null or empty"));
         }
@@ -46,8 +61,130 @@ public class WebhookServiceImpl implements WebhookService {
             return Mono.error(new WebhookValidationException("Signature cannot be null or empty"));
         }
 
-        WebhookValidationResult validationResult = signatureValidator.validate(payload, signature, webhookSecret);
+        WebhookValidationResult validationResult = verify(payload, signature, hookTargetId);
+        if (!validationResult.isValid()) {
+            log.warn("Webhook signature validation failed: {}", validationResult.failureReason());
+            return Mono.error(new WebhookValidationException("Invalid signature: " + validationResult.failureReason()));
+        }
+
+        GitHubPullRequestEventDto dto;
+        try {
+            dto = parseWebhook(payload);
+        } catch (WebhookParseException e) {
+            log.error("Failed to parse webhook payload", e);
+            return Mono.error(e);
+        }
+
+        return dispatch(dto, deliveryId);
+    }
+
+    @Override
+    public Mono<Void> receiveStream(Flux<DataBuffer> body, String signature, String deliveryId, String hookTargetId) {
+        if (signature == null || signature.isBlank()) {
+            return Mono.error(new WebhookValidationException("Signature cannot be null or empty"));
+        }
+
+        return Mono.defer(() -> {
+            List<String> candidates = secretResolver.resolve(hookTargetId);
+            if (candidates.isEmpty()) {
+                return Mono.error(new WebhookValidationException("Invalid signature: " + NO_SECRET_CONFIGURED));
+            }
+
+            // The MAC for the most likely secret is fed chunk by chunk as the body arrives, so
+            // verification costs no extra pass and the joined buffer is handed to the parser
+            // without another copy. Other candidates are only hashed after a mismatch.
+            AtomicLong hashingNanos = new AtomicLong();
+            return Mono.using(
+                    () -> signatureValidator.begin(candidates.get(0)),
+                    verification -> DataBufferUtils.join(
+                                    body.doOnNext(chunk -> hashingNanos.addAndGet(update(verification, chunk))),
+                                    maxPayloadBytes)
+                            .onErrorMap(DataBufferLimitException.class, e -> new WebhookPayloadTooLargeException(
+                                    "Payload exceeds " + maxPayloadBytes + " bytes"))
+                            .switchIfEmpty(Mono.error(new WebhookValidationException("Payload cannot be null or empty")))
+                            .flatMap(payload -> verifyAndDispatch(
+                                    verification, payload, signature, deliveryId, hookTargetId, candidates, hashingNanos.get())),
+                    SignatureVerification::close
+            );
+        });
+    }
+
+    private WebhookValidationResult verify(byte[] payload, String signature, String hookTargetId) {
+        long start = System.nanoTime();
+        List<String> candidates = secretResolver.resolve(hookTargetId);
+
+        WebhookValidationResult result = WebhookValidationResult.invalid(NO_SECRET_CONFIGURED);
+        for (int i = 0; i < candidates.size(); i++) {
+            result = signatureValidator.validate(payload, signature, candidates.get(i));
+            if (result.isValid()) {
+                recordSecretMatch(hookTargetId, candidates, i);
+                break;
+            }
+            // Only a digest mismatch can be fixed by another secret; malformed input cannot
+            if (!result.isMismatch()) {
+                break;
+            }
+        }
+
+        recordVerification(result, "buffered", System.nanoTime() - start);
+        return result;
+    }
+
+    private WebhookValidationResult verifyRemaining(
+            DataBuffer payload, String signature, String hookTargetId, List<String> candidates) {
+        WebhookValidationResult result = WebhookValidationResult.mismatch();
+        for (int i = 1; i < candidates.size(); i++) {
+            try (SignatureVerification verification = signatureValidator.begin(candidates.get(i))) {
+                update(verification, payload);
+                result = verification.verify(signature);
+            }
+            if (result.isValid()) {
+                recordSecretMatch(hookTargetId, candidates, i);
+                break;
+            }
+            if (!result.isMismatch()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void recordSecretMatch(String hookTargetId, List<String> candidates, int index) {
+        if (index > 0) {
+            log.info("Webhook signature matched fallback secret #{} for hook target {}", index, hookTargetId);
+            metricsHelper.incrementCounter(SECRET_FALLBACK_METRIC);
+            secretResolver.recordMatch(hookTargetId, candidates.get(index));
+        }
+    }
+
+    private void recordVerification(WebhookValidationResult result, String mode, long nanos) {
+        String outcome = result.isValid() ? "valid" : result.isMismatch() ? "mismatch" : "invalid";
+        metricsHelper.recordDuration(VERIFICATION_METRIC, Duration.ofNanos(nanos), "result", outcome, "mode", mode);
+    }
+
+    private long update(SignatureVerification verification, DataBuffer chunk) {
+        long start = System.nanoTime();
+        // Read-only views; the read position is left untouched for the parser
+        try (DataBuffer.ByteBufferIterator iterator = chunk.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                verification.update(iterator.next());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Mono<Void> verifyAndDispatch(
+            SignatureVerification verification, DataBuffer payload, String signature, String deliveryId,
+            String hookTargetId, List<String> candidates, long hashingNanos) {
+        long start = System.nanoTime();
+        WebhookValidationResult validationResult = verification.verify(signature);
+        if (validationResult.isMismatch() && candidates.size() > 1) {
+            validationResult = verifyRemaining(payload, signature, hookTargetId, candidates);
+        }
+        recordVerification(validationResult, "streaming", hashingNanos + System.nanoTime() - start);
+
         if (!validationResult.isValid()) {
+            DataBufferUtils.release(payload);
             log.warn("Webhook signature validation failed: {}", validationResult.failureReason());
             return Mono.error(new WebhookValidationException("Invalid signature: " + validationResult.failureReason()));
         }
@@ -60,6 +197,10 @@ public class WebhookServiceImpl implements WebhookService {
             return Mono.error(e);
         }
 
+        return dispatch(dto, deliveryId);
+    }
+
+    private Mono<Void> dispatch(GitHubPullRequestEventDto dto, String deliveryId) {
         WebhookAction action = mapAction(dto.action());
         if (action == null) {
             log.info("Skipping unsupported action: {} for PR #{}",
@@ -67,23 +208,27 @@ public class WebhookServiceImpl implements WebhookService {
             return Mono.empty();
         }
 
-        PullRequestReceivedEvent event = mapToEvent(dto, action);
-
-        if (!event.triggersReview()) {
+        // Checked before mapping: payloads for such actions are only read up to the action
+        if (!action.triggersReview()) {
             log.debug("PR action does not trigger review, skipping");
             return Mono.empty();
         }
 
+        PullRequestReceivedEvent event = mapToEvent(dto, action);
+
         return checkIdempotency(deliveryId)
                 .flatMap(ok -> {
                     log.info("Publishing PullRequestReceivedEvent: {}", event);
-                    return eventPublisher.publish(event);
+                    Mono<Void> published = eventPublisher.publish(event)
+                            .doOnSuccess(unused -> deliveryStore.markProcessed(deliveryId));
+                    // Lets a deferred publish release the delivery if it fails after the acknowledgement
+                    return deliveryId != null
+                            ? published.contextWrite(Context.of(TenantAdmissionLimiter.DELIVERY_ID, deliveryId))
+                            : published;
                 })
                 .doOnError(error -> {
                     log.error("Webhook processing failed", error);
-                    if (deliveryId != null) {
-                        processedDeliveries.invalidate(deliveryId);
-                    }
+                    deliveryStore.release(deliveryId);
                 });
     }
 
@@ -92,7 +237,7 @@ public class WebhookServiceImpl implements WebhookService {
             return Mono.just(true);
         }
 
-        boolean isFirstDelivery = processedDeliveries.asMap().putIfAbsent(deliveryId, Boolean.TRUE) == null;
+        boolean isFirstDelivery = deliveryStore.tryStart(deliveryId);
         if (!isFirstDelivery) {
             log.info("Duplicate delivery detected: {}, skipping", deliveryId);
             return Mono.empty();
@@ -102,14 +247,30 @@ public class WebhookServiceImpl implements WebhookService {
     }
 
     private GitHubPullRequestEventDto parseWebhook(byte[] payload) {
-        try {
-            return objectMapper.readValue(payload, GitHubPullRequestEventDto.class);
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            return GitHubPullRequestEventReader.read(parser, this::triggersReview);
         } catch (IOException e) {
             log.error("Failed to parse webhook payload", e);
             throw new WebhookParseException("Invalid webhook payload format", e);
         }
     }
 
+    private GitHubPullRequestEventDto parseWebhook(DataBuffer payload) {
+        // Closing the stream releases the pooled buffer
+        try (InputStream input = payload.asInputStream(true);
+             JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            return GitHubPullRequestEventReader.read(parser, this::triggersReview);
+        } catch (IOException e) {
+            log.error("Failed to parse webhook payload", e);
+            throw new WebhookParseException("Invalid webhook payload format", e);
+        }
+    }
+
+    private boolean triggersReview(String action) {
+        WebhookAction mapped = mapAction(action);
+        return mapped != null && mapped.triggersReview();
+    }
+
     private PullRequestReceivedEvent mapToEvent(GitHubPullRequestEventDto dto, WebhookAction action) {
         if (dto.repository() == null || dto.repository().owner() == null) {
             throw new WebhookParseException("Missing repository information", null);
@@ -146,7 +307,11 @@ public class WebhookServiceImpl implements WebhookService {
                 Instant.now(),
                 CorrelationId.generate(),
                 "github",
-                installationId
+                installationId,
+                dto.pullRequest().additions(),
+                dto.pullRequest().deletions(),
+                dto.pullRequest().changedFiles(),
+                dto.pullRequest().draft()
         );
     }
 
@@ -180,4 +345,10 @@ public class WebhookServiceImpl implements WebhookService {
             super(message, cause);
         }
     }
+
+    public static class WebhookPayloadTooLargeException extends RuntimeException {
+        public WebhookPayloadTooLargeException(String message) {
+            super(message);
+        }
+    }
 }
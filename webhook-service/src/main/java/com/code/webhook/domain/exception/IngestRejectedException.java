@@ -0,0 +1,31 @@
+package com.code.webhook.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Raised when a verified webhook cannot be accepted for publishing right now.
+ * Callers should answer with Retry-After so the sender backs off.
+ */
+public class IngestRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+    private final boolean brokerUnavailable;
+
+    public IngestRejectedException(String message, Duration retryAfter, boolean brokerUnavailable) {
+        super(message);
+        this.retryAfter = retryAfter;
+        this.brokerUnavailable = brokerUnavailable;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * True when events are backing up because the broker is failing, rather than
+     * because of a burst of traffic.
+     */
+    public boolean isBrokerUnavailable() {
+        return brokerUnavailable;
+    }
+}
@@ -4,6 +4,8 @@ public record WebhookValidationResult(
         boolean isValid,
         String failureReason
 ) {
+    private static final String SIGNATURE_MISMATCH = "Signature mismatch";
+
     public static WebhookValidationResult valid() {
         return new WebhookValidationResult(true, null);
     }
@@ -14,4 +16,16 @@ public record WebhookValidationResult(
         }
         return new WebhookValidationResult(false, reason);
     }
+
+    public static WebhookValidationResult mismatch() {
+        return invalid(SIGNATURE_MISMATCH);
+    }
+
+    /**
+     * Well-formed signature that was produced with a different secret; worth retrying
+     * against other candidate secrets, unlike format errors.
+     */
+    public boolean isMismatch() {
+        return !isValid && SIGNATURE_MISMATCH.equals(failureReason);
+    }
 }
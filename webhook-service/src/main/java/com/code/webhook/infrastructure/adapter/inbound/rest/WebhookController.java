@@ -2,15 +2,23 @@ package com.code.webhook.infrastructure.adapter.inbound.rest;
 
 import com.code.webhook.application.port.inbound.WebhookService;
 import com.code.webhook.application.service.WebhookServiceImpl.WebhookParseException;
+import com.code.webhook.application.service.WebhookServiceImpl.WebhookPayloadTooLargeException;
 import com.code.webhook.application.service.WebhookServiceImpl.WebhookValidationException;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -21,24 +29,38 @@ public class WebhookController {
     private static final String WEBHOOK_SIGNATURE_HEADER = "X-Hub-Signature-256";
     private static final String WEBHOOK_EVENT_HEADER = "X-GitHub-Event";
     private static final String WEBHOOK_DELIVERY_HEADER = "X-GitHub-Delivery";
+    private static final String WEBHOOK_HOOK_TARGET_HEADER = "X-GitHub-Hook-Installation-Target-ID";
 
     private final WebhookService webhookService;
+    private final WebhookProperties webhookProperties;
 
     @PostMapping(
             path = "/api/v1/webhooks/github/pull_request",
             headers = WEBHOOK_EVENT_HEADER + "=pull_request"
     )
     public Mono<ResponseEntity<Void>> handleGitHubWebhook(
-            @RequestBody Mono<byte[]> body,
+            @RequestBody Flux<DataBuffer> body,
             @RequestHeader(value = WEBHOOK_SIGNATURE_HEADER, required = false) String signature,
-            @RequestHeader(value = WEBHOOK_DELIVERY_HEADER, required = false) String deliveryId) {
+            @RequestHeader(value = WEBHOOK_DELIVERY_HEADER, required = false) String deliveryId,
+            @RequestHeader(value = WEBHOOK_HOOK_TARGET_HEADER, required = false) String hookTargetId,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
 
         log.debug("Received webhook with delivery ID: {}", deliveryId);
 
-        return body.switchIfEmpty(Mono.error(new IllegalArgumentException("Empty body")))
-                .flatMap(payload -> webhookService.receive(payload, signature, deliveryId)
-                        .thenReturn(ResponseEntity.accepted().<Void>build()))
-                .switchIfEmpty(Mono.just(ResponseEntity.accepted().build()))
+        WebhookProperties.Ingress ingress = webhookProperties.ingress();
+        if (contentLength != null && contentLength > ingress.maxPayloadBytes()) {
+            log.warn("Rejecting webhook {}: Content-Length {} exceeds {} bytes",
+                    deliveryId, contentLength, ingress.maxPayloadBytes());
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+
+        Mono<Void> processing = ingress.streaming()
+                ? webhookService.receiveStream(body, signature, deliveryId, hookTargetId)
+                : aggregate(body, ingress.maxPayloadBytes())
+                        .flatMap(payload -> webhookService.receive(payload, signature, deliveryId, hookTargetId));
+
+        return processing
+                .thenReturn(ResponseEntity.accepted().<Void>build())
                 .onErrorResume(IllegalArgumentException.class, ex -> {
                     log.warn("Bad request: {}", ex.getMessage());
                     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
@@ -51,9 +73,35 @@ public class WebhookController {
                     log.warn("Webhook parse failed: {}", ex.getMessage());
                     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
                 })
+                .onErrorResume(WebhookPayloadTooLargeException.class, ex -> {
+                    log.warn("Webhook payload rejected: {}", ex.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+                })
+                .onErrorResume(IngestRejectedException.class, ex -> {
+                    log.warn("Webhook shed: {}", ex.getMessage());
+                    HttpStatus status = ex.isBrokerUnavailable()
+                            ? HttpStatus.SERVICE_UNAVAILABLE
+                            : HttpStatus.TOO_MANY_REQUESTS;
+                    return Mono.just(ResponseEntity.status(status)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                            .<Void>build());
+                })
                 .onErrorResume(ex -> {
                     log.error("Unexpected error processing webhook", ex);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
+
+    private Mono<byte[]> aggregate(Flux<DataBuffer> body, int maxPayloadBytes) {
+        return DataBufferUtils.join(body, maxPayloadBytes)
+                .onErrorMap(DataBufferLimitException.class, ex -> new WebhookPayloadTooLargeException(
+                        "Payload exceeds " + maxPayloadBytes + " bytes"))
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Empty body")))
+                .map(buffer -> {
+                    byte[] payload = new byte[buffer.readableByteCount()];
+                    buffer.read(payload);
+                    DataBufferUtils.release(buffer);
+                    return payload;
+                });
+    }
 }
@@ -26,7 +26,11 @@ public record GitHubPullRequestEventDto(
             User user,
             Head head,
             @JsonProperty("html_url") String htmlUrl,
-            @JsonProperty("diff_url") String diffUrl
+            @JsonProperty("diff_url") String diffUrl,
+            Integer additions,
+            Integer deletions,
+            @JsonProperty("changed_files") Integer changedFiles,
+            Boolean draft
     ) {
         @JsonIgnoreProperties(ignoreUnknown = true)
         public record User(String login) {}
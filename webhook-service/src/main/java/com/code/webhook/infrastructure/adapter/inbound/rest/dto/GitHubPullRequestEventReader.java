@@ -0,0 +1,213 @@
+package com.code.webhook.infrastructure.adapter.inbound.rest.dto;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * Token-streaming reader for pull_request webhook payloads.
+ * Projects only the fields that end up in a {@code PullRequestReceivedEvent} and skips every
+ * other subtree without binding it. GitHub sends {@code action} first, so payloads for actions
+ * that will be discarded are abandoned after a handful of tokens.
+ */
+public final class GitHubPullRequestEventReader {
+
+    private GitHubPullRequestEventReader() {
+    }
+
+    /**
+     * Reads the payload from {@code parser}.
+     * If {@code relevantAction} rejects the action, returns a DTO carrying only the action.
+     */
+    public static GitHubPullRequestEventDto read(JsonParser parser, Predicate<String> relevantAction)
+            throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected webhook payload to be a JSON object");
+        }
+
+        String action = null;
+        Integer number = null;
+        GitHubPullRequestEventDto.Repository repository = null;
+        GitHubPullRequestEventDto.PullRequest pullRequest = null;
+        GitHubPullRequestEventDto.Installation installation = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "action" -> {
+                    action = text(parser);
+                    if (!relevantAction.test(action)) {
+                        return new GitHubPullRequestEventDto(action, null, null, null, null);
+                    }
+                }
+                case "number" -> number = integer(parser);
+                case "repository" -> repository = readRepository(parser);
+                case "pull_request" -> pullRequest = readPullRequest(parser);
+                case "installation" -> installation = readInstallation(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new GitHubPullRequestEventDto(action, repository, number, pullRequest, installation);
+    }
+
+    private static GitHubPullRequestEventDto.Repository readRepository(JsonParser parser) throws IOException {
+        if (!startObject(parser)) {
+            return null;
+        }
+
+        GitHubPullRequestEventDto.Repository.Owner owner = null;
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "owner" -> owner = startObject(parser)
+                        ? new GitHubPullRequestEventDto.Repository.Owner(readSingle(parser, "login"))
+                        : null;
+                case "name" -> name = text(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new GitHubPullRequestEventDto.Repository(owner, name);
+    }
+
+    private static GitHubPullRequestEventDto.PullRequest readPullRequest(JsonParser parser) throws IOException {
+        if (!startObject(parser)) {
+            return null;
+        }
+
+        String title = null;
+        GitHubPullRequestEventDto.PullRequest.User user = null;
+        GitHubPullRequestEventDto.PullRequest.Head head = null;
+        String htmlUrl = null;
+        String diffUrl = null;
+        Integer additions = null;
+        Integer deletions = null;
+        Integer changedFiles = null;
+        Boolean draft = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "title" -> title = text(parser);
+                case "user" -> user = startObject(parser)
+                        ? new GitHubPullRequestEventDto.PullRequest.User(readSingle(parser, "login"))
+                        : null;
+                case "head" -> head = startObject(parser)
+                        ? new GitHubPullRequestEventDto.PullRequest.Head(readSingle(parser, "sha"))
+                        : null;
+                case "html_url" -> htmlUrl = text(parser);
+                case "diff_url" -> diffUrl = text(parser);
+                case "additions" -> additions = integer(parser);
+                case "deletions" -> deletions = integer(parser);
+                case "changed_files" -> changedFiles = integer(parser);
+                case "draft" -> draft = bool(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new GitHubPullRequestEventDto.PullRequest(
+                title, user, head, htmlUrl, diffUrl, additions, deletions, changedFiles, draft);
+    }
+
+    private static GitHubPullRequestEventDto.Installation readInstallation(JsonParser parser) throws IOException {
+        if (!startObject(parser)) {
+            return null;
+        }
+
+        Long id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = longValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new GitHubPullRequestEventDto.Installation(id);
+    }
+
+    /**
+     * Reads one text field of the current object and skips the rest of it.
+     */
+    private static String readSingle(JsonParser parser, String wanted) throws IOException {
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (wanted.equals(field)) {
+                value = text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    private static boolean startObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected object for '" + parser.currentName() + "'");
+        }
+        return true;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected scalar value for '" + parser.currentName() + "'");
+        }
+        return parser.getValueAsString();
+    }
+
+    private static Boolean bool(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isBoolean()) {
+            throw new JsonParseException(parser, "Expected boolean for '" + parser.currentName() + "'");
+        }
+        return parser.getBooleanValue();
+    }
+
+    private static Integer integer(JsonParser parser) throws IOException {
+        Long value = longValue(parser);
+        if (value == null) {
+            return null;
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JsonParseException(parser, "Value out of range for '" + parser.currentName() + "'");
+        }
+        return value.intValue();
+    }
+
+    private static Long longValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isNumeric()) {
+            return parser.getValueAsLong();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Long.valueOf(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Expected number for '" + parser.currentName() + "'", e);
+            }
+        }
+        throw new JsonParseException(parser, "Expected number for '" + parser.currentName() + "'");
+    }
+}
@@ -1,6 +1,7 @@
 package com.code.webhook.infrastructure.adapter.outbound.event;
 
 import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.platform.partitioning.PartitionKeys;
 import com.code.webhook.application.port.outbound.EventPublisher;
 import com.code.webhook.infrastructure.config.KafkaTopicProperties;
 import lombok.RequiredArgsConstructor;
@@ -16,13 +17,14 @@ public class KafkaEventPublisher implements EventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KafkaTopicProperties topicProperties;
+    private final PartitionKeys partitionKeys;
 
     @Override
     public Mono<Void> publish(PullRequestReceivedEvent event) {
-        // Use repository as key for partitioning (maintains ordering per repository)
-        String key = event.repositoryOwner() + "/" + event.repositoryName();
+        // Keyed per pull request, so its events stay ordered on every topic of the pipeline
+        String key = partitionKeys.key(event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber());
 
-        log.debug("Publishing PullRequestReceivedEvent to Kafka: eventId={}, repo={}",
+        log.debug("Publishing PullRequestReceivedEvent to Kafka: eventId={}, key={}",
             event.eventId(), key);
 
         // Convert CompletableFuture to Mono and await completion
@@ -0,0 +1,31 @@
+package com.code.webhook.infrastructure.adapter.outbound.event;
+
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.errors.RetriableException;
+
+/**
+ * Tells apart send failures worth retrying from ones the same event would hit again.
+ * <p>
+ * The producer's own exceptions decide: retriable ones (timeouts, leader changes, too few
+ * replicas) are retried, and any other Kafka error (serialization, record too large,
+ * authorization, invalid topic) is permanent for that event. Failures that carry no Kafka
+ * exception are assumed transient.
+ */
+public final class PublishFailures {
+
+    private PublishFailures() {
+    }
+
+    public static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof InterruptException) {
+                return true;
+            }
+            if (cause instanceof KafkaException) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
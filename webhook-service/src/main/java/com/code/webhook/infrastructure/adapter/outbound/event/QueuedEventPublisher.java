@@ -0,0 +1,196 @@
+package com.code.webhook.infrastructure.adapter.outbound.event;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts events into a bounded in-memory queue and returns immediately; a single drainer
+ * thread sends them to the delegate in batches so the producer can pack them into few requests.
+ * <p>
+ * Failed sends are retried with backoff while new events keep queueing, so a slow or failing
+ * broker turns into load shedding at the edge instead of requests parked on the event loop.
+ * An event whose send can never succeed, such as one too large or failing to serialize, is
+ * dropped instead, so it cannot hold up everything queued behind it. Events still queued when
+ * the drain timeout expires on shutdown are lost.
+ */
+@Slf4j
+public class QueuedEventPublisher implements EventPublisher, SmartLifecycle {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+
+    private final EventPublisher delegate;
+    private final WebhookProperties.Queue config;
+    private final MetricsHelper metricsHelper;
+    private final BlockingQueue<PullRequestReceivedEvent> queue;
+
+    private volatile boolean running;
+    private volatile boolean brokerAvailable = true;
+    private Thread drainer;
+
+    public QueuedEventPublisher(EventPublisher delegate, WebhookProperties.Queue config, MetricsHelper metricsHelper) {
+        this.delegate = delegate;
+        this.config = config;
+        this.metricsHelper = metricsHelper;
+        this.queue = new ArrayBlockingQueue<>(config.capacity());
+
+        metricsHelper.gauge("ingest.queue.depth", queue, BlockingQueue::size);
+        metricsHelper.gauge("ingest.queue.remaining", queue, BlockingQueue::remainingCapacity);
+    }
+
+    @Override
+    public Mono<Void> publish(PullRequestReceivedEvent event) {
+        return Mono.defer(() -> {
+            if (running && queue.offer(event)) {
+                return Mono.empty();
+            }
+
+            String reason = !running ? "stopped" : brokerAvailable ? "full" : "broker_unavailable";
+            metricsHelper.incrementCounter("ingest.queue.shed", "reason", reason);
+            log.warn("Shedding PullRequestReceivedEvent: eventId={}, reason={}, depth={}",
+                    event.eventId(), reason, queue.size());
+            return Mono.error(new IngestRejectedException(
+                    "Ingest queue cannot accept event (" + reason + ")",
+                    config.retryAfter(),
+                    !running || !brokerAvailable));
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainer = Thread.ofPlatform()
+                .name("webhook-ingest-drainer")
+                .daemon(true)
+                .start(this::drainLoop);
+        log.info("Ingest queue started: capacity={}, batchSize={}", config.capacity(), config.batchSize());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            drainer.join(config.drainTimeout());
+            if (drainer.isAlive()) {
+                drainer.interrupt();
+                drainer.join(POLL_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            log.error("Ingest queue stopped with {} undelivered event(s)", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server so in-flight requests can still enqueue
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PullRequestReceivedEvent> batch = new ArrayList<>(config.batchSize());
+        Duration backoff = INITIAL_BACKOFF;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    PullRequestReceivedEvent first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, config.batchSize() - 1);
+                }
+
+                batch = publishBatch(batch);
+                if (batch.isEmpty()) {
+                    brokerAvailable = true;
+                    backoff = INITIAL_BACKOFF;
+                } else {
+                    brokerAvailable = false;
+                    log.warn("Retrying {} event(s) in {} ms", batch.size(), backoff.toMillis());
+                    TimeUnit.MILLISECONDS.sleep(backoff.toMillis());
+                    backoff = min(backoff.multipliedBy(2), config.retryAfter());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Ingest drainer interrupted with {} in-flight event(s)", batch.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends every event of the batch without waiting in between and returns the ones that
+     * failed and are worth retrying, in their original order.
+     */
+    private List<PullRequestReceivedEvent> publishBatch(List<PullRequestReceivedEvent> batch)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger dropped = new AtomicInteger();
+        List<PullRequestReceivedEvent> failed;
+        try {
+            failed = Flux.fromIterable(batch)
+                    .flatMapSequential(event -> Mono.defer(() -> delegate.publish(event))
+                            .then(Mono.<PullRequestReceivedEvent>empty())
+                            .onErrorResume(error -> {
+                                if (PublishFailures.isRetryable(error)) {
+                                    return Mono.just(event);
+                                }
+                                drop(event, error);
+                                dropped.incrementAndGet();
+                                return Mono.empty();
+                            }), batch.size())
+                    .collectList()
+                    .block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            log.error("Ingest batch of {} event(s) failed", batch.size(), e);
+            failed = batch;
+        }
+
+        int published = batch.size() - failed.size() - dropped.get();
+        if (published > 0) {
+            metricsHelper.incrementCounter("ingest.queue.published", published);
+        }
+        metricsHelper.recordDuration("ingest.queue.batch", Duration.ofNanos(System.nanoTime() - start),
+                "result", failed.isEmpty() ? "success" : "failure");
+        return new ArrayList<>(failed);
+    }
+
+    private void drop(PullRequestReceivedEvent event, Throwable error) {
+        log.error("Dropping PullRequestReceivedEvent that cannot be published: eventId={}, repo={}/{}, PR #{}",
+                event.eventId(), event.repositoryOwner(), event.repositoryName(), event.pullRequestNumber(), error);
+        metricsHelper.incrementCounter("ingest.queue.dropped");
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
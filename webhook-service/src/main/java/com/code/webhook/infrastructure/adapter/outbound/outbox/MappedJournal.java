@@ -0,0 +1,350 @@
+package com.code.webhook.infrastructure.adapter.outbound.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal made of fixed-size, memory-mapped segment files.
+ * <p>
+ * Records are {@code [length][crc32c][payload]}; the length is written last so a torn write
+ * reads as the end of the journal. Positions are global byte offsets
+ * ({@code segmentIndex * segmentBytes + offset}) and only ever grow. Appends go to the page
+ * cache; {@link #flush()} forces them to disk and advances the durable position, which is the
+ * upper bound for readers. The consumer's progress is kept in a checkpoint file replaced
+ * atomically, and segments entirely below it are deleted.
+ */
+@Slf4j
+final class MappedJournal implements Closeable {
+
+    static final int HEADER_BYTES = 8;
+
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock
+    private long writeIndex;
+    private long writePosition;
+
+    private volatile long durablePosition;
+    private volatile long checkpointPosition;
+
+    private MappedJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the journal in {@code directory}, recovering the write position after the last
+     * intact record at or after the checkpoint. Anything past a torn record is discarded.
+     */
+    static MappedJournal open(Path directory, int segmentBytes) throws IOException {
+        MappedJournal journal = new MappedJournal(directory, segmentBytes);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Appends one record and returns the position right after it; the record is durable once
+     * {@link #durablePosition()} reaches that value.
+     */
+    long append(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException(
+                    "Record of " + payload.length + " bytes does not fit a " + segmentBytes + " byte segment");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        synchronized (writeLock) {
+            // Not offset(writePosition): a record that exactly fills a segment leaves the
+            // position on the next segment's base while writeIndex still points at the full one
+            int offset = (int) (writePosition - base(writeIndex));
+            if (offset + recordBytes > segmentBytes) {
+                MappedByteBuffer full = segments.get(writeIndex);
+                if (segmentBytes - offset >= Integer.BYTES) {
+                    full.putInt(offset, END_OF_SEGMENT);
+                }
+                writeIndex++;
+                map(writeIndex, true);
+                offset = 0;
+            }
+
+            MappedByteBuffer segment = segments.get(writeIndex);
+            segment.put(offset + HEADER_BYTES, payload);
+            segment.putInt(offset + Integer.BYTES, (int) crc.getValue());
+            segment.putInt(offset, payload.length);
+
+            writePosition = base(writeIndex) + offset + recordBytes;
+            pendingRecords.incrementAndGet();
+            return writePosition;
+        }
+    }
+
+    /**
+     * Position right after the last appended record, durable or not.
+     */
+    long appendPosition() {
+        synchronized (writeLock) {
+            return writePosition;
+        }
+    }
+
+    /**
+     * Forces every segment written since the last flush and returns the new durable position.
+     */
+    long flush() {
+        long target;
+        long fromIndex;
+        long toIndex;
+        synchronized (writeLock) {
+            target = writePosition;
+            fromIndex = index(durablePosition);
+            toIndex = writeIndex;
+        }
+        if (target == durablePosition) {
+            return target;
+        }
+
+        for (MappedByteBuffer segment : segments.subMap(fromIndex, true, toIndex, true).values()) {
+            segment.force();
+        }
+        durablePosition = target;
+        return target;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code from}, stopping at the durable position.
+     */
+    List<Entry> read(long from, int maxRecords) {
+        long until = durablePosition;
+        List<Entry> entries = new ArrayList<>(Math.min(maxRecords, 64));
+        long position = from;
+
+        while (entries.size() < maxRecords && position < until) {
+            long index = index(position);
+            int offset = offset(position);
+            MappedByteBuffer segment = segments.get(index);
+            if (segment == null) {
+                throw new IllegalStateException("Journal segment " + index + " is missing");
+            }
+
+            int length = offset + HEADER_BYTES <= segmentBytes ? segment.getInt(offset) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT) {
+                position = base(index + 1);
+                continue;
+            }
+
+            byte[] payload = readPayload(segment, offset, length);
+            if (payload == null) {
+                throw new IllegalStateException("Corrupt journal record at position " + position);
+            }
+            position = base(index) + offset + HEADER_BYTES + length;
+            entries.add(new Entry(position, payload));
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before {@code position} has been consumed and removes segments
+     * that are now fully behind it.
+     */
+    void checkpoint(long position, int records) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(position).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        checkpointPosition = position;
+        pendingRecords.addAndGet(-records);
+
+        long keepFrom = index(position);
+        for (Map.Entry<Long, MappedByteBuffer> drained : segments.headMap(keepFrom, false).entrySet()) {
+            segments.remove(drained.getKey());
+            Files.deleteIfExists(segmentPath(drained.getKey()));
+        }
+    }
+
+    long durablePosition() {
+        return durablePosition;
+    }
+
+    long checkpointPosition() {
+        return checkpointPosition;
+    }
+
+    long pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    long pendingBytes() {
+        return durablePosition - checkpointPosition;
+    }
+
+    long sizeBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        segments.clear();
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> indexes;
+        try (Stream<Path> files = Files.list(directory)) {
+            indexes = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        long checkpoint = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+                : 0L;
+
+        for (long index : indexes) {
+            if (Files.size(segmentPath(index)) != segmentBytes) {
+                throw new IllegalStateException("Journal segment " + index + " was written with a different "
+                        + "segment size; drain or remove " + directory + " before changing it");
+            }
+            map(index, false);
+        }
+
+        long position = indexes.isEmpty() ? checkpoint : Math.max(checkpoint, base(indexes.get(0)));
+        long records = 0;
+        while (true) {
+            long index = index(position);
+            int offset = offset(position);
+            MappedByteBuffer segment = segments.get(index);
+            if (segment == null) {
+                break;
+            }
+
+            int length = offset + HEADER_BYTES <= segmentBytes ? segment.getInt(offset) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT) {
+                position = base(index + 1);
+                continue;
+            }
+            if (readPayload(segment, offset, length) == null) {
+                // A zero length is the clean end of the journal; anything else is a torn write
+                truncate(index, offset, length != 0);
+                break;
+            }
+            position = base(index) + offset + HEADER_BYTES + length;
+            records++;
+        }
+
+        writeIndex = index(position);
+        if (!segments.containsKey(writeIndex)) {
+            map(writeIndex, true);
+        }
+        writePosition = position;
+        durablePosition = position;
+        checkpointPosition = checkpoint;
+        pendingRecords.set(records);
+
+        if (records > 0) {
+            log.info("Recovered outbox journal with {} undrained record(s) in {}", records, directory);
+        }
+    }
+
+    /**
+     * Drops segments after the end of the journal, which can only hold unacknowledged writes,
+     * and zeroes the rest of the last segment if its tail is torn.
+     */
+    private void truncate(long index, int offset, boolean torn) throws IOException {
+        if (torn) {
+            log.warn("Truncating torn outbox journal tail at segment {} offset {}", index, offset);
+            MappedByteBuffer segment = segments.get(index);
+            byte[] zeros = new byte[Math.min(64 * 1024, segmentBytes)];
+            for (int at = offset; at < segmentBytes; at += zeros.length) {
+                segment.put(at, zeros, 0, Math.min(zeros.length, segmentBytes - at));
+            }
+            segment.force();
+        }
+
+        for (Long later : List.copyOf(segments.tailMap(index, false).keySet())) {
+            segments.remove(later);
+            Files.deleteIfExists(segmentPath(later));
+        }
+    }
+
+    private byte[] readPayload(MappedByteBuffer segment, int offset, int length) {
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        segment.get(offset + HEADER_BYTES, payload);
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    private void map(long index, boolean create) throws IOException {
+        StandardOpenOption[] options = create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(segmentPath(index), options)) {
+            segments.put(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private long index(long position) {
+        return position / segmentBytes;
+    }
+
+    private int offset(long position) {
+        return (int) (position % segmentBytes);
+    }
+
+    private long base(long index) {
+        return index * segmentBytes;
+    }
+
+    record Entry(long endPosition, byte[] payload) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.code.webhook.infrastructure.adapter.outbound.outbox;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead outbox in front of Kafka: events are appended to a local {@link MappedJournal}
+ * and acknowledged once fsynced, then replayed to the delegate in journal order.
+ * <p>
+ * A flusher thread group-commits every append made within one flush interval with a single
+ * fsync; if the fsync fails, the callers waiting on it fail with {@link IngestRejectedException}
+ * instead of waiting for a flush that may never come. A drainer thread publishes durable records
+ * in batches, one send at a time, and stops a batch at the first failed send, so an event never
+ * reaches Kafka ahead of one before it. The published prefix is checkpointed after each batch; a
+ * crash between send and checkpoint can replay that prefix, which consumers deduplicate by event id.
+ */
+@Slf4j
+public class OutboxEventPublisher implements EventPublisher, SmartLifecycle {
+
+    private static final Duration IDLE_POLL = Duration.ofMillis(50);
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(200);
+
+    private final EventPublisher delegate;
+    private final ObjectMapper objectMapper;
+    private final WebhookProperties.Outbox config;
+    private final MetricsHelper metricsHelper;
+    private final MappedJournal journal;
+    private final NavigableMap<Long, CompletableFuture<Void>> awaitingFlush = new ConcurrentSkipListMap<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+    private Thread drainer;
+
+    public OutboxEventPublisher(
+            EventPublisher delegate,
+            ObjectMapper objectMapper,
+            WebhookProperties.Outbox config,
+            MetricsHelper metricsHelper) {
+        this.delegate = delegate;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.metricsHelper = metricsHelper;
+        try {
+            this.journal = MappedJournal.open(Path.of(config.directory()), config.segmentBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open outbox journal in " + config.directory(), e);
+        }
+
+        metricsHelper.gauge("outbox.journal.size.bytes", journal, MappedJournal::sizeBytes);
+        metricsHelper.gauge("outbox.drain.lag.records", journal, MappedJournal::pendingRecords);
+        metricsHelper.gauge("outbox.drain.lag.bytes", journal, MappedJournal::pendingBytes);
+    }
+
+    @Override
+    public Mono<Void> publish(PullRequestReceivedEvent event) {
+        return Mono.defer(() -> {
+            if (!running) {
+                return Mono.error(new IllegalStateException("Outbox is not running"));
+            }
+
+            CompletableFuture<Void> durable = new CompletableFuture<>();
+            try {
+                long position = journal.append(objectMapper.writeValueAsBytes(event));
+                awaitingFlush.put(position, durable);
+            } catch (IOException e) {
+                metricsHelper.incrementCounter("outbox.append.failed");
+                log.error("Failed to append PullRequestReceivedEvent to outbox: eventId={}", event.eventId(), e);
+                return Mono.error(e);
+            }
+            return Mono.fromFuture(durable);
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("webhook-outbox-flusher").daemon(true).start(this::flushLoop);
+        drainer = Thread.ofPlatform().name("webhook-outbox-drainer").daemon(true).start(this::drainLoop);
+        log.info("Outbox started: directory={}, pending={}", config.directory(), journal.pendingRecords());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join(config.flushInterval().multipliedBy(10).plusSeconds(1));
+            drainer.interrupt();
+            drainer.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        log.info("Outbox stopped with {} record(s) left for the next start", journal.pendingRecords());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server so in-flight requests can still be journaled
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            flushAndComplete();
+            try {
+                TimeUnit.NANOSECONDS.sleep(config.flushInterval().toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Final group commit so nothing appended before shutdown is left unacknowledged
+        flushAndComplete();
+    }
+
+    private void flushAndComplete() {
+        long attempted = journal.appendPosition();
+        try {
+            long durable = journal.flush();
+            NavigableMap<Long, CompletableFuture<Void>> flushed = awaitingFlush.headMap(durable, true);
+            flushed.values().forEach(future -> future.complete(null));
+            flushed.clear();
+        } catch (RuntimeException e) {
+            log.error("Outbox fsync failed", e);
+            metricsHelper.incrementCounter("outbox.flush.failed");
+            // Answer the waiting webhooks with 503 so GitHub retries them; a later flush may still
+            // make their records durable, and the retried delivery then publishes a second event
+            NavigableMap<Long, CompletableFuture<Void>> failed = awaitingFlush.headMap(attempted, true);
+            IngestRejectedException rejected = new IngestRejectedException(
+                    "Outbox fsync failed", config.maxRetryBackoff(), true);
+            failed.values().forEach(future -> future.completeExceptionally(rejected));
+            failed.clear();
+        }
+    }
+
+    private void drainLoop() {
+        long position = journal.checkpointPosition();
+        Duration backoff = INITIAL_BACKOFF;
+
+        while (running) {
+            try {
+                List<MappedJournal.Entry> entries = journal.read(position, config.drainBatchSize());
+                if (entries.isEmpty()) {
+                    TimeUnit.MILLISECONDS.sleep(IDLE_POLL.toMillis());
+                    continue;
+                }
+
+                int published = publishInOrder(entries);
+                if (published > 0) {
+                    position = entries.get(published - 1).endPosition();
+                    journal.checkpoint(position, published);
+                }
+
+                if (published == entries.size()) {
+                    backoff = INITIAL_BACKOFF;
+                } else {
+                    log.warn("Outbox drain stalled with {} record(s) pending, retrying in {} ms",
+                            journal.pendingRecords(), backoff.toMillis());
+                    TimeUnit.MILLISECONDS.sleep(backoff.toMillis());
+                    backoff = min(backoff.multipliedBy(2), config.maxRetryBackoff());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Outbox drain failed", e);
+                metricsHelper.incrementCounter("outbox.drain.failed");
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the batch one record at a time, stopping at the first failed send, and returns the
+     * length of the acknowledged prefix. Nothing after a failure is sent, so a retry never
+     * publishes a later event a second time ahead of the one that failed.
+     */
+    private int publishInOrder(List<MappedJournal.Entry> entries) throws InterruptedException {
+        List<PullRequestReceivedEvent> events = new ArrayList<>(entries.size());
+        for (MappedJournal.Entry entry : entries) {
+            events.add(decode(entry));
+        }
+
+        List<Boolean> acknowledged;
+        try {
+            acknowledged = Flux.fromIterable(events)
+                    .concatMap(event -> event == null
+                            ? Mono.just(true)
+                            : delegate.publish(event).thenReturn(true).onErrorReturn(false))
+                    .takeUntil(sent -> !sent)
+                    .collectList()
+                    .block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            throw e;
+        }
+
+        int prefix = 0;
+        Instant now = Instant.now();
+        while (prefix < acknowledged.size() && acknowledged.get(prefix)) {
+            PullRequestReceivedEvent event = events.get(prefix);
+            if (event != null && event.timestamp() != null) {
+                metricsHelper.recordDuration("outbox.drain.delay", Duration.between(event.timestamp(), now));
+            }
+            prefix++;
+        }
+        if (prefix > 0) {
+            metricsHelper.incrementCounter("outbox.drain.published", prefix);
+        }
+        return prefix;
+    }
+
+    private PullRequestReceivedEvent decode(MappedJournal.Entry entry) {
+        try {
+            return objectMapper.readValue(entry.payload(), PullRequestReceivedEvent.class);
+        } catch (IOException e) {
+            // Cannot succeed on retry; skip it rather than block everything behind it
+            log.error("Skipping undecodable outbox record ending at position {}", entry.endPosition(), e);
+            metricsHelper.incrementCounter("outbox.drain.skipped");
+            return null;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
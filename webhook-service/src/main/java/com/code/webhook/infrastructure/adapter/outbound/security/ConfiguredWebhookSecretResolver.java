@@ -0,0 +1,80 @@
+package com.code.webhook.infrastructure.adapter.outbound.security;
+
+import com.code.webhook.application.port.outbound.WebhookSecretResolver;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class ConfiguredWebhookSecretResolver implements WebhookSecretResolver {
+
+    private static final String DEFAULT_TARGET = "";
+
+    private final Map<String, List<String>> candidatesByTarget;
+    // Keys are limited to configured targets, so this stays as small as the configuration
+    private final Map<String, String> lastMatched = new ConcurrentHashMap<>();
+
+    public ConfiguredWebhookSecretResolver(WebhookProperties properties) {
+        Map<String, List<String>> candidates = new HashMap<>();
+        candidates.put(DEFAULT_TARGET, candidates(properties.secret(), properties.previousSecrets()));
+        properties.targets().forEach((targetId, target) ->
+                candidates.put(targetId, candidates(target.secret(), target.previousSecrets())));
+        this.candidatesByTarget = Map.copyOf(candidates);
+
+        log.info("Webhook secrets configured for {} hook target(s) plus default", properties.targets().size());
+    }
+
+    @Override
+    public List<String> resolve(String hookTargetId) {
+        String key = targetKey(hookTargetId);
+        List<String> candidates = candidatesByTarget.get(key);
+        if (candidates.size() < 2) {
+            return candidates;
+        }
+
+        // Mid-rotation GitHub may keep signing with the old secret; try whichever matched last
+        // first so the common path stays a single HMAC pass.
+        String preferred = lastMatched.get(key);
+        if (preferred == null || preferred.equals(candidates.get(0))) {
+            return candidates;
+        }
+
+        List<String> reordered = new ArrayList<>(candidates.size());
+        reordered.add(preferred);
+        for (String candidate : candidates) {
+            if (!candidate.equals(preferred)) {
+                reordered.add(candidate);
+            }
+        }
+        return reordered;
+    }
+
+    @Override
+    public void recordMatch(String hookTargetId, String secret) {
+        String key = targetKey(hookTargetId);
+        if (candidatesByTarget.get(key).contains(secret)) {
+            lastMatched.put(key, secret);
+        }
+    }
+
+    private String targetKey(String hookTargetId) {
+        return hookTargetId != null && candidatesByTarget.containsKey(hookTargetId)
+                ? hookTargetId
+                : DEFAULT_TARGET;
+    }
+
+    private static List<String> candidates(String secret, List<String> previousSecrets) {
+        return Stream.concat(Stream.of(secret), previousSecrets.stream())
+                .filter(candidate -> candidate != null && !candidate.isBlank())
+                .distinct()
+                .toList();
+    }
+}
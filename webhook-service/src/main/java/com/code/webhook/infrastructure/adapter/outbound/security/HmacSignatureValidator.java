@@ -1,23 +1,38 @@
 package com.code.webhook.infrastructure.adapter.outbound.security;
 
 import com.code.webhook.application.port.outbound.SignatureValidator;
+import com.code.webhook.application.port.outbound.SignatureVerification;
 import com.code.webhook.domain.model.WebhookValidationResult;
+import com.code.platform.metrics.MetricsHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 
 @Slf4j
 @Component
 public final class HmacSignatureValidator implements SignatureValidator {
 
     private static final String SIGNATURE_PREFIX = "sha256=";
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MAX_CACHED_KEYS = 1_000;
+
+    // Bounded so a misbehaving resolver cannot grow keyed MAC state without limit
+    private final Cache<String, MacPool> macPools = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_KEYS)
+            .recordStats()
+            .build();
+
+    public HmacSignatureValidator(MetricsHelper metricsHelper) {
+        metricsHelper.gauge("signature.key.cache.hit.ratio", macPools, cache -> cache.stats().hitRate());
+        metricsHelper.gauge("signature.key.cache.size", macPools, Cache::estimatedSize);
+    }
 
     @Override
     public WebhookValidationResult validate(byte[] payload, String signature, String secret) {
@@ -33,48 +48,61 @@ public final class HmacSignatureValidator implements SignatureValidator {
             return WebhookValidationResult.invalid("Secret is null");
         }
 
-        if (!signature.startsWith(SIGNATURE_PREFIX)) {
-            return WebhookValidationResult.invalid("Invalid signature format (missing 'sha256=' prefix)");
+        // Reject malformed signatures before spending a full HMAC pass on the payload
+        DecodedSignature decoded = decode(signature);
+        if (decoded.failure() != null) {
+            return decoded.failure();
+        }
+
+        try (MacVerification verification = open(secret)) {
+            verification.update(ByteBuffer.wrap(payload));
+            return verification.compare(decoded.digest());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            log.error("Failed to validate webhook signature due to cryptographic error", e);
+            return WebhookValidationResult.invalid("Cryptographic error: " + e.getMessage());
         }
+    }
 
+    @Override
+    public SignatureVerification begin(String secret) {
+        Objects.requireNonNull(secret, "Secret is null");
+        return open(secret);
+    }
+
+    private MacVerification open(String secret) {
+        MacPool pool = macPools.get(secret, MacPool::new);
         try {
-            String hexString = signature.substring(SIGNATURE_PREFIX.length());
+            return new MacVerification(pool, pool.borrow());
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to initialize " + MacPool.HMAC_ALGORITHM, e);
+        }
+    }
 
-            // Validate hex string length is even
-            if (hexString.length() % 2 != 0) {
-                return WebhookValidationResult.invalid("Invalid signature format: odd-length hex string");
-            }
+    private static DecodedSignature decode(String signature) {
+        if (signature == null) {
+            return DecodedSignature.failed("Signature is null");
+        }
 
-            byte[] expectedHash = calculateSignature(payload, secret);
-            byte[] receivedHash = hexToBytes(hexString);
+        if (!signature.startsWith(SIGNATURE_PREFIX)) {
+            return DecodedSignature.failed("Invalid signature format (missing 'sha256=' prefix)");
+        }
 
-            // Use constant-time comparison to prevent timing attacks
-            boolean isValid = MessageDigest.isEqual(expectedHash, receivedHash);
+        String hexString = signature.substring(SIGNATURE_PREFIX.length());
 
-            return isValid ? WebhookValidationResult.valid() :
-                    WebhookValidationResult.invalid("Signature mismatch");
+        // Validate hex string length is even
+        if (hexString.length() % 2 != 0) {
+            return DecodedSignature.failed("Invalid signature format: odd-length hex string");
+        }
 
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            log.error("Failed to validate webhook signature due to cryptographic error", e);
-            return WebhookValidationResult.invalid("Cryptographic error: " + e.getMessage());
+        try {
+            return new DecodedSignature(hexToBytes(hexString), null);
         } catch (IllegalArgumentException e) {
             log.error("Failed to parse signature hex string", e);
-            return WebhookValidationResult.invalid("Invalid signature format");
+            return DecodedSignature.failed("Invalid signature format");
         }
     }
 
-    private byte[] calculateSignature(byte[] payload, String secret)
-            throws NoSuchAlgorithmException, InvalidKeyException {
-        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-        SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secret.getBytes(StandardCharsets.UTF_8),
-                HMAC_ALGORITHM
-        );
-        mac.init(secretKeySpec);
-        return mac.doFinal(payload);
-    }
-
-    private byte[] hexToBytes(String hex) {
+    private static byte[] hexToBytes(String hex) {
         int len = hex.length();
         byte[] data = new byte[len / 2];
         for (int i = 0; i < len; i += 2) {
@@ -92,7 +120,57 @@ public final class HmacSignatureValidator implements SignatureValidator {
         return data;
     }
 
-    private boolean isLowercaseHex(char c) {
+    private static boolean isLowercaseHex(char c) {
         return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
     }
+
+    private record DecodedSignature(byte[] digest, WebhookValidationResult failure) {
+        static DecodedSignature failed(String reason) {
+            return new DecodedSignature(null, WebhookValidationResult.invalid(reason));
+        }
+    }
+
+    private static final class MacVerification implements SignatureVerification {
+
+        private final MacPool pool;
+        private final Mac mac;
+        private boolean closed;
+
+        private MacVerification(MacPool pool, Mac mac) {
+            this.pool = pool;
+            this.mac = mac;
+        }
+
+        @Override
+        public void update(ByteBuffer chunk) {
+            mac.update(chunk);
+        }
+
+        @Override
+        public WebhookValidationResult verify(String signature) {
+            DecodedSignature decoded = decode(signature);
+            if (decoded.failure() != null) {
+                return decoded.failure();
+            }
+            return compare(decoded.digest());
+        }
+
+        private WebhookValidationResult compare(byte[] receivedHash) {
+            byte[] expectedHash = mac.doFinal();
+
+            // Use constant-time comparison to prevent timing attacks
+            boolean isValid = MessageDigest.isEqual(expectedHash, receivedHash);
+
+            return isValid ? WebhookValidationResult.valid() :
+                    WebhookValidationResult.mismatch();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pool.release(mac);
+            }
+        }
+    }
 }
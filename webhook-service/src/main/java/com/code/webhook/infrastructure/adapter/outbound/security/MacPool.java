@@ -0,0 +1,51 @@
+package com.code.webhook.infrastructure.adapter.outbound.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of {@link Mac} instances keyed once for a single secret.
+ * Avoids {@code Mac.getInstance} and key setup on every delivery; {@code doFinal} resets the MAC
+ * but keeps its key, so released instances can be reused as-is.
+ */
+final class MacPool {
+
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAX_IDLE = 64;
+
+    private final SecretKeySpec key;
+    private final Queue<Mac> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    MacPool(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    Mac borrow() throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac mac = idle.poll();
+        if (mac != null) {
+            idleCount.decrementAndGet();
+            return mac;
+        }
+
+        Mac created = Mac.getInstance(HMAC_ALGORITHM);
+        created.init(key);
+        return created;
+    }
+
+    void release(Mac mac) {
+        mac.reset();
+        if (idleCount.incrementAndGet() <= MAX_IDLE) {
+            idle.offer(mac);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
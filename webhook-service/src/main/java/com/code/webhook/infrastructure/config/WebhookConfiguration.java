@@ -3,11 +3,22 @@ package com.code.webhook.infrastructure.config;
 import com.code.webhook.application.port.inbound.WebhookService;
 import com.code.webhook.application.port.outbound.EventPublisher;
 import com.code.webhook.application.port.outbound.SignatureValidator;
+import com.code.webhook.application.port.outbound.WebhookSecretResolver;
+import com.code.webhook.application.service.SynchronizeCoalescer;
+import com.code.webhook.application.service.TenantAdmissionLimiter;
 import com.code.webhook.application.service.WebhookServiceImpl;
+import com.code.webhook.infrastructure.adapter.outbound.event.KafkaEventPublisher;
+import com.code.webhook.infrastructure.adapter.outbound.event.QueuedEventPublisher;
+import com.code.webhook.infrastructure.adapter.outbound.outbox.OutboxEventPublisher;
+import com.code.platform.idempotency.IdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 @Configuration
 @RequiredArgsConstructor
@@ -19,13 +30,90 @@ public class WebhookConfiguration {
     public WebhookService webhookService(
             SignatureValidator signatureValidator,
             EventPublisher eventPublisher,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            WebhookSecretResolver secretResolver,
+            MetricsHelper metricsHelper,
+            IdempotencyStore idempotencyStore,
+            ObjectProvider<SynchronizeCoalescer> synchronizeCoalescer,
+            ObjectProvider<TenantAdmissionLimiter> tenantAdmissionLimiter) {
 
+        // Admission first so over-limit tenants are refused before anything is held or queued
+        TenantAdmissionLimiter limiter = tenantAdmissionLimiter.getIfAvailable();
         return new WebhookServiceImpl(
                 signatureValidator,
+                limiter != null ? limiter::publish : coalesced(eventPublisher, synchronizeCoalescer),
+                objectMapper,
+                secretResolver,
+                webhookProperties.ingress().maxPayloadBytes(),
+                metricsHelper,
+                idempotencyStore
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "webhook.rate-limit", name = "enabled", havingValue = "true")
+    public TenantAdmissionLimiter tenantAdmissionLimiter(
+            EventPublisher eventPublisher,
+            ObjectProvider<SynchronizeCoalescer> synchronizeCoalescer,
+            IdempotencyStore idempotencyStore,
+            MetricsHelper metricsHelper) {
+
+        return new TenantAdmissionLimiter(
+                coalesced(eventPublisher, synchronizeCoalescer),
+                idempotencyStore,
+                webhookProperties.rateLimit(),
+                metricsHelper
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "webhook.coalescing", name = "enabled", havingValue = "true")
+    public SynchronizeCoalescer synchronizeCoalescer(
+            EventPublisher eventPublisher,
+            MetricsHelper metricsHelper) {
+
+        WebhookProperties.Coalescing coalescing = webhookProperties.coalescing();
+        return new SynchronizeCoalescer(
                 eventPublisher,
+                coalescing.window(),
+                coalescing.maxHold(),
+                metricsHelper
+        );
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "webhook.ingress.queue", name = "enabled", havingValue = "true")
+    public QueuedEventPublisher queuedEventPublisher(
+            KafkaEventPublisher kafkaEventPublisher,
+            MetricsHelper metricsHelper) {
+
+        return new QueuedEventPublisher(
+                kafkaEventPublisher,
+                webhookProperties.ingress().queue(),
+                metricsHelper
+        );
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "webhook.ingress.outbox", name = "enabled", havingValue = "true")
+    public OutboxEventPublisher outboxEventPublisher(
+            KafkaEventPublisher kafkaEventPublisher,
+            ObjectMapper objectMapper,
+            MetricsHelper metricsHelper) {
+
+        return new OutboxEventPublisher(
+                kafkaEventPublisher,
                 objectMapper,
-                webhookProperties.secret()
+                webhookProperties.ingress().outbox(),
+                metricsHelper
         );
     }
+
+    private static EventPublisher coalesced(
+            EventPublisher eventPublisher, ObjectProvider<SynchronizeCoalescer> synchronizeCoalescer) {
+        SynchronizeCoalescer coalescer = synchronizeCoalescer.getIfAvailable();
+        return coalescer != null ? coalescer::publish : eventPublisher;
+    }
 }
@@ -1,12 +1,233 @@
 package com.code.webhook.infrastructure.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 @Validated
 @ConfigurationProperties(prefix = "webhook")
 public record WebhookProperties(
-        @NotBlank String secret
-) {}
+        @NotBlank String secret,
+        List<String> previousSecrets,
+        Map<String, @Valid TargetSecrets> targets,
+        @Valid Ingress ingress,
+        Coalescing coalescing,
+        @Valid RateLimit rateLimit
+) {
+    public WebhookProperties {
+        if (previousSecrets == null) {
+            previousSecrets = List.of();
+        }
+        if (targets == null) {
+            targets = Map.of();
+        }
+        if (ingress == null) {
+            ingress = new Ingress(null, null, null, null);
+        }
+        if (coalescing == null) {
+            coalescing = new Coalescing(null, null, null);
+        }
+        if (rateLimit == null) {
+            rateLimit = new RateLimit(null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Secrets for one hook target, keyed by the X-GitHub-Hook-Installation-Target-ID header
+     * (the App id for GitHub App webhooks, the repository or organization id otherwise).
+     */
+    public record TargetSecrets(
+            @NotBlank String secret,
+            List<String> previousSecrets
+    ) {
+        public TargetSecrets {
+            if (previousSecrets == null) {
+                previousSecrets = List.of();
+            }
+        }
+    }
+
+    /**
+     * Debounce for SYNCHRONIZE bursts: only the latest push of a pull request within the window
+     * is forwarded, and no push is held longer than maxHold.
+     */
+    public record Coalescing(
+            Boolean enabled,
+            Duration window,
+            Duration maxHold
+    ) {
+        public Coalescing {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (window == null) {
+                window = Duration.ofSeconds(30);
+            }
+            if (maxHold == null) {
+                maxHold = Duration.ofMinutes(2);
+            }
+        }
+    }
+
+    /**
+     * Token-bucket admission per installation and per repository. Overrides are keyed by
+     * installation id or owner/repo.
+     */
+    public record RateLimit(
+            Boolean enabled,
+            @Valid Limit installation,
+            @Valid Limit repository,
+            Map<String, @Valid Limit> overrides,
+            OverLimit mode,
+            Duration maxDefer
+    ) {
+        public RateLimit {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (installation == null) {
+                installation = new Limit(600, 100);
+            }
+            if (repository == null) {
+                repository = new Limit(120, 20);
+            }
+            if (overrides == null) {
+                overrides = Map.of();
+            }
+            if (mode == null) {
+                mode = OverLimit.REJECT;
+            }
+            if (maxDefer == null) {
+                maxDefer = Duration.ofMinutes(1);
+            }
+        }
+    }
+
+    public record Limit(
+            @Positive Integer perMinute,
+            @Positive Integer burst
+    ) {
+        public Limit {
+            if (perMinute == null) {
+                perMinute = 60;
+            }
+            if (burst == null) {
+                burst = 10;
+            }
+        }
+    }
+
+    public enum OverLimit {
+        /** Answer 429 with Retry-After */
+        REJECT,
+        /** Acknowledge and publish once a token is available, up to maxDefer; reject beyond that */
+        DEFER
+    }
+
+    public record Ingress(
+            Boolean streaming,
+            DataSize maxPayloadSize,
+            @Valid Queue queue,
+            @Valid Outbox outbox
+    ) {
+        public Ingress {
+            if (streaming == null) {
+                streaming = false;
+            }
+            if (maxPayloadSize == null) {
+                // GitHub caps webhook payloads at 25 MB
+                maxPayloadSize = DataSize.ofMegabytes(25);
+            }
+            if (queue == null) {
+                queue = new Queue(null, null, null, null, null);
+            }
+            if (outbox == null) {
+                outbox = new Outbox(null, null, null, null, null, null);
+            }
+            if (queue.enabled() && outbox.enabled()) {
+                throw new IllegalArgumentException(
+                        "webhook.ingress.queue and webhook.ingress.outbox cannot both be enabled");
+            }
+        }
+
+        public int maxPayloadBytes() {
+            return Math.toIntExact(maxPayloadSize.toBytes());
+        }
+    }
+
+    /**
+     * Bounded in-memory queue between request handling and Kafka. When enabled, webhooks are
+     * acknowledged once queued and the queue is drained to Kafka in batches.
+     */
+    public record Queue(
+            Boolean enabled,
+            @Positive Integer capacity,
+            @Positive Integer batchSize,
+            Duration retryAfter,
+            Duration drainTimeout
+    ) {
+        public Queue {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (capacity == null) {
+                capacity = 10_000;
+            }
+            if (batchSize == null) {
+                batchSize = 500;
+            }
+            if (retryAfter == null) {
+                retryAfter = Duration.ofSeconds(5);
+            }
+            if (drainTimeout == null) {
+                drainTimeout = Duration.ofSeconds(10);
+            }
+        }
+    }
+
+    /**
+     * Local write-ahead journal in front of Kafka. When enabled, webhooks are acknowledged once
+     * the event is fsynced to disk and a background drainer replays the journal to Kafka in order.
+     */
+    public record Outbox(
+            Boolean enabled,
+            String directory,
+            DataSize segmentSize,
+            Duration flushInterval,
+            @Positive Integer drainBatchSize,
+            Duration maxRetryBackoff
+    ) {
+        public Outbox {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (directory == null || directory.isBlank()) {
+                directory = "data/outbox";
+            }
+            if (segmentSize == null) {
+                segmentSize = DataSize.ofMegabytes(64);
+            }
+            if (flushInterval == null) {
+                flushInterval = Duration.ofMillis(10);
+            }
+            if (drainBatchSize == null) {
+                drainBatchSize = 100;
+            }
+            if (maxRetryBackoff == null) {
+                maxRetryBackoff = Duration.ofSeconds(30);
+            }
+        }
+
+        public int segmentBytes() {
+            return Math.toIntExact(segmentSize.toBytes());
+        }
+    }
+}
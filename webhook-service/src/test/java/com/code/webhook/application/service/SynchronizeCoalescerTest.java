@@ -0,0 +1,147 @@
+package com.code.webhook.application.service;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SynchronizeCoalescerTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(30);
+    private static final Duration MAX_HOLD = Duration.ofSeconds(90);
+
+    @Mock
+    private EventPublisher delegate;
+
+    private VirtualTimeScheduler scheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private SynchronizeCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = VirtualTimeScheduler.create();
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new SynchronizeCoalescer(
+                delegate, WINDOW, MAX_HOLD, new MetricsHelper(meterRegistry, "test"), scheduler);
+        coalescer.start();
+    }
+
+    @Test
+    void publish_opened_isForwardedImmediately() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(coalescer.publish(event(1, WebhookAction.OPENED, "sha1")))
+                .verifyComplete();
+
+        verify(delegate).publish(any());
+    }
+
+    @Test
+    void publish_synchronizeBurst_forwardsOnlyLatestAfterWindow() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+
+        // When
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha1")).block();
+        scheduler.advanceTimeBy(Duration.ofSeconds(10));
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha2")).block();
+        scheduler.advanceTimeBy(Duration.ofSeconds(10));
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha3")).block();
+
+        // Then: the window restarted on every push
+        scheduler.advanceTimeBy(Duration.ofSeconds(29));
+        verify(delegate, never()).publish(any());
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        ArgumentCaptor<PullRequestReceivedEvent> captor = ArgumentCaptor.forClass(PullRequestReceivedEvent.class);
+        verify(delegate).publish(captor.capture());
+        assertThat(captor.getValue().commitSha()).isEqualTo("sha3");
+        assertThat(meterRegistry.get("test.coalescing.superseded").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("test.coalescing.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void publish_continuousPushes_areReleasedAtMaxHold() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+
+        // When: a push every 20 seconds never lets the window expire
+        for (int i = 0; i < 6; i++) {
+            coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha" + i)).block();
+            scheduler.advanceTimeBy(Duration.ofSeconds(20));
+        }
+
+        // Then
+        ArgumentCaptor<PullRequestReceivedEvent> captor = ArgumentCaptor.forClass(PullRequestReceivedEvent.class);
+        verify(delegate, atLeastOnce()).publish(captor.capture());
+        assertThat(captor.getAllValues().get(0).commitSha()).isEqualTo("sha4");
+    }
+
+    @Test
+    void publish_differentPullRequests_areCoalescedSeparately() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+
+        // When
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "a")).block();
+        coalescer.publish(event(2, WebhookAction.SYNCHRONIZE, "b")).block();
+        scheduler.advanceTimeBy(WINDOW);
+
+        // Then
+        verify(delegate, times(2)).publish(any());
+    }
+
+    @Test
+    void stop_flushesHeldEvents() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha1")).block();
+
+        // When
+        coalescer.stop();
+
+        // Then
+        verify(delegate).publish(any());
+    }
+
+    @Test
+    void publish_failedForward_isCountedAndNotRetried() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.error(new IllegalStateException("kafka down")));
+
+        // When
+        coalescer.publish(event(1, WebhookAction.SYNCHRONIZE, "sha1")).block();
+        scheduler.advanceTimeBy(WINDOW);
+
+        // Then
+        verify(delegate).publish(any());
+        assertThat(meterRegistry.get("test.coalescing.publish.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    private static PullRequestReceivedEvent event(int number, WebhookAction action, String sha) {
+        return new PullRequestReceivedEvent(
+                "event-" + sha, "owner", "repo", number, action, "title", "author", sha,
+                Instant.now(), "correlation", "github", "",
+                null, null, null, null);
+    }
+}
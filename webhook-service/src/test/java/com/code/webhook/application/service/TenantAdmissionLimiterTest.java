@@ -0,0 +1,181 @@
+package com.code.webhook.application.service;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
+import com.code.platform.idempotency.IdempotencyProperties;
+import com.code.platform.idempotency.InMemoryIdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantAdmissionLimiterTest {
+
+    @Mock
+    private EventPublisher delegate;
+
+    private VirtualTimeScheduler scheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryIdempotencyStore deliveryStore;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = VirtualTimeScheduler.create();
+        meterRegistry = new SimpleMeterRegistry();
+        deliveryStore = new InMemoryIdempotencyStore(new IdempotencyProperties(null, null, null, null, null),
+                new MetricsHelper(meterRegistry, "test"));
+    }
+
+    @Test
+    void publish_withinLimits_forwardsImmediately() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.REJECT, Map.of());
+
+        // When & Then
+        StepVerifier.create(limiter.publish(event("acme", "api", "1")))
+                .verifyComplete();
+
+        verify(delegate).publish(any());
+    }
+
+    @Test
+    void publish_repositoryOverLimit_rejectsWithRetryAfter() {
+        // Given: 60 per minute, burst 2 per repository
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.REJECT, Map.of());
+        limiter.publish(event("acme", "monorepo", "1")).block();
+        limiter.publish(event("acme", "monorepo", "1")).block();
+
+        // When & Then
+        StepVerifier.create(limiter.publish(event("acme", "monorepo", "1")))
+                .expectErrorSatisfies(error -> {
+                    assertThat(error).isInstanceOf(IngestRejectedException.class);
+                    assertThat(((IngestRejectedException) error).getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+                })
+                .verify();
+
+        // Other repositories of the same installation are unaffected
+        StepVerifier.create(limiter.publish(event("acme", "other", "1")))
+                .verifyComplete();
+        assertThat(meterRegistry.get("test.admission.rejected").tag("scope", "repository").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void publish_installationOverLimit_rejectsAcrossRepositories() {
+        // Given: installation 7 is limited to a burst of 1
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.REJECT,
+                Map.of("7", new WebhookProperties.Limit(60, 1)));
+        limiter.publish(event("acme", "a", "7")).block();
+
+        // When & Then
+        StepVerifier.create(limiter.publish(event("acme", "b", "7")))
+                .expectError(IngestRejectedException.class)
+                .verify();
+
+        // The repository token taken before the installation check was refunded
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        StepVerifier.create(limiter.publish(event("acme", "b", "7")))
+                .verifyComplete();
+        assertThat(meterRegistry.get("test.admission.rejected").tag("scope", "installation").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void publish_deferMode_publishesWhenTokenAvailable() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.DEFER, Map.of());
+        limiter.publish(event("acme", "api", "1")).block();
+        limiter.publish(event("acme", "api", "1")).block();
+
+        // When
+        StepVerifier.create(limiter.publish(event("acme", "api", "1")))
+                .verifyComplete();
+
+        // Then
+        verify(delegate, times(2)).publish(any());
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        verify(delegate, times(3)).publish(any());
+        assertThat(meterRegistry.get("test.admission.deferred").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void publish_deferModePublishFails_releasesDelivery() {
+        // Given: the deferred event was acknowledged and its delivery marked processed
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.DEFER, Map.of());
+        limiter.publish(event("acme", "api", "1")).block();
+        limiter.publish(event("acme", "api", "1")).block();
+        when(delegate.publish(any())).thenReturn(Mono.error(new IllegalStateException("broker down")));
+        deliveryStore.tryStart("delivery-1");
+
+        StepVerifier.create(limiter.publish(event("acme", "api", "1"))
+                        .doOnSuccess(unused -> deliveryStore.markProcessed("delivery-1"))
+                        .contextWrite(Context.of(TenantAdmissionLimiter.DELIVERY_ID, "delivery-1")))
+                .verifyComplete();
+        assertThat(deliveryStore.tryStart("delivery-1")).isFalse();
+
+        // When
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        // Then: a redelivery is accepted again
+        assertThat(meterRegistry.get("test.admission.deferred.failed").counter().count()).isEqualTo(1.0);
+        assertThat(deliveryStore.tryStart("delivery-1")).isTrue();
+    }
+
+    @Test
+    void publish_deferModeBeyondMaxDefer_rejects() {
+        // Given: max defer of 5 seconds at one token per second
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        TenantAdmissionLimiter limiter = limiter(WebhookProperties.OverLimit.DEFER, Map.of());
+        for (int i = 0; i < 7; i++) {
+            limiter.publish(event("acme", "api", "1")).block();
+        }
+
+        // When & Then
+        StepVerifier.create(limiter.publish(event("acme", "api", "1")))
+                .expectError(IngestRejectedException.class)
+                .verify();
+    }
+
+    private TenantAdmissionLimiter limiter(WebhookProperties.OverLimit mode, Map<String, WebhookProperties.Limit> overrides) {
+        WebhookProperties.RateLimit config = new WebhookProperties.RateLimit(
+                true,
+                new WebhookProperties.Limit(600, 100),
+                new WebhookProperties.Limit(60, 2),
+                overrides,
+                mode,
+                Duration.ofSeconds(5));
+        return new TenantAdmissionLimiter(
+                delegate, deliveryStore, config, new MetricsHelper(meterRegistry, "test"), scheduler);
+    }
+
+    private static PullRequestReceivedEvent event(String owner, String repo, String installationId) {
+        return new PullRequestReceivedEvent(
+                "event", owner, repo, 1, WebhookAction.SYNCHRONIZE, "title", "author", "sha",
+                Instant.now(), "correlation", "github", installationId,
+                null, null, null, null);
+    }
+}
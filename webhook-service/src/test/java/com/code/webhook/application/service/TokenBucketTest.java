@@ -0,0 +1,96 @@
+package com.code.webhook.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryReserve_fullBucket_admitsBurstThenReportsWait() {
+        // Given: 1 token per second, burst of 3
+        TokenBucket bucket = new TokenBucket(1.0, 3, 0L);
+
+        // When & Then
+        assertThat(bucket.tryReserve(0L, 0L)).isZero();
+        assertThat(bucket.tryReserve(0L, 0L)).isZero();
+        assertThat(bucket.tryReserve(0L, 0L)).isZero();
+        assertThat(bucket.tryReserve(0L, 0L)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void tryReserve_afterIdle_refillsAtConfiguredRate() {
+        // Given
+        TokenBucket bucket = new TokenBucket(1.0, 2, 0L);
+        bucket.tryReserve(0L, 0L);
+        bucket.tryReserve(0L, 0L);
+
+        // When & Then: one token back after a second, not two
+        assertThat(bucket.tryReserve(SECOND, 0L)).isZero();
+        assertThat(bucket.tryReserve(SECOND, 0L)).isGreaterThan(0L);
+    }
+
+    @Test
+    void tryReserve_withinMaxWait_reservesFutureSlots() {
+        // Given
+        TokenBucket bucket = new TokenBucket(1.0, 1, 0L);
+        bucket.tryReserve(0L, 0L);
+
+        // When
+        long first = bucket.tryReserve(0L, 5 * SECOND);
+        long second = bucket.tryReserve(0L, 5 * SECOND);
+
+        // Then
+        assertThat(first).isEqualTo(SECOND);
+        assertThat(second).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void refund_returnsReservedToken() {
+        // Given
+        TokenBucket bucket = new TokenBucket(1.0, 1, 0L);
+        bucket.tryReserve(0L, 0L);
+
+        // When
+        bucket.refund();
+
+        // Then
+        assertThat(bucket.tryReserve(0L, 0L)).isZero();
+    }
+
+    @Test
+    void tryReserve_concurrentCallers_neverOverAdmit() throws InterruptedException {
+        // Given: time frozen, so exactly the burst may pass
+        TokenBucket bucket = new TokenBucket(0.001, 50, 0L);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    if (bucket.tryReserve(0L, 0L) == 0L) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(admitted.get()).isEqualTo(50);
+    }
+}
@@ -3,18 +3,29 @@ package com.code.webhook.application.service;
 import com.code.events.webhook.PullRequestReceivedEvent;
 import com.code.webhook.application.port.outbound.EventPublisher;
 import com.code.webhook.application.port.outbound.SignatureValidator;
+import com.code.webhook.application.port.outbound.SignatureVerification;
+import com.code.webhook.application.port.outbound.WebhookSecretResolver;
 import com.code.webhook.domain.model.WebhookValidationResult;
+import com.code.platform.idempotency.IdempotencyProperties;
+import com.code.platform.idempotency.InMemoryIdempotencyStore;
+import com.code.platform.metrics.MetricsHelper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -27,11 +38,24 @@ class WebhookServiceImplTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private SignatureVerification signatureVerification;
+
+    @Mock
+    private SignatureVerification fallbackVerification;
+
+    @Mock
+    private WebhookSecretResolver secretResolver;
+
+    private SimpleMeterRegistry meterRegistry;
     private WebhookServiceImpl webhookService;
 
     private static final String WEBHOOK_SECRET = "test-secret";
+    private static final String PREVIOUS_SECRET = "previous-secret";
+    private static final String HOOK_TARGET_ID = "12345";
     private static final String VALID_SIGNATURE = "sha256=abc123";
     private static final String DELIVERY_ID = "test-delivery-123";
+    private static final int MAX_PAYLOAD_BYTES = 4096;
 
     private static final String VALID_PAYLOAD = """
             {
@@ -60,11 +84,17 @@ class WebhookServiceImplTest {
     @BeforeEach
     void setUp() {
         ObjectMapper objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of(WEBHOOK_SECRET));
         webhookService = new WebhookServiceImpl(
                 signatureValidator,
                 eventPublisher,
                 objectMapper,
-                WEBHOOK_SECRET
+                secretResolver,
+                MAX_PAYLOAD_BYTES,
+                new MetricsHelper(meterRegistry, "test"),
+                new InMemoryIdempotencyStore(new IdempotencyProperties(null, null, null, null, null),
+                        new MetricsHelper(meterRegistry, "test"))
         );
     }
 
@@ -78,7 +108,7 @@ class WebhookServiceImplTest {
                 .thenReturn(Mono.empty());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         verify(signatureValidator).validate(payload, VALID_SIGNATURE, WEBHOOK_SECRET);
@@ -88,7 +118,7 @@ class WebhookServiceImplTest {
     @Test
     void receive_nullPayload_throwsException() {
         // When & Then
-        StepVerifier.create(webhookService.receive(null, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(null, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectErrorMatches(error ->
                         error instanceof WebhookServiceImpl.WebhookValidationException &&
                                 error.getMessage().contains("Payload cannot be null"))
@@ -104,7 +134,7 @@ class WebhookServiceImplTest {
         byte[] emptyPayload = new byte[0];
 
         // When & Then
-        StepVerifier.create(webhookService.receive(emptyPayload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(emptyPayload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectErrorMatches(error ->
                         error instanceof WebhookServiceImpl.WebhookValidationException &&
                                 error.getMessage().contains("Payload cannot be null or empty"))
@@ -122,7 +152,7 @@ class WebhookServiceImplTest {
                 .thenReturn(WebhookValidationResult.invalid("Signature mismatch"));
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectErrorMatches(error ->
                         error instanceof WebhookServiceImpl.WebhookValidationException &&
                                 error.getMessage().contains("Invalid signature"))
@@ -138,7 +168,7 @@ class WebhookServiceImplTest {
         byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, null, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, null, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectErrorMatches(error ->
                         error instanceof WebhookServiceImpl.WebhookValidationException &&
                                 error.getMessage().contains("Signature cannot be null"))
@@ -158,11 +188,11 @@ class WebhookServiceImplTest {
                 .thenReturn(Mono.empty());
 
         // First call - should succeed
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         // When & Then: Second call with same delivery ID - should skip
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         // Signature should be validated twice (early validation pattern)
@@ -179,7 +209,7 @@ class WebhookServiceImplTest {
                 .thenReturn(WebhookValidationResult.valid());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(invalidPayload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(invalidPayload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectErrorMatches(error ->
                         error instanceof WebhookServiceImpl.WebhookParseException &&
                                 error.getMessage().contains("Invalid webhook payload format"))
@@ -214,7 +244,7 @@ class WebhookServiceImplTest {
                 .thenReturn(WebhookValidationResult.valid());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         // Event should not be published for closed action
@@ -248,7 +278,7 @@ class WebhookServiceImplTest {
                 .thenReturn(Mono.empty());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         verify(eventPublisher).publish(any(PullRequestReceivedEvent.class));
@@ -281,7 +311,7 @@ class WebhookServiceImplTest {
                 .thenReturn(Mono.empty());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         verify(eventPublisher).publish(any(PullRequestReceivedEvent.class));
@@ -298,7 +328,7 @@ class WebhookServiceImplTest {
                 .thenReturn(Mono.error(publishError));
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .expectError(RuntimeException.class)
                 .verify();
 
@@ -330,7 +360,7 @@ class WebhookServiceImplTest {
                 .thenReturn(WebhookValidationResult.valid());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         verify(eventPublisher, never()).publish(any());
@@ -361,9 +391,182 @@ class WebhookServiceImplTest {
                 .thenReturn(WebhookValidationResult.valid());
 
         // When & Then
-        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID))
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
                 .verifyComplete();
 
         verify(eventPublisher, never()).publish(any());
     }
+
+    @Test
+    void receiveStream_validChunkedPayload_publishesEvent() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(signatureValidator.begin(WEBHOOK_SECRET)).thenReturn(signatureVerification);
+        when(signatureVerification.verify(VALID_SIGNATURE)).thenReturn(WebhookValidationResult.valid());
+        when(eventPublisher.publish(any(PullRequestReceivedEvent.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(webhookService.receiveStream(chunked(payload, 64), VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .verifyComplete();
+
+        verify(signatureVerification, atLeast(2)).update(any());
+        verify(signatureVerification).close();
+        verify(signatureValidator, never()).validate(any(), any(), any());
+        verify(eventPublisher).publish(any(PullRequestReceivedEvent.class));
+    }
+
+    @Test
+    void receiveStream_invalidSignature_throwsException() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(signatureValidator.begin(WEBHOOK_SECRET)).thenReturn(signatureVerification);
+        when(signatureVerification.verify(VALID_SIGNATURE))
+                .thenReturn(WebhookValidationResult.invalid("Signature mismatch"));
+
+        // When & Then
+        StepVerifier.create(webhookService.receiveStream(chunked(payload, 64), VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .expectError(WebhookServiceImpl.WebhookValidationException.class)
+                .verify();
+
+        verify(signatureVerification).close();
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void receiveStream_payloadOverLimit_rejectsBeforeVerification() {
+        // Given
+        byte[] payload = "x".repeat(MAX_PAYLOAD_BYTES + 1).getBytes(StandardCharsets.UTF_8);
+        when(signatureValidator.begin(WEBHOOK_SECRET)).thenReturn(signatureVerification);
+
+        // When & Then
+        StepVerifier.create(webhookService.receiveStream(chunked(payload, 1024), VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .expectError(WebhookServiceImpl.WebhookPayloadTooLargeException.class)
+                .verify();
+
+        verify(signatureVerification, never()).verify(any());
+        verify(signatureVerification).close();
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void receiveStream_nullSignature_throwsException() {
+        // When & Then
+        StepVerifier.create(webhookService.receiveStream(Flux.empty(), null, DELIVERY_ID, HOOK_TARGET_ID))
+                .expectError(WebhookServiceImpl.WebhookValidationException.class)
+                .verify();
+
+        verify(signatureValidator, never()).begin(any());
+    }
+
+    @Test
+    void receive_rotatedSecret_fallsBackToPreviousSecret() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of(WEBHOOK_SECRET, PREVIOUS_SECRET));
+        when(signatureValidator.validate(payload, VALID_SIGNATURE, WEBHOOK_SECRET))
+                .thenReturn(WebhookValidationResult.mismatch());
+        when(signatureValidator.validate(payload, VALID_SIGNATURE, PREVIOUS_SECRET))
+                .thenReturn(WebhookValidationResult.valid());
+        when(eventPublisher.publish(any(PullRequestReceivedEvent.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .verifyComplete();
+
+        verify(secretResolver).recordMatch(HOOK_TARGET_ID, PREVIOUS_SECRET);
+        verify(eventPublisher).publish(any(PullRequestReceivedEvent.class));
+        assertThat(meterRegistry.get("test.signature.secret.fallback").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("test.signature.verification")
+                .tags("result", "valid", "mode", "buffered").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void receive_primarySecretMatches_doesNotHashOtherCandidates() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of(WEBHOOK_SECRET, PREVIOUS_SECRET));
+        when(signatureValidator.validate(payload, VALID_SIGNATURE, WEBHOOK_SECRET))
+                .thenReturn(WebhookValidationResult.valid());
+        when(eventPublisher.publish(any(PullRequestReceivedEvent.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .verifyComplete();
+
+        verify(signatureValidator, never()).validate(payload, VALID_SIGNATURE, PREVIOUS_SECRET);
+        verify(secretResolver, never()).recordMatch(any(), any());
+    }
+
+    @Test
+    void receive_malformedSignature_doesNotTryOtherSecrets() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of(WEBHOOK_SECRET, PREVIOUS_SECRET));
+        when(signatureValidator.validate(payload, VALID_SIGNATURE, WEBHOOK_SECRET))
+                .thenReturn(WebhookValidationResult.invalid("Invalid signature format"));
+
+        // When & Then
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .expectError(WebhookServiceImpl.WebhookValidationException.class)
+                .verify();
+
+        verify(signatureValidator, never()).validate(payload, VALID_SIGNATURE, PREVIOUS_SECRET);
+        assertThat(meterRegistry.get("test.signature.verification")
+                .tags("result", "invalid", "mode", "buffered").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void receive_noSecretConfigured_throwsException() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of());
+
+        // When & Then
+        StepVerifier.create(webhookService.receive(payload, VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .expectErrorMatches(error ->
+                        error instanceof WebhookServiceImpl.WebhookValidationException &&
+                                error.getMessage().contains("No webhook secret configured"))
+                .verify();
+
+        verify(signatureValidator, never()).validate(any(), any(), any());
+    }
+
+    @Test
+    void receiveStream_rotatedSecret_rehashesJoinedPayloadOnlyAfterMismatch() {
+        // Given
+        byte[] payload = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(secretResolver.resolve(HOOK_TARGET_ID)).thenReturn(List.of(WEBHOOK_SECRET, PREVIOUS_SECRET));
+        when(signatureValidator.begin(WEBHOOK_SECRET)).thenReturn(signatureVerification);
+        when(signatureValidator.begin(PREVIOUS_SECRET)).thenReturn(fallbackVerification);
+        when(signatureVerification.verify(VALID_SIGNATURE)).thenReturn(WebhookValidationResult.mismatch());
+        when(fallbackVerification.verify(VALID_SIGNATURE)).thenReturn(WebhookValidationResult.valid());
+        when(eventPublisher.publish(any(PullRequestReceivedEvent.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(webhookService.receiveStream(chunked(payload, 64), VALID_SIGNATURE, DELIVERY_ID, HOOK_TARGET_ID))
+                .verifyComplete();
+
+        verify(fallbackVerification, atLeastOnce()).update(any());
+        verify(fallbackVerification).close();
+        verify(signatureVerification).close();
+        verify(secretResolver).recordMatch(HOOK_TARGET_ID, PREVIOUS_SECRET);
+        verify(eventPublisher).publish(any(PullRequestReceivedEvent.class));
+        assertThat(meterRegistry.get("test.signature.verification")
+                .tags("result", "valid", "mode", "streaming").timer().count()).isEqualTo(1);
+    }
+
+    private Flux<DataBuffer> chunked(byte[] payload, int chunkSize) {
+        return Flux.range(0, (payload.length + chunkSize - 1) / chunkSize)
+                .map(i -> {
+                    int from = i * chunkSize;
+                    int length = Math.min(chunkSize, payload.length - from);
+                    byte[] chunk = new byte[length];
+                    System.arraycopy(payload, from, chunk, 0, length);
+                    return DefaultDataBufferFactory.sharedInstance.wrap(chunk);
+                });
+    }
 }
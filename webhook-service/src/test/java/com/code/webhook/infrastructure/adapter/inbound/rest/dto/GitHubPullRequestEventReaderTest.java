@@ -0,0 +1,145 @@
+package com.code.webhook.infrastructure.adapter.inbound.rest.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubPullRequestEventReaderTest {
+
+    private static final Set<String> REVIEWED_ACTIONS = Set.of("opened", "synchronize", "reopened");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String FULL_PAYLOAD = """
+            {
+                "action": "opened",
+                "number": 123,
+                "sender": {"login": "someone", "id": 1, "site_admin": false},
+                "repository": {
+                    "id": 42,
+                    "owner": {"login": "test-owner", "id": 7, "type": "User"},
+                    "name": "test-repo",
+                    "topics": ["a", "b"],
+                    "license": null
+                },
+                "pull_request": {
+                    "number": 123,
+                    "title": "Test PR",
+                    "user": {"login": "test-user", "id": 9},
+                    "labels": [{"name": "bug", "color": "f00"}],
+                    "head": {"ref": "feature", "sha": "abc123def456", "repo": {"name": "test-repo"}},
+                    "base": {"ref": "main", "sha": "000"},
+                    "html_url": "https://github.com/test/pr/123",
+                    "diff_url": "https://github.com/test/pr/123.diff",
+                    "draft": false,
+                    "additions": 120,
+                    "deletions": 30,
+                    "changed_files": 4
+                },
+                "installation": {"id": 98765, "node_id": "MDIz"}
+            }
+            """;
+
+    @Test
+    void read_reviewedAction_matchesDatabind() throws IOException {
+        // When
+        GitHubPullRequestEventDto streamed = read(FULL_PAYLOAD);
+
+        // Then
+        assertThat(streamed).isEqualTo(objectMapper.readValue(FULL_PAYLOAD, GitHubPullRequestEventDto.class));
+        assertThat(streamed.pullRequest().head().sha()).isEqualTo("abc123def456");
+        assertThat(streamed.installation().id()).isEqualTo(98765L);
+        assertThat(streamed.pullRequest().additions()).isEqualTo(120);
+        assertThat(streamed.pullRequest().changedFiles()).isEqualTo(4);
+        assertThat(streamed.pullRequest().draft()).isFalse();
+    }
+
+    @Test
+    void read_ignoredAction_stopsAfterAction() throws IOException {
+        // Given: everything after the action is malformed and must never be reached
+        String payload = "{\"action\": \"labeled\", \"number\": 123, \"repository\": {broken";
+
+        // When
+        GitHubPullRequestEventDto result = read(payload);
+
+        // Then
+        assertThat(result.action()).isEqualTo("labeled");
+        assertThat(result.number()).isNull();
+        assertThat(result.repository()).isNull();
+    }
+
+    @Test
+    void read_missingAndNullSections_returnsNulls() throws IOException {
+        // Given
+        String payload = "{\"action\": \"opened\", \"number\": null, \"pull_request\": {\"user\": null}}";
+
+        // When
+        GitHubPullRequestEventDto result = read(payload);
+
+        // Then
+        assertThat(result.number()).isNull();
+        assertThat(result.repository()).isNull();
+        assertThat(result.installation()).isNull();
+        assertThat(result.pullRequest().user()).isNull();
+        assertThat(result.pullRequest().head()).isNull();
+    }
+
+    @Test
+    void read_numericStrings_areCoercedLikeDatabind() throws IOException {
+        // Given
+        String payload = "{\"action\": \"opened\", \"number\": \"77\", \"installation\": {\"id\": \"5\"}}";
+
+        // When
+        GitHubPullRequestEventDto result = read(payload);
+
+        // Then
+        assertThat(result.number()).isEqualTo(77);
+        assertThat(result.installation().id()).isEqualTo(5L);
+    }
+
+    @Test
+    void read_truncatedReviewedPayload_throws() {
+        // Given
+        String payload = "{\"action\": \"opened\", \"number\": 123, \"repository\": {\"name\": \"x\"";
+
+        // When & Then
+        assertThatThrownBy(() -> read(payload)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void read_objectWhereTextExpected_throws() {
+        // Given
+        String payload = "{\"action\": \"opened\", \"pull_request\": {\"title\": {\"nested\": true}}}";
+
+        // When & Then
+        assertThatThrownBy(() -> read(payload)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void read_nonBooleanDraft_throws() {
+        // Given
+        String payload = "{\"action\": \"opened\", \"pull_request\": {\"draft\": \"yes\"}}";
+
+        // When & Then
+        assertThatThrownBy(() -> read(payload)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void read_nonObjectRoot_throws() {
+        // When & Then
+        assertThatThrownBy(() -> read("[1, 2]")).isInstanceOf(JsonProcessingException.class);
+    }
+
+    private GitHubPullRequestEventDto read(String payload) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            return GitHubPullRequestEventReader.read(parser, REVIEWED_ACTIONS::contains);
+        }
+    }
+}
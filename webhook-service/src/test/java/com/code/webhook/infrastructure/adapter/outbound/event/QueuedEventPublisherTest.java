@@ -0,0 +1,213 @@
+package com.code.webhook.infrastructure.adapter.outbound.event;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.domain.exception.IngestRejectedException;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaProducerException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueuedEventPublisherTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(7);
+
+    @Mock
+    private EventPublisher delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueuedEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null && publisher.isRunning()) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void publish_queuedEvent_completesBeforeDelegateAndIsDrained() {
+        // Given
+        Sinks.Empty<Void> kafkaAck = Sinks.empty();
+        when(delegate.publish(any())).thenReturn(kafkaAck.asMono());
+        publisher = started(10, 5);
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("1")))
+                .verifyComplete();
+
+        verify(delegate, timeout(2_000)).publish(any());
+        kafkaAck.tryEmitEmpty();
+    }
+
+    @Test
+    void publish_queueFull_rejectsWithRetryAfter() {
+        // Given: the drainer is stuck on the first event, so two more fill the queue
+        when(delegate.publish(any())).thenReturn(Mono.never());
+        publisher = started(2, 1);
+        publisher.publish(event("1")).block();
+        verify(delegate, timeout(2_000)).publish(any());
+        publisher.publish(event("2")).block();
+        publisher.publish(event("3")).block();
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("4")))
+                .expectErrorSatisfies(error -> {
+                    assertThat(error).isInstanceOf(IngestRejectedException.class);
+                    IngestRejectedException rejected = (IngestRejectedException) error;
+                    assertThat(rejected.getRetryAfter()).isEqualTo(RETRY_AFTER);
+                    assertThat(rejected.isBrokerUnavailable()).isFalse();
+                })
+                .verify();
+
+        assertThat(meterRegistry.get("test.ingest.queue.shed").tag("reason", "full").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("test.ingest.queue.depth").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void publish_delegateFails_retriesUntilPublished() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.publish(any())).thenAnswer(invocation -> attempts.incrementAndGet() < 3
+                ? Mono.error(new IllegalStateException("broker down"))
+                : Mono.empty());
+        publisher = started(10, 5);
+
+        // When
+        publisher.publish(event("1")).block();
+
+        // Then
+        verify(delegate, timeout(5_000).times(3)).publish(any());
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                assertThat(meterRegistry.get("test.ingest.queue.published").counter().count()).isEqualTo(1.0));
+    }
+
+    @Test
+    void publish_delegateFailsPermanently_dropsEventAndDrainsTheRest() {
+        // Given: the first event is too large for the broker, the second goes through
+        when(delegate.publish(any())).thenAnswer(invocation ->
+                "1".equals(invocation.<PullRequestReceivedEvent>getArgument(0).eventId())
+                        ? Mono.error(new KafkaProducerException(null, "send failed",
+                                new RecordTooLargeException("too large")))
+                        : Mono.empty());
+        publisher = started(10, 1);
+
+        // When
+        publisher.publish(event("1")).block();
+        publisher.publish(event("2")).block();
+
+        // Then: the dropped event is not retried and does not hold up the next one
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                assertThat(meterRegistry.get("test.ingest.queue.published").counter().count()).isEqualTo(1.0));
+        verify(delegate, times(2)).publish(any());
+        assertThat(meterRegistry.get("test.ingest.queue.dropped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void publish_delegateTimesOut_retriesEvent() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.publish(any())).thenAnswer(invocation -> attempts.incrementAndGet() < 2
+                ? Mono.error(new KafkaProducerException(null, "send failed", new TimeoutException("no leader")))
+                : Mono.empty());
+        publisher = started(10, 5);
+
+        // When
+        publisher.publish(event("1")).block();
+
+        // Then
+        verify(delegate, timeout(5_000).times(2)).publish(any());
+        assertThat(meterRegistry.find("test.ingest.queue.dropped").counter()).isNull();
+    }
+
+    @Test
+    void publish_whileBrokerFailing_reportsBrokerUnavailable() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.error(new IllegalStateException("broker down")));
+        publisher = started(1, 1);
+        publisher.publish(event("1")).block();
+        verify(delegate, timeout(2_000).atLeast(2)).publish(any());
+        publisher.publish(event("2")).block();
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("3")))
+                .expectErrorSatisfies(error ->
+                        assertThat(((IngestRejectedException) error).isBrokerUnavailable()).isTrue())
+                .verify();
+    }
+
+    @Test
+    void publish_notStarted_rejects() {
+        // Given
+        publisher = new QueuedEventPublisher(delegate, config(10, 5), new MetricsHelper(meterRegistry, "test"));
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("1")))
+                .expectError(IngestRejectedException.class)
+                .verify();
+
+        verify(delegate, never()).publish(any());
+    }
+
+    @Test
+    void stop_drainsQueuedEvents() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        publisher = started(10, 2);
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(event(String.valueOf(i))).block();
+        }
+
+        // When
+        publisher.stop();
+
+        // Then
+        verify(delegate, times(5)).publish(any());
+    }
+
+    private QueuedEventPublisher started(int capacity, int batchSize) {
+        QueuedEventPublisher started = new QueuedEventPublisher(
+                delegate, config(capacity, batchSize), new MetricsHelper(meterRegistry, "test"));
+        started.start();
+        return started;
+    }
+
+    private static WebhookProperties.Queue config(int capacity, int batchSize) {
+        return new WebhookProperties.Queue(true, capacity, batchSize, RETRY_AFTER, Duration.ofSeconds(1));
+    }
+
+    private static PullRequestReceivedEvent event(String id) {
+        return new PullRequestReceivedEvent(
+                id, "owner", "repo", 1, WebhookAction.OPENED, "title", "author", "sha",
+                Instant.now(), "correlation", "github", "",
+                null, null, null, null);
+    }
+}
@@ -0,0 +1,158 @@
+package com.code.webhook.infrastructure.adapter.outbound.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedJournalTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_beforeFlush_returnsNothing() throws IOException {
+        // Given
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+        journal.append(bytes("first"));
+
+        // When & Then
+        assertThat(journal.read(0, 10)).isEmpty();
+        journal.flush();
+        assertThat(journal.read(0, 10)).extracting(entry -> text(entry.payload())).containsExactly("first");
+    }
+
+    @Test
+    void append_pastSegmentEnd_rollsToNextSegmentInOrder() throws IOException {
+        // Given: ~70 byte records, so only three fit a 256 byte segment
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+        for (int i = 0; i < 10; i++) {
+            journal.append(bytes("record-" + i + "-" + "x".repeat(55)));
+        }
+        journal.flush();
+
+        // When
+        List<MappedJournal.Entry> entries = journal.read(0, 100);
+
+        // Then
+        assertThat(entries).hasSize(10);
+        assertThat(text(entries.get(9).payload())).startsWith("record-9-");
+        assertThat(segmentFiles()).hasSize(4);
+    }
+
+    @Test
+    void append_recordExactlyFillingSegment_nextRecordStartsNewSegment() throws IOException {
+        // Given
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+        journal.append(new byte[SEGMENT_BYTES - MappedJournal.HEADER_BYTES]);
+
+        // When
+        journal.append(bytes("next"));
+        journal.flush();
+
+        // Then
+        List<MappedJournal.Entry> entries = journal.read(0, 10);
+        assertThat(entries).hasSize(2);
+        assertThat(text(entries.get(1).payload())).isEqualTo("next");
+    }
+
+    @Test
+    void checkpoint_deletesDrainedSegmentsAndSurvivesReopen() throws IOException {
+        // Given
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+        for (int i = 0; i < 10; i++) {
+            journal.append(bytes("record-" + i + "-" + "x".repeat(55)));
+        }
+        journal.flush();
+        List<MappedJournal.Entry> entries = journal.read(0, 100);
+
+        // When
+        journal.checkpoint(entries.get(6).endPosition(), 7);
+        journal.close();
+        MappedJournal reopened = MappedJournal.open(directory, SEGMENT_BYTES);
+
+        // Then
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(reopened.pendingRecords()).isEqualTo(3);
+        assertThat(reopened.read(reopened.checkpointPosition(), 100))
+                .extracting(entry -> text(entry.payload()).substring(0, 8))
+                .containsExactly("record-7", "record-8", "record-9");
+    }
+
+    @Test
+    void open_withTornTail_keepsIntactRecordsAndOverwritesTail() throws IOException {
+        // Given
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+        journal.append(bytes("intact"));
+        long tornAt = journal.append(bytes("torn-record"));
+        journal.close();
+        corruptByte(segmentFiles().get(0), (int) tornAt - 1);
+
+        // When
+        MappedJournal reopened = MappedJournal.open(directory, SEGMENT_BYTES);
+        reopened.append(bytes("after-restart"));
+        reopened.flush();
+
+        // Then
+        assertThat(reopened.read(0, 10))
+                .extracting(entry -> text(entry.payload()))
+                .containsExactly("intact", "after-restart");
+    }
+
+    @Test
+    void open_withDifferentSegmentSize_fails() throws IOException {
+        // Given
+        MappedJournal.open(directory, SEGMENT_BYTES).close();
+
+        // When & Then
+        assertThatThrownBy(() -> MappedJournal.open(directory, SEGMENT_BYTES * 2))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void append_recordLargerThanSegment_isRejected() throws IOException {
+        // Given
+        MappedJournal journal = MappedJournal.open(directory, SEGMENT_BYTES);
+
+        // When & Then
+        assertThatThrownBy(() -> journal.append(new byte[SEGMENT_BYTES]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static void corruptByte(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer single = ByteBuffer.allocate(1);
+            channel.read(single, position);
+            single.flip();
+            single.put(0, (byte) (single.get(0) ^ 0x5A));
+            channel.write(single, position);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
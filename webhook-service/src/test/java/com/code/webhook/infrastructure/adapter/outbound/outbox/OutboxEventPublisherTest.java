@@ -0,0 +1,161 @@
+package com.code.webhook.infrastructure.adapter.outbound.outbox;
+
+import com.code.events.webhook.PullRequestReceivedEvent;
+import com.code.events.webhook.WebhookAction;
+import com.code.platform.metrics.MetricsHelper;
+import com.code.webhook.application.port.outbound.EventPublisher;
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private EventPublisher delegate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null && publisher.isRunning()) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void publish_acknowledgesAfterFsyncAndDrainsToDelegate() {
+        // Given
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        publisher = started();
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("1")))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        ArgumentCaptor<PullRequestReceivedEvent> captor = ArgumentCaptor.forClass(PullRequestReceivedEvent.class);
+        verify(delegate, timeout(2_000)).publish(captor.capture());
+        assertThat(captor.getValue().eventId()).isEqualTo("1");
+    }
+
+    @Test
+    void drain_delegateFailing_retriesInOrderWithoutSkipping() throws InterruptedException {
+        // Given: the first two sends fail, and the first one waits until both events are journaled
+        CountDownLatch bothJournaled = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        when(delegate.publish(any())).thenAnswer(invocation -> {
+            sent.add(invocation.<PullRequestReceivedEvent>getArgument(0).eventId());
+            int attempt = sent.size();
+            if (attempt == 1) {
+                bothJournaled.await(2, TimeUnit.SECONDS);
+            }
+            return attempt <= 2 ? Mono.error(new IllegalStateException("broker down")) : Mono.empty();
+        });
+        publisher = started();
+
+        // When
+        publisher.publish(event("1")).block(Duration.ofSeconds(2));
+        publisher.publish(event("2")).block(Duration.ofSeconds(2));
+        bothJournaled.countDown();
+
+        // Then: event 2 is never sent ahead of, or alongside, a failed event 1
+        await().ignoreExceptions().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(meterRegistry.get("test.outbox.drain.published").counter().count()).isEqualTo(2.0));
+        verify(delegate, after(300).times(4)).publish(any());
+        assertThat(sent).containsExactly("1", "1", "1", "2");
+    }
+
+    @Test
+    void restart_replaysOnlyUndrainedEvents() {
+        // Given: the first run journals two events while Kafka is unavailable
+        when(delegate.publish(any())).thenReturn(Mono.error(new IllegalStateException("broker down")));
+        publisher = started();
+        publisher.publish(event("1")).block(Duration.ofSeconds(2));
+        publisher.publish(event("2")).block(Duration.ofSeconds(2));
+        verify(delegate, timeout(2_000).atLeastOnce()).publish(any());
+        publisher.stop();
+
+        // When: the second run sees a healthy broker
+        reset(delegate);
+        when(delegate.publish(any())).thenReturn(Mono.empty());
+        publisher = started();
+
+        // Then
+        ArgumentCaptor<PullRequestReceivedEvent> captor = ArgumentCaptor.forClass(PullRequestReceivedEvent.class);
+        verify(delegate, timeout(2_000).times(2)).publish(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PullRequestReceivedEvent::eventId).containsExactly("1", "2");
+
+        // And a third run has nothing left to send
+        publisher.stop();
+        reset(delegate);
+        publisher = started();
+        verify(delegate, after(300).never()).publish(any());
+        assertThat(meterRegistry.get("test.outbox.drain.lag.records").gauge().value()).isZero();
+    }
+
+    @Test
+    void publish_notStarted_fails() {
+        // Given
+        publisher = new OutboxEventPublisher(delegate, objectMapper, config(), new MetricsHelper(meterRegistry, "test"));
+
+        // When & Then
+        StepVerifier.create(publisher.publish(event("1")))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    private OutboxEventPublisher started() {
+        meterRegistry = new SimpleMeterRegistry();
+        OutboxEventPublisher started = new OutboxEventPublisher(
+                delegate, objectMapper, config(), new MetricsHelper(meterRegistry, "test"));
+        started.start();
+        return started;
+    }
+
+    private WebhookProperties.Outbox config() {
+        return new WebhookProperties.Outbox(
+                true, directory.toString(), DataSize.ofKilobytes(64), Duration.ofMillis(5), 10, Duration.ofMillis(400));
+    }
+
+    private static PullRequestReceivedEvent event(String id) {
+        return new PullRequestReceivedEvent(
+                id, "owner", "repo", 1, WebhookAction.OPENED, "title", "author", "sha",
+                Instant.now(), "correlation", "github", "",
+                null, null, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.code.webhook.infrastructure.adapter.outbound.security;
+
+import com.code.webhook.infrastructure.config.WebhookProperties;
+import com.code.webhook.infrastructure.config.WebhookProperties.TargetSecrets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfiguredWebhookSecretResolverTest {
+
+    private static final String APP_ID = "987654";
+
+    private ConfiguredWebhookSecretResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        WebhookProperties properties = new WebhookProperties(
+                "default-secret",
+                List.of("default-old"),
+                Map.of(APP_ID, new TargetSecrets("app-secret", List.of("app-old", "app-older"))),
+                null,
+                null,
+                null
+        );
+        resolver = new ConfiguredWebhookSecretResolver(properties);
+    }
+
+    @Test
+    void resolve_configuredTarget_returnsTargetSecretsCurrentFirst() {
+        // When
+        List<String> candidates = resolver.resolve(APP_ID);
+
+        // Then
+        assertThat(candidates).containsExactly("app-secret", "app-old", "app-older");
+    }
+
+    @Test
+    void resolve_unknownOrMissingTarget_returnsDefaultSecrets() {
+        // When & Then
+        assertThat(resolver.resolve("unknown")).containsExactly("default-secret", "default-old");
+        assertThat(resolver.resolve(null)).containsExactly("default-secret", "default-old");
+    }
+
+    @Test
+    void recordMatch_previousSecret_isTriedFirstAfterwards() {
+        // When
+        resolver.recordMatch(APP_ID, "app-older");
+
+        // Then
+        assertThat(resolver.resolve(APP_ID)).containsExactly("app-older", "app-secret", "app-old");
+        assertThat(resolver.resolve(null)).containsExactly("default-secret", "default-old");
+    }
+
+    @Test
+    void recordMatch_currentSecretAgain_restoresConfiguredOrder() {
+        // Given
+        resolver.recordMatch(APP_ID, "app-old");
+
+        // When
+        resolver.recordMatch(APP_ID, "app-secret");
+
+        // Then
+        assertThat(resolver.resolve(APP_ID)).containsExactly("app-secret", "app-old", "app-older");
+    }
+
+    @Test
+    void recordMatch_secretNotConfiguredForTarget_isIgnored() {
+        // When
+        resolver.recordMatch(APP_ID, "default-old");
+
+        // Then
+        assertThat(resolver.resolve(APP_ID)).containsExactly("app-secret", "app-old", "app-older");
+    }
+
+    @Test
+    void resolve_blankAndDuplicatePreviousSecrets_areDropped() {
+        // Given
+        WebhookProperties properties = new WebhookProperties(
+                "secret", List.of("", "secret", "old"), null, null, null, null);
+
+        // When
+        List<String> candidates = new ConfiguredWebhookSecretResolver(properties).resolve(null);
+
+        // Then
+        assertThat(candidates).containsExactly("secret", "old");
+    }
+}
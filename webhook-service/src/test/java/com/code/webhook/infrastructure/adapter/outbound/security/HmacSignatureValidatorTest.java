@@ -1,12 +1,16 @@
 package com.code.webhook.infrastructure.adapter.outbound.security;
 
+import com.code.webhook.application.port.outbound.SignatureVerification;
 import com.code.webhook.domain.model.WebhookValidationResult;
+import com.code.platform.metrics.MetricsHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -14,13 +18,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 class HmacSignatureValidatorTest {
 
     private HmacSignatureValidator validator;
+    private SimpleMeterRegistry meterRegistry;
 
     private static final String TEST_SECRET = "test-secret-key";
     private static final String TEST_PAYLOAD = "{\"action\":\"opened\",\"number\":123}";
 
     @BeforeEach
     void setUp() {
-        validator = new HmacSignatureValidator();
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new HmacSignatureValidator(new MetricsHelper(meterRegistry, "test"));
     }
 
     @Test
@@ -49,6 +55,7 @@ class HmacSignatureValidatorTest {
 
         // Then
         assertThat(result.isValid()).isFalse();
+        assertThat(result.isMismatch()).isTrue();
         assertThat(result.failureReason()).contains("Signature mismatch");
     }
 
@@ -246,6 +253,119 @@ class HmacSignatureValidatorTest {
         assertThat(result.failureReason()).isNotNull();
     }
 
+    @Test
+    void begin_chunkedPayload_matchesWholePayloadSignature() {
+        // Given
+        byte[] payload = "x".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        String signature = calculateExpectedSignature(payload, TEST_SECRET);
+
+        // When
+        WebhookValidationResult result;
+        try (SignatureVerification verification = validator.begin(TEST_SECRET)) {
+            for (int offset = 0; offset < payload.length; offset += 1024) {
+                verification.update(ByteBuffer.wrap(payload, offset, Math.min(1024, payload.length - offset)));
+            }
+            result = verification.verify(signature);
+        }
+
+        // Then
+        assertThat(result.isValid()).isTrue();
+    }
+
+    @Test
+    void begin_directBufferChunks_returnsValid() {
+        // Given
+        byte[] payload = TEST_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String signature = calculateExpectedSignature(payload, TEST_SECRET);
+        ByteBuffer direct = ByteBuffer.allocateDirect(payload.length).put(payload).flip();
+
+        // When
+        WebhookValidationResult result;
+        try (SignatureVerification verification = validator.begin(TEST_SECRET)) {
+            verification.update(direct);
+            result = verification.verify(signature);
+        }
+
+        // Then
+        assertThat(result.isValid()).isTrue();
+    }
+
+    @Test
+    void begin_malformedSignature_returnsInvalid() {
+        // When
+        WebhookValidationResult result;
+        try (SignatureVerification verification = validator.begin(TEST_SECRET)) {
+            verification.update(ByteBuffer.wrap(TEST_PAYLOAD.getBytes(StandardCharsets.UTF_8)));
+            result = verification.verify("abc123");
+        }
+
+        // Then
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.failureReason()).contains("missing 'sha256=' prefix");
+    }
+
+    @Test
+    void validate_repeatedCallsWithPooledMac_doNotLeakStateBetweenPayloads() {
+        // Given: pooled MACs must be reset between deliveries
+        byte[] first = "first payload".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second payload".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertThat(validator.validate(first, calculateExpectedSignature(first, TEST_SECRET), TEST_SECRET).isValid())
+                    .isTrue();
+            assertThat(validator.validate(second, calculateExpectedSignature(first, TEST_SECRET), TEST_SECRET).isValid())
+                    .isFalse();
+            assertThat(validator.validate(second, calculateExpectedSignature(second, TEST_SECRET), TEST_SECRET).isValid())
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void validate_abandonedStreamingVerification_doesNotAffectNextValidation() {
+        // Given: a verification closed mid-stream returns a partially fed MAC to the pool
+        try (SignatureVerification verification = validator.begin(TEST_SECRET)) {
+            verification.update(ByteBuffer.wrap("partial".getBytes(StandardCharsets.UTF_8)));
+        }
+        byte[] payload = TEST_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        WebhookValidationResult result = validator.validate(
+                payload, calculateExpectedSignature(payload, TEST_SECRET), TEST_SECRET);
+
+        // Then
+        assertThat(result.isValid()).isTrue();
+    }
+
+    @Test
+    void validate_malformedSignature_isNotReportedAsMismatch() {
+        // Given: only a digest mismatch is worth retrying with another secret
+        byte[] payload = TEST_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        WebhookValidationResult result = validator.validate(payload, "sha1=abcd", TEST_SECRET);
+
+        // Then
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.isMismatch()).isFalse();
+    }
+
+    @Test
+    void validate_repeatedSecret_reusesCachedKeyMaterial() {
+        // Given
+        byte[] payload = TEST_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String signature = calculateExpectedSignature(payload, TEST_SECRET);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            validator.validate(payload, signature, TEST_SECRET);
+        }
+
+        // Then: one miss to key the pool, every later call is a hit
+        assertThat(meterRegistry.get("test.signature.key.cache.hit.ratio").gauge().value()).isEqualTo(0.75);
+        assertThat(meterRegistry.get("test.signature.key.cache.size").gauge().value()).isEqualTo(1.0);
+    }
+
     private String calculateExpectedSignature(byte[] payload, String secret) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");